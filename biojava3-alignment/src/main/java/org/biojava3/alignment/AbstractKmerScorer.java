@@ -0,0 +1,131 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava3.alignment;
+
+import org.biojava3.alignment.routines.KmerIndex;
+import org.biojava3.alignment.template.AbstractScorer;
+import org.biojava3.alignment.template.PairwiseSequenceScorer;
+import org.biojava3.core.sequence.template.Compound;
+import org.biojava3.core.sequence.template.Sequence;
+
+/**
+ * Implements common code for algorithms which score a sequence pair without alignment by counting the words of a
+ * few {@link Compound}s found in both sequences.  Subclasses decide which words count as found and out of how many.
+ * Sequences too short to hold a word score as a match if they are identical and as a mismatch otherwise.
+ *
+ * @param <S> each {@link Sequence} of the pair is of type S
+ * @param <C> each element of a {@link Sequence} is a {@link Compound} of type C
+ */
+public abstract class AbstractKmerScorer<S extends Sequence<C>, C extends Compound> extends AbstractScorer
+        implements PairwiseSequenceScorer<S, C> {
+
+    // always stored
+    private S query, target;
+    private int max, score = -1;
+
+    // optional cached input fields
+    private KmerIndex<C> queryIndex, targetIndex;
+
+    /**
+     * Prepares to score a pair of sequences from their indices.
+     *
+     * @param query the first {@link Sequence} of the pair to score
+     * @param target the second {@link Sequence} of the pair to score
+     * @param queryIndex index of the first {@link Sequence}
+     * @param targetIndex index of the second {@link Sequence}
+     */
+    protected AbstractKmerScorer(S query, S target, KmerIndex<C> queryIndex, KmerIndex<C> targetIndex) {
+        this.query = query;
+        this.target = target;
+        this.queryIndex = queryIndex;
+        this.targetIndex = targetIndex;
+    }
+
+    // methods for PairwiseSequenceScorer
+
+    @Override
+    public S getQuery() {
+        return query;
+    }
+
+    @Override
+    public S getTarget() {
+        return target;
+    }
+
+    // methods for Scorer
+
+    @Override
+    public int getMaxScore() {
+        if (score < 0) {
+            count();
+        }
+        return max;
+    }
+
+    @Override
+    public int getMinScore() {
+        return 0;
+    }
+
+    @Override
+    public int getScore() {
+        if (score < 0) {
+            count();
+        }
+        return score;
+    }
+
+    // methods for subclasses
+
+    /**
+     * Returns the number of words a score is counted out of.
+     *
+     * @param queryIndex index of the first {@link Sequence}
+     * @param targetIndex index of the second {@link Sequence}
+     * @return the maximum score
+     */
+    protected abstract int getWordCount(KmerIndex<C> queryIndex, KmerIndex<C> targetIndex);
+
+    /**
+     * Returns the number of words found in both {@link Sequence}s.
+     *
+     * @param queryIndex index of the first {@link Sequence}
+     * @param targetIndex index of the second {@link Sequence}
+     * @return the score
+     */
+    protected abstract int getMatchCount(KmerIndex<C> queryIndex, KmerIndex<C> targetIndex);
+
+    // helper method for initialization from the indices
+    private void count() {
+        max = getWordCount(queryIndex, targetIndex);
+        if (max > 0) {
+            score = getMatchCount(queryIndex, targetIndex);
+        } else {
+            // no words to count, so compare the whole sequences; the range is still needed for distance
+            max = 1;
+            score = query.getAsList().equals(target.getAsList()) ? 1 : 0;
+        }
+        queryIndex = targetIndex = null;
+    }
+
+}
@@ -26,8 +26,12 @@ package org.biojava3.alignment;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 
+import org.biojava3.alignment.routines.BandedNeedlemanWunsch;
+import org.biojava3.alignment.routines.KmerIndex;
+import org.biojava3.alignment.routines.XDropSmithWaterman;
 import org.biojava3.alignment.template.*;
 import org.biojava3.core.sequence.compound.AmbiguityDNACompoundSet;
 import org.biojava3.core.sequence.compound.AminoAcidCompoundSet;
@@ -53,6 +57,15 @@ public class Alignments {
         SIMILARITIES
     }
 
+    /**
+     * List of implemented hierarchical clustering routines for guide trees.
+     */
+    public static enum HierarchicalClustererType {
+        NEIGHBOR_JOINING,       // forester's neighbor joining, similar to CLUSTALW and CLUSTALW2
+        UPGMA,                  // similar to MUSCLE and KALIGN
+        RAPID_NEIGHBOR_JOINING  // neighbor joining with the search pruned by sorted rows, similar to RapidNJ
+    }
+
     /**
      * List of implemented pairwise sequence alignment routines.
      */
@@ -60,7 +73,10 @@ public class Alignments {
         GLOBAL,              // Needleman-Wunsch/Gotoh
         GLOBAL_LINEAR_SPACE, // Myers-Miller/Thompson
         LOCAL,               // Smith-Waterman/Gotoh
-        LOCAL_LINEAR_SPACE   // Smith-Waterman/Gotoh with smart traceback at each maximum
+        LOCAL_LINEAR_SPACE,  // Smith-Waterman/Gotoh with smart traceback at each maximum
+        LOCAL_STRIPED,       // Smith-Waterman/Gotoh with Farrar's striped score, similar to SSEARCH and SWIPE
+        GLOBAL_BANDED,       // Needleman-Wunsch/Gotoh restricted to a band of diagonals
+        LOCAL_X_DROP         // seed and extend with X-drop and Z-drop, similar to BLAST and minimap2
     }
 
     /**
@@ -101,6 +117,16 @@ public class Alignments {
         RESCORE_SIMILARITIES
     }
 
+    /**
+     * List of timed stages of a multiple sequence alignment.
+     */
+    public static enum MultipleAlignmentStage {
+        PAIRWISE_SCORING,    // stage 1: pairwise similarity calculation
+        GUIDE_TREE,          // stage 2: hierarchical clustering into a guide tree
+        PROGRESSIVE,         // stage 3: progressive alignment
+        REFINEMENT           // stage 4: refinement
+    }
+
     // prevents instantiation
     private Alignments() { }
 
@@ -127,6 +153,11 @@ public class Alignments {
 
     /**
      * Factory method which computes a multiple sequence alignment for the given {@link List} of {@link Sequence}s.
+     * Unless an {@link ExecutorService} is given in the settings, the alignment runs in the shared thread pool of the
+     * {@link ConcurrencyTools} utility.  If a {@link MultipleAlignmentTimer} is given, it receives the time of each
+     * {@link MultipleAlignmentStage}.  The alignment is refined only if a partition {@link RefinerType} is given,
+     * within the passes and time of a {@link RefinementBudget} if one is given.  Rescore refinement is not yet
+     * implemented.
      *
      * @param <S> each {@link Sequence} of the {@link List} is of type S
      * @param <C> each element of a {@link Sequence} is a {@link Compound} of type C
@@ -134,6 +165,7 @@ public class Alignments {
      * @param type chosen type from list of multiple sequence alignment routines
      * @param settings optional settings that adjust the alignment
      * @return multiple sequence alignment {@link Profile}
+     * @throws UnsupportedOperationException if a rescore {@link RefinerType} is given
      */
     public static <S extends Sequence<C>, C extends Compound> Profile<S, C> getMultipleSequenceAlignment(
             List<S> sequences, Object... settings) { // TODO convert other factories to this parameter style?
@@ -150,7 +182,12 @@ public class Alignments {
             SubstitutionMatrix<C> temp = (SubstitutionMatrix<C>) SubstitutionMatrixHelper.getNuc4_4();
             subMatrix = temp;
         } 
+        HierarchicalClustererType hc = HierarchicalClustererType.NEIGHBOR_JOINING;
         ProfileProfileAlignerType pa = ProfileProfileAlignerType.GLOBAL;
+        RefinerType rt = null;
+        RefinementBudget budget = new RefinementBudget();
+        ExecutorService executor = null;
+        MultipleAlignmentTimer timer = new MultipleAlignmentTimer();
         for (Object o : settings) {
             if (o instanceof PairwiseSequenceScorerType) {
                 ps = (PairwiseSequenceScorerType) o;
@@ -164,23 +201,51 @@ public class Alignments {
                 @SuppressWarnings("unchecked") // compound types must be equal since compound sets are equal
                 SubstitutionMatrix<C> temp = (SubstitutionMatrix<C>) o;
                 subMatrix = temp;
+            } else if (o instanceof HierarchicalClustererType) {
+                hc = (HierarchicalClustererType) o;
             } else if (o instanceof ProfileProfileAlignerType) {
                 pa = (ProfileProfileAlignerType) o;
+            } else if (o instanceof RefinerType) {
+                rt = (RefinerType) o;
+            } else if (o instanceof RefinementBudget) {
+                budget = (RefinementBudget) o;
+            } else if (o instanceof ExecutorService) {
+                executor = (ExecutorService) o;
+            } else if (o instanceof MultipleAlignmentTimer) {
+                timer = (MultipleAlignmentTimer) o;
             }
         }
 
+        if (rt != null && !PartitionRefinementScheduler.isPartition(rt)) {
+            throw new UnsupportedOperationException("Refinement " + rt + " is not implemented, use a partition refiner");
+        }
+
         // stage 1: pairwise similarity calculation
+        long time = System.nanoTime();
         List<PairwiseSequenceScorer<S, C>> scorers = getAllPairsScorers(sequences, ps, gapPenalty, subMatrix);
-        runPairwiseScorers(scorers);
+        runPairwiseScorers(scorers, executor);
+        time = timer.setTime(MultipleAlignmentStage.PAIRWISE_SCORING, time);
+
+        // later stages submit their tasks as earlier ones complete, so they need the pool itself
+        if (executor == null) {
+            executor = ConcurrencyTools.getThreadPool();
+        }
 
         // stage 2: hierarchical clustering into a guide tree
-        GuideTree<S, C> tree = new GuideTree<S, C>(sequences, scorers);
+        GuideTree<S, C> tree = new GuideTree<S, C>(sequences, scorers, hc, executor);
         scorers = null;
+        time = timer.setTime(MultipleAlignmentStage.GUIDE_TREE, time);
 
         // stage 3: progressive alignment
-        Profile<S, C> msa = getProgressiveAlignment(tree, pa, gapPenalty, subMatrix);
-
-        // TODO stage 4: refinement
+        Profile<S, C> msa = getProgressiveAlignment(tree, pa, gapPenalty, subMatrix, executor);
+        time = timer.setTime(MultipleAlignmentStage.PROGRESSIVE, time);
+
+        // stage 4: refinement
+        if (msa != null && rt != null) {
+            msa = new PartitionRefinementScheduler<S, C>(executor, rt, pa, gapPenalty, subMatrix, budget).refine(msa,
+                    tree);
+            timer.setTime(MultipleAlignmentStage.REFINEMENT, time);
+        }
         return msa;
     }
 
@@ -242,6 +307,23 @@ public class Alignments {
             List<S> sequences, PairwiseSequenceScorerType type, GapPenalty gapPenalty,
             SubstitutionMatrix<C> subMatrix) {
         List<PairwiseSequenceScorer<S, C>> allPairs = new ArrayList<PairwiseSequenceScorer<S, C>>();
+        if (type == PairwiseSequenceScorerType.KMERS || type == PairwiseSequenceScorerType.WU_MANBER) {
+            // index each sequence once for all of its pairs
+            boolean approximate = (type == PairwiseSequenceScorerType.WU_MANBER);
+            int wordLength = sequences.isEmpty() ? 1 : KmerIndex.getDefaultWordLength(sequences.get(0), approximate);
+            List<KmerIndex<C>> indices = new ArrayList<KmerIndex<C>>();
+            for (S s : sequences) {
+                indices.add(new KmerIndex<C>(s, wordLength, approximate));
+            }
+            for (int i = 0; i < sequences.size(); i++) {
+                for (int j = i+1; j < sequences.size(); j++) {
+                    allPairs.add(approximate ? new WuManberScorer<S, C>(sequences.get(i), sequences.get(j),
+                            indices.get(i), indices.get(j)) : new KmerScorer<S, C>(sequences.get(i),
+                            sequences.get(j), indices.get(i), indices.get(j)));
+                }
+            }
+            return allPairs;
+        }
         for (int i = 0; i < sequences.size(); i++) {
             for (int j = i+1; j < sequences.size(); j++) {
                 allPairs.add(getPairwiseScorer(sequences.get(i), sequences.get(j), type, gapPenalty, subMatrix));
@@ -311,6 +393,12 @@ public class Alignments {
             return new NeedlemanWunsch<S, C>(query, target, gapPenalty, subMatrix);
         case LOCAL:
             return new SmithWaterman<S, C>(query, target, gapPenalty, subMatrix);
+        case LOCAL_STRIPED:
+            return new StripedSmithWaterman<S, C>(query, target, gapPenalty, subMatrix);
+        case GLOBAL_BANDED:
+            return new BandedNeedlemanWunsch<S, C>(query, target, gapPenalty, subMatrix);
+        case LOCAL_X_DROP:
+            return new XDropSmithWaterman<S, C>(query, target, gapPenalty, subMatrix);
         case GLOBAL_LINEAR_SPACE:
         case LOCAL_LINEAR_SPACE:
             // TODO other alignment options (Myers-Miller, Thompson)
@@ -355,23 +443,17 @@ public class Alignments {
         case GLOBAL:
             return getPairwiseAligner(query, target, PairwiseSequenceAlignerType.GLOBAL, gapPenalty, subMatrix);
         case GLOBAL_IDENTITIES:
-            return new FractionalIdentityScorer<S, C>(getPairwiseAligner(query, target,
-                    PairwiseSequenceAlignerType.GLOBAL, gapPenalty, subMatrix));
         case GLOBAL_SIMILARITIES:
-            return new FractionalSimilarityScorer<S, C>(getPairwiseAligner(query, target,
-                    PairwiseSequenceAlignerType.GLOBAL, gapPenalty, subMatrix));
-        case LOCAL:
-            return getPairwiseAligner(query, target, PairwiseSequenceAlignerType.LOCAL, gapPenalty, subMatrix);
         case LOCAL_IDENTITIES:
-            return new FractionalIdentityScorer<S, C>(getPairwiseAligner(query, target,
-                    PairwiseSequenceAlignerType.LOCAL, gapPenalty, subMatrix));
         case LOCAL_SIMILARITIES:
-            return new FractionalSimilarityScorer<S, C>(getPairwiseAligner(query, target,
-                    PairwiseSequenceAlignerType.LOCAL, gapPenalty, subMatrix));
+            // counts in linear space without building each alignment
+            return new LinearSpaceFractionalScorer<S, C>(query, target, type, gapPenalty, subMatrix);
+        case LOCAL:
+            return getPairwiseAligner(query, target, PairwiseSequenceAlignerType.LOCAL, gapPenalty, subMatrix);
         case KMERS:
+            return new KmerScorer<S, C>(query, target);
         case WU_MANBER:
-            // TODO other scoring options
-            return null;
+            return new WuManberScorer<S, C>(query, target);
         }
     }
 
@@ -524,43 +606,28 @@ public class Alignments {
      */
     static <S extends Sequence<C>, C extends Compound> Profile<S, C> getProgressiveAlignment(GuideTree<S, C> tree,
             ProfileProfileAlignerType type, GapPenalty gapPenalty, SubstitutionMatrix<C> subMatrix) {
+        return getProgressiveAlignment(tree, type, gapPenalty, subMatrix, ConcurrencyTools.getThreadPool());
+    }
 
-        // find inner nodes in post-order traversal of tree (each leaf node has a single sequence profile)
-        List<GuideTreeNode<S, C>> innerNodes = new ArrayList<GuideTreeNode<S, C>>();
-        for (GuideTreeNode<S, C> n : tree) {
-            if (n.getProfile() == null) {
-                innerNodes.add(n);
-            }
-        }
-
-        // submit alignment tasks to the shared thread pool
-        int i = 1, all = innerNodes.size();
-        for (GuideTreeNode<S, C> n : innerNodes) {
-            Profile<S, C> p1 = n.getChild1().getProfile(), p2 = n.getChild2().getProfile();
-            Future<ProfilePair<S, C>> pf1 = n.getChild1().getProfileFuture(), pf2 = n.getChild2().getProfileFuture();
-            ProfileProfileAligner<S, C> aligner =
-                    (p1 != null) ? ((p2 != null) ? getProfileProfileAligner(p1, p2, type, gapPenalty, subMatrix) :
-                            getProfileProfileAligner(p1, pf2, type, gapPenalty, subMatrix)) :
-                    ((p2 != null) ? getProfileProfileAligner(pf1, p2, type, gapPenalty, subMatrix) :
-                            getProfileProfileAligner(pf1, pf2, type, gapPenalty, subMatrix));
-            n.setProfileFuture(ConcurrencyTools.submit(new CallableProfileProfileAligner<S, C>(aligner), String.format(
-                    "Aligning pair %d of %d", i++, all)));
-        }
-
-        // retrieve the alignment results
-        for (GuideTreeNode<S, C> n : innerNodes) {
-            // TODO when added to ConcurrencyTools, log completions and exceptions instead of printing stack traces
-            try {
-                n.setProfile(n.getProfileFuture().get());
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            } catch (ExecutionException e) {
-                e.printStackTrace();
-            }
-        }
-
+    /**
+     * Factory method to run the profile-profile alignments of a progressive multiple sequence alignment concurrently.
+     * This method submits the alignment of each node of the tree to the given {@link ExecutorService} once both of
+     * its children are aligned, so no task waits on another and any number of threads suffices.
+     *
+     * @param <S> each {@link Sequence} of the {@link Profile} pair is of type S
+     * @param <C> each element of an {@link AlignedSequence} is a {@link Compound} of type C
+     * @param tree guide tree to follow aligning profiles from leaves to root
+     * @param type chosen type from list of profile-profile alignment routines
+     * @param gapPenalty the gap penalties used during alignment
+     * @param subMatrix the set of substitution scores used during alignment
+     * @param executor runs each profile-profile alignment
+     * @return multiple sequence alignment
+     */
+    static <S extends Sequence<C>, C extends Compound> Profile<S, C> getProgressiveAlignment(GuideTree<S, C> tree,
+            ProfileProfileAlignerType type, GapPenalty gapPenalty, SubstitutionMatrix<C> subMatrix,
+            ExecutorService executor) {
         // the alignment profile at the root of the tree is the full multiple sequence alignment
-        return tree.getRoot().getProfile();
+        return new ProgressiveAlignmentScheduler<S, C>(executor, type, gapPenalty, subMatrix).align(tree);
     }
 
     /**
@@ -594,11 +661,27 @@ public class Alignments {
      */
     static <S extends Sequence<C>, C extends Compound> int[] runPairwiseScorers(
             List<PairwiseSequenceScorer<S, C>> scorers) {
+        return runPairwiseScorers(scorers, null);
+    }
+
+    /**
+     * Factory method to run a list of scorers concurrently in the given {@link ExecutorService}, or through the
+     * {@link ConcurrencyTools} utility if none is given.
+     *
+     * @param <S> each {@link Sequence} of an alignment pair is of type S
+     * @param <C> each element of an {@link AlignedSequence} is a {@link Compound} of type C
+     * @param scorers list of scorers to run
+     * @param executor runs each scorer, or null to submit them to the shared thread pool
+     * @return list of score results from running scorers
+     */
+    static <S extends Sequence<C>, C extends Compound> int[] runPairwiseScorers(
+            List<PairwiseSequenceScorer<S, C>> scorers, ExecutorService executor) {
         int n = 1, all = scorers.size();
         List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
         for (PairwiseSequenceScorer<S, C> scorer : scorers) {
-            futures.add(ConcurrencyTools.submit(new CallablePairwiseSequenceScorer<S, C>(scorer),
-                    String.format("Scoring pair %d of %d", n++, all)));
+            CallablePairwiseSequenceScorer<S, C> task = new CallablePairwiseSequenceScorer<S, C>(scorer);
+            futures.add((executor == null) ? ConcurrencyTools.submit(task, String.format("Scoring pair %d of %d",
+                    n++, all)) : executor.submit(task));
         }
         List<Integer> results = getListFromFutures(futures);
         int[] scores = new int[results.size()];
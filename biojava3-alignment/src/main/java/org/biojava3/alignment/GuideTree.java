@@ -29,10 +29,13 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Stack;
 import java.util.Vector;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import javax.swing.tree.TreeNode;
 
+import org.biojava3.alignment.Alignments.HierarchicalClustererType;
 import org.biojava3.alignment.template.GuideTreeNode;
+import org.biojava3.alignment.template.HierarchicalClusterer;
 import org.biojava3.alignment.template.PairwiseSequenceScorer;
 import org.biojava3.alignment.template.Profile;
 import org.biojava3.alignment.template.ProfilePair;
@@ -59,18 +62,41 @@ public class GuideTree<S extends Sequence<C>, C extends Compound> implements Ite
     private List<S> sequences;
     private List<PairwiseSequenceScorer<S, C>> scorers;
     private BasicSymmetricalDistanceMatrix distances;
+    private HierarchicalClusterer<S, C> clusterer;
     private String newick;
     private Node root;
 
     /**
-     * Creates a guide tree for use during progressive multiple sequence alignment.
+     * Creates a guide tree for use during progressive multiple sequence alignment.  The tree is built by the neighbor
+     * joining of forester.
      *
      * @param sequences the {@link List} of {@link Sequence}s to align
      * @param scorers list of sequence pair scorers, one for each pair of sequences given
      */
     public GuideTree(List<S> sequences, List<PairwiseSequenceScorer<S, C>> scorers) {
+        this(sequences, scorers, HierarchicalClustererType.NEIGHBOR_JOINING, null);
+    }
+
+    /**
+     * Creates a guide tree for use during progressive multiple sequence alignment.
+     *
+     * @param sequences the {@link List} of {@link Sequence}s to align
+     * @param scorers list of sequence pair scorers, one for each pair of sequences given
+     * @param type chosen type from list of hierarchical clustering routines
+     * @param executor runs helper tasks of the clustering; may be null
+     */
+    public GuideTree(List<S> sequences, List<PairwiseSequenceScorer<S, C>> scorers, HierarchicalClustererType type,
+            ExecutorService executor) {
         this.sequences = Collections.unmodifiableList(sequences);
         this.scorers = Collections.unmodifiableList(scorers);
+        if (type != HierarchicalClustererType.NEIGHBOR_JOINING) {
+            clusterer = new SimpleHierarchicalClusterer<S, C>(sequences, scorers, type, executor);
+            root = new Node(clusterer.getRoot(), null);
+            StringBuilder s = new StringBuilder();
+            root.appendNewick(s);
+            newick = s.toString();
+            return;
+        }
         distances = new BasicSymmetricalDistanceMatrix(sequences.size());
         for (int i = 0, n = 0; i < sequences.size(); i++) {
             AccessionID id = sequences.get(i).getAccession();
@@ -80,7 +106,6 @@ public class GuideTree<S extends Sequence<C>, C extends Compound> implements Ite
                 distances.setValue(i, j, scorer.getDistance());
             }
         }
-        // TODO UPGMA and other hierarchical clustering routines
         Phylogeny phylogeny = NeighborJoining.createInstance().execute(distances);
         newick = phylogeny.toString();
         root = new Node(phylogeny.getRoot(), null);
@@ -106,6 +131,16 @@ public class GuideTree<S extends Sequence<C>, C extends Compound> implements Ite
      * @return the distance matrix used to construct this guide tree
      */
     public double[][] getDistanceMatrix() {
+        if (distances == null) {
+            float[][] values = clusterer.getDistanceMatrix();
+            double[][] matrix = new double[values.length][values.length];
+            for (int i = 0; i < matrix.length; i++) {
+                for (int j = 0; j < matrix.length; j++) {
+                    matrix[i][j] = values[i][j];
+                }
+            }
+            return matrix;
+        }
         double[][] matrix = new double[distances.getSize()][distances.getSize()];
         for (int i = 0; i < matrix.length; i++) {
             for (int j = i+1; j < matrix.length; j++) {
@@ -190,6 +225,18 @@ public class GuideTree<S extends Sequence<C>, C extends Compound> implements Ite
             }
         }
 
+        private Node(GuideTreeNode<S, C> node, Node parent) {
+            this.parent = parent;
+            distance = node.getDistanceToParent();
+            name = node.getName();
+            if(isLeaf = node.isLeaf()) {
+                profile = node.getProfile();
+            } else {
+                child1 = new Node(node.getChild1(), this);
+                child2 = new Node(node.getChild2(), this);
+            }
+        }
+
         // methods for GuideTreeNode
 
         @Override
@@ -279,6 +326,23 @@ public class GuideTree<S extends Sequence<C>, C extends Compound> implements Ite
             return isLeaf;
         }
 
+        // helper method for toString
+
+        private void appendNewick(StringBuilder s) {
+            if (isLeaf()) {
+                s.append(name);
+            } else {
+                s.append('(');
+                ((Node) getChild1()).appendNewick(s);
+                s.append(',');
+                ((Node) getChild2()).appendNewick(s);
+                s.append(')');
+            }
+            if (parent != null) {
+                s.append(':').append(distance);
+            }
+        }
+
         // helper methods for iterator
 
         private void clearVisited() {
@@ -0,0 +1,298 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava3.alignment;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.biojava3.alignment.Alignments.PairwiseSequenceScorerType;
+import org.biojava3.alignment.template.AbstractScorer;
+import org.biojava3.alignment.template.GapPenalty;
+import org.biojava3.alignment.template.PairwiseSequenceScorer;
+import org.biojava3.alignment.template.SubstitutionMatrix;
+import org.biojava3.core.sequence.compound.AminoAcidCompound;
+import org.biojava3.core.sequence.template.Compound;
+import org.biojava3.core.sequence.template.Sequence;
+
+/**
+ * Implements an algorithm which computes the same fractional scores as {@link FractionalIdentityScorer} and
+ * {@link FractionalSimilarityScorer} without building the alignment.  Each cell of the dynamic programming holds
+ * the alignment score, the number of identical or similar {@link Compound}s and the alignment length of the path
+ * ending there, packed into a long, so only two rows of cells are kept and neither a traceback nor a
+ * {@link SimpleSequencePair} is created.  Memory is linear in the length of the target, so all pairs of thousands
+ * of {@link Sequence}s are scored without a score matrix per pair.
+ *
+ * Where several alignments reach the best score, each cell carries the path the traceback of {@link NeedlemanWunsch}
+ * or {@link SmithWaterman} would follow: each step is chosen by score alone with the same preference among equal
+ * scores as {@link org.biojava3.alignment.routines.AlignerHelper}, and a local alignment ends at the first best cell
+ * in row order.  So the counted alignment is the one those aligners return, as long as their scores fit in a short.
+ *
+ * @param <S> each {@link Sequence} of the pair is of type S
+ * @param <C> each element of a {@link Sequence} is a {@link Compound} of type C
+ */
+public class LinearSpaceFractionalScorer<S extends Sequence<C>, C extends Compound> extends AbstractScorer
+        implements PairwiseSequenceScorer<S, C> {
+
+    // packing of a cell: score in the highest bits, then count, then the length subtracted from its largest value
+    private static final int SHIFT_SCORE = 42, SHIFT_COUNT = 21;
+    private static final long MASK = (1L << SHIFT_COUNT) - 1, LOW = (1L << SHIFT_SCORE) - 1, ZERO = MASK,
+            NONE = Long.MIN_VALUE / 2;
+
+    // always stored
+    private S query, target;
+    private int max, score = -1, alignmentScore;
+
+    // cached input fields
+    private GapPenalty gapPenalty;
+    private SubstitutionMatrix<C> subMatrix;
+    private boolean local, similarities;
+
+    /**
+     * Creates a linear space scorer for a pair of sequences.
+     *
+     * @param query the first {@link Sequence} of the pair to score
+     * @param target the second {@link Sequence} of the pair to score
+     * @param type one of the scoring routines which count identities or similarities
+     * @param gapPenalty the gap penalties used during alignment
+     * @param subMatrix the set of substitution scores used during alignment
+     * @throws IllegalArgumentException if the type counts neither identities nor similarities, or the
+     *     {@link Sequence}s are too long to pack the alignment length
+     */
+    public LinearSpaceFractionalScorer(S query, S target, PairwiseSequenceScorerType type, GapPenalty gapPenalty,
+            SubstitutionMatrix<C> subMatrix) {
+        switch (type) {
+        case GLOBAL_IDENTITIES:
+            break;
+        case GLOBAL_SIMILARITIES:
+            similarities = true;
+            break;
+        case LOCAL_IDENTITIES:
+            local = true;
+            break;
+        case LOCAL_SIMILARITIES:
+            local = similarities = true;
+            break;
+        default:
+            throw new IllegalArgumentException("Scorer type counts neither identities nor similarities: " + type);
+        }
+        if ((long) query.getLength() + target.getLength() >= MASK) {
+            throw new IllegalArgumentException("Sequences too long to score in linear space");
+        }
+        this.query = query;
+        this.target = target;
+        this.gapPenalty = gapPenalty;
+        this.subMatrix = subMatrix;
+    }
+
+    /**
+     * Returns the score of the alignment whose {@link Compound}s are counted.
+     *
+     * @return the alignment score
+     */
+    public int getAlignmentScore() {
+        if (score < 0) {
+            align();
+        }
+        return alignmentScore;
+    }
+
+    // methods for PairwiseSequenceScorer
+
+    @Override
+    public S getQuery() {
+        return query;
+    }
+
+    @Override
+    public S getTarget() {
+        return target;
+    }
+
+    // methods for Scorer
+
+    @Override
+    public int getMaxScore() {
+        if (score < 0) {
+            align();
+        }
+        return max;
+    }
+
+    @Override
+    public int getMinScore() {
+        return 0;
+    }
+
+    @Override
+    public int getScore() {
+        if (score < 0) {
+            align();
+        }
+        return score;
+    }
+
+    // helper methods
+
+    // fills two rows of packed cells and unpacks the best cell
+    private void align() {
+        // look up steps once for each pair of distinct compounds
+        Map<C, Integer> indices = new HashMap<C, Integer>();
+        List<C> compounds = new ArrayList<C>();
+        int[] q = encode(query, indices, compounds), t = encode(target, indices, compounds);
+        int n = compounds.size();
+        long[] steps = new long[n * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                C c1 = compounds.get(i), c2 = compounds.get(j);
+                steps[i * n + j] = ((long) subMatrix.getValue(c1, c2) << SHIFT_SCORE) +
+                        ((isCounted(c1, c2) ? 1L : 0L) << SHIFT_COUNT) - 1;
+            }
+        }
+
+        long ext = ((long) gapPenalty.getExtensionPenalty() << SHIFT_SCORE) - 1,
+                openExt = ((long) (gapPenalty.getOpenPenalty() + gapPenalty.getExtensionPenalty()) << SHIFT_SCORE) - 1;
+        long best = (gapPenalty.getType() == GapPenalty.Type.LINEAR) ? alignLinear(q, t, steps, n, ext) :
+                alignAffine(q, t, steps, n, ext, openExt, (long) gapPenalty.getOpenPenalty() << SHIFT_SCORE);
+        alignmentScore = (int) (best >> SHIFT_SCORE);
+        score = (int) ((best >> SHIFT_COUNT) & MASK);
+        max = (int) (MASK - (best & MASK));
+    }
+
+    // scores with one state per cell, choosing each step as AlignerHelper does for a linear gap penalty
+    private long alignLinear(int[] q, int[] t, long[] steps, int n, long ext) {
+        long[] previous = new long[t.length + 1], current = new long[t.length + 1];
+        long best = ZERO;
+        previous[0] = ZERO;
+        for (int y = 1; y <= t.length; y++) {
+            previous[y] = local ? ZERO : previous[y - 1] + ext;
+        }
+        for (int x = 1; x <= q.length; x++) {
+            current[0] = local ? ZERO : previous[0] + ext;
+            int row = q[x - 1] * n;
+            for (int y = 1; y <= t.length; y++) {
+                long d = previous[y] + ext, s = previous[y - 1] + steps[row + t[y - 1]], i = current[y - 1] + ext;
+                long cell = (isAtLeast(d, s) && isAtLeast(d, i)) ? d : (isAtLeast(s, i) ? s : i);
+                if (local) {
+                    cell = clamp(cell);
+                    // the traceback leaves the first best cell by a substitution, whichever step was chosen
+                    if ((cell >> SHIFT_SCORE) > (best >> SHIFT_SCORE)) {
+                        best = (cell & ~LOW) | (s & LOW);
+                    }
+                }
+                current[y] = cell;
+            }
+            long[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return local ? best : previous[t.length];
+    }
+
+    // scores with substitution, deletion and insertion states per cell, choosing each step as AlignerHelper does
+    private long alignAffine(int[] q, int[] t, long[] steps, int n, long ext, long openExt, long open) {
+        long[] s0 = new long[t.length + 1], d0 = new long[t.length + 1], i0 = new long[t.length + 1],
+                s1 = new long[t.length + 1], d1 = new long[t.length + 1], i1 = new long[t.length + 1];
+        long best = ZERO;
+        s0[0] = ZERO;
+        d0[0] = i0[0] = local ? ZERO : ZERO + open;
+        for (int y = 1; y <= t.length; y++) {
+            s0[y] = d0[y] = local ? ZERO : NONE;
+            i0[y] = local ? ZERO : i0[y - 1] + ext;
+        }
+        for (int x = 1; x <= q.length; x++) {
+            s1[0] = i1[0] = local ? ZERO : NONE;
+            d1[0] = local ? ZERO : d0[0] + ext;
+            int row = q[x - 1] * n;
+            for (int y = 1; y <= t.length; y++) {
+                long s = ((isAtLeast(d0[y - 1], s0[y - 1]) && isAtLeast(d0[y - 1], i0[y - 1])) ? d0[y - 1] :
+                        (isAtLeast(s0[y - 1], i0[y - 1]) ? s0[y - 1] : i0[y - 1])) + steps[row + t[y - 1]];
+                long d = isAtLeast(d0[y] + ext, s0[y] + openExt) ? d0[y] + ext : s0[y] + openExt;
+                long i = isAtLeast(s1[y - 1] + openExt, i1[y - 1] + ext) ? s1[y - 1] + openExt : i1[y - 1] + ext;
+                if (local) {
+                    s = clamp(s);
+                    d = clamp(d);
+                    i = clamp(i);
+                    if ((s >> SHIFT_SCORE) > (best >> SHIFT_SCORE)) {
+                        best = s;
+                    }
+                }
+                s1[y] = s;
+                d1[y] = d;
+                i1[y] = i;
+            }
+            long[] swap = s0;
+            s0 = s1;
+            s1 = swap;
+            swap = d0;
+            d0 = d1;
+            d1 = swap;
+            swap = i0;
+            i0 = i1;
+            i1 = swap;
+        }
+        if (local) {
+            return best;
+        }
+        long s = s0[t.length], d = d0[t.length], i = i0[t.length];
+        return ((d >> SHIFT_SCORE) > (s >> SHIFT_SCORE) && (d >> SHIFT_SCORE) > (i >> SHIFT_SCORE)) ? d :
+                (((s >> SHIFT_SCORE) > (i >> SHIFT_SCORE)) ? s : i);
+    }
+
+    // compares the scores of two cells only, so the tie-break of AlignerHelper is kept
+    private static boolean isAtLeast(long cell1, long cell2) {
+        return (cell1 >> SHIFT_SCORE) >= (cell2 >> SHIFT_SCORE);
+    }
+
+    // starts a local alignment anew where the score is not positive
+    private static long clamp(long cell) {
+        return (cell >> SHIFT_SCORE) <= 0 ? ZERO : cell;
+    }
+
+    // counts compounds as SimpleSequencePair does
+    private boolean isCounted(C c1, C c2) {
+        if (!similarities) {
+            return c1.equalsIgnoreCase(c2);
+        } else if (c1 instanceof AminoAcidCompound && c2 instanceof AminoAcidCompound) {
+            return SimpleProfile.matrix.getValue((AminoAcidCompound) c1, (AminoAcidCompound) c2) > 0;
+        }
+        return query.getCompoundSet().compoundsEquivalent(c1, c2);
+    }
+
+    // returns the sequence as indices into the list of distinct compounds
+    private static <C extends Compound> int[] encode(Sequence<C> sequence, Map<C, Integer> indices,
+            List<C> compounds) {
+        int[] codes = new int[sequence.getLength()];
+        int i = 0;
+        for (C c : sequence) {
+            Integer index = indices.get(c);
+            if (index == null) {
+                indices.put(c, index = compounds.size());
+                compounds.add(c);
+            }
+            codes[i++] = index;
+        }
+        return codes;
+    }
+
+}
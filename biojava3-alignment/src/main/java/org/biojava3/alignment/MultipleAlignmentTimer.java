@@ -0,0 +1,78 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava3.alignment;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.biojava3.alignment.Alignments.MultipleAlignmentStage;
+
+/**
+ * Records the computation time of each {@link MultipleAlignmentStage} when passed among the settings of
+ * {@link Alignments#getMultipleSequenceAlignment(java.util.List, Object...)}.
+ */
+public class MultipleAlignmentTimer {
+
+    private final Map<MultipleAlignmentStage, Long> times =
+            new EnumMap<MultipleAlignmentStage, Long>(MultipleAlignmentStage.class);
+
+    /**
+     * Returns the computation time of the given stage in nanoseconds.
+     *
+     * @param stage stage of a multiple sequence alignment
+     * @return the computation time in nanoseconds, or 0 if the stage has not run
+     */
+    public synchronized long getComputationTime(MultipleAlignmentStage stage) {
+        Long time = times.get(stage);
+        return (time == null) ? 0 : time;
+    }
+
+    /**
+     * Returns the computation time of all stages in nanoseconds.
+     *
+     * @return the computation time in nanoseconds
+     */
+    public synchronized long getComputationTime() {
+        long total = 0;
+        for (long time : times.values()) {
+            total += time;
+        }
+        return total;
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder s = new StringBuilder();
+        for (Map.Entry<MultipleAlignmentStage, Long> e : times.entrySet()) {
+            s.append(String.format("%s: %d ms%n", e.getKey(), e.getValue() / 1000000));
+        }
+        return s.toString();
+    }
+
+    // records the time of a stage started at the given time; returns the end time
+    synchronized long setTime(MultipleAlignmentStage stage, long timeStart) {
+        long timeEnd = System.nanoTime();
+        times.put(stage, timeEnd - timeStart);
+        return timeEnd;
+    }
+
+}
@@ -0,0 +1,311 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava3.alignment;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.biojava3.alignment.template.AlignedSequence;
+import org.biojava3.alignment.template.CallablePairwiseSequenceAligner;
+import org.biojava3.alignment.template.GapPenalty;
+import org.biojava3.alignment.template.PairwiseSequenceAligner;
+import org.biojava3.alignment.template.SequencePair;
+import org.biojava3.alignment.template.SubstitutionMatrix;
+import org.biojava3.core.sequence.template.Compound;
+import org.biojava3.core.sequence.template.Sequence;
+import org.biojava3.core.util.ConcurrencyTools;
+
+/**
+ * Aligns one query {@link Sequence} against many targets, such as the entries of a database, and keeps the best
+ * local alignments.  The striped query profile of {@link StripedSmithWaterman} is computed once and shared by one
+ * scoring task per processor.  The tasks take targets in turn from an {@link Iterator}, so the targets are never
+ * held in memory together, and offer each score to a bounded heap of the {@link #getMaxHits()} best hits.  Only
+ * those hits are aligned in full once all targets are scored.
+ *
+ * A target is only a hit if it shares a local alignment of positive score with the query.  Hits of equal score
+ * are ranked by the order of their targets in the {@link Iterator}, so the result does not depend on the number of
+ * threads.
+ *
+ * @param <S> each {@link Sequence} of an alignment pair is of type S
+ * @param <C> each element of an {@link AlignedSequence} is a {@link Compound} of type C
+ */
+public class OneToManyAligner<S extends Sequence<C>, C extends Compound> {
+
+    /**
+     * Default number of hits kept
+     */
+    public static final int DEFAULT_MAX_HITS = 10;
+
+    private final S query;
+    private final GapPenalty gapPenalty;
+    private final SubstitutionMatrix<C> subMatrix;
+    private int maxHits = DEFAULT_MAX_HITS;
+
+    // aligner holding the query profile shared by all tasks
+    private StripedSmithWaterman<S, C> profile;
+
+    // output field
+    private long targets;
+
+    /**
+     * Prepares to align the given query against many targets.
+     *
+     * @param query the first {@link Sequence} of each pair to align
+     * @param gapPenalty the gap penalties used during alignment
+     * @param subMatrix the set of substitution scores used during alignment
+     */
+    public OneToManyAligner(S query, GapPenalty gapPenalty, SubstitutionMatrix<C> subMatrix) {
+        this.query = query;
+        this.gapPenalty = gapPenalty;
+        this.subMatrix = subMatrix;
+    }
+
+    /**
+     * Returns the query {@link Sequence}.
+     *
+     * @return the first {@link Sequence} of each pair to align
+     */
+    public S getQuery() {
+        return query;
+    }
+
+    /**
+     * Returns the maximum number of hits kept.
+     *
+     * @return maximum number of hits
+     */
+    public int getMaxHits() {
+        return maxHits;
+    }
+
+    /**
+     * Sets the maximum number of hits kept.
+     *
+     * @param maxHits maximum number of hits
+     * @throws IllegalArgumentException if maxHits < 1
+     */
+    public void setMaxHits(int maxHits) {
+        if (maxHits < 1) {
+            throw new IllegalArgumentException("At least one hit must be kept: " + maxHits);
+        }
+        this.maxHits = maxHits;
+    }
+
+    /**
+     * Returns the number of targets scored by the last call to {@link #align(Iterator, ExecutorService)}.
+     *
+     * @return number of targets scored
+     */
+    public long getTargetCount() {
+        return targets;
+    }
+
+    /**
+     * Aligns the query against each target in the shared thread pool of the {@link ConcurrencyTools} utility.
+     *
+     * @param targets the second {@link Sequence} of each pair to align
+     * @return aligners of the best hits, best first, each holding its score and computed alignment
+     * @throws IllegalStateException if interrupted while waiting for the tasks
+     */
+    public List<PairwiseSequenceAligner<S, C>> align(Iterator<S> targets) {
+        return align(targets, ConcurrencyTools.getThreadPool());
+    }
+
+    /**
+     * Aligns the query against each target in the given {@link ExecutorService}.  The {@link Iterator} is only used
+     * by one thread at a time.
+     *
+     * @param targets the second {@link Sequence} of each pair to align
+     * @param executor runs the scoring and alignment tasks
+     * @return aligners of the best hits, best first, each holding its score and computed alignment
+     * @throws IllegalStateException if interrupted while waiting for the tasks
+     */
+    public List<PairwiseSequenceAligner<S, C>> align(Iterator<S> targets, ExecutorService executor) {
+        if (profile == null) {
+            profile = new StripedSmithWaterman<S, C>();
+            profile.setQuery(query);
+            profile.setGapPenalty(gapPenalty);
+            profile.setSubstitutionMatrix(subMatrix);
+        }
+
+        // score all targets, each task with its own aligner around the shared query profile
+        Hits hits = new Hits(targets);
+        List<Future<Void>> futures = new ArrayList<Future<Void>>();
+        for (int i = Math.max(1, Runtime.getRuntime().availableProcessors()); i > 0; i--) {
+            futures.add(executor.submit(new ScoringTask(hits)));
+        }
+        getFromFutures(futures);
+        this.targets = hits.next;
+
+        // align the best hits in full
+        List<Hit<S>> best = new ArrayList<Hit<S>>(hits.heap);
+        Collections.sort(best, Collections.reverseOrder(hits.heap.comparator()));
+        List<PairwiseSequenceAligner<S, C>> aligners = new ArrayList<PairwiseSequenceAligner<S, C>>();
+        List<Future<SequencePair<S, C>>> pairs = new ArrayList<Future<SequencePair<S, C>>>();
+        for (Hit<S> hit : best) {
+            StripedSmithWaterman<S, C> aligner = getAligner();
+            aligner.setTarget(hit.target);
+            aligners.add(aligner);
+            pairs.add(executor.submit(new CallablePairwiseSequenceAligner<S, C>(aligner)));
+        }
+        getFromFutures(pairs);
+        return aligners;
+    }
+
+    // helper methods
+
+    // returns a new aligner sharing the query profile
+    private StripedSmithWaterman<S, C> getAligner() {
+        StripedSmithWaterman<S, C> aligner = new StripedSmithWaterman<S, C>();
+        aligner.setQuery(query);
+        aligner.setGapPenalty(gapPenalty);
+        aligner.setSubstitutionMatrix(subMatrix);
+        synchronized (profile) {
+            profile.shareQueryProfile(aligner);
+        }
+        return aligner;
+    }
+
+    // waits for all tasks; on interruption or the first failure the remaining tasks are cancelled
+    private static <E> void getFromFutures(List<Future<E>> futures) {
+        try {
+            for (Future<E> f : futures) {
+                f.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel(futures);
+            throw new IllegalStateException("Interrupted while aligning", e);
+        } catch (ExecutionException e) {
+            cancel(futures);
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException("Alignment failed", e.getCause());
+        }
+    }
+
+    private static <E> void cancel(List<Future<E>> futures) {
+        for (Future<E> f : futures) {
+            f.cancel(true);
+        }
+    }
+
+    // target with its score and position in the iterator
+    private static class Hit<S> {
+
+        private final S target;
+        private final int score;
+        private final long index;
+
+        private Hit(S target, int score, long index) {
+            this.target = target;
+            this.score = score;
+            this.index = index;
+        }
+
+    }
+
+    // targets left to score and the best hits so far, with the worst of them at the head of the heap
+    private class Hits {
+
+        private final Iterator<S> targets;
+        private final PriorityQueue<Hit<S>> heap;
+        private long next;
+
+        // set once a task fails, so the other tasks take no more targets
+        private volatile boolean stopped;
+
+        private Hits(Iterator<S> targets) {
+            this.targets = targets;
+            heap = new PriorityQueue<Hit<S>>(maxHits + 1, new Comparator<Hit<S>>() {
+                @Override
+                public int compare(Hit<S> h1, Hit<S> h2) {
+                    // lower score is worse, as is a later target of equal score
+                    return (h1.score != h2.score) ? ((h1.score < h2.score) ? -1 : 1) :
+                            ((h1.index > h2.index) ? -1 : ((h1.index < h2.index) ? 1 : 0));
+                }
+            });
+        }
+
+        // returns the next target as a hit without score, or null when all are taken or the search is stopped
+        private synchronized Hit<S> take() {
+            if (stopped || Thread.currentThread().isInterrupted()) {
+                return null;
+            }
+            return targets.hasNext() ? new Hit<S>(targets.next(), 0, next++) : null;
+        }
+
+        private synchronized void offer(Hit<S> hit) {
+            if (heap.size() < maxHits) {
+                heap.add(hit);
+            } else if (heap.comparator().compare(hit, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(hit);
+            }
+        }
+
+    }
+
+    // scores targets until none are left
+    private class ScoringTask implements Callable<Void> {
+
+        private final Hits hits;
+
+        private ScoringTask(Hits hits) {
+            this.hits = hits;
+        }
+
+        @Override
+        public Void call() {
+            boolean completed = false;
+            try {
+                StripedSmithWaterman<S, C> aligner = getAligner();
+                for (Hit<S> hit = hits.take(); hit != null; hit = hits.take()) {
+                    aligner.setTarget(hit.target);
+                    int score = aligner.getScore();
+                    if (score > 0) {
+                        hits.offer(new Hit<S>(hit.target, score, hit.index));
+                    }
+                }
+                completed = true;
+            } finally {
+                if (!completed) {
+                    hits.stopped = true;
+                }
+            }
+            return null;
+        }
+
+    }
+
+}
@@ -0,0 +1,194 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava3.alignment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.biojava3.alignment.Alignments.ProfileProfileAlignerType;
+import org.biojava3.alignment.Alignments.RefinerType;
+import org.biojava3.alignment.template.AlignedSequence;
+import org.biojava3.alignment.template.CallablePartitionRefiner;
+import org.biojava3.alignment.template.GapPenalty;
+import org.biojava3.alignment.template.GuideTreeNode;
+import org.biojava3.alignment.template.Profile;
+import org.biojava3.alignment.template.SubstitutionMatrix;
+import org.biojava3.core.sequence.template.Compound;
+import org.biojava3.core.sequence.template.Sequence;
+
+/**
+ * Runs the partition refinement of a multiple sequence alignment in a given {@link ExecutorService}.  Partitions are
+ * either single {@link Sequence}s or the leaves below each edge of the {@link GuideTree}, visited from the leaves
+ * toward the root as in MUSCLE.  Each batch of as many partitions as available processors is realigned concurrently
+ * against the same alignment, and the best improvement of the batch is kept for the next batch.  With a single
+ * processor, this is the serial refinement of MUSCLE, accepting each partition which improves the alignment.
+ *
+ * @param <S> each {@link Sequence} of the alignment profile is of type S
+ * @param <C> each element of an {@link AlignedSequence} is a {@link Compound} of type C
+ */
+class PartitionRefinementScheduler<S extends Sequence<C>, C extends Compound> {
+
+    private final ExecutorService executor;
+    private final RefinerType type;
+    private final ProfileProfileAlignerType aligner;
+    private final GapPenalty gapPenalty;
+    private final SubstitutionMatrix<C> subMatrix;
+    private final RefinementBudget budget;
+
+    /**
+     * Prepares to refine multiple sequence alignments.
+     *
+     * @param executor runs each partition refinement
+     * @param type chosen type from list of partition refinement routines
+     * @param aligner chosen type from list of profile-profile alignment routines
+     * @param gapPenalty the gap penalties used during alignment
+     * @param subMatrix the set of substitution scores used during alignment
+     * @param budget limits the number of passes and time of refinement
+     * @throws IllegalArgumentException if type is not a partition refinement
+     */
+    PartitionRefinementScheduler(ExecutorService executor, RefinerType type, ProfileProfileAlignerType aligner,
+            GapPenalty gapPenalty, SubstitutionMatrix<C> subMatrix, RefinementBudget budget) {
+        if (!isPartition(type)) {
+            throw new IllegalArgumentException("Not a partition refinement: " + type);
+        }
+        this.executor = executor;
+        this.type = type;
+        this.aligner = aligner;
+        this.gapPenalty = gapPenalty;
+        this.subMatrix = subMatrix;
+        this.budget = budget;
+    }
+
+    /**
+     * Returns true if the given type refines by partitions.
+     *
+     * @param type chosen type from list of refinement routines
+     * @return true for the PARTITION types
+     */
+    static boolean isPartition(RefinerType type) {
+        switch (type) {
+        case PARTITION_SINGLE:
+        case PARTITION_SINGLE_ALL:
+        case PARTITION_TREE:
+        case PARTITION_TREE_ALL:
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    /**
+     * Refines the given alignment within the budget.
+     *
+     * @param msa the multiple sequence alignment to refine
+     * @param tree guide tree of the alignment, whose leaves hold the profiles of single sequences
+     * @return the refined alignment, or the given alignment if no partition improved it
+     */
+    Profile<S, C> refine(Profile<S, C> msa, GuideTree<S, C> tree) {
+        long timeEnd = (budget.getTimeLimit() == 0) ? Long.MAX_VALUE :
+                System.nanoTime() + 1000000L * budget.getTimeLimit();
+        List<List<S>> partitions = getPartitions(tree);
+        int passes = (type == RefinerType.PARTITION_SINGLE || type == RefinerType.PARTITION_TREE) ? 1 :
+                budget.getPasses(), batch = Math.max(1, Runtime.getRuntime().availableProcessors());
+        for (int pass = 0; pass < passes; pass++) {
+            boolean refined = false;
+            for (int first = 0; first < partitions.size() && System.nanoTime() < timeEnd; first += batch) {
+                List<SimplePartitionRefiner<S, C>> refiners = new ArrayList<SimplePartitionRefiner<S, C>>();
+                List<Future<Profile<S, C>>> futures = new ArrayList<Future<Profile<S, C>>>();
+                for (List<S> partition : partitions.subList(first, Math.min(first + batch, partitions.size()))) {
+                    SimplePartitionRefiner<S, C> refiner = new SimplePartitionRefiner<S, C>(msa, partition, aligner,
+                            gapPenalty, subMatrix);
+                    refiners.add(refiner);
+                    futures.add(executor.submit(new CallablePartitionRefiner<S, C>(refiner)));
+                }
+
+                // keep the largest gain of the batch
+                SimplePartitionRefiner<S, C> best = null;
+                for (int i = 0; i < refiners.size(); i++) {
+                    try {
+                        futures.get(i).get();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return msa;
+                    } catch (ExecutionException e) {
+                        if (e.getCause() instanceof RuntimeException) {
+                            throw (RuntimeException) e.getCause();
+                        } else if (e.getCause() instanceof Error) {
+                            throw (Error) e.getCause();
+                        }
+                        throw new IllegalStateException("Partition refinement failed", e.getCause());
+                    }
+                    SimplePartitionRefiner<S, C> refiner = refiners.get(i);
+                    if (refiner.isRefined() && (best == null || refiner.getScoreGain() > best.getScoreGain())) {
+                        best = refiner;
+                    }
+                }
+                if (best != null) {
+                    msa = best.getProfile();
+                    refined = true;
+                }
+            }
+            if (!refined || System.nanoTime() >= timeEnd) {
+                break;
+            }
+        }
+        return msa;
+    }
+
+    // helper methods
+
+    // returns the sequences of one side of each bipartition
+    private List<List<S>> getPartitions(GuideTree<S, C> tree) {
+        List<List<S>> partitions = new ArrayList<List<S>>();
+        if (type == RefinerType.PARTITION_SINGLE || type == RefinerType.PARTITION_SINGLE_ALL) {
+            for (S s : tree.getSequences()) {
+                List<S> partition = new ArrayList<S>();
+                partition.add(s);
+                partitions.add(partition);
+            }
+        } else {
+            // post-order from leaves to root, skipping the root and its second child which splits as its first
+            GuideTreeNode<S, C> root = tree.getRoot();
+            for (GuideTreeNode<S, C> n : tree) {
+                if (n != root && n != root.getChild2()) {
+                    List<S> partition = new ArrayList<S>();
+                    addLeaves(n, partition);
+                    partitions.add(partition);
+                }
+            }
+        }
+        return partitions;
+    }
+
+    private void addLeaves(GuideTreeNode<S, C> node, List<S> leaves) {
+        if (node.isLeaf()) {
+            leaves.addAll(node.getProfile().getOriginalSequences());
+        } else {
+            addLeaves(node.getChild1(), leaves);
+            addLeaves(node.getChild2(), leaves);
+        }
+    }
+
+}
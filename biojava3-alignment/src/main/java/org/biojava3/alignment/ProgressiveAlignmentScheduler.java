@@ -0,0 +1,163 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava3.alignment;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.biojava3.alignment.Alignments.ProfileProfileAlignerType;
+import org.biojava3.alignment.template.AlignedSequence;
+import org.biojava3.alignment.template.GapPenalty;
+import org.biojava3.alignment.template.GuideTreeNode;
+import org.biojava3.alignment.template.Profile;
+import org.biojava3.alignment.template.SubstitutionMatrix;
+import org.biojava3.core.sequence.template.Compound;
+import org.biojava3.core.sequence.template.Sequence;
+
+/**
+ * Runs the profile-profile alignments of a {@link GuideTree} in a given {@link ExecutorService}.  Each inner node
+ * counts its children still being aligned and is only submitted once the last of them completes, by the task which
+ * completed it.  No task ever waits on another, so any number of threads, including a single one shared with other
+ * work, aligns a tree of any depth without deadlock or idle threads.
+ *
+ * @param <S> each {@link Sequence} of an alignment profile is of type S
+ * @param <C> each element of an {@link AlignedSequence} is a {@link Compound} of type C
+ */
+class ProgressiveAlignmentScheduler<S extends Sequence<C>, C extends Compound> {
+
+    private final ExecutorService executor;
+    private final ProfileProfileAlignerType type;
+    private final GapPenalty gapPenalty;
+    private final SubstitutionMatrix<C> subMatrix;
+
+    // parent and number of children left to align for each inner node
+    private final Map<GuideTreeNode<S, C>, GuideTreeNode<S, C>> parents =
+            new IdentityHashMap<GuideTreeNode<S, C>, GuideTreeNode<S, C>>();
+    private final Map<GuideTreeNode<S, C>, AtomicInteger> pending =
+            new IdentityHashMap<GuideTreeNode<S, C>, AtomicInteger>();
+
+    // signaled once the root is aligned or an alignment fails
+    private final CountDownLatch done = new CountDownLatch(1);
+    private volatile Throwable failure;
+
+    /**
+     * Prepares to align the profiles of a guide tree.
+     *
+     * @param executor runs each profile-profile alignment
+     * @param type chosen type from list of profile-profile alignment routines
+     * @param gapPenalty the gap penalties used during alignment
+     * @param subMatrix the set of substitution scores used during alignment
+     */
+    ProgressiveAlignmentScheduler(ExecutorService executor, ProfileProfileAlignerType type, GapPenalty gapPenalty,
+            SubstitutionMatrix<C> subMatrix) {
+        this.executor = executor;
+        this.type = type;
+        this.gapPenalty = gapPenalty;
+        this.subMatrix = subMatrix;
+    }
+
+    /**
+     * Aligns the profiles of each inner node of the given tree and waits for the root.
+     *
+     * @param tree guide tree whose leaves hold the profiles of single sequences
+     * @return the profile at the root of the tree
+     * @throws IllegalStateException if interrupted while waiting for the alignments
+     */
+    Profile<S, C> align(GuideTree<S, C> tree) {
+
+        // count unaligned children of each inner node found in post-order traversal of tree
+        List<GuideTreeNode<S, C>> ready = new ArrayList<GuideTreeNode<S, C>>();
+        for (GuideTreeNode<S, C> n : tree) {
+            if (n.getProfile() == null) {
+                parents.put(n.getChild1(), n);
+                parents.put(n.getChild2(), n);
+                int children = ((n.getChild1().getProfile() == null) ? 1 : 0) +
+                        ((n.getChild2().getProfile() == null) ? 1 : 0);
+                pending.put(n, new AtomicInteger(children));
+                if (children == 0) {
+                    ready.add(n);
+                }
+            }
+        }
+        if (pending.isEmpty()) {
+            return tree.getRoot().getProfile();
+        }
+
+        // start from the nodes with both children aligned, each completion then releases its parent
+        for (GuideTreeNode<S, C> n : ready) {
+            submit(n);
+        }
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while aligning", e);
+        }
+
+        // rethrows the failure of an alignment task to the caller
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
+        } else if (failure != null) {
+            throw new IllegalStateException("Progressive alignment failed", failure);
+        }
+        return tree.getRoot().getProfile();
+    }
+
+    // helper methods
+
+    private void submit(final GuideTreeNode<S, C> node) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (failure != null) {
+                    return;
+                }
+                try {
+                    node.setProfile(Alignments.getProfileProfileAligner(node.getChild1().getProfile(),
+                            node.getChild2().getProfile(), type, gapPenalty, subMatrix).getPair());
+                    completed(node);
+                } catch (Throwable t) {
+                    // includes a parent rejected by an executor shut down meanwhile
+                    failure = t;
+                    done.countDown();
+                }
+            }
+        });
+    }
+
+    private void completed(GuideTreeNode<S, C> node) {
+        GuideTreeNode<S, C> parent = parents.get(node);
+        if (parent == null) {
+            done.countDown();
+        } else if (pending.get(parent).decrementAndGet() == 0) {
+            submit(parent);
+        }
+    }
+
+}
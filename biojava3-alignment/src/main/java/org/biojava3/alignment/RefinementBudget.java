@@ -0,0 +1,83 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava3.alignment;
+
+import org.biojava3.alignment.Alignments.RefinerType;
+
+/**
+ * Limits the refinement stage of a multiple sequence alignment when passed among the settings of
+ * {@link Alignments#getMultipleSequenceAlignment(java.util.List, Object...)}.  Refinements of each
+ * {@link RefinerType} ending in ALL repeat passes over their partitions until a pass no longer improves the
+ * alignment, the number of passes is reached, or the time limit runs out.  Other types make a single pass, which
+ * also stops at the time limit.
+ */
+public class RefinementBudget {
+
+    /**
+     * Default number of passes, as the default number of iterations of MUSCLE
+     */
+    public static final int DEFAULT_PASSES = 16;
+
+    private final int passes;
+    private final long timeLimit;
+
+    /**
+     * Creates a budget of {@link #DEFAULT_PASSES} passes without a time limit.
+     */
+    public RefinementBudget() {
+        this(DEFAULT_PASSES, 0);
+    }
+
+    /**
+     * Creates a budget of the given number of passes and time.
+     *
+     * @param passes maximum number of passes over the partitions
+     * @param timeLimit maximum time in milliseconds, or 0 for no limit
+     * @throws IllegalArgumentException if passes < 1 or timeLimit < 0
+     */
+    public RefinementBudget(int passes, long timeLimit) {
+        if (passes < 1 || timeLimit < 0) {
+            throw new IllegalArgumentException("Refinement needs at least one pass and a time limit of at least 0");
+        }
+        this.passes = passes;
+        this.timeLimit = timeLimit;
+    }
+
+    /**
+     * Returns the maximum number of passes over the partitions.
+     *
+     * @return maximum number of passes
+     */
+    public int getPasses() {
+        return passes;
+    }
+
+    /**
+     * Returns the maximum time of refinement.
+     *
+     * @return maximum time in milliseconds, or 0 for no limit
+     */
+    public long getTimeLimit() {
+        return timeLimit;
+    }
+
+}
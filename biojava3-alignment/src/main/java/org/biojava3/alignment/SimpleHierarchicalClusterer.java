@@ -0,0 +1,563 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava3.alignment;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Vector;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.swing.tree.TreeNode;
+
+import org.biojava3.alignment.Alignments.HierarchicalClustererType;
+import org.biojava3.alignment.template.GuideTreeNode;
+import org.biojava3.alignment.template.HierarchicalClusterer;
+import org.biojava3.alignment.template.PairwiseSequenceScorer;
+import org.biojava3.alignment.template.Profile;
+import org.biojava3.alignment.template.ProfilePair;
+import org.biojava3.core.sequence.AccessionID;
+import org.biojava3.core.sequence.template.Compound;
+import org.biojava3.core.sequence.template.Sequence;
+
+/**
+ * Implements hierarchical clustering of {@link Sequence}s by the distances of their pairwise scores.  The distances
+ * are kept as floats in a packed triangle, in the order of the scorers, so memory grows with half the number of pairs.
+ *
+ * {@link HierarchicalClustererType#UPGMA} keeps the nearest neighbor of each cluster, so each join only rescans the
+ * clusters whose nearest neighbor was joined.  {@link HierarchicalClustererType#RAPID_NEIGHBOR_JOINING} follows
+ * RapidNJ: each cluster keeps its distances to the older clusters sorted, and the search for the next join stops in
+ * each row as soon as no remaining distance can beat the best join found so far.  This gives the tree of neighbor
+ * joining while visiting only a small part of the matrix at each join.
+ *
+ * If an {@link ExecutorService} is given, work over the rows is split into chunks run both by the calling thread and
+ * by helper tasks.  The calling thread never waits for a chunk which has not started, so any executor, even one busy
+ * or shared with the caller, is safe to use.
+ *
+ * @param <S> each {@link Sequence} in the tree is of type S
+ * @param <C> each element of a {@link Sequence} is a {@link Compound} of type C
+ */
+public class SimpleHierarchicalClusterer<S extends Sequence<C>, C extends Compound>
+        implements HierarchicalClusterer<S, C> {
+
+    // number of rows below which work is not split among threads
+    private static final int MIN_PARALLEL_ROWS = 1024;
+
+    private List<S> sequences;
+    private List<PairwiseSequenceScorer<S, C>> scorers;
+    private HierarchicalClustererType type;
+    private ExecutorService executor;
+    private Cluster<S, C> root;
+
+    // working state of clustering: packed distances between slots and the cluster in each slot, null once joined
+    private int n;
+    private float[] distances;
+    private Cluster<S, C>[] clusters;
+
+    /**
+     * Prepares to cluster the given {@link Sequence}s in the calling thread.
+     *
+     * @param sequences the {@link List} of {@link Sequence}s to cluster
+     * @param scorers list of sequence pair scorers, one for each pair of sequences given
+     * @param type chosen type from list of hierarchical clustering routines
+     */
+    public SimpleHierarchicalClusterer(List<S> sequences, List<PairwiseSequenceScorer<S, C>> scorers,
+            HierarchicalClustererType type) {
+        this(sequences, scorers, type, null);
+    }
+
+    /**
+     * Prepares to cluster the given {@link Sequence}s with the help of the given {@link ExecutorService}.
+     *
+     * @param sequences the {@link List} of {@link Sequence}s to cluster
+     * @param scorers list of sequence pair scorers, one for each pair of sequences given
+     * @param type chosen type from list of hierarchical clustering routines
+     * @param executor runs helper tasks over rows; may be null
+     * @throws IllegalArgumentException if type is not UPGMA or RAPID_NEIGHBOR_JOINING
+     */
+    public SimpleHierarchicalClusterer(List<S> sequences, List<PairwiseSequenceScorer<S, C>> scorers,
+            HierarchicalClustererType type, ExecutorService executor) {
+        if (type != HierarchicalClustererType.UPGMA && type != HierarchicalClustererType.RAPID_NEIGHBOR_JOINING) {
+            throw new IllegalArgumentException("Unsupported hierarchical clustering: " + type);
+        }
+        this.sequences = Collections.unmodifiableList(sequences);
+        this.scorers = Collections.unmodifiableList(scorers);
+        this.type = type;
+        this.executor = executor;
+    }
+
+    // methods for HierarchicalClusterer
+
+    @Override
+    public float[][] getDistanceMatrix() {
+        float[][] matrix = new float[sequences.size()][sequences.size()];
+        for (int i = 0, k = 0; i < matrix.length; i++) {
+            for (int j = i+1; j < matrix.length; j++) {
+                matrix[i][j] = matrix[j][i] = (float) scorers.get(k++).getDistance();
+            }
+        }
+        return matrix;
+    }
+
+    @Override
+    public GuideTreeNode<S, C> getRoot() {
+        if (root == null) {
+            cluster();
+        }
+        return root;
+    }
+
+    // helper methods
+
+    private void cluster() {
+        n = sequences.size();
+        distances = new float[n * (n - 1) / 2];
+        for (int k = 0; k < distances.length; k++) {
+            distances[k] = (float) scorers.get(k).getDistance();
+        }
+        @SuppressWarnings({"unchecked", "rawtypes"}) // generic array of clusters all of type S and C
+        Cluster<S, C>[] temp = new Cluster[n];
+        clusters = temp;
+        for (int i = 0; i < n; i++) {
+            AccessionID id = sequences.get(i).getAccession();
+            clusters[i] = new Cluster<S, C>((id == null) ? Integer.toString(i + 1) : id.getID(),
+                    new SimpleProfile<S, C>(sequences.get(i)));
+        }
+        if (n == 1) {
+            root = clusters[0];
+        } else if (n > 1) {
+            root = (type == HierarchicalClustererType.UPGMA) ? getUPGMA() : getNeighborJoining();
+        }
+        distances = null;
+        clusters = null;
+    }
+
+    // returns the distance between the clusters in two different slots
+    private float getDistance(int i, int j) {
+        return (i < j) ? distances[getIndex(i, j)] : distances[getIndex(j, i)];
+    }
+
+    // returns the index in the packed triangle of the slot pair i < j, the same as the order of the scorers
+    private int getIndex(int i, int j) {
+        return (int) ((long) i * (2 * n - i - 1) / 2 + j - i - 1);
+    }
+
+    private void setDistance(int i, int j, float distance) {
+        distances[(i < j) ? getIndex(i, j) : getIndex(j, i)] = distance;
+    }
+
+    // joins by unweighted pair group method with arithmetic mean
+    private Cluster<S, C> getUPGMA() {
+        final float[] nearest = new float[n];
+        final int[] neighbor = new int[n];
+        final int[] size = new int[n];
+        Arrays.fill(size, 1);
+        runRows(n, new Rows() {
+            @Override
+            public void run(int from, int to, int chunk) {
+                for (int i = from; i < to; i++) {
+                    setNearest(i, nearest, neighbor);
+                }
+            }
+        });
+
+        for (int joins = 1; joins < n; joins++) {
+            // join the closest pair into the slot of the first
+            int a = -1;
+            for (int i = 0; i < n; i++) {
+                if (clusters[i] != null && (a < 0 || nearest[i] < nearest[a])) {
+                    a = i;
+                }
+            }
+            final int i = Math.min(a, neighbor[a]), j = Math.max(a, neighbor[a]);
+            float height = nearest[a] / 2;
+            clusters[i] = new Cluster<S, C>(clusters[i], height - clusters[i].height, clusters[j],
+                    height - clusters[j].height, height);
+            clusters[j] = null;
+            for (int k = 0; k < n; k++) {
+                if (clusters[k] != null && k != i) {
+                    setDistance(i, k, (size[i] * getDistance(i, k) + size[j] * getDistance(j, k)) /
+                            (size[i] + size[j]));
+                }
+            }
+            size[i] += size[j];
+
+            // an average is never below the nearer of its parts, so only neighbors of the pair need a new nearest
+            runRows(n, new Rows() {
+                @Override
+                public void run(int from, int to, int chunk) {
+                    for (int k = from; k < to; k++) {
+                        if (clusters[k] != null && (k == i || neighbor[k] == i || neighbor[k] == j)) {
+                            setNearest(k, nearest, neighbor);
+                        }
+                    }
+                }
+            });
+        }
+        return clusters[0];
+    }
+
+    // finds the nearest other cluster of slot i
+    private void setNearest(int i, float[] nearest, int[] neighbor) {
+        nearest[i] = Float.POSITIVE_INFINITY;
+        neighbor[i] = -1;
+        for (int k = 0; k < n; k++) {
+            if (k != i && clusters[k] != null) {
+                float d = getDistance(i, k);
+                if (neighbor[i] < 0 || d < nearest[i]) {
+                    nearest[i] = d;
+                    neighbor[i] = k;
+                }
+            }
+        }
+    }
+
+    // joins by neighbor joining with the search pruned by rows of sorted distances as in RapidNJ
+    private Cluster<S, C> getNeighborJoining() {
+        // sums of distances to all other clusters
+        final double[] sums = new double[n];
+        for (int i = 0; i < n; i++) {
+            for (int k = i+1; k < n; k++) {
+                double d = getDistance(i, k);
+                sums[i] += d;
+                sums[k] += d;
+            }
+        }
+
+        // for each slot, distances to the clusters in lower slots sorted and packed with their cluster ids
+        final long[][] sorted = new long[n][];
+        final int[] ids = new int[n], slots = new int[2 * n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = slots[i] = i;
+        }
+        runRows(n, new Rows() {
+            @Override
+            public void run(int from, int to, int chunk) {
+                for (int i = from; i < to; i++) {
+                    long[] row = new long[i];
+                    for (int k = 0; k < i; k++) {
+                        row[k] = pack(getDistance(i, k), k);
+                    }
+                    Arrays.sort(row);
+                    sorted[i] = row;
+                }
+            }
+        });
+
+        int nextId = n;
+        final int threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+        final double[] bestQ = new double[4 * threads];
+        final int[] bestI = new int[bestQ.length], bestK = new int[bestQ.length];
+        for (int r = n; r > 2; r--) {
+            double maxSum = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < n; i++) {
+                if (clusters[i] != null) {
+                    maxSum = Math.max(maxSum, sums[i]);
+                }
+            }
+
+            // find the pair with the lowest Q = (r - 2) d(i, k) - sums(i) - sums(k)
+            final int rows = r;
+            final double maxOther = maxSum;
+            Arrays.fill(bestQ, Double.POSITIVE_INFINITY);
+            int chunks = runRows(n, new Rows() {
+                @Override
+                public void run(int from, int to, int chunk) {
+                    double best = Double.POSITIVE_INFINITY;
+                    int bi = -1, bk = -1;
+                    for (int i = from; i < to; i++) {
+                        if (clusters[i] == null) {
+                            continue;
+                        }
+                        for (long entry : sorted[i]) {
+                            double d = unpackDistance(entry);
+                            if ((rows - 2) * d - sums[i] - maxOther >= best) {
+                                break;
+                            }
+                            int k = slots[unpackId(entry)];
+                            if (k < 0 || ids[k] != unpackId(entry)) {
+                                continue;
+                            }
+                            double q = (rows - 2) * d - sums[i] - sums[k];
+                            if (q < best) {
+                                best = q;
+                                bi = i;
+                                bk = k;
+                            }
+                        }
+                    }
+                    bestQ[chunk] = best;
+                    bestI[chunk] = bi;
+                    bestK[chunk] = bk;
+                }
+            });
+            int c = 0;
+            for (int chunk = 1; chunk < chunks; chunk++) {
+                if (bestQ[chunk] < bestQ[c]) {
+                    c = chunk;
+                }
+            }
+
+            // join the pair into the slot of the first, with branch lengths from the distance sums
+            final int a = Math.min(bestI[c], bestK[c]), b = Math.max(bestI[c], bestK[c]);
+            double dab = getDistance(a, b), la = dab / 2 + (sums[a] - sums[b]) / (2 * (r - 2));
+            clusters[a] = new Cluster<S, C>(clusters[a], la, clusters[b], dab - la, 0);
+            clusters[b] = null;
+            slots[ids[a]] = slots[ids[b]] = -1;
+            ids[a] = nextId++;
+            slots[ids[a]] = a;
+            sorted[b] = null;
+            sums[a] = 0;
+            long[] row = new long[r - 2];
+            int length = 0;
+            for (int k = 0; k < n; k++) {
+                if (clusters[k] != null && k != a) {
+                    float dak = getDistance(a, k), dbk = getDistance(b, k), d = (float) ((dak + dbk - dab) / 2);
+                    sums[k] += d - dak - dbk;
+                    sums[a] += d;
+                    setDistance(a, k, d);
+                    row[length++] = pack(d, ids[k]);
+                }
+            }
+
+            // the new cluster is the youngest, so its row holds all others and no other row holds it
+            Arrays.sort(row);
+            sorted[a] = row;
+        }
+
+        // join the last two clusters at the midpoint of their distance
+        int a = -1, b = -1;
+        for (int i = 0; i < n; i++) {
+            if (clusters[i] != null) {
+                if (a < 0) {
+                    a = i;
+                } else {
+                    b = i;
+                }
+            }
+        }
+        double d = getDistance(a, b) / 2;
+        return new Cluster<S, C>(clusters[a], d, clusters[b], d, 0);
+    }
+
+    // packs a distance and cluster id into a long which sorts by distance
+    private static long pack(float distance, int id) {
+        int bits = Float.floatToIntBits(distance);
+        bits ^= (bits >> 31) & 0x7fffffff;
+        return ((long) bits << 32) | id;
+    }
+
+    private static double unpackDistance(long entry) {
+        int bits = (int) (entry >> 32);
+        return Float.intBitsToFloat(bits ^ ((bits >> 31) & 0x7fffffff));
+    }
+
+    private static int unpackId(long entry) {
+        return (int) entry;
+    }
+
+    // work over a range of rows in one chunk
+    private interface Rows {
+        void run(int from, int to, int chunk);
+    }
+
+    // runs the rows in chunks claimed by the calling thread and helper tasks; returns the number of chunks, throws
+    // the first failure of a chunk or IllegalStateException if interrupted
+    private int runRows(final int rows, final Rows task) {
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+        final int chunks = (executor == null || threads == 1 || rows < MIN_PARALLEL_ROWS) ? 1 : 4 * threads;
+        if (chunks == 1) {
+            task.run(0, rows, 0);
+            return 1;
+        }
+        final AtomicInteger next = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(chunks);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        Runnable worker = new Runnable() {
+            @Override
+            public void run() {
+                for (int chunk; (chunk = next.getAndIncrement()) < chunks; ) {
+                    try {
+                        // after a failure the remaining chunks are only counted
+                        if (failure.get() == null) {
+                            task.run((int) ((long) chunk * rows / chunks), (int) ((long) (chunk + 1) * rows / chunks),
+                                    chunk);
+                        }
+                    } catch (Throwable t) {
+                        failure.compareAndSet(null, t);
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }
+        };
+        try {
+            for (int t = 1; t < threads; t++) {
+                executor.execute(worker);
+            }
+        } catch (RejectedExecutionException e) {
+            // the calling thread does the remaining chunks
+        }
+        worker.run();
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while clustering", e);
+        }
+        Throwable t = failure.get();
+        if (t instanceof RuntimeException) {
+            throw (RuntimeException) t;
+        } else if (t instanceof Error) {
+            throw (Error) t;
+        } else if (t != null) {
+            throw new IllegalStateException("Clustering failed", t);
+        }
+        return chunks;
+    }
+
+    /**
+     * Implements a node of the tree resulting from clustering.  Leaf nodes hold the profile of a single
+     * {@link Sequence}.
+     */
+    private static class Cluster<S extends Sequence<C>, C extends Compound> implements GuideTreeNode<S, C> {
+
+        private Cluster<S, C> parent, child1, child2;
+        private double distance;
+        private float height;
+        private String name;
+        private Profile<S, C> profile;
+        private Future<ProfilePair<S, C>> profileFuture;
+
+        private Cluster(String name, Profile<S, C> profile) {
+            this.name = name;
+            this.profile = profile;
+        }
+
+        private Cluster(Cluster<S, C> child1, double distance1, Cluster<S, C> child2, double distance2, float height) {
+            this.child1 = child1;
+            this.child2 = child2;
+            this.height = height;
+            child1.parent = child2.parent = this;
+            child1.distance = distance1;
+            child2.distance = distance2;
+        }
+
+        // methods for GuideTreeNode
+
+        @Override
+        public GuideTreeNode<S, C> getChild1() {
+            return child1;
+        }
+
+        @Override
+        public GuideTreeNode<S, C> getChild2() {
+            return child2;
+        }
+
+        @Override
+        public double getDistanceToParent() {
+            return distance;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Profile<S, C> getProfile() {
+            return profile;
+        }
+
+        @Override
+        public Future<ProfilePair<S, C>> getProfileFuture() {
+            return profileFuture;
+        }
+
+        @Override
+        public void setProfile(Profile<S, C> profile) {
+            this.profile = profile;
+            profileFuture = null;
+        }
+
+        @Override
+        public void setProfileFuture(Future<ProfilePair<S, C>> profileFuture) {
+            this.profileFuture = profileFuture;
+            profile = null;
+        }
+
+        // methods for TreeNode
+
+        @Override
+        public Enumeration<GuideTreeNode<S, C>> children() {
+            Vector<GuideTreeNode<S, C>> children = new Vector<GuideTreeNode<S, C>>();
+            if (!isLeaf()) {
+                children.add(getChild1());
+                children.add(getChild2());
+            }
+            return children.elements();
+        }
+
+        @Override
+        public boolean getAllowsChildren() {
+            return !isLeaf();
+        }
+
+        @Override
+        public GuideTreeNode<S, C> getChildAt(int childIndex) {
+            if (childIndex == 1) {
+                return getChild1();
+            } else if (childIndex == 2) {
+                return getChild2();
+            }
+            throw new IndexOutOfBoundsException();
+        }
+
+        @Override
+        public int getChildCount() {
+            return isLeaf() ? 0 : 2;
+        }
+
+        @Override
+        public int getIndex(TreeNode child) {
+            return getChildAt(1) == child ? 1 : (getChildAt(2) == child ? 2 : -1);
+        }
+
+        @Override
+        public GuideTreeNode<S, C> getParent() {
+            return parent;
+        }
+
+        @Override
+        public boolean isLeaf() {
+            return child1 == null;
+        }
+
+    }
+
+}
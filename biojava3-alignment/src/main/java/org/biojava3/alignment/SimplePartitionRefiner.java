@@ -0,0 +1,356 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava3.alignment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.biojava3.alignment.Alignments.ProfileProfileAlignerType;
+import org.biojava3.alignment.template.AbstractScorer;
+import org.biojava3.alignment.template.AlignedSequence;
+import org.biojava3.alignment.template.AlignedSequence.Step;
+import org.biojava3.alignment.template.GapPenalty;
+import org.biojava3.alignment.template.PartitionRefiner;
+import org.biojava3.alignment.template.Profile;
+import org.biojava3.alignment.template.SubstitutionMatrix;
+import org.biojava3.core.sequence.location.template.Location;
+import org.biojava3.core.sequence.template.Compound;
+import org.biojava3.core.sequence.template.Sequence;
+
+/**
+ * Refines a multiple sequence alignment {@link Profile} by one bipartition of its {@link Sequence}s, as in the
+ * refinement stage of MUSCLE.  The {@link Sequence}s of the partition and the rest are each taken out of the
+ * alignment, without columns of only gaps, and aligned again to each other.  The new alignment is kept only if it
+ * raises the sum of pairs score between the two sides; pairs within a side align the same in both alignments.
+ *
+ * The sum of pairs score counts substitution scores from the columns of each side and, for a residue opposite a gap,
+ * the extension penalty plus the open penalty where the gap starts.  The score is the one of the alignment returned by
+ * {@link #getProfile()}, the minimum is that of the original alignment, and the maximum is the sum over all pairs of
+ * the lower self score of each pair.
+ *
+ * @param <S> each {@link Sequence} of the alignment profile is of type S
+ * @param <C> each element of an {@link AlignedSequence} is a {@link Compound} of type C
+ */
+public class SimplePartitionRefiner<S extends Sequence<C>, C extends Compound> extends AbstractScorer
+        implements PartitionRefiner<S, C> {
+
+    private Profile<S, C> original, query, target, profile;
+    private Map<S, Boolean> partition = new IdentityHashMap<S, Boolean>();
+    private ProfileProfileAlignerType type;
+    private GapPenalty gapPenalty;
+    private SubstitutionMatrix<C> subMatrix;
+    private long score, min, max;
+    private long time = -1;
+
+    /**
+     * Prepares to refine the given {@link Profile} by the given partition of its {@link Sequence}s.
+     *
+     * @param profile the multiple sequence alignment to refine
+     * @param partition the original {@link Sequence}s on one side of the bipartition
+     * @param type chosen type from list of profile-profile alignment routines
+     * @param gapPenalty the gap penalties used during alignment
+     * @param subMatrix the set of substitution scores used during alignment
+     * @throws IllegalArgumentException if either side of the bipartition is empty
+     */
+    public SimplePartitionRefiner(Profile<S, C> profile, Collection<S> partition, ProfileProfileAlignerType type,
+            GapPenalty gapPenalty, SubstitutionMatrix<C> subMatrix) {
+        original = profile;
+        for (S s : partition) {
+            this.partition.put(s, Boolean.TRUE);
+        }
+        int size = 0;
+        for (AlignedSequence<S, C> s : profile) {
+            size += this.partition.containsKey(s.getOriginalSequence()) ? 1 : 0;
+        }
+        if (size == 0 || size == profile.getSize()) {
+            throw new IllegalArgumentException("Partition must split the alignment into two nonempty sides");
+        }
+        this.type = type;
+        this.gapPenalty = gapPenalty;
+        this.subMatrix = subMatrix;
+    }
+
+    /**
+     * Returns true if the alignment returned by {@link #getProfile()} raised the score of the original alignment.
+     *
+     * @return true if the alignment was refined
+     */
+    public boolean isRefined() {
+        align();
+        return profile != original;
+    }
+
+    // returns how far realigning raised the sum of pairs score, without the int range of the Scorer methods
+    long getScoreGain() {
+        align();
+        return score - min;
+    }
+
+    // methods for PartitionRefiner
+
+    @Override
+    public ProfileProfileAlignerType getProfileProfileAligner() {
+        return type;
+    }
+
+    // methods for ProfileProfileScorer
+
+    /**
+     * Returns the alignment of the {@link Sequence}s of the partition, without columns of only gaps.
+     */
+    @Override
+    public Profile<S, C> getQuery() {
+        align();
+        return query;
+    }
+
+    /**
+     * Returns the alignment of the rest of the {@link Sequence}s, without columns of only gaps.
+     */
+    @Override
+    public Profile<S, C> getTarget() {
+        align();
+        return target;
+    }
+
+    // methods for Aligner
+
+    @Override
+    public long getComputationTime() {
+        align();
+        return time;
+    }
+
+    /**
+     * Returns the refined alignment, or the original alignment if realigning the bipartition did not raise its score.
+     */
+    @Override
+    public Profile<S, C> getProfile() {
+        align();
+        return profile;
+    }
+
+    // methods for Scorer
+
+    @Override
+    public int getMaxScore() {
+        align();
+        return toInt(max);
+    }
+
+    @Override
+    public int getMinScore() {
+        align();
+        return toInt(min);
+    }
+
+    @Override
+    public int getScore() {
+        align();
+        return toInt(score);
+    }
+
+    // helper methods
+
+    private synchronized void align() {
+        if (time >= 0) {
+            return;
+        }
+        long timeStart = System.nanoTime();
+
+        List<C> compounds = subMatrix.getCompoundSet().getAllCompounds();
+        Map<C, Integer> indices = new HashMap<C, Integer>();
+        for (C c : compounds) {
+            indices.put(c, indices.size());
+        }
+        int[][] sub = new int[compounds.size()][compounds.size()];
+        for (int x = 0; x < sub.length; x++) {
+            for (int y = 0; y < sub.length; y++) {
+                sub[x][y] = subMatrix.getValue(compounds.get(x), compounds.get(y));
+            }
+        }
+
+        // split the rows of the alignment and score the original pairs between sides
+        int[][] rows = getRows(original, indices);
+        boolean[] sides = new boolean[rows.length];
+        List<AlignedSequence<S, C>> rowsQuery = new ArrayList<AlignedSequence<S, C>>(),
+                rowsTarget = new ArrayList<AlignedSequence<S, C>>();
+        for (int i = 0; i < rows.length; i++) {
+            AlignedSequence<S, C> s = original.getAlignedSequence(i + 1);
+            sides[i] = partition.containsKey(s.getOriginalSequence());
+            (sides[i] ? rowsQuery : rowsTarget).add(s);
+        }
+        min = getScore(rows, sides, sub);
+        max = getMaxScore(rows, sides, sub);
+
+        // realign the sides and keep the better alignment
+        query = getSubProfile(rowsQuery, rows, sides, true);
+        target = getSubProfile(rowsTarget, rows, sides, false);
+        Profile<S, C> realigned = Alignments.getProfileProfileAligner(query, target, type, gapPenalty, subMatrix)
+                .getPair();
+        boolean[] sidesRealigned = new boolean[rows.length];
+        for (int i = 0; i < rowsQuery.size(); i++) {
+            sidesRealigned[i] = true;
+        }
+        long scoreRealigned = getScore(getRows(realigned, indices), sidesRealigned, sub);
+        if (scoreRealigned > min) {
+            profile = realigned;
+            score = scoreRealigned;
+        } else {
+            profile = original;
+            score = min;
+        }
+
+        time = System.nanoTime() - timeStart;
+    }
+
+    // clamps a sum of pairs score to the range of the Scorer methods
+    private static int toInt(long score) {
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, score));
+    }
+
+    // returns the compound index at each column of each row, -1 for gaps
+    private static <S extends Sequence<C>, C extends Compound> int[][] getRows(Profile<S, C> profile,
+            Map<C, Integer> indices) {
+        int[][] rows = new int[profile.getSize()][profile.getLength()];
+        for (int i = 0; i < rows.length; i++) {
+            AlignedSequence<S, C> s = profile.getAlignedSequence(i + 1);
+            int[] row = rows[i];
+            Arrays.fill(row, -1);
+            Location location = s.getLocationInAlignment();
+            List<Location> pieces = location.isComplex() ? location.getSubLocations() : null;
+            S sequence = s.getOriginalSequence();
+            int index = s.getSequenceIndexAt(location.getStart().getPosition());
+            for (int p = 0, n = (pieces == null) ? 1 : pieces.size(); p < n; p++) {
+                Location piece = (pieces == null) ? location : pieces.get(p);
+                for (int a = piece.getStart().getPosition(); a <= piece.getEnd().getPosition(); a++) {
+                    Integer c = indices.get(sequence.getCompoundAt(index++));
+                    row[a - 1] = (c == null) ? 0 : c;
+                }
+            }
+        }
+        return rows;
+    }
+
+    // returns the sum of pairs score between the rows of each side
+    private long getScore(int[][] rows, boolean[] sides, int[][] sub) {
+        long open = gapPenalty.getOpenPenalty(), extension = gapPenalty.getExtensionPenalty(), score = 0;
+        int length = (rows.length == 0) ? 0 : rows[0].length;
+        int[] countsQuery = new int[sub.length], countsTarget = new int[sub.length];
+        for (int a = 0; a < length; a++) {
+            int residuesQuery = 0, residuesTarget = 0, gapsQuery = 0, gapsTarget = 0, opensQuery = 0,
+                    opensTarget = 0;
+            for (int i = 0; i < rows.length; i++) {
+                int c = rows[i][a];
+                boolean opens = c < 0 && (a == 0 || rows[i][a - 1] >= 0);
+                if (sides[i]) {
+                    if (c < 0) {
+                        gapsQuery++;
+                        opensQuery += opens ? 1 : 0;
+                    } else {
+                        residuesQuery++;
+                        countsQuery[c]++;
+                    }
+                } else {
+                    if (c < 0) {
+                        gapsTarget++;
+                        opensTarget += opens ? 1 : 0;
+                    } else {
+                        residuesTarget++;
+                        countsTarget[c]++;
+                    }
+                }
+            }
+            for (int x = 0; x < sub.length; x++) {
+                if (countsQuery[x] > 0) {
+                    for (int y = 0; y < sub.length; y++) {
+                        score += (long) countsQuery[x] * countsTarget[y] * sub[x][y];
+                    }
+                    countsQuery[x] = 0;
+                }
+            }
+            for (int y = 0; y < sub.length; y++) {
+                countsTarget[y] = 0;
+            }
+            score += residuesQuery * (gapsTarget * extension + opensTarget * open) +
+                    residuesTarget * (gapsQuery * extension + opensQuery * open);
+        }
+        return score;
+    }
+
+    // returns the sum over pairs between sides of the lower self score of each pair
+    private static long getMaxScore(int[][] rows, boolean[] sides, int[][] sub) {
+        long[] self = new long[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            for (int c : rows[i]) {
+                self[i] += (c < 0) ? 0 : sub[c][c];
+            }
+        }
+        long max = 0;
+        for (int i = 0; i < rows.length; i++) {
+            for (int j = 0; j < rows.length; j++) {
+                if (sides[i] && !sides[j]) {
+                    max += Math.min(self[i], self[j]);
+                }
+            }
+        }
+        return max;
+    }
+
+    // returns the alignment of the rows of one side without columns of only gaps
+    private Profile<S, C> getSubProfile(List<AlignedSequence<S, C>> list, int[][] rows, boolean[] sides,
+            boolean side) {
+        int length = rows[0].length;
+        boolean[] columns = new boolean[length];
+        for (int i = 0; i < rows.length; i++) {
+            if (sides[i] == side) {
+                for (int a = 0; a < length; a++) {
+                    columns[a] |= rows[i][a] >= 0;
+                }
+            }
+        }
+        List<AlignedSequence<S, C>> aligned = new ArrayList<AlignedSequence<S, C>>();
+        for (int i = 0, k = 0; i < rows.length; i++) {
+            if (sides[i] == side) {
+                AlignedSequence<S, C> s = list.get(k++);
+                List<Step> steps = new ArrayList<Step>();
+                int residues = 0;
+                for (int a = 0; a < length; a++) {
+                    if (columns[a]) {
+                        steps.add((rows[i][a] < 0) ? Step.GAP : Step.COMPOUND);
+                        residues += (rows[i][a] < 0) ? 0 : 1;
+                    }
+                }
+                int before = s.getSequenceIndexAt(s.getStart().getPosition()) - 1;
+                aligned.add(new SimpleAlignedSequence<S, C>(s.getOriginalSequence(), steps, before,
+                        s.getOriginalSequence().getLength() - before - residues));
+            }
+        }
+        return new SimpleProfile<S, C>(aligned);
+    }
+
+}
@@ -82,6 +82,30 @@ public class SimpleProfile<S extends Sequence<C>, C extends Compound> implements
 		length = query.getLength();
 	}
 
+	/**
+	 * Creates a profile for the given already aligned sequences.
+	 *
+	 * @param alignedSequences sequences of the profile
+	 * @throws IllegalArgumentException if aligned sequences differ in size or none are given
+	 */
+	protected SimpleProfile(List<AlignedSequence<S, C>> alignedSequences) {
+		if (alignedSequences.isEmpty()) {
+			throw new IllegalArgumentException("No aligned sequences");
+		}
+		length = alignedSequences.get(0).getLength();
+		list = new ArrayList<AlignedSequence<S, C>>();
+		originals = new ArrayList<S>();
+		for (AlignedSequence<S, C> s : alignedSequences) {
+			if (s.getLength() != length) {
+				throw new IllegalArgumentException("Aligned sequences differ in size");
+			}
+			list.add(s);
+			originals.add(s.getOriginalSequence());
+		}
+		list = Collections.unmodifiableList(list);
+		originals = Collections.unmodifiableList(originals);
+	}
+
 	/**
 	 * Creates a profile from a single sequence.
 	 *
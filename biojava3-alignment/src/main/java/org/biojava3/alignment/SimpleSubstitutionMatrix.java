@@ -57,6 +57,8 @@ public class SimpleSubstitutionMatrix<C extends Compound> implements Substitutio
     private short[][] matrix;
     private short max, min;
     private List<C> rows, cols;
+    private int ordinalSize;
+    private volatile short[] ordinalMatrix;
 
     /**
      * Creates a substitution matrix using the defaults.
@@ -187,6 +189,24 @@ public class SimpleSubstitutionMatrix<C extends Compound> implements Substitutio
         return copy;
     }
 
+    @Override
+    public short[] getOrdinalMatrix() {
+        short[] values = ordinalMatrix;
+        if (values == null) {
+            List<C> compounds = compoundSet.getAllCompounds();
+            values = new short[compounds.size() * compounds.size()];
+            for (C from : compounds) {
+                for (C to : compounds) {
+                    values[compoundSet.getOrdinal(from) * compounds.size() + compoundSet.getOrdinal(to)] =
+                            getValueFromLists(from, to);
+                }
+            }
+            ordinalSize = compounds.size();
+            ordinalMatrix = values;
+        }
+        return values;
+    }
+
     @Override
     public String getMatrixAsString() {
         StringBuilder s = new StringBuilder();
@@ -228,15 +248,10 @@ public class SimpleSubstitutionMatrix<C extends Compound> implements Substitutio
 
     @Override
     public short getValue(C from, C to) {
-        int row = rows.indexOf(from), col = cols.indexOf(to);
-        if (row == -1 || col == -1) {
-            row = cols.indexOf(from);
-            col = rows.indexOf(to);
-            if (row == -1 || col == -1) {
-                return min;
-            }
-        }
-        return matrix[row][col];
+        short[] values = getOrdinalMatrix();
+        int row = compoundSet.getOrdinal(from), col = compoundSet.getOrdinal(to), size = ordinalSize;
+        return (row < 0 || col < 0 || row >= size || col >= size) ? getValueFromLists(from, to) :
+                values[row * size + col];
     }
 
     @Override
@@ -273,4 +288,17 @@ public class SimpleSubstitutionMatrix<C extends Compound> implements Substitutio
         return s.toString();
     }
 
+    // helper method which looks up a value by the rows and columns of the matrix file
+    private short getValueFromLists(C from, C to) {
+        int row = rows.indexOf(from), col = cols.indexOf(to);
+        if (row == -1 || col == -1) {
+            row = cols.indexOf(from);
+            col = rows.indexOf(to);
+            if (row == -1 || col == -1) {
+                return min;
+            }
+        }
+        return matrix[row][col];
+    }
+
 }
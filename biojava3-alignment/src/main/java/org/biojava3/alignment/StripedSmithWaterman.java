@@ -0,0 +1,333 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava3.alignment;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.biojava3.alignment.template.AlignedSequence;
+import org.biojava3.alignment.template.GapPenalty;
+import org.biojava3.alignment.template.SubstitutionMatrix;
+import org.biojava3.core.sequence.template.Compound;
+import org.biojava3.core.sequence.template.Sequence;
+
+/**
+ * Computes the same local alignment score as {@link SmithWaterman} with the striped query profile method of Farrar
+ * (Bioinformatics 23:156-161, 2007).  The query is split into segments which are processed side by side as lanes
+ * packed into a long, 8 lanes of 8 bits first and, if the score overflows, 4 lanes of 16 bits.  Scores which
+ * overflow 16 bits are computed one cell at a time with ints.  Substitution scores are looked up once per query
+ * position and compound when the query profile is built, so the inner loop works on primitive arrays only.
+ *
+ * The query profile is kept while only the target changes.  For a database search, set the query once and call
+ * {@link #setTarget(Sequence)} followed by {@link #getScore()} for each target.  The alignment itself is only
+ * computed by the {@link SmithWaterman} dynamic programming if {@link #getPair()} or {@link #getProfile()} is called.
+ *
+ * @param <S> each {@link Sequence} of the alignment pair is of type S
+ * @param <C> each element of an {@link AlignedSequence} is a {@link Compound} of type C
+ */
+public class StripedSmithWaterman<S extends Sequence<C>, C extends Compound> extends SmithWaterman<S, C> {
+
+    // query profile: substitution scores of each query position for each compound code
+    private Map<C, Integer> codes;
+    private List<int[]> rows;
+    private long[][] profile8, profile16;
+    private int bias;
+    private boolean shared;
+
+    // output field
+    private int localScore = -1;
+
+    /**
+     * Before running a pairwise local sequence alignment, data must be sent in via calls to
+     * {@link #setQuery(Sequence)}, {@link #setTarget(Sequence)}, {@link #setGapPenalty(GapPenalty)}, and
+     * {@link #setSubstitutionMatrix(SubstitutionMatrix)}.
+     */
+    public StripedSmithWaterman() {
+    }
+
+    /**
+     * Prepares for a pairwise local sequence alignment.
+     *
+     * @param query the first {@link Sequence} of the pair to align
+     * @param target the second {@link Sequence} of the pair to align
+     * @param gapPenalty the gap penalties used during alignment
+     * @param subMatrix the set of substitution scores used during alignment
+     */
+    public StripedSmithWaterman(S query, S target, GapPenalty gapPenalty, SubstitutionMatrix<C> subMatrix) {
+        super(query, target, gapPenalty, subMatrix);
+    }
+
+    @Override
+    public void setQuery(S query) {
+        super.setQuery(query);
+        codes = null;
+    }
+
+    @Override
+    public void setSubstitutionMatrix(SubstitutionMatrix<C> subMatrix) {
+        super.setSubstitutionMatrix(subMatrix);
+        codes = null;
+    }
+
+    // method for Scorer
+
+    /**
+     * Returns the local alignment score without computing the alignment.
+     */
+    @Override
+    public int getScore() {
+        if (localScore < 0) {
+            if (!isReady()) {
+                return super.getScore();
+            }
+            if (codes == null) {
+                setQueryProfile();
+            }
+            int[] target = getCodesOfTarget();
+            short gop = getGapPenalty().getOpenPenalty(), gep = getGapPenalty().getExtensionPenalty();
+            int openExt = -(gop + gep), ext = -gep;
+            // gaps follow any state for a linear penalty but only substitutions for other penalties
+            boolean linear = (getGapPenalty().getType() == GapPenalty.Type.LINEAR);
+            if (profile8 == null && profile16 == null) {
+                setStripedProfiles();
+            }
+            localScore = (profile8 == null) ? -1 : getStripedScore(target, profile8, 8, openExt, ext, linear);
+            if (localScore < 0 && profile16 != null) {
+                localScore = getStripedScore(target, profile16, 16, openExt, ext, linear);
+            }
+            if (localScore < 0) {
+                localScore = getScalarScore(target, openExt, ext, linear);
+            }
+        }
+        return localScore;
+    }
+
+    // method for AbstractMatrixAligner
+
+    @Override
+    protected void reset() {
+        super.reset();
+        localScore = -1;
+    }
+
+    // method for OneToManyAligner
+
+    // shares the query profile with another aligner of the same query, gap penalty and substitution matrix
+    void shareQueryProfile(StripedSmithWaterman<S, C> other) {
+        if (codes == null) {
+            setQueryProfile();
+        }
+        if (profile8 == null && profile16 == null) {
+            setStripedProfiles();
+        }
+        other.codes = codes;
+        other.rows = rows;
+        other.profile8 = profile8;
+        other.profile16 = profile16;
+        other.bias = bias;
+        shared = other.shared = true;
+    }
+
+    // helper methods
+
+    // looks up the substitution scores of the query for every compound of the compound set
+    private void setQueryProfile() {
+        codes = new HashMap<C, Integer>();
+        rows = new ArrayList<int[]>();
+        for (C c : getCompoundSet().getAllCompounds()) {
+            addCode(c);
+        }
+    }
+
+    // adds the substitution scores of the query for another compound
+    private int addCode(C c) {
+        if (shared) {
+            // copy on write, since other aligners read the shared profile
+            codes = new HashMap<C, Integer>(codes);
+            rows = new ArrayList<int[]>(rows);
+            shared = false;
+        }
+        List<C> query = getCompoundsOfQuery();
+        int[] row = new int[query.size()];
+        byte[] ordinals = getOrdinalsOfQuery();
+        int ordinal = getSubstitutionMatrix().getCompoundSet().getOrdinal(c);
+        if (ordinals != null && ordinal >= 0) {
+            short[] matrix = getSubstitutionMatrix().getOrdinalMatrix();
+            int size = getSubstitutionMatrix().getCompoundSet().getAllCompounds().size();
+            for (int i = 0; i < row.length; i++) {
+                row[i] = matrix[(ordinals[i] & 0xff) * size + ordinal];
+            }
+        } else {
+            for (int i = 0; i < row.length; i++) {
+                row[i] = getSubstitutionMatrix().getValue(query.get(i), c);
+            }
+        }
+        int code = rows.size();
+        codes.put(c, code);
+        rows.add(row);
+        profile8 = profile16 = null;
+        return code;
+    }
+
+    // returns the target as codes of the query profile
+    private int[] getCodesOfTarget() {
+        int[] target = new int[getTarget().getLength()];
+        byte[] ordinals = getOrdinalsOfTarget();
+        if (ordinals != null && getCompoundSet().equals(getSubstitutionMatrix().getCompoundSet())) {
+            // codes of the compound set were added in order of ordinal
+            for (int i = 0; i < target.length; i++) {
+                target[i] = ordinals[i] & 0xff;
+            }
+            return target;
+        }
+        int i = 0;
+        for (C c : getTarget()) {
+            Integer code = codes.get(c);
+            target[i++] = (code == null) ? addCode(c) : code;
+        }
+        return target;
+    }
+
+    // packs the query profile into lanes of 8 and 16 bits if the scores fit
+    private void setStripedProfiles() {
+        int min = 0, max = 0;
+        for (int[] row : rows) {
+            for (int value : row) {
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+        }
+        bias = -min;
+        profile8 = (max + bias < 0xff) ? getStripedProfile(8) : null;
+        profile16 = (max + bias < 0xffff) ? getStripedProfile(16) : null;
+    }
+
+    // lane l of segment j holds the biased score of query position l * segments + j
+    private long[][] getStripedProfile(int bits) {
+        int length = getQuery().getLength(), lanes = 64 / bits, segments = Math.max(1, (length + lanes - 1) / lanes);
+        long[][] profile = new long[rows.size()][segments];
+        for (int code = 0; code < profile.length; code++) {
+            int[] row = rows.get(code);
+            for (int j = 0; j < segments; j++) {
+                long vector = 0;
+                for (int l = 0, i = j; l < lanes && i < length; l++, i += segments) {
+                    vector |= (long) (row[i] + bias) << (l * bits);
+                }
+                profile[code][j] = vector;
+            }
+        }
+        return profile;
+    }
+
+    // scores with lanes of the given bits; returns -1 if the score does not fit
+    private int getStripedScore(int[] target, long[][] profile, int bits, int openExt, int ext, boolean linear) {
+        long laneMax = (1L << bits) - 1, ones = 0;
+        for (int l = 0; l < 64; l += bits) {
+            ones |= 1L << l;
+        }
+        long high = ones << (bits - 1), vBias = ones * bias, vOpenExt = ones * Math.min(openExt, laneMax),
+                vExt = ones * Math.min(ext, laneMax), vMax = 0;
+        int segments = profile[0].length;
+        long[] hLoad = new long[segments], hStore = new long[segments], e = new long[segments],
+                f = new long[segments];
+        for (int code : target) {
+            long[] vProfile = profile[code];
+            long vF = 0, vH = hStore[segments - 1] << bits;
+            long[] swap = hLoad;
+            hLoad = hStore;
+            hStore = swap;
+            for (int j = 0; j < segments; j++) {
+                long vS = subtract(add(vH, vProfile[j], high, bits), vBias, high, bits);
+                vMax = max(vMax, vS, high, bits);
+                long vE = e[j];
+                vH = max(max(vS, vE, high, bits), vF, high, bits);
+                hStore[j] = vH;
+                f[j] = vF;
+                long vOpen = subtract(linear ? vH : vS, vOpenExt, high, bits);
+                e[j] = max(subtract(vE, vExt, high, bits), vOpen, high, bits);
+                vF = max(subtract(vF, vExt, high, bits), vOpen, high, bits);
+                vH = hLoad[j];
+            }
+            // carry deletions over from the end of each segment into the next until no lane improves
+            vF <<= bits;
+            for (int j = 0; subtract(vF, f[j], high, bits) != 0; ) {
+                f[j] = max(f[j], vF, high, bits);
+                hStore[j] = max(hStore[j], vF, high, bits);
+                vF = subtract(vF, vExt, high, bits);
+                if (linear) {
+                    e[j] = max(e[j], vF, high, bits);
+                }
+                if (++j == segments) {
+                    vF <<= bits;
+                    j = 0;
+                }
+            }
+        }
+        int score = 0;
+        for (int l = 0; l < 64; l += bits) {
+            score = Math.max(score, (int) ((vMax >>> l) & laneMax));
+        }
+        return (score + bias >= laneMax) ? -1 : score;
+    }
+
+    // scores one cell at a time
+    private int getScalarScore(int[] target, int openExt, int ext, boolean linear) {
+        int length = getQuery().getLength(), score = 0;
+        int[] h = new int[length], e = new int[length];
+        for (int code : target) {
+            int[] row = rows.get(code);
+            int diagonal = 0, f = 0;
+            for (int i = 0; i < length; i++) {
+                int s = Math.max(0, diagonal + row[i]);
+                score = Math.max(score, s);
+                diagonal = h[i];
+                h[i] = Math.max(Math.max(s, e[i]), f);
+                int open = (linear ? h[i] : s) - openExt;
+                e[i] = Math.max(0, Math.max(e[i] - ext, open));
+                f = Math.max(0, Math.max(f - ext, open));
+            }
+        }
+        return score;
+    }
+
+    // adds unsigned lanes, saturating at the largest lane value
+    private static long add(long a, long b, long high, int bits) {
+        long sum = ((a & ~high) + (b & ~high)) ^ ((a ^ b) & high);
+        long carry = ((a & b) | ((a | b) & ~sum)) & high;
+        return sum | ((carry >>> (bits - 1)) * ((1L << bits) - 1));
+    }
+
+    // subtracts unsigned lanes, saturating at 0
+    private static long subtract(long a, long b, long high, int bits) {
+        long difference = ((a | high) - (b & ~high)) ^ ((a ^ ~b) & high);
+        long borrow = ((~a & b) | (~(a ^ b) & difference)) & high;
+        return difference & ~((borrow >>> (bits - 1)) * ((1L << bits) - 1));
+    }
+
+    // maximum of unsigned lanes
+    private static long max(long a, long b, long high, int bits) {
+        return a + subtract(b, a, high, bits);
+    }
+
+}
@@ -0,0 +1,74 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava3.alignment;
+
+import org.biojava3.alignment.routines.KmerIndex;
+import org.biojava3.core.sequence.template.Compound;
+import org.biojava3.core.sequence.template.Sequence;
+
+/**
+ * Implements an algorithm which computes a score for a sequence pair without alignment.  The reported score is the
+ * number of words in either sequence which occur in the other sequence with at most one substitution, out of the
+ * number of words in both sequences, similar to the Wu-Manber distance of KALIGN.
+ *
+ * @param <S> each {@link Sequence} of the pair is of type S
+ * @param <C> each element of a {@link Sequence} is a {@link Compound} of type C
+ */
+public class WuManberScorer<S extends Sequence<C>, C extends Compound> extends AbstractKmerScorer<S, C> {
+
+    /**
+     * Creates a Wu-Manber scorer for a pair of sequences using the default word length.
+     *
+     * @param query the first {@link Sequence} of the pair to score
+     * @param target the second {@link Sequence} of the pair to score
+     */
+    public WuManberScorer(S query, S target) {
+        this(query, target, new KmerIndex<C>(query, KmerIndex.getDefaultWordLength(query, true), true),
+                new KmerIndex<C>(target, KmerIndex.getDefaultWordLength(query, true), true));
+    }
+
+    /**
+     * Creates a Wu-Manber scorer for a pair of sequences from indices shared with the scorers of other pairs.  Both
+     * indices must be built for approximate matching.
+     *
+     * @param query the first {@link Sequence} of the pair to score
+     * @param target the second {@link Sequence} of the pair to score
+     * @param queryIndex index of the first {@link Sequence}
+     * @param targetIndex index of the second {@link Sequence}
+     */
+    public WuManberScorer(S query, S target, KmerIndex<C> queryIndex, KmerIndex<C> targetIndex) {
+        super(query, target, queryIndex, targetIndex);
+    }
+
+    // methods for AbstractKmerScorer
+
+    @Override
+    protected int getWordCount(KmerIndex<C> queryIndex, KmerIndex<C> targetIndex) {
+        return queryIndex.getWordCount() + targetIndex.getWordCount();
+    }
+
+    @Override
+    protected int getMatchCount(KmerIndex<C> queryIndex, KmerIndex<C> targetIndex) {
+        return queryIndex.getApproximateMatchCount(targetIndex);
+    }
+
+}
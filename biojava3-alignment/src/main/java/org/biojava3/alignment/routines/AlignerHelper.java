@@ -152,6 +152,10 @@ public class AlignerHelper {
 
     }
 
+    // packed traceback pointers use 2 bits per state: 0 for no pointer or else the ordinal of Last plus 1
+    private static final int SUBSTITUTION_POINTER = 1, DELETION_POINTER = 2, INSERTION_POINTER = 3;
+    private static final Last[] POINTERS = { null, Last.SUBSTITUTION, Last.DELETION, Last.INSERTION };
+
     // methods
 
     public static short addAnchors(Cut[] cuts, short[] scores, boolean addScore, int[] anchors) {
@@ -227,6 +231,39 @@ public class AlignerHelper {
         return subproblem;
     }
 
+    /**
+     * Returns a cleared row of packed traceback pointers.  Each state of a cell takes 2 bits and the cells do not
+     * cross word boundaries, so a row of 3 state cells takes 10 cells per long and a row of 1 state cells 32.
+     *
+     * @param cells number of cells in the row
+     * @param states number of states in each cell
+     * @return a cleared row of packed traceback pointers
+     */
+    public static long[] getPointerRow(int cells, int states) {
+        int perWord = 32 / states;
+        return new long[(cells + perWord - 1) / perWord];
+    }
+
+    /**
+     * Returns a traceback pointer from a packed row.
+     *
+     * @param pointers row of packed traceback pointers
+     * @param y index of the cell in the row
+     * @param z state within the cell
+     * @param states number of states in each cell
+     * @return traceback pointer or null if there is none
+     */
+    public static Last getPointer(long[] pointers, int y, int z, int states) {
+        int perWord = 32 / states;
+        return POINTERS[(int) (pointers[y / perWord] >>> ((((y % perWord) * states) + z) << 1)) & 3];
+    }
+
+    // adds the packed pointers of all states of a cell to a cleared row
+    private static void setPointers(long[] pointers, int y, int states, int bits) {
+        int perWord = 32 / states;
+        pointers[y / perWord] |= (long) bits << (((y % perWord) * states) << 1);
+    }
+
     // updates cut rows given the latest row of traceback pointers
     public static void setCuts(int x, int[] subproblem, Last[][] pointers, Cut[]cuts) {
         for (Cut c : cuts) {
@@ -236,53 +273,65 @@ public class AlignerHelper {
 
     // scores alignment for a given position in both sequences
     public static Last[] setScorePoint(int x, int y, short gop, short gep, short sub, short[][][] scores) {
-        Last[] pointers = new Last[3];
+        int bits = getScorePoint(x, y, gop, gep, sub, scores);
+        return new Last[] { POINTERS[bits & 3], POINTERS[(bits >> 2) & 3], POINTERS[(bits >> 4) & 3] };
+    }
+
+    // scores alignment for a given position in both sequences for linear gap penalty
+    public static Last setScorePoint(int x, int y, short gep, short sub, short[][][] scores) {
+        return POINTERS[getScorePoint(x, y, gep, sub, scores)];
+    }
+
+    // scores alignment for a given position in both sequences; returns the pointers packed 2 bits per state
+    private static int getScorePoint(int x, int y, short gop, short gep, short sub, short[][][] scores) {
+        short[] diagonal = scores[x - 1][y - 1], up = scores[x - 1][y], left = scores[x][y - 1], point = scores[x][y];
+        int bits;
 
         // substitution
-        if (scores[x - 1][y - 1][1] >= scores[x - 1][y - 1][0] && scores[x - 1][y - 1][1] >= scores[x - 1][y - 1][2]) {
-            scores[x][y][0] = (short) (scores[x - 1][y - 1][1] + sub);
-            pointers[0] = Last.DELETION;
-        } else if (scores[x - 1][y - 1][0] >= scores[x - 1][y - 1][2]) {
-            scores[x][y][0] = (short) (scores[x - 1][y - 1][0] + sub);
-            pointers[0] = Last.SUBSTITUTION;
+        if (diagonal[1] >= diagonal[0] && diagonal[1] >= diagonal[2]) {
+            point[0] = (short) (diagonal[1] + sub);
+            bits = DELETION_POINTER;
+        } else if (diagonal[0] >= diagonal[2]) {
+            point[0] = (short) (diagonal[0] + sub);
+            bits = SUBSTITUTION_POINTER;
         } else {
-            scores[x][y][0] = (short) (scores[x - 1][y - 1][2] + sub);
-            pointers[0] = Last.INSERTION;
+            point[0] = (short) (diagonal[2] + sub);
+            bits = INSERTION_POINTER;
         }
 
         // deletion
-        if (scores[x - 1][y][1] >= scores[x - 1][y][0] + gop) {
-            scores[x][y][1] = (short) (scores[x - 1][y][1] + gep);
-            pointers[1] = Last.DELETION;
+        if (up[1] >= up[0] + gop) {
+            point[1] = (short) (up[1] + gep);
+            bits |= DELETION_POINTER << 2;
         } else {
-            scores[x][y][1] = (short) (scores[x - 1][y][0] + gop + gep);
-            pointers[1] = Last.SUBSTITUTION;
+            point[1] = (short) (up[0] + gop + gep);
+            bits |= SUBSTITUTION_POINTER << 2;
         }
 
         // insertion
-        if (scores[x][y - 1][0] + gop >= scores[x][y - 1][2]) {
-            scores[x][y][2] = (short) (scores[x][y - 1][0] + gop + gep);
-            pointers[2] = Last.SUBSTITUTION;
+        if (left[0] + gop >= left[2]) {
+            point[2] = (short) (left[0] + gop + gep);
+            bits |= SUBSTITUTION_POINTER << 4;
         } else {
-            scores[x][y][2] = (short) (scores[x][y - 1][2] + gep);
-            pointers[2] = Last.INSERTION;
+            point[2] = (short) (left[2] + gep);
+            bits |= INSERTION_POINTER << 4;
         }
 
-        return pointers;
+        return bits;
     }
 
-    // scores alignment for a given position in both sequences for linear gap penalty
-    public static Last setScorePoint(int x, int y, short gep, short sub, short[][][] scores) {
+    // scores alignment for a given position in both sequences for linear gap penalty; returns the packed pointer
+    private static int getScorePoint(int x, int y, short gep, short sub, short[][][] scores) {
         int d = scores[x - 1][y][0] + gep, i = scores[x][y - 1][0] + gep, s = scores[x - 1][y - 1][0] + sub;
         if (d >= s && d >= i) {
             scores[x][y][0] = (short) d;
-            return Last.DELETION;
+            return DELETION_POINTER;
         } else if (s >= i) {
             scores[x][y][0] = (short) s;
-            return Last.SUBSTITUTION;
+            return SUBSTITUTION_POINTER;
         } else {
             scores[x][y][0] = (short) i;
-            return Last.INSERTION;
+            return INSERTION_POINTER;
         }
     }
 
@@ -408,8 +457,7 @@ public class AlignerHelper {
         if (x == xb) {
             pointers = new Last[ye + 1][1];
         } else {
-            pointers = new Last[ye + 1][];
-            pointers[0] = new Last[1];
+            pointers = new Last[ye + 1][1];
             if (!storing && x > 1) {
                 scores[x] = scores[x - 2];
             }
@@ -428,6 +476,100 @@ public class AlignerHelper {
         return pointers;
     }
 
+    // scores global alignment for a given position in the query sequence; packs the pointers into a cleared row
+    public static void setScoreVector(int x, short gop, short gep, short[] subs, boolean storing,
+            short[][][] scores, long[] pointers) {
+        short min = (short) (Short.MIN_VALUE - gop - gep);
+        if (x == 0) {
+            scores[0][0][1] = scores[0][0][2] = gop;
+            for (int y = 1; y < scores[0].length; y++) {
+                scores[0][y][0] = scores[0][y][1] = min;
+                scores[0][y][2] = (short) (scores[0][y - 1][2] + gep);
+                setPointers(pointers, y, 3, INSERTION_POINTER << 4);
+            }
+        } else {
+            if (!storing && x > 1) {
+                scores[x] = scores[x - 2];
+            }
+            scores[x][0][0] = scores[x][0][2] = min;
+            scores[x][0][1] = (short) (scores[x - 1][0][1] + gep);
+            setPointers(pointers, 0, 3, DELETION_POINTER << 2);
+            for (int y = 1; y < scores[x].length; y++) {
+                setPointers(pointers, y, 3, getScorePoint(x, y, gop, gep, subs[y], scores));
+            }
+        }
+    }
+
+    // scores global alignment for a given position in the query sequence for a linear gap penalty; packs the
+    // pointers into a cleared row
+    public static void setScoreVector(int x, short gep, short[] subs, boolean storing, short[][][] scores,
+            long[] pointers) {
+        if (x == 0) {
+            for (int y = 1; y < scores[0].length; y++) {
+                scores[0][y][0] = (short) (scores[0][y - 1][0] + gep);
+                setPointers(pointers, y, 1, INSERTION_POINTER);
+            }
+        } else {
+            if (!storing && x > 1) {
+                scores[x] = scores[x - 2];
+            }
+            scores[x][0][0] = (short) (scores[x - 1][0][0] + gep);
+            setPointers(pointers, 0, 1, DELETION_POINTER);
+            for (int y = 1; y < scores[x].length; y++) {
+                setPointers(pointers, y, 1, getScorePoint(x, y, gep, subs[y], scores));
+            }
+        }
+    }
+
+    // scores local alignment for a given position in the query sequence; packs the pointers into a cleared row
+    public static void setScoreVector(int x, short gop, short gep, short[] subs, boolean storing,
+            short[][][] scores, int[] xyMax, int score, long[] pointers) {
+        if (x > 0) {
+            if (!storing && x > 1) {
+                scores[x] = scores[x - 2];
+            }
+            for (int y = 1; y < scores[x].length; y++) {
+                int bits = getScorePoint(x, y, gop, gep, subs[y], scores);
+                for (int z = 0; z < 3; z++) {
+                    if (scores[x][y][z] <= 0) {
+                        scores[x][y][z] = 0;
+                        bits &= ~(3 << (z << 1));
+                    }
+                }
+                setPointers(pointers, y, 3, bits);
+                if (scores[x][y][0] > score) {
+                    xyMax[0] = x;
+                    xyMax[1] = y;
+                    score = scores[x][y][0];
+                }
+            }
+        }
+    }
+
+    // scores local alignment for a given position in the query sequence for a linear gap penalty; packs the
+    // pointers into a cleared row
+    public static void setScoreVector(int x, short gep, short[] subs, boolean storing, short[][][] scores,
+            int[] xyMax, int score, long[] pointers) {
+        if (x > 0) {
+            if (!storing && x > 1) {
+                scores[x] = scores[x - 2];
+            }
+            for (int y = 1; y < scores[x].length; y++) {
+                int bits = getScorePoint(x, y, gep, subs[y], scores);
+                if (scores[x][y][0] <= 0) {
+                    scores[x][y][0] = 0;
+                } else {
+                    setPointers(pointers, y, 1, bits);
+                    if (scores[x][y][0] > score) {
+                        xyMax[0] = x;
+                        xyMax[1] = y;
+                        score = scores[x][y][0];
+                    }
+                }
+            }
+        }
+    }
+
     /**
      * Sets the alignment path following the list of anchors.
      *
@@ -484,6 +626,35 @@ public class AlignerHelper {
         return new int[] {x, y};
     }
 
+    // finds alignment path through packed traceback matrix
+    public static int[] setSteps(long[][] traceback, int states, boolean local, int[] xyMax, Last last,
+            List<Step> sx, List<Step> sy) {
+        int x = xyMax[0], y = xyMax[1];
+        boolean linear = (states == 1);
+        while (local ? (linear ? last : getPointer(traceback[x], y, last.ordinal(), states)) != null : x > 0 || y > 0) {
+            switch (last) {
+            case DELETION:
+                sx.add(Step.COMPOUND);
+                sy.add(Step.GAP);
+                last = linear ? getPointer(traceback[--x], y, 0, states) : getPointer(traceback[x--], y, 1, states);
+                break;
+            case SUBSTITUTION:
+                sx.add(Step.COMPOUND);
+                sy.add(Step.COMPOUND);
+                last = linear ? getPointer(traceback[--x], --y, 0, states) :
+                        getPointer(traceback[x--], y--, 0, states);
+                break;
+            case INSERTION:
+                sx.add(Step.GAP);
+                sy.add(Step.COMPOUND);
+                last = linear ? getPointer(traceback[x], --y, 0, states) : getPointer(traceback[x], y--, 2, states);
+            }
+        }
+        Collections.reverse(sx);
+        Collections.reverse(sy);
+        return new int[] {x, y};
+    }
+
     // finds global alignment path through traceback matrix
     public static int[] setSteps(Last[][][] traceback, short[][][] scores, List<Step> sx, List<Step> sy) {
         int xMax = scores.length - 1, yMax = scores[xMax].length - 1;
@@ -499,4 +670,18 @@ public class AlignerHelper {
         return setSteps(traceback, true, xyMax, Last.SUBSTITUTION, sx, sy);
     }
 
+    // finds global alignment path through packed traceback matrix
+    public static int[] setSteps(long[][] traceback, short[][][] scores, List<Step> sx, List<Step> sy) {
+        int xMax = scores.length - 1, yMax = scores[xMax].length - 1, states = scores[xMax][yMax].length;
+        Last last = (states == 1) ? getPointer(traceback[xMax], yMax, 0, states) : (scores[xMax][yMax][1] >
+                scores[xMax][yMax][0] && scores[xMax][yMax][1] > scores[xMax][yMax][2]) ? Last.DELETION :
+                (scores[xMax][yMax][0] > scores[xMax][yMax][2]) ? Last.SUBSTITUTION : Last.INSERTION;
+        return setSteps(traceback, states, false, new int[] {xMax, yMax}, last, sx, sy);
+    }
+
+    // finds local alignment path through packed traceback matrix
+    public static int[] setSteps(long[][] traceback, int states, int[] xyMax, List<Step> sx, List<Step> sy) {
+        return setSteps(traceback, states, true, xyMax, Last.SUBSTITUTION, sx, sy);
+    }
+
 }
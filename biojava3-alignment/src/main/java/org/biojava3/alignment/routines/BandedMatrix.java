@@ -0,0 +1,314 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava3.alignment.routines;
+
+import java.util.List;
+
+import org.biojava3.alignment.routines.AlignerHelper.Last;
+import org.biojava3.alignment.template.AlignedSequence.Step;
+
+/**
+ * Dynamic programming matrix anchored at its origin in which each row only holds the cells from a lower to an upper
+ * column.  The rows are either a fixed band of diagonals around the main diagonal or all cells which score within a
+ * drop off of the best score found so far.  Scoring follows {@link AlignerHelper}: a substitution, deletion and
+ * insertion state per cell and gap penalties which are added as negative values.
+ *
+ * Only the traceback pointers of the cells within the rows are kept, one byte per cell, so memory grows with the
+ * area of the band rather than the full matrix.
+ */
+abstract class BandedMatrix {
+
+    static final int NEGATIVE_INFINITY = Integer.MIN_VALUE / 2;
+
+    // packed traceback pointers as in AlignerHelper: 2 bits per state, 0 for none or the ordinal of Last plus 1
+    private static final int SUBSTITUTION = 1, DELETION = 2, INSERTION = 3;
+    private static final Last[] POINTERS = { null, Last.SUBSTITUTION, Last.DELETION, Last.INSERTION };
+
+    private final int rows, cols, gop, gep;
+    private final boolean linear;
+
+    // scores of the previous and current row for the substitution, deletion and insertion states
+    private int[] prevS, prevD, prevI, curS, curD, curI;
+    private int prevLo, prevHi, curLo, curHi;
+
+    // traceback pointers and first column of each filled row
+    private byte[][] pointers;
+    private int[] offsets;
+
+    // best substitution state score and its cell
+    private int best;
+    private int[] bestCell = new int[2];
+
+    /**
+     * Prepares a matrix for aligning rows compounds to cols compounds.
+     *
+     * @param rows number of compounds along the rows (query)
+     * @param cols number of compounds along the columns (target)
+     * @param gop gap open penalty (negative or 0)
+     * @param gep gap extension penalty (negative or 0)
+     * @param linear if true, gaps open after any state rather than only after a substitution
+     */
+    BandedMatrix(int rows, int cols, short gop, short gep, boolean linear) {
+        this.rows = rows;
+        this.cols = cols;
+        this.gop = gop;
+        this.gep = gep;
+        this.linear = linear;
+        prevS = new int[cols + 1];
+        prevD = new int[cols + 1];
+        prevI = new int[cols + 1];
+        curS = new int[cols + 1];
+        curD = new int[cols + 1];
+        curI = new int[cols + 1];
+        pointers = new byte[rows + 1][];
+        offsets = new int[rows + 1];
+    }
+
+    // returns the substitution score for row i and column j, both counted from 1
+    protected abstract int getSubstitution(int i, int j);
+
+    /**
+     * Fills every row with the cells between the diagonals dMin and dMax (column minus row).
+     */
+    void fillBand(int dMin, int dMax) {
+        for (int i = 0; i <= rows; i++) {
+            int lo = Math.max(0, i + dMin), hi = Math.min(cols, i + dMax);
+            if (lo > hi) {
+                break;
+            }
+            startRow(i, lo, hi);
+            for (int j = lo; j <= hi; j++) {
+                setCell(i, j);
+            }
+            endRow(i);
+        }
+    }
+
+    /**
+     * Fills rows with the cells which score no lower than xDrop below the best substitution score so far.  If zDrop
+     * is greater than 0, filling also stops at the first row whose best score drops more than zDrop plus the cost of
+     * the diagonal shift below the best score.
+     */
+    void fillXDrop(int xDrop, int zDrop) {
+        int lo = 0, hi = 0;
+        for (int i = 0; i <= rows && lo <= hi; i++) {
+            startRow(i, lo, hi);
+            int j = lo, alive = -1, firstAlive = -1, rowBest = NEGATIVE_INFINITY, rowBestCol = lo;
+            for (; j <= cols && (j <= hi || alive == j - 1); j++) {
+                setCell(i, j);
+                if (curS[j] > rowBest) {
+                    rowBest = curS[j];
+                    rowBestCol = j;
+                }
+                if (Math.max(curS[j], Math.max(curD[j], curI[j])) < best - xDrop) {
+                    curS[j] = curD[j] = curI[j] = NEGATIVE_INFINITY;
+                } else {
+                    alive = j;
+                    if (firstAlive < 0) {
+                        firstAlive = j;
+                    }
+                }
+            }
+            curHi = j - 1;
+            endRow(i);
+            if (firstAlive < 0) {
+                break;
+            }
+            if (zDrop > 0 && best - rowBest > zDrop - gep * Math.abs((i - bestCell[0]) - (rowBestCol - bestCell[1]))) {
+                break;
+            }
+            lo = firstAlive;
+            hi = Math.min(cols, alive + 1);
+        }
+    }
+
+    /**
+     * Returns the best substitution state score found while filling.
+     */
+    int getBestScore() {
+        return best;
+    }
+
+    /**
+     * Returns row and column of the best substitution state score.
+     */
+    int[] getBestCell() {
+        return bestCell;
+    }
+
+    /**
+     * Returns the substitution, deletion and insertion scores of a cell in the last filled row.
+     */
+    int[] getScores(int j) {
+        return (j < curLo || j > curHi) ? new int[] { NEGATIVE_INFINITY, NEGATIVE_INFINITY, NEGATIVE_INFINITY } :
+                new int[] { curS[j], curD[j], curI[j] };
+    }
+
+    /**
+     * Returns the state ending the best path to a cell in the last filled row, choosing as the full matrix does.
+     */
+    Last getLast(int j) {
+        int[] end = getScores(j);
+        if (linear) {
+            return (end[1] >= end[0] && end[1] >= end[2]) ? Last.DELETION : (end[0] >= end[2]) ? Last.SUBSTITUTION :
+                    Last.INSERTION;
+        }
+        return (end[1] > end[0] && end[1] > end[2]) ? Last.DELETION : (end[0] > end[2]) ? Last.SUBSTITUTION :
+                Last.INSERTION;
+    }
+
+    /**
+     * Adds the steps from the origin to the given cell and state in reverse order.
+     */
+    void setSteps(int i, int j, Last last, List<Step> sx, List<Step> sy) {
+        while (i > 0 || j > 0) {
+            int bits = pointers[i][j - offsets[i]];
+            switch (last) {
+            case DELETION:
+                sx.add(Step.COMPOUND);
+                sy.add(Step.GAP);
+                last = POINTERS[(bits >> 2) & 3];
+                i--;
+                break;
+            case SUBSTITUTION:
+                sx.add(Step.COMPOUND);
+                sy.add(Step.COMPOUND);
+                last = POINTERS[bits & 3];
+                i--;
+                j--;
+                break;
+            case INSERTION:
+                sx.add(Step.GAP);
+                sy.add(Step.COMPOUND);
+                last = POINTERS[(bits >> 4) & 3];
+                j--;
+            }
+        }
+    }
+
+    // helper methods
+
+    private void startRow(int i, int lo, int hi) {
+        int[] swap = prevS;
+        prevS = curS;
+        curS = swap;
+        swap = prevD;
+        prevD = curD;
+        curD = swap;
+        swap = prevI;
+        prevI = curI;
+        curI = swap;
+        prevLo = curLo;
+        prevHi = (i == 0) ? -1 : curHi;
+        curLo = lo;
+        curHi = hi;
+        offsets[i] = lo;
+        pointers[i] = new byte[hi - lo + 1];
+    }
+
+    private void endRow(int i) {
+        if (pointers[i].length != curHi - curLo + 1) {
+            byte[] row = new byte[curHi - curLo + 1];
+            System.arraycopy(pointers[i], 0, row, 0, Math.min(row.length, pointers[i].length));
+            pointers[i] = row;
+        }
+    }
+
+    // grows the pointer row of the current row to hold column j
+    private void ensureColumn(int i, int j) {
+        if (j - curLo >= pointers[i].length) {
+            byte[] row = new byte[Math.min(cols - curLo + 1, 2 * pointers[i].length + 1)];
+            System.arraycopy(pointers[i], 0, row, 0, pointers[i].length);
+            pointers[i] = row;
+        }
+    }
+
+    private void setCell(int i, int j) {
+        ensureColumn(i, j);
+        int s = NEGATIVE_INFINITY, d = NEGATIVE_INFINITY, ins = NEGATIVE_INFINITY, bits = 0;
+        if (i == 0 && j == 0) {
+            s = 0;
+            d = ins = gop;
+        }
+
+        // substitution
+        if (i > 0 && j > 0 && j - 1 >= prevLo && j - 1 <= prevHi) {
+            int ds = prevS[j - 1], dd = prevD[j - 1], di = prevI[j - 1];
+            if (dd >= ds && dd >= di) {
+                s = dd;
+                bits = DELETION;
+            } else if (ds >= di) {
+                s = ds;
+                bits = SUBSTITUTION;
+            } else {
+                s = di;
+                bits = INSERTION;
+            }
+            s = (s <= NEGATIVE_INFINITY) ? NEGATIVE_INFINITY : s + getSubstitution(i, j);
+        }
+
+        // deletion
+        if (i > 0 && j >= prevLo && j <= prevHi) {
+            int open = getOpen(prevS[j], prevD[j], prevI[j]);
+            if (prevD[j] >= open + gop) {
+                d = prevD[j] + gep;
+                bits |= DELETION << 2;
+            } else {
+                d = open + gop + gep;
+                bits |= getOpenPointer(prevS[j], prevD[j], prevI[j]) << 2;
+            }
+        }
+
+        // insertion
+        if (j > 0 && j - 1 >= curLo) {
+            int open = getOpen(curS[j - 1], curD[j - 1], curI[j - 1]);
+            if (open + gop >= curI[j - 1]) {
+                ins = open + gop + gep;
+                bits |= getOpenPointer(curS[j - 1], curD[j - 1], curI[j - 1]) << 4;
+            } else {
+                ins = curI[j - 1] + gep;
+                bits |= INSERTION << 4;
+            }
+        }
+
+        curS[j] = Math.max(s, NEGATIVE_INFINITY);
+        curD[j] = Math.max(d, NEGATIVE_INFINITY);
+        curI[j] = Math.max(ins, NEGATIVE_INFINITY);
+        pointers[i][j - curLo] = (byte) bits;
+        if (curS[j] > best) {
+            best = curS[j];
+            bestCell[0] = i;
+            bestCell[1] = j;
+        }
+    }
+
+    // returns the score a gap opens from
+    private int getOpen(int s, int d, int ins) {
+        return linear ? Math.max(s, Math.max(d, ins)) : s;
+    }
+
+    // returns the state a gap opens from, breaking ties as the single state of a linear gap penalty does
+    private int getOpenPointer(int s, int d, int ins) {
+        return !linear ? SUBSTITUTION : (d >= s && d >= ins) ? DELETION : (s >= ins) ? SUBSTITUTION : INSERTION;
+    }
+
+}
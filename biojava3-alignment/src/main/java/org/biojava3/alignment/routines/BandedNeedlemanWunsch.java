@@ -0,0 +1,156 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava3.alignment.routines;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.biojava3.alignment.NeedlemanWunsch;
+import org.biojava3.alignment.routines.AlignerHelper.Last;
+import org.biojava3.alignment.template.AlignedSequence;
+import org.biojava3.alignment.template.AlignedSequence.Step;
+import org.biojava3.alignment.template.GapPenalty;
+import org.biojava3.alignment.template.SubstitutionMatrix;
+import org.biojava3.core.sequence.template.Compound;
+import org.biojava3.core.sequence.template.Sequence;
+
+/**
+ * Pairwise global sequence alignment restricted to a band of diagonals around the main diagonal.  The band always
+ * contains both the first and the last cell of the matrix, widened by the band width on either side, so time and
+ * space grow with the product of the longer {@link Sequence} length and the band width instead of the product of
+ * both lengths.  The alignment is the same as that of {@link NeedlemanWunsch} whenever the optimal path stays within
+ * the band, which is the case for closely related sequences and a band wider than the largest net run of gaps.
+ *
+ * Unless set, the band width is estimated from the lengths as twice the square root of the shorter length, but at
+ * least {@link #MIN_BAND_WIDTH}.  The score matrix is not kept, so {@link #getScoreMatrix()} returns null.
+ *
+ * @param <S> each {@link Sequence} of the alignment pair is of type S
+ * @param <C> each element of an {@link AlignedSequence} is a {@link Compound} of type C
+ */
+public class BandedNeedlemanWunsch<S extends Sequence<C>, C extends Compound> extends NeedlemanWunsch<S, C> {
+
+    /**
+     * Smallest band width used when the band width is estimated
+     */
+    public static final int MIN_BAND_WIDTH = 16;
+
+    private int bandWidth;
+
+    /**
+     * Before running a pairwise global sequence alignment, data must be sent in via calls to
+     * {@link #setQuery(Sequence)}, {@link #setTarget(Sequence)}, {@link #setGapPenalty(GapPenalty)}, and
+     * {@link #setSubstitutionMatrix(SubstitutionMatrix)}.
+     */
+    public BandedNeedlemanWunsch() {
+    }
+
+    /**
+     * Prepares for a pairwise global sequence alignment with an estimated band width.
+     *
+     * @param query the first {@link Sequence} of the pair to align
+     * @param target the second {@link Sequence} of the pair to align
+     * @param gapPenalty the gap penalties used during alignment
+     * @param subMatrix the set of substitution scores used during alignment
+     */
+    public BandedNeedlemanWunsch(S query, S target, GapPenalty gapPenalty, SubstitutionMatrix<C> subMatrix) {
+        super(query, target, gapPenalty, subMatrix);
+    }
+
+    /**
+     * Prepares for a pairwise global sequence alignment.
+     *
+     * @param query the first {@link Sequence} of the pair to align
+     * @param target the second {@link Sequence} of the pair to align
+     * @param gapPenalty the gap penalties used during alignment
+     * @param subMatrix the set of substitution scores used during alignment
+     * @param bandWidth the number of diagonals on either side of the band center; estimated if 0
+     */
+    public BandedNeedlemanWunsch(S query, S target, GapPenalty gapPenalty, SubstitutionMatrix<C> subMatrix,
+            int bandWidth) {
+        super(query, target, gapPenalty, subMatrix);
+        setBandWidth(bandWidth);
+    }
+
+    /**
+     * Returns the band width set or, if none was set, the width estimated from the sequence lengths.
+     *
+     * @return the number of diagonals on either side of the band center
+     */
+    public int getBandWidth() {
+        if (bandWidth > 0 || getQuery() == null || getTarget() == null) {
+            return bandWidth;
+        }
+        int shorter = Math.min(getQuery().getLength(), getTarget().getLength());
+        return Math.max(MIN_BAND_WIDTH, 2 * (int) Math.sqrt(shorter));
+    }
+
+    /**
+     * Sets the band width.
+     *
+     * @param bandWidth the number of diagonals on either side of the band center; estimated if 0
+     * @throws IllegalArgumentException if bandWidth < 0
+     */
+    public void setBandWidth(int bandWidth) {
+        if (bandWidth < 0) {
+            throw new IllegalArgumentException("Band width must not be negative: " + bandWidth);
+        }
+        this.bandWidth = bandWidth;
+        reset();
+    }
+
+    // method for AbstractMatrixAligner
+
+    @Override
+    protected void align() {
+        if (!isReady()) {
+            return;
+        }
+
+        long timeStart = System.nanoTime();
+
+        int m = getQuery().getLength(), n = getTarget().getLength(), width = getBandWidth();
+        BandedMatrix matrix = new BandedMatrix(m, n, gapPenalty.getOpenPenalty(), gapPenalty.getExtensionPenalty(),
+                gapPenalty.getType() == GapPenalty.Type.LINEAR) {
+            @Override
+            protected int getSubstitution(int i, int j) {
+                return getSubstitutionScore(i, j);
+            }
+        };
+        matrix.fillBand(Math.min(0, n - m) - width, Math.max(0, n - m) + width);
+
+        int[] end = matrix.getScores(n);
+        Last last = matrix.getLast(n);
+        score = (short) Math.max(end[0], Math.max(end[1], end[2]));
+        xyMax = new int[] { m, n };
+        xyStart = new int[] { 0, 0 };
+
+        List<Step> sx = new ArrayList<Step>(), sy = new ArrayList<Step>();
+        matrix.setSteps(m, n, last, sx, sy);
+        Collections.reverse(sx);
+        Collections.reverse(sy);
+        setProfile(sx, sy);
+
+        time = System.nanoTime() - timeStart;
+    }
+
+}
@@ -0,0 +1,243 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava3.alignment.routines;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.biojava3.core.sequence.compound.NucleotideCompound;
+import org.biojava3.core.sequence.template.Compound;
+import org.biojava3.core.sequence.template.Sequence;
+
+/**
+ * Index of the words of a {@link Sequence}, each word of {@link #getWordLength()} {@link Compound}s packed into a
+ * long by the index of each {@link Compound} in the {@link Sequence}'s compound set.  An index is built once per
+ * {@link Sequence} and compared against the index of every other {@link Sequence} by merging sorted arrays, so all
+ * pairs of a large set of {@link Sequence}s are compared in time proportional to their lengths rather than to the
+ * product of their lengths as in dynamic programming.
+ *
+ * An index built for approximate matching additionally sorts the words by each half, so words differing in at most
+ * one {@link Compound} meet in at least one of the two orders, where the whole words are then compared.  This finds
+ * the same matches with up to one substitution as the bit-parallel filter of Wu and Manber for each pair of words.
+ *
+ * @param <C> each element of the {@link Sequence} is a {@link Compound} of type C
+ */
+public class KmerIndex<C extends Compound> {
+
+    /**
+     * Returns a default word length for the given {@link Sequence}: 3 for proteins as in MUSCLE and 6 for nucleotides.
+     * Words of approximate matching are twice as long.
+     *
+     * @param sequence the {@link Sequence} to index
+     * @param approximate if true, words may match with one substitution
+     * @return word length
+     */
+    public static int getDefaultWordLength(Sequence<?> sequence, boolean approximate) {
+        int length = (sequence.getLength() > 0 && sequence.getCompoundAt(1) instanceof NucleotideCompound) ? 6 : 3;
+        return approximate ? 2 * length : length;
+    }
+
+    private final int wordLength, bits, words;
+    private final long[] codes, sorted;
+
+    // for each half of a word, the word starts ordered by that half
+    private int[][] orders;
+    private long[][] keys;
+
+    /**
+     * Creates an index of all words of the given length.
+     *
+     * @param sequence the {@link Sequence} to index
+     * @param wordLength number of {@link Compound}s in each word
+     * @param approximate if true, also sorts words for matching with one substitution
+     * @throws IllegalArgumentException if the words do not fit into a long
+     */
+    public KmerIndex(Sequence<C> sequence, int wordLength, boolean approximate) {
+        List<C> compounds = sequence.getCompoundSet().getAllCompounds();
+        Map<C, Integer> indices = new HashMap<C, Integer>();
+        for (C c : compounds) {
+            indices.put(c, indices.size());
+        }
+        this.wordLength = wordLength;
+        bits = 32 - Integer.numberOfLeadingZeros(Math.max(1, compounds.size() - 1));
+        if (wordLength < 1 || wordLength * bits > 63) {
+            throw new IllegalArgumentException("Words of " + wordLength + " compounds do not fit into a long");
+        }
+
+        // rolling packed code of the word ending at each position
+        int length = sequence.getLength();
+        words = Math.max(0, length - wordLength + 1);
+        codes = new long[words];
+        long mask = (1L << (wordLength * bits)) - 1, code = 0;
+        int n = 0;
+        for (C c : sequence) {
+            Integer index = indices.get(c);
+            code = ((code << bits) | ((index == null) ? 0 : index)) & mask;
+            if (++n >= wordLength) {
+                codes[n - wordLength] = code;
+            }
+        }
+        sorted = codes.clone();
+        Arrays.sort(sorted);
+
+        if (approximate) {
+            // sort by each half with the word start packed below it
+            int low = (wordLength / 2) * bits, startBits = 32 - Integer.numberOfLeadingZeros(words);
+            if (wordLength * bits - low + startBits > 63) {
+                throw new IllegalArgumentException("Sequence too long to index words of " + wordLength);
+            }
+            long[] halves = new long[] { (1L << low) - 1, mask & ~((1L << low) - 1) };
+            orders = new int[2][words];
+            keys = new long[2][words];
+            long[] packed = new long[words];
+            for (int h = 0; h < 2; h++) {
+                for (int i = 0; i < words; i++) {
+                    packed[i] = ((codes[i] & halves[h]) >>> (h * low) << startBits) | i;
+                }
+                Arrays.sort(packed);
+                for (int i = 0; i < words; i++) {
+                    orders[h][i] = (int) (packed[i] & ((1L << startBits) - 1));
+                    keys[h][i] = packed[i] >>> startBits;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of {@link Compound}s in each word.
+     *
+     * @return word length
+     */
+    public int getWordLength() {
+        return wordLength;
+    }
+
+    /**
+     * Returns the number of words in the indexed {@link Sequence}, overlapping words each counted.
+     *
+     * @return number of words
+     */
+    public int getWordCount() {
+        return words;
+    }
+
+    /**
+     * Returns the number of words shared with another index, each word counted as often as it occurs in both.
+     *
+     * @param other index of another {@link Sequence} with equal word length
+     * @return number of shared words
+     */
+    public int getSharedWordCount(KmerIndex<C> other) {
+        checkWordLength(other);
+        long[] s1 = sorted, s2 = other.sorted;
+        int shared = 0;
+        for (int i = 0, j = 0; i < s1.length && j < s2.length; ) {
+            // advances without branching on the order of the words, which is random
+            long w1 = s1[i], w2 = s2[j];
+            shared += (w1 == w2) ? 1 : 0;
+            i += (w1 <= w2) ? 1 : 0;
+            j += (w1 >= w2) ? 1 : 0;
+        }
+        return shared;
+    }
+
+    /**
+     * Returns the number of words of either index which match a word of the other index with at most one
+     * substitution.  Both indices must be built for approximate matching.
+     *
+     * @param other index of another {@link Sequence} with equal word length
+     * @return number of words with an approximate match
+     * @throws IllegalStateException if either index is not built for approximate matching
+     */
+    public int getApproximateMatchCount(KmerIndex<C> other) {
+        checkWordLength(other);
+        if (keys == null || other.keys == null) {
+            throw new IllegalStateException("Index not built for approximate matching");
+        }
+        boolean[] found1 = new boolean[words], found2 = new boolean[other.words];
+        long groups = getGroupMask();
+        int count = 0;
+        for (int h = 0; h < 2; h++) {
+            long[] k1 = keys[h], k2 = other.keys[h];
+            int[] o1 = orders[h], o2 = other.orders[h];
+            for (int i = 0, j = 0; i < k1.length && j < k2.length; ) {
+                if (k1[i] < k2[j]) {
+                    i++;
+                } else if (k1[i] > k2[j]) {
+                    j++;
+                } else {
+                    // compare whole words of the two runs with equal halves
+                    int iEnd = i, jEnd = j;
+                    while (iEnd < k1.length && k1[iEnd] == k1[i]) {
+                        iEnd++;
+                    }
+                    while (jEnd < k2.length && k2[jEnd] == k2[j]) {
+                        jEnd++;
+                    }
+                    for (int a = i; a < iEnd; a++) {
+                        for (int b = j; b < jEnd; b++) {
+                            int w1 = o1[a], w2 = o2[b];
+                            if ((!found1[w1] || !found2[w2]) && isOneSubstitution(codes[w1] ^ other.codes[w2],
+                                    groups)) {
+                                count += (found1[w1] ? 0 : 1) + (found2[w2] ? 0 : 1);
+                                found1[w1] = found2[w2] = true;
+                            }
+                        }
+                    }
+                    i = iEnd;
+                    j = jEnd;
+                }
+            }
+        }
+        return count;
+    }
+
+    // helper methods
+
+    // returns a mask of the lowest bit of each compound in a word
+    private long getGroupMask() {
+        long groups = 0;
+        for (int p = 0; p < wordLength; p++) {
+            groups |= 1L << (p * bits);
+        }
+        return groups;
+    }
+
+    // returns true if the two words xored together differ in at most one compound
+    private boolean isOneSubstitution(long difference, long groups) {
+        long any = difference;
+        for (int b = 1; b < bits; b++) {
+            any |= difference >>> b;
+        }
+        any &= groups;
+        return (any & (any - 1)) == 0;
+    }
+
+    private void checkWordLength(KmerIndex<C> other) {
+        if (wordLength != other.wordLength || bits != other.bits) {
+            throw new IllegalArgumentException("Indices of different word lengths or compound sets");
+        }
+    }
+
+}
@@ -0,0 +1,388 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava3.alignment.routines;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.biojava3.alignment.SmithWaterman;
+import org.biojava3.alignment.routines.AlignerHelper.Last;
+import org.biojava3.alignment.template.AlignedSequence;
+import org.biojava3.alignment.template.AlignedSequence.Step;
+import org.biojava3.alignment.template.GapPenalty;
+import org.biojava3.alignment.template.SubstitutionMatrix;
+import org.biojava3.core.sequence.compound.NucleotideCompound;
+import org.biojava3.core.sequence.template.Compound;
+import org.biojava3.core.sequence.template.Sequence;
+
+/**
+ * Pairwise local sequence alignment by seed and extend, in the style of gapped BLAST.  Seeds are runs of identical
+ * {@link Compound}s found through the words of {@link #getSeedLength()} compounds which the query and target share.
+ * Each seed is extended in both directions by dynamic programming which drops every cell scoring more than the X-drop
+ * below the best score so far and stops when no cell is left.  Optionally, an extension also stops at the first row
+ * whose best score falls more than the Z-drop below the best score, after accounting for the gap extension penalty of
+ * the shift in diagonal, as in BWA-MEM and minimap2.  As in BLAST, seeds are first extended without gaps and only those
+ * whose ungapped score reaches the {@link #getGapTrigger() gap trigger} are extended with gaps, longest first, skipping
+ * seeds which start within the region of an earlier extension.  The longest seed is always extended.  The best extension is
+ * the alignment.
+ *
+ * Only a narrow region around each extension is computed, so closely related sequences align in time and space
+ * roughly proportional to their length.  The result is a heuristic: it can be a suboptimal local alignment with a
+ * lower score than that of {@link SmithWaterman}, in particular when the best local alignment holds no seed word or
+ * drops below the X-drop between two well scoring regions.  If the {@link Sequence}s share no seed word, the
+ * alignment falls back to that of {@link SmithWaterman}.  The score matrix is only kept for the fall back, so
+ * {@link #getScoreMatrix()} usually returns null.
+ *
+ * @param <S> each {@link Sequence} of the alignment pair is of type S
+ * @param <C> each element of an {@link AlignedSequence} is a {@link Compound} of type C
+ */
+public class XDropSmithWaterman<S extends Sequence<C>, C extends Compound> extends SmithWaterman<S, C> {
+
+    /**
+     * Default X-drop, in units of the substitution matrix
+     */
+    public static final int DEFAULT_X_DROP = 50;
+
+    /**
+     * Default gap trigger, in units of the substitution matrix; about the 22 bits of BLAST for BLOSUM62
+     */
+    public static final int DEFAULT_GAP_TRIGGER = 41;
+
+    private int xDrop = DEFAULT_X_DROP, zDrop, seedLength, gapTrigger = DEFAULT_GAP_TRIGGER;
+
+    // score of the extended seed; kept as an int since long extensions overflow the short scores of the matrix
+    private int extensionScore;
+    private boolean extended;
+
+    /**
+     * Before running a pairwise local sequence alignment, data must be sent in via calls to
+     * {@link #setQuery(Sequence)}, {@link #setTarget(Sequence)}, {@link #setGapPenalty(GapPenalty)}, and
+     * {@link #setSubstitutionMatrix(SubstitutionMatrix)}.
+     */
+    public XDropSmithWaterman() {
+    }
+
+    /**
+     * Prepares for a pairwise local sequence alignment.
+     *
+     * @param query the first {@link Sequence} of the pair to align
+     * @param target the second {@link Sequence} of the pair to align
+     * @param gapPenalty the gap penalties used during alignment
+     * @param subMatrix the set of substitution scores used during alignment
+     */
+    public XDropSmithWaterman(S query, S target, GapPenalty gapPenalty, SubstitutionMatrix<C> subMatrix) {
+        super(query, target, gapPenalty, subMatrix);
+    }
+
+    /**
+     * Returns the X-drop.
+     *
+     * @return how far below the best score a cell may score and still be extended
+     */
+    public int getXDrop() {
+        return xDrop;
+    }
+
+    /**
+     * Returns the Z-drop.
+     *
+     * @return how far below the best score the best cell of a row may score before extension stops; 0 if unused
+     */
+    public int getZDrop() {
+        return zDrop;
+    }
+
+    /**
+     * Returns the gap trigger.
+     *
+     * @return the ungapped score a seed needs to be extended with gaps, unless it is the longest seed
+     */
+    public int getGapTrigger() {
+        return gapTrigger;
+    }
+
+    /**
+     * Returns the seed length set or, if none was set, 11 for nucleotides and 3 for other compounds as in BLAST.
+     *
+     * @return the number of identical compounds needed to start a seed
+     */
+    public int getSeedLength() {
+        if (seedLength > 0 || getQuery() == null || getQuery().getLength() == 0) {
+            return seedLength;
+        }
+        return (getQuery().getCompoundAt(1) instanceof NucleotideCompound) ? 11 : 3;
+    }
+
+    /**
+     * Sets the X-drop.
+     *
+     * @param xDrop how far below the best score a cell may score and still be extended
+     * @throws IllegalArgumentException if xDrop < 0
+     */
+    public void setXDrop(int xDrop) {
+        if (xDrop < 0) {
+            throw new IllegalArgumentException("X-drop must not be negative: " + xDrop);
+        }
+        this.xDrop = xDrop;
+        reset();
+    }
+
+    /**
+     * Sets the Z-drop.
+     *
+     * @param zDrop how far below the best score the best cell of a row may score before extension stops; 0 if unused
+     * @throws IllegalArgumentException if zDrop < 0
+     */
+    public void setZDrop(int zDrop) {
+        if (zDrop < 0) {
+            throw new IllegalArgumentException("Z-drop must not be negative: " + zDrop);
+        }
+        this.zDrop = zDrop;
+        reset();
+    }
+
+    /**
+     * Sets the gap trigger.
+     *
+     * @param gapTrigger the ungapped score a seed needs to be extended with gaps, unless it is the longest seed
+     */
+    public void setGapTrigger(int gapTrigger) {
+        this.gapTrigger = gapTrigger;
+        reset();
+    }
+
+    /**
+     * Sets the seed length.
+     *
+     * @param seedLength the number of identical compounds needed to start a seed; chosen by compound type if 0
+     * @throws IllegalArgumentException if seedLength < 0
+     */
+    public void setSeedLength(int seedLength) {
+        if (seedLength < 0) {
+            throw new IllegalArgumentException("Seed length must not be negative: " + seedLength);
+        }
+        this.seedLength = seedLength;
+        reset();
+    }
+
+    // method for Scorer
+
+    @Override
+    public int getScore() {
+        int matrixScore = super.getScore();
+        return (extended) ? extensionScore : matrixScore;
+    }
+
+    // methods for AbstractMatrixAligner
+
+    @Override
+    protected void align() {
+        if (!isReady()) {
+            return;
+        }
+
+        long timeStart = System.nanoTime();
+
+        extended = false;
+        List<int[]> seeds = getSeeds();
+        if (seeds.isEmpty()) {
+            super.align();
+            return;
+        }
+
+        // extend the longest seed, then the others which reach the gap trigger and do not start within the region of
+        // an earlier extension as in BLAST
+        List<Extension> extensions = new ArrayList<Extension>();
+        Extension best = null;
+        for (int[] seed : seeds) {
+            if (best != null && (seed[3] < gapTrigger || isContained(seed, extensions))) {
+                continue;
+            }
+            Extension extension = new Extension(seed);
+            extensions.add(extension);
+            if (best == null || extension.score > best.score) {
+                best = extension;
+            }
+        }
+
+        extended = true;
+        extensionScore = best.score;
+        xyStart = best.start;
+        xyMax = best.end;
+        setProfile(best.sx, best.sy);
+
+        time = System.nanoTime() - timeStart;
+    }
+
+    @Override
+    protected void reset() {
+        super.reset();
+        extended = false;
+    }
+
+    // helper methods
+
+    /**
+     * Finds the runs of identical compounds starting with a shared word, at most one per stretch of a diagonal.
+     * Returns the number of query and target compounds before each run, its length and the score of its ungapped
+     * extension, longest run first.
+     */
+    private List<int[]> getSeeds() {
+        List<int[]> seeds = new ArrayList<int[]>();
+        List<C> query = getQuery().getAsList(), target = getTarget().getAsList();
+        int k = getSeedLength();
+        if (k < 1 || query.size() < k || target.size() < k) {
+            return seeds;
+        }
+
+        // index the words of the query
+        Map<List<C>, List<Integer>> words = new HashMap<List<C>, List<Integer>>();
+        for (int i = 0; i + k <= query.size(); i++) {
+            List<C> word = query.subList(i, i + k);
+            List<Integer> starts = words.get(word);
+            if (starts == null) {
+                words.put(word, starts = new ArrayList<Integer>());
+            }
+            starts.add(i);
+        }
+
+        // extend each hit along its diagonal, skipping hits within a run already extended
+        Map<Integer, Integer> extendedTo = new HashMap<Integer, Integer>();
+        for (int j = 0; j + k <= target.size(); j++) {
+            List<Integer> starts = words.get(target.subList(j, j + k));
+            if (starts == null) {
+                continue;
+            }
+            for (int i : starts) {
+                Integer end = extendedTo.get(j - i);
+                if (end != null && end > j) {
+                    continue;
+                }
+                int length = k;
+                while (i + length < query.size() && j + length < target.size() &&
+                        query.get(i + length).equals(target.get(j + length))) {
+                    length++;
+                }
+                extendedTo.put(j - i, j + length);
+                int[] seed = new int[] { i, j, length, 0 };
+                seed[3] = getUngappedScore(seed);
+                seeds.add(seed);
+            }
+        }
+        Collections.sort(seeds, new Comparator<int[]>() {
+            public int compare(int[] s1, int[] s2) {
+                return (s1[2] != s2[2]) ? s2[2] - s1[2] : (s1[3] > s2[3]) ? -1 : (s1[3] < s2[3]) ? 1 : 0;
+            }
+        });
+        return seeds;
+    }
+
+    // returns true if the seed starts within the query and target range of an extension
+    private boolean isContained(int[] seed, List<Extension> extensions) {
+        for (Extension extension : extensions) {
+            if (seed[0] >= extension.start[0] && seed[0] < extension.end[0] && seed[1] >= extension.start[1] &&
+                    seed[1] < extension.end[1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // returns the score of a seed extended along its diagonal in both directions until the X-drop
+    private int getUngappedScore(int[] seed) {
+        int score = 0;
+        for (int i = 1; i <= seed[2]; i++) {
+            score += getSubstitutionScore(seed[0] + i, seed[1] + i);
+        }
+        int best = 0, run = 0;
+        for (int i = seed[0], j = seed[1]; i > 0 && j > 0 && run >= best - xDrop; i--, j--) {
+            run += getSubstitutionScore(i, j);
+            best = Math.max(best, run);
+        }
+        score += best;
+        best = run = 0;
+        for (int i = seed[0] + seed[2] + 1, j = seed[1] + seed[2] + 1; i <= getQuery().getLength() &&
+                j <= getTarget().getLength() && run >= best - xDrop; i++, j++) {
+            run += getSubstitutionScore(i, j);
+            best = Math.max(best, run);
+        }
+        return score + best;
+    }
+
+    /**
+     * Gapped extension of a seed: to the left over the reversed prefixes, then to the right over the suffixes
+     */
+    private class Extension {
+
+        private final int score;
+        private final int[] start, end;
+        private final List<Step> sx = new ArrayList<Step>(), sy = new ArrayList<Step>();
+
+        private Extension(int[] seed) {
+            final int qStart = seed[0], tStart = seed[1], qEnd = seed[0] + seed[2], tEnd = seed[1] + seed[2];
+            BandedMatrix left = new BandedMatrix(qStart, tStart, gapPenalty.getOpenPenalty(),
+                    gapPenalty.getExtensionPenalty(), gapPenalty.getType() == GapPenalty.Type.LINEAR) {
+                @Override
+                protected int getSubstitution(int i, int j) {
+                    return getSubstitutionScore(qStart + 1 - i, tStart + 1 - j);
+                }
+            };
+            left.fillXDrop(xDrop, zDrop);
+            BandedMatrix right = new BandedMatrix(getQuery().getLength() - qEnd, getTarget().getLength() - tEnd,
+                    gapPenalty.getOpenPenalty(), gapPenalty.getExtensionPenalty(),
+                    gapPenalty.getType() == GapPenalty.Type.LINEAR) {
+                @Override
+                protected int getSubstitution(int i, int j) {
+                    return getSubstitutionScore(qEnd + i, tEnd + j);
+                }
+            };
+            right.fillXDrop(xDrop, zDrop);
+
+            int seedScore = 0;
+            for (int i = 1; i <= seed[2]; i++) {
+                seedScore += getSubstitutionScore(qStart + i, tStart + i);
+            }
+            score = left.getBestScore() + seedScore + right.getBestScore();
+
+            // left steps come out in sequence order, right steps in reverse order
+            int[] leftEnd = left.getBestCell(), rightEnd = right.getBestCell();
+            left.setSteps(leftEnd[0], leftEnd[1], Last.SUBSTITUTION, sx, sy);
+            for (int i = 0; i < seed[2]; i++) {
+                sx.add(Step.COMPOUND);
+                sy.add(Step.COMPOUND);
+            }
+            List<Step> rx = new ArrayList<Step>(), ry = new ArrayList<Step>();
+            right.setSteps(rightEnd[0], rightEnd[1], Last.SUBSTITUTION, rx, ry);
+            Collections.reverse(rx);
+            Collections.reverse(ry);
+            sx.addAll(rx);
+            sy.addAll(ry);
+            start = new int[] { qStart - leftEnd[0], tStart - leftEnd[1] };
+            end = new int[] { qEnd + rightEnd[0], tEnd + rightEnd[1] };
+        }
+    }
+
+}
@@ -58,6 +58,9 @@ public abstract class AbstractMatrixAligner<S extends Sequence<C>, C extends Com
     private String[] types;
     protected long time = -1;
 
+    // scratch buffer
+    private short[] subs;
+
     /**
      * Before running an alignment, data must be sent in via calls to {@link #setGapPenalty(GapPenalty)} and
      * {@link #setSubstitutionMatrix(SubstitutionMatrix)}.
@@ -280,22 +283,29 @@ public abstract class AbstractMatrixAligner<S extends Sequence<C>, C extends Com
             scores[0] = new short[dim[1]][dim[2]];
             scores[1] = new short[dim[1]][dim[2]];
         }
-        Last[][][] traceback = new Last[dim[0]][][];
+        long[][] traceback = new long[dim[0]][];
         boolean linear = (gapPenalty.getType() == GapPenalty.Type.LINEAR);
         for (int x = 0; x < dim[0]; x++) {
+            traceback[x] = getPointerRow(dim[1], dim[2]);
             if (local) {
-                traceback[x] = linear ? setScoreVector(x, gapPenalty.getExtensionPenalty(),
-                        getSubstitutionScoreVector(x), storingScoreMatrix, scores, xyMax, score) : setScoreVector(x,
-                        gapPenalty.getOpenPenalty(), gapPenalty.getExtensionPenalty(), getSubstitutionScoreVector(x),
-                        storingScoreMatrix, scores, xyMax, score);
+                if (linear) {
+                    setScoreVector(x, gapPenalty.getExtensionPenalty(), getSubstitutionScoreVector(x),
+                            storingScoreMatrix, scores, xyMax, score, traceback[x]);
+                } else {
+                    setScoreVector(x, gapPenalty.getOpenPenalty(), gapPenalty.getExtensionPenalty(),
+                            getSubstitutionScoreVector(x), storingScoreMatrix, scores, xyMax, score, traceback[x]);
+                }
                 if (xyMax[0] == x) {
                     score = scores[x][xyMax[1]][0];
                 }
             } else {
-                traceback[x] = linear ? setScoreVector(x, gapPenalty.getExtensionPenalty(),
-                        getSubstitutionScoreVector(x), storingScoreMatrix, scores) : setScoreVector(x,
-                        gapPenalty.getOpenPenalty(), gapPenalty.getExtensionPenalty(), getSubstitutionScoreVector(x),
-                        storingScoreMatrix, scores);
+                if (linear) {
+                    setScoreVector(x, gapPenalty.getExtensionPenalty(), getSubstitutionScoreVector(x),
+                            storingScoreMatrix, scores, traceback[x]);
+                } else {
+                    setScoreVector(x, gapPenalty.getOpenPenalty(), gapPenalty.getExtensionPenalty(),
+                            getSubstitutionScoreVector(x), storingScoreMatrix, scores, traceback[x]);
+                }
             }
         }
         if (!local) {
@@ -306,7 +316,7 @@ public abstract class AbstractMatrixAligner<S extends Sequence<C>, C extends Com
             }
         }
         List<Step> sx = new ArrayList<Step>(), sy = new ArrayList<Step>();
-        xyStart = local ? setSteps(traceback, xyMax, sx, sy) : setSteps(traceback, scores, sx, sy);
+        xyStart = local ? setSteps(traceback, dim[2], xyMax, sx, sy) : setSteps(traceback, scores, sx, sy);
         setProfile(sx, sy);
 
         time = System.nanoTime() - timeStart;
@@ -321,9 +331,12 @@ public abstract class AbstractMatrixAligner<S extends Sequence<C>, C extends Com
         return getSubstitutionScoreVector(queryColumn, new int[] {0, 0, scores.length - 1, scores[0].length - 1});
     }
 
-    // returns score for the alignment of the query column to all target columns
+    // returns score for the alignment of the query column to all target columns; the returned vector is reused by
+    // the next call and only valid within the subproblem
     protected short[] getSubstitutionScoreVector(int queryColumn, int[] subproblem) {
-        short[] subs = new short[subproblem[3] + 1];
+        if (subs == null || subs.length != subproblem[3] + 1) {
+            subs = new short[subproblem[3] + 1];
+        }
         if (queryColumn > 0) {
             for (int y = Math.max(1, subproblem[1]); y <= subproblem[3]; y++) {
                 subs[y] = getSubstitutionScore(queryColumn, y);
@@ -26,9 +26,11 @@ package org.biojava3.alignment.template;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.biojava3.core.exceptions.CompoundNotFoundError;
 import org.biojava3.core.sequence.template.Compound;
 import org.biojava3.core.sequence.template.CompoundSet;
 import org.biojava3.core.sequence.template.Sequence;
+import org.biojava3.core.sequence.template.SequenceMixin;
 
 /**
  * Implements common code for an {@link Aligner} for a pair of {@link Sequence}s.
@@ -46,6 +48,11 @@ public abstract class AbstractPairwiseSequenceAligner<S extends Sequence<C>, C e
     // additional output field
     protected SequencePair<S, C> pair;
 
+    // substitution scores and sequences by compound ordinal, if every compound has one
+    private short[] ordinalMatrix;
+    private int ordinalSize;
+    private byte[] queryOrdinals, targetOrdinals;
+
     /**
      * Before running a pairwise global sequence alignment, data must be sent in via calls to
      * {@link #setQuery(Sequence)}, {@link #setTarget(Sequence)}, {@link #setGapPenalty(GapPenalty)}, and
@@ -151,6 +158,10 @@ public abstract class AbstractPairwiseSequenceAligner<S extends Sequence<C>, C e
 
     @Override
     protected short getSubstitutionScore(int queryColumn, int targetColumn) {
+        if (queryOrdinals != null) {
+            return ordinalMatrix[(queryOrdinals[queryColumn - 1] & 0xff) * ordinalSize +
+                    (targetOrdinals[targetColumn - 1] & 0xff)];
+        }
         return getSubstitutionMatrix().getValue(query.getCompoundAt(queryColumn), target.getCompoundAt(targetColumn));
     }
 
@@ -164,14 +175,26 @@ public abstract class AbstractPairwiseSequenceAligner<S extends Sequence<C>, C e
     protected void reset() {
         super.reset();
         pair = null;
+        queryOrdinals = targetOrdinals = null;
+        ordinalMatrix = null;
         if (query != null && target != null && getGapPenalty() != null && getSubstitutionMatrix() != null &&
                 query.getCompoundSet().equals(target.getCompoundSet())) {
+            setOrdinals();
             int maxq = 0, maxt = 0;
-            for (C c : query) {
-                maxq += getSubstitutionMatrix().getValue(c, c);
-            }
-            for (C c : target) {
-                maxt += getSubstitutionMatrix().getValue(c, c);
+            if (queryOrdinals != null) {
+                for (byte o : queryOrdinals) {
+                    maxq += ordinalMatrix[(o & 0xff) * (ordinalSize + 1)];
+                }
+                for (byte o : targetOrdinals) {
+                    maxt += ordinalMatrix[(o & 0xff) * (ordinalSize + 1)];
+                }
+            } else {
+                for (C c : query) {
+                    maxq += getSubstitutionMatrix().getValue(c, c);
+                }
+                for (C c : target) {
+                    maxt += getSubstitutionMatrix().getValue(c, c);
+                }
             }
             max = (short) Math.max(maxq, maxt);
             score = min = isLocal() ? 0 : (short) (2 * getGapPenalty().getOpenPenalty() + (query.getLength() +
@@ -179,4 +202,42 @@ public abstract class AbstractPairwiseSequenceAligner<S extends Sequence<C>, C e
         }
     }
 
+    // methods for subclasses
+
+    /**
+     * Returns the query encoded as ordinals of the compound set of the substitution matrix, or null if the query
+     * holds a compound outside that set.
+     *
+     * @return the query as compound ordinals
+     */
+    protected byte[] getOrdinalsOfQuery() {
+        return queryOrdinals;
+    }
+
+    /**
+     * Returns the target encoded as ordinals of the compound set of the substitution matrix, or null if the target
+     * holds a compound outside that set.
+     *
+     * @return the target as compound ordinals
+     */
+    protected byte[] getOrdinalsOfTarget() {
+        return targetOrdinals;
+    }
+
+    // helper method that encodes the query and target once so substitution scores come from primitive arrays alone
+    private void setOrdinals() {
+        CompoundSet<C> cs = getSubstitutionMatrix().getCompoundSet();
+        try {
+            byte[] q = SequenceMixin.toOrdinals(query, cs), t = SequenceMixin.toOrdinals(target, cs);
+            ordinalMatrix = getSubstitutionMatrix().getOrdinalMatrix();
+            ordinalSize = cs.getAllCompounds().size();
+            queryOrdinals = q;
+            targetOrdinals = t;
+        } catch (CompoundNotFoundError e) {
+            // falls back to looking up each pair of compounds
+        } catch (IllegalArgumentException e) {
+            // falls back to looking up each pair of compounds
+        }
+    }
+
 }
@@ -51,6 +51,7 @@ public abstract class AbstractProfileProfileAligner<S extends Sequence<C>, C ext
 
     // cached fields
     private List<C> cslist;
+    private short[] ordinalMatrix;
     private float[][] qfrac, tfrac;
 
     // additional output field
@@ -230,6 +231,8 @@ public abstract class AbstractProfileProfileAligner<S extends Sequence<C>, C ext
                 query.getCompoundSet().equals(target.getCompoundSet())) {
             int maxq = 0, maxt = 0;
             cslist = query.getCompoundSet().getAllCompounds();
+            ordinalMatrix = query.getCompoundSet().equals(getSubstitutionMatrix().getCompoundSet()) ?
+                    getSubstitutionMatrix().getOrdinalMatrix() : null;
             qfrac = new float[query.getLength()][];
             for (int i = 0; i < qfrac.length; i++) {
                 qfrac[i] = query.getCompoundWeightsAt(i + 1, cslist);
@@ -253,7 +256,8 @@ public abstract class AbstractProfileProfileAligner<S extends Sequence<C>, C ext
             if (qv[q] > 0.0f) {
                 for (int t = 0; t < tv.length; t++) {
                     if (tv[t] > 0.0f) {
-                        score += qv[q]*tv[t]*getSubstitutionMatrix().getValue(cslist.get(q), cslist.get(t));
+                        score += qv[q]*tv[t]*((ordinalMatrix != null) ? ordinalMatrix[q*tv.length + t] :
+                                getSubstitutionMatrix().getValue(cslist.get(q), cslist.get(t)));
                     }
                 }
             }
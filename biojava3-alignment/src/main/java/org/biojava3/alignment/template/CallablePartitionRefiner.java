@@ -0,0 +1,53 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava3.alignment.template;
+
+import java.util.concurrent.Callable;
+
+import org.biojava3.core.sequence.template.Compound;
+import org.biojava3.core.sequence.template.Sequence;
+
+/**
+ * Implements a concurrency wrapper for a {@link PartitionRefiner}.
+ *
+ * @param <S> each {@link Sequence} of the alignment {@link Profile} is of type S
+ * @param <C> each element of an {@link AlignedSequence} is a {@link Compound} of type C
+ */
+public class CallablePartitionRefiner<S extends Sequence<C>, C extends Compound> implements Callable<Profile<S, C>> {
+
+    private PartitionRefiner<S, C> pr;
+
+    /**
+     * Creates a partition refinement task for simplified parallel execution.
+     *
+     * @param pr already initialized partition refiner
+     */
+    public CallablePartitionRefiner(PartitionRefiner<S, C> pr) {
+        this.pr = pr;
+    }
+
+    @Override
+    public Profile<S, C> call() {
+        return pr.getProfile();
+    }
+
+}
@@ -56,6 +56,16 @@ public interface SubstitutionMatrix<C extends Compound> {
      */
     short[][] getMatrix();
 
+    /**
+     * Returns entire matrix as a flat array in row-major order, indexed by the ordinals of the {@link CompoundSet}.
+     * The value for conversion from one {@link Compound} to another is at {@code from * size + to}, where from and to
+     * are the ordinals of {@link CompoundSet#getOrdinal(Compound)} and size is the number of compounds in the set.
+     * Each value equals that of {@link #getValue(Compound, Compound)}.  The array is shared and must not be modified.
+     *
+     * @return matrix indexed by compound ordinals
+     */
+    short[] getOrdinalMatrix();
+
     /**
      * Returns this matrix as a formatted String with {@link Compound} labels along the axes.
      *
@@ -27,6 +27,8 @@ import static org.junit.Assert.*;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.biojava3.alignment.Alignments.PairwiseSequenceScorerType;
 import org.biojava3.alignment.Alignments.ProfileProfileAlignerType;
@@ -86,6 +88,30 @@ public class GuideTreeTest {
                 "--A-NDR"));
     }
 
+    @Test
+    public void testGetRootSingleThread() {
+        // the only thread never waits on other alignments, so it works through the tree from leaves to root
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        assertEquals(Alignments.getProgressiveAlignment(tree, ProfileProfileAlignerType.GLOBAL, gaps,
+                blosum62, executor).toString(), String.format("%s%n%s%n%s%n%s%n",
+                "--ARND-",
+                "--ARND-",
+                "HILK---",
+                "--A-NDR"));
+        executor.shutdown();
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testGetRootFailure() {
+        // without an aligner type each alignment task fails, which reaches the caller
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Alignments.getProgressiveAlignment(tree, null, gaps, blosum62, executor);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     @Test
     public void testGetScoreMatrix() {
         assertArrayEquals(tree.getScoreMatrix(), new int[][] {
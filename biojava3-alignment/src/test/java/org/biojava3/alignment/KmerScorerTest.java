@@ -0,0 +1,91 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava3.alignment;
+
+import static org.junit.Assert.*;
+
+import org.biojava3.alignment.template.PairwiseSequenceScorer;
+import org.biojava3.core.sequence.ProteinSequence;
+import org.biojava3.core.sequence.compound.AminoAcidCompound;
+import org.junit.Before;
+import org.junit.Test;
+
+public class KmerScorerTest {
+
+    private ProteinSequence query, target;
+    private PairwiseSequenceScorer<ProteinSequence, AminoAcidCompound> scorer1, scorer2;
+
+    @Before
+    public void setup() {
+        query = new ProteinSequence("ARNDCQ");
+        target = new ProteinSequence("RNDCEG");
+        scorer1 = new KmerScorer<ProteinSequence, AminoAcidCompound>(query, target);
+        scorer2 = new KmerScorer<ProteinSequence, AminoAcidCompound>(query, query);
+    }
+
+    @Test
+    public void testGetQuery() {
+        assertEquals(scorer1.getQuery(), query);
+        assertEquals(scorer2.getQuery(), query);
+    }
+
+    @Test
+    public void testGetTarget() {
+        assertEquals(scorer1.getTarget(), target);
+        assertEquals(scorer2.getTarget(), query);
+    }
+
+    @Test
+    public void testGetMaxScore() {
+        assertEquals(scorer1.getMaxScore(), 4);
+        assertEquals(scorer2.getMaxScore(), 4);
+    }
+
+    @Test
+    public void testGetMinScore() {
+        assertEquals(scorer1.getMinScore(), 0);
+        assertEquals(scorer2.getMinScore(), 0);
+    }
+
+    @Test
+    public void testGetScore() {
+        assertEquals(scorer1.getScore(), 2);
+        assertEquals(scorer2.getScore(), 4);
+    }
+
+    @Test
+    public void testGetDistance() {
+        assertEquals(scorer1.getDistance(), 0.5, 0.0);
+        assertEquals(scorer2.getDistance(), 0.0, 0.0);
+    }
+
+    @Test
+    public void testGetDistanceWithoutWords() {
+        // sequences shorter than a word are compared whole
+        ProteinSequence shorter = new ProteinSequence("AR");
+        assertEquals(new KmerScorer<ProteinSequence, AminoAcidCompound>(shorter, shorter).getDistance(), 0.0, 0.0);
+        assertEquals(new KmerScorer<ProteinSequence, AminoAcidCompound>(shorter, new ProteinSequence("AN"))
+                .getDistance(), 1.0, 0.0);
+        assertEquals(new KmerScorer<ProteinSequence, AminoAcidCompound>(shorter, query).getDistance(), 1.0, 0.0);
+    }
+
+}
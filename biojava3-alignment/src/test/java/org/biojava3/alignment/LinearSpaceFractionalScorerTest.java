@@ -0,0 +1,163 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava3.alignment;
+
+import static org.biojava3.alignment.RandomResidues.*;
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.biojava3.alignment.Alignments.PairwiseSequenceScorerType;
+import org.biojava3.alignment.template.GapPenalty;
+import org.biojava3.alignment.template.PairwiseSequenceAligner;
+import org.biojava3.alignment.template.SubstitutionMatrix;
+import org.biojava3.core.sequence.ProteinSequence;
+import org.biojava3.core.sequence.compound.AminoAcidCompound;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LinearSpaceFractionalScorerTest {
+
+    private ProteinSequence query, target;
+    private GapPenalty gaps;
+    private SubstitutionMatrix<AminoAcidCompound> blosum62;
+    private LinearSpaceFractionalScorer<ProteinSequence, AminoAcidCompound> scorer1, scorer2;
+
+    @Before
+    public void setup() {
+        query = new ProteinSequence("ARND");
+        target = new ProteinSequence("RDG");
+        gaps = new SimpleGapPenalty((short) 10, (short) 1);
+        blosum62 = SubstitutionMatrixHelper.getBlosum62();
+        scorer1 = new LinearSpaceFractionalScorer<ProteinSequence, AminoAcidCompound>(query, target,
+                PairwiseSequenceScorerType.GLOBAL_IDENTITIES, gaps, blosum62);
+        scorer2 = new LinearSpaceFractionalScorer<ProteinSequence, AminoAcidCompound>(query, query,
+                PairwiseSequenceScorerType.GLOBAL_IDENTITIES, gaps, blosum62);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testLinearSpaceFractionalScorerType() {
+        new LinearSpaceFractionalScorer<ProteinSequence, AminoAcidCompound>(query, target,
+                PairwiseSequenceScorerType.GLOBAL, gaps, blosum62);
+    }
+
+    @Test
+    public void testGetQuery() {
+        assertEquals(scorer1.getQuery(), query);
+        assertEquals(scorer2.getQuery(), query);
+    }
+
+    @Test
+    public void testGetTarget() {
+        assertEquals(scorer1.getTarget(), target);
+        assertEquals(scorer2.getTarget(), query);
+    }
+
+    @Test
+    public void testGetMaxScore() {
+        assertEquals(scorer1.getMaxScore(), 4);
+        assertEquals(scorer2.getMaxScore(), 4);
+    }
+
+    @Test
+    public void testGetMinScore() {
+        assertEquals(scorer1.getMinScore(), 0);
+        assertEquals(scorer2.getMinScore(), 0);
+    }
+
+    @Test
+    public void testGetScore() {
+        assertEquals(scorer1.getScore(), 1);
+        assertEquals(scorer2.getScore(), 4);
+    }
+
+    @Test
+    public void testGetAlignmentScore() {
+        assertEquals(scorer1.getAlignmentScore(), new NeedlemanWunsch<ProteinSequence, AminoAcidCompound>(query,
+                target, gaps, blosum62).getScore());
+        assertEquals(scorer2.getAlignmentScore(), 21);
+    }
+
+    @Test
+    public void testMatchesAlignment() {
+        Random random = new Random(1);
+        GapPenalty linear = new SimpleGapPenalty((short) 0, (short) 2);
+        for (int i = 0; i < 80; i++) {
+            ProteinSequence q = new ProteinSequence(getRandomResidues(random, RESIDUES, 10 + random.nextInt(100)));
+            ProteinSequence t = new ProteinSequence((i % 8 < 4) ? getMutant(random, q.getSequenceAsString()) :
+                    getRandomResidues(random, RESIDUES, 10 + random.nextInt(100)));
+            assertMatchesAlignment(q, t, (i % 2 == 0) ? gaps : linear, i % 4 >= 2);
+        }
+    }
+
+    @Test
+    public void testMatchesTiedAlignments() {
+        // few residues and small penalties leave many alignments of equal score
+        Random random = new Random(2);
+        GapPenalty[] penalties = new GapPenalty[] {new SimpleGapPenalty((short) 0, (short) 1),
+                new SimpleGapPenalty((short) 2, (short) 1), new SimpleGapPenalty((short) 3, (short) 0)};
+        for (int i = 0; i < 240; i++) {
+            ProteinSequence q = new ProteinSequence(getRandomResidues(random, "AGST", 1 + random.nextInt(30)));
+            ProteinSequence t = new ProteinSequence(getRandomResidues(random, "AGST", 1 + random.nextInt(30)));
+            assertMatchesAlignment(q, t, penalties[i % 3], i % 2 == 1);
+        }
+    }
+
+    // checks the scorers count the alignment traced back by the full matrix aligner
+    private void assertMatchesAlignment(ProteinSequence q, ProteinSequence t, GapPenalty g, boolean local) {
+        PairwiseSequenceAligner<ProteinSequence, AminoAcidCompound> aligner = local ?
+                new SmithWaterman<ProteinSequence, AminoAcidCompound>(q, t, g, blosum62) :
+                new NeedlemanWunsch<ProteinSequence, AminoAcidCompound>(q, t, g, blosum62);
+        LinearSpaceFractionalScorer<ProteinSequence, AminoAcidCompound> identities =
+                new LinearSpaceFractionalScorer<ProteinSequence, AminoAcidCompound>(q, t, local ?
+                PairwiseSequenceScorerType.LOCAL_IDENTITIES : PairwiseSequenceScorerType.GLOBAL_IDENTITIES, g,
+                blosum62);
+        LinearSpaceFractionalScorer<ProteinSequence, AminoAcidCompound> similarities =
+                new LinearSpaceFractionalScorer<ProteinSequence, AminoAcidCompound>(q, t, local ?
+                PairwiseSequenceScorerType.LOCAL_SIMILARITIES : PairwiseSequenceScorerType.GLOBAL_SIMILARITIES,
+                g, blosum62);
+        FractionalIdentityScorer<ProteinSequence, AminoAcidCompound> identical =
+                new FractionalIdentityScorer<ProteinSequence, AminoAcidCompound>(aligner);
+        FractionalSimilarityScorer<ProteinSequence, AminoAcidCompound> similar =
+                new FractionalSimilarityScorer<ProteinSequence, AminoAcidCompound>(aligner);
+        String pair = q + " " + t;
+        assertEquals(pair, aligner.getScore(), identities.getAlignmentScore());
+        assertEquals(pair, aligner.getScore(), similarities.getAlignmentScore());
+        assertEquals(pair, identical.getScore(), identities.getScore());
+        assertEquals(pair, identical.getMaxScore(), identities.getMaxScore());
+        assertEquals(pair, similar.getScore(), similarities.getScore());
+        assertEquals(pair, similar.getMaxScore(), similarities.getMaxScore());
+    }
+
+    // returns the residues with a few substitutions and deletions
+    private static String getMutant(Random random, String residues) {
+        StringBuilder s = new StringBuilder();
+        for (char c : residues.toCharArray()) {
+            int r = random.nextInt(20);
+            if (r > 1) {
+                s.append((r == 2) ? RESIDUES.charAt(random.nextInt(RESIDUES.length())) : c);
+            }
+        }
+        return s.toString();
+    }
+
+}
@@ -0,0 +1,209 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava3.alignment;
+
+import static org.biojava3.alignment.RandomResidues.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.biojava3.alignment.template.GapPenalty;
+import org.biojava3.alignment.template.PairwiseSequenceAligner;
+import org.biojava3.alignment.template.SubstitutionMatrix;
+import org.biojava3.core.sequence.ProteinSequence;
+import org.biojava3.core.sequence.compound.AminoAcidCompound;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OneToManyAlignerTest {
+
+    private ProteinSequence query;
+    private List<ProteinSequence> targets;
+    private GapPenalty gaps;
+    private SubstitutionMatrix<AminoAcidCompound> blosum62;
+    private OneToManyAligner<ProteinSequence, AminoAcidCompound> aligner;
+    private ExecutorService executor;
+
+    @Before
+    public void setup() {
+        query = new ProteinSequence("AERNDKK");
+        targets = new ArrayList<ProteinSequence>();
+        targets.add(new ProteinSequence("ERDNKGFPS"));
+        targets.add(new ProteinSequence("AERNDKK"));
+        targets.add(new ProteinSequence("GGGGGG"));
+        targets.add(new ProteinSequence("ERDNKGFPS"));
+        gaps = new SimpleGapPenalty((short) 2, (short) 1);
+        blosum62 = SubstitutionMatrixHelper.getBlosum62();
+        aligner = new OneToManyAligner<ProteinSequence, AminoAcidCompound>(query, gaps, blosum62);
+        executor = Executors.newFixedThreadPool(3);
+    }
+
+    @After
+    public void teardown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void testAlign() {
+        aligner.setMaxHits(2);
+        List<PairwiseSequenceAligner<ProteinSequence, AminoAcidCompound>> hits =
+                aligner.align(targets.iterator(), executor);
+        assertEquals(aligner.getTargetCount(), 4);
+        assertEquals(hits.size(), 2);
+        assertEquals(hits.get(0).getScore(), 36);
+        assertEquals(hits.get(0).getPair().toString(), String.format("AERNDKK%nAERNDKK%n"));
+        assertEquals(hits.get(1).getScore(), 18);
+        assertSame(hits.get(1).getTarget(), targets.get(0));
+        assertEquals(hits.get(1).getPair().toString(), String.format("ERNDKK%nER-DNK%n"));
+    }
+
+    @Test
+    public void testAlignFewerTargets() {
+        // the target without positive score is no hit
+        assertEquals(aligner.align(targets.iterator(), executor).size(), 3);
+        assertEquals(aligner.align(new ArrayList<ProteinSequence>().iterator(), executor).size(), 0);
+        assertEquals(aligner.getTargetCount(), 0);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testSetMaxHits() {
+        aligner.setMaxHits(0);
+    }
+
+    @Test
+    public void testMatchesSmithWaterman() {
+        Random random = new Random(1);
+        ProteinSequence q = new ProteinSequence(getRandomResidues(random, 200));
+        List<ProteinSequence> database = new ArrayList<ProteinSequence>();
+        List<Integer> scores = new ArrayList<Integer>();
+        for (int i = 0; i < 100; i++) {
+            ProteinSequence t = new ProteinSequence((i % 10 == 0) ? q.getSequenceAsString().substring(i) :
+                    getRandomResidues(random, 20 + random.nextInt(300)));
+            database.add(t);
+            scores.add(new SmithWaterman<ProteinSequence, AminoAcidCompound>(q, t, gaps, blosum62).getScore());
+        }
+        OneToManyAligner<ProteinSequence, AminoAcidCompound> search =
+                new OneToManyAligner<ProteinSequence, AminoAcidCompound>(q, gaps, blosum62);
+        List<PairwiseSequenceAligner<ProteinSequence, AminoAcidCompound>> hits =
+                search.align(database.iterator(), executor);
+        assertEquals(hits.size(), OneToManyAligner.DEFAULT_MAX_HITS);
+        for (int i = 0; i < hits.size(); i++) {
+            // each hit repeats the query from a later start, so scores fall in the order of the database
+            assertSame(hits.get(i).getTarget(), database.get(10 * i));
+            assertEquals(hits.get(i).getScore(), (int) scores.get(10 * i));
+        }
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testAlignFailingTarget() {
+        aligner.align(new Iterator<ProteinSequence>() {
+            public boolean hasNext() {
+                return true;
+            }
+            public ProteinSequence next() {
+                throw new IllegalArgumentException("unreadable target");
+            }
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        }, executor);
+    }
+
+    @Test
+    public void testAlignInterrupted() {
+        Thread.currentThread().interrupt();
+        try {
+            aligner.align(targets.iterator(), executor);
+            fail("interruption ignored");
+        } catch (IllegalStateException e) {
+            assertTrue(Thread.interrupted());
+        }
+    }
+
+    @Test
+    public void testAlignStopsAfterFailure() throws Exception {
+        CountingIterator database = new CountingIterator(100000, 10, null);
+        try {
+            aligner.align(database, executor);
+            fail("failure ignored");
+        } catch (IllegalArgumentException e) {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+            assertTrue(database.taken < 100000);
+        }
+    }
+
+    @Test
+    public void testAlignStopsAfterInterruption() throws Exception {
+        CountingIterator database = new CountingIterator(100000, -1, Thread.currentThread());
+        try {
+            aligner.align(database, executor);
+            fail("interruption ignored");
+        } catch (IllegalStateException e) {
+            assertTrue(Thread.interrupted());
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+            assertTrue(database.taken < 100000);
+        }
+    }
+
+    // returns copies of one target, fails at a given target or interrupts a thread after the tenth
+    private static class CountingIterator implements Iterator<ProteinSequence> {
+
+        private final int size, failure;
+        private final Thread caller;
+        private volatile int taken;
+
+        private CountingIterator(int size, int failure, Thread caller) {
+            this.size = size;
+            this.failure = failure;
+            this.caller = caller;
+        }
+
+        public boolean hasNext() {
+            return taken < size;
+        }
+
+        public ProteinSequence next() {
+            if (taken == failure) {
+                throw new IllegalArgumentException("unreadable target");
+            }
+            if (++taken == 10 && caller != null) {
+                caller.interrupt();
+            }
+            return new ProteinSequence("ERDNKGFPS");
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+    }
+
+}
@@ -0,0 +1,63 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava3.alignment;
+
+import java.util.Random;
+
+/**
+ * Generates random residue strings for the randomized alignment tests.
+ */
+public final class RandomResidues {
+
+    /** the twenty standard amino acids */
+    public static final String RESIDUES = "ACDEFGHIKLMNPQRSTVWY";
+
+    private RandomResidues() { }
+
+    /**
+     * Returns a string of random standard amino acids.
+     *
+     * @param random source of the residues
+     * @param length number of residues
+     * @return random residues
+     */
+    public static String getRandomResidues(Random random, int length) {
+        return getRandomResidues(random, RESIDUES, length);
+    }
+
+    /**
+     * Returns a string of residues drawn at random from the given alphabet.
+     *
+     * @param random source of the residues
+     * @param residues alphabet to draw from
+     * @param length number of residues
+     * @return random residues
+     */
+    public static String getRandomResidues(Random random, String residues, int length) {
+        StringBuilder s = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            s.append(residues.charAt(random.nextInt(residues.length())));
+        }
+        return s.toString();
+    }
+
+}
@@ -0,0 +1,125 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava3.alignment;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.biojava3.alignment.Alignments.HierarchicalClustererType;
+import org.biojava3.alignment.Alignments.PairwiseSequenceScorerType;
+import org.biojava3.alignment.Alignments.ProfileProfileAlignerType;
+import org.biojava3.alignment.template.GapPenalty;
+import org.biojava3.alignment.template.GuideTreeNode;
+import org.biojava3.alignment.template.PairwiseSequenceScorer;
+import org.biojava3.alignment.template.SubstitutionMatrix;
+import org.biojava3.core.sequence.ProteinSequence;
+import org.biojava3.core.sequence.compound.AminoAcidCompound;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class SimpleHierarchicalClustererTest {
+
+    private List<ProteinSequence> proteins;
+    private GapPenalty gaps;
+    private SubstitutionMatrix<AminoAcidCompound> blosum62;
+    private List<PairwiseSequenceScorer<ProteinSequence, AminoAcidCompound>> scorers;
+    private SimpleHierarchicalClusterer<ProteinSequence, AminoAcidCompound> upgma, rapidNJ;
+
+    @Before
+    public void setup() {
+        proteins = Arrays.asList(new ProteinSequence[] {new ProteinSequence("ARND"), new ProteinSequence("ARND"),
+                new ProteinSequence("HILK"), new ProteinSequence("ANDR")});
+        gaps = new SimpleGapPenalty((short) 2, (short) 1);
+        blosum62 = SubstitutionMatrixHelper.getBlosum62();
+        scorers = Alignments.getAllPairsScorers(proteins, PairwiseSequenceScorerType.GLOBAL_IDENTITIES, gaps,
+                blosum62);
+        upgma = new SimpleHierarchicalClusterer<ProteinSequence, AminoAcidCompound>(proteins, scorers,
+                HierarchicalClustererType.UPGMA);
+        rapidNJ = new SimpleHierarchicalClusterer<ProteinSequence, AminoAcidCompound>(proteins, scorers,
+                HierarchicalClustererType.RAPID_NEIGHBOR_JOINING);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testSimpleHierarchicalClusterer() {
+        new SimpleHierarchicalClusterer<ProteinSequence, AminoAcidCompound>(proteins, scorers,
+                HierarchicalClustererType.NEIGHBOR_JOINING);
+    }
+
+    @Test
+    public void testGetDistanceMatrix() {
+        float[][] matrix = upgma.getDistanceMatrix();
+        assertEquals(matrix.length, 4);
+        assertEquals(matrix[0][1], 0.0, 1e-6);
+        assertEquals(matrix[0][3], 0.4, 1e-6);
+        assertEquals(matrix[2][3], 1.0, 1e-6);
+        assertEquals(matrix[3][2], 1.0, 1e-6);
+        assertEquals(matrix[3][3], 0.0, 1e-6);
+    }
+
+    @Test
+    public void testGetRootUPGMA() {
+        GuideTreeNode<ProteinSequence, AminoAcidCompound> root = upgma.getRoot();
+        assertNull(root.getParent());
+        assertEquals(root.getChild2().getName(), "3");
+        assertEquals(root.getChild2().getDistanceToParent(), 0.5, 1e-6);
+        assertEquals(root.getChild1().getDistanceToParent(), 0.3, 1e-6);
+        assertEquals(root.getChild1().getChild2().getName(), "4");
+        assertEquals(root.getChild1().getChild2().getDistanceToParent(), 0.2, 1e-6);
+        assertEquals(root.getChild1().getChild1().getChild1().getName(), "1");
+        assertEquals(root.getChild1().getChild1().getChild2().getName(), "2");
+        assertEquals(root.getChild1().getChild1().getChild1().getProfile().getSize(), 1);
+        assertTrue(root.getChild1().getChild1().getChild1().isLeaf());
+        assertFalse(root.isLeaf());
+    }
+
+    @Test
+    public void testGetRootRapidNeighborJoining() {
+        GuideTreeNode<ProteinSequence, AminoAcidCompound> root = rapidNJ.getRoot();
+        assertEquals(root.getChild2().getName(), "3");
+        assertEquals(root.getChild2().getDistanceToParent(), 0.4, 1e-6);
+        assertEquals(root.getChild1().getDistanceToParent(), 0.4, 1e-6);
+        assertEquals(root.getChild1().getChild2().getName(), "4");
+        assertEquals(root.getChild1().getChild1().getChildCount(), 2);
+    }
+
+    @Test
+    public void testGuideTree() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        GuideTree<ProteinSequence, AminoAcidCompound> tree = new GuideTree<ProteinSequence, AminoAcidCompound>(
+                proteins, scorers, HierarchicalClustererType.UPGMA, executor);
+        assertEquals(tree.toString(),
+                "(((1:0.0,2:0.0):0.20000000298023224,4:0.20000000298023224):0.30000001192092896,3:0.5)");
+        assertEquals(Alignments.getProgressiveAlignment(tree, ProfileProfileAlignerType.GLOBAL, gaps,
+                blosum62, executor).toString(), String.format("%s%n%s%n%s%n%s%n",
+                "ARND--",
+                "ARND--",
+                "A-ND-R",
+                "--HILK"));
+        executor.shutdown();
+    }
+
+}
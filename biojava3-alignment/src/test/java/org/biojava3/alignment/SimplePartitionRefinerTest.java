@@ -0,0 +1,125 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava3.alignment;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.biojava3.alignment.Alignments.PairwiseSequenceScorerType;
+import org.biojava3.alignment.Alignments.ProfileProfileAlignerType;
+import org.biojava3.alignment.Alignments.RefinerType;
+import org.biojava3.alignment.template.GapPenalty;
+import org.biojava3.alignment.template.Profile;
+import org.biojava3.alignment.template.SubstitutionMatrix;
+import org.biojava3.core.sequence.ProteinSequence;
+import org.biojava3.core.sequence.compound.AminoAcidCompound;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class SimplePartitionRefinerTest {
+
+    private List<ProteinSequence> proteins;
+    private GapPenalty gaps;
+    private SubstitutionMatrix<AminoAcidCompound> blosum62;
+    private Profile<ProteinSequence, AminoAcidCompound> msa;
+    private SimplePartitionRefiner<ProteinSequence, AminoAcidCompound> kept, refined;
+
+    @Before
+    public void setup() {
+        proteins = Arrays.asList(new ProteinSequence[] {new ProteinSequence("ARND"), new ProteinSequence("ARND"),
+                new ProteinSequence("HILK"), new ProteinSequence("ANDR")});
+        gaps = new SimpleGapPenalty((short) 2, (short) 1);
+        blosum62 = SubstitutionMatrixHelper.getBlosum62();
+        msa = Alignments.getProgressiveAlignment(new GuideTree<ProteinSequence, AminoAcidCompound>(proteins,
+                Alignments.getAllPairsScorers(proteins, PairwiseSequenceScorerType.GLOBAL_IDENTITIES, gaps,
+                blosum62)), ProfileProfileAlignerType.GLOBAL, gaps, blosum62);
+        kept = new SimplePartitionRefiner<ProteinSequence, AminoAcidCompound>(msa,
+                Collections.singletonList(proteins.get(0)), ProfileProfileAlignerType.GLOBAL, gaps, blosum62);
+        refined = new SimplePartitionRefiner<ProteinSequence, AminoAcidCompound>(msa,
+                Collections.singletonList(proteins.get(2)), ProfileProfileAlignerType.GLOBAL, gaps, blosum62);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testSimplePartitionRefiner() {
+        new SimplePartitionRefiner<ProteinSequence, AminoAcidCompound>(msa, proteins,
+                ProfileProfileAlignerType.GLOBAL, gaps, blosum62);
+    }
+
+    @Test
+    public void testGetQuery() {
+        assertEquals(kept.getQuery().toString(), String.format("%s%n", "ARND"));
+        assertEquals(refined.getQuery().toString(), String.format("%s%n", "HILK"));
+    }
+
+    @Test
+    public void testGetTarget() {
+        assertEquals(refined.getTarget().toString(), String.format("%s%n%s%n%s%n",
+                "ARND-",
+                "ARND-",
+                "A-NDR"));
+    }
+
+    @Test
+    public void testGetProfile() {
+        assertSame(kept.getProfile(), msa);
+        assertEquals(refined.getProfile().toString(), String.format("%s%n%s%n%s%n%s%n",
+                "--HILK",
+                "ARND--",
+                "ARND--",
+                "A-ND-R"));
+    }
+
+    @Test
+    public void testIsRefined() {
+        assertFalse(kept.isRefined());
+        assertTrue(refined.isRefined());
+    }
+
+    @Test
+    public void testGetScore() {
+        assertEquals(kept.getScore(), 24);
+        assertEquals(kept.getMinScore(), 24);
+        assertEquals(refined.getScore(), -26);
+        assertEquals(refined.getMinScore(), -27);
+        assertTrue(refined.getMaxScore() > refined.getScore());
+    }
+
+    @Test
+    public void testMultipleSequenceAlignment() {
+        assertEquals(Alignments.getMultipleSequenceAlignment(proteins, gaps, RefinerType.PARTITION_TREE_ALL,
+                new RefinementBudget(4, 0)).toString(), String.format("%s%n%s%n%s%n%s%n",
+                "--HILK",
+                "ARND--",
+                "ARND--",
+                "A-ND-R"));
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testRescoreRefinementUnsupported() {
+        Alignments.getMultipleSequenceAlignment(proteins, gaps, RefinerType.RESCORE_IDENTITIES);
+    }
+
+}
@@ -80,6 +80,21 @@ public class SimpleSubstitutionMatrixTest {
         assertEquals(matrix.getName(), "IDENTITY_5_1");
     }
 
+    @Test
+    public void testGetOrdinalMatrix() {
+        AminoAcidCompoundSet cs = AminoAcidCompoundSet.getAminoAcidCompoundSet();
+        SubstitutionMatrix<AminoAcidCompound> matrix = new SimpleSubstitutionMatrix<AminoAcidCompound>();
+        short[] ordinalMatrix = matrix.getOrdinalMatrix();
+        int size = cs.getAllCompounds().size();
+        assertEquals(ordinalMatrix.length, size * size);
+        for (AminoAcidCompound from : cs.getAllCompounds()) {
+            for (AminoAcidCompound to : cs.getAllCompounds()) {
+                assertEquals(ordinalMatrix[cs.getOrdinal(from) * size + cs.getOrdinal(to)], matrix.getValue(from, to));
+            }
+        }
+        assertEquals(ordinalMatrix[cs.getOrdinal(cs.getCompoundForString("W")) * (size + 1)], 11);
+    }
+
     @Test
     public void testSetDescription() {
         SubstitutionMatrix<AminoAcidCompound> matrix = new SimpleSubstitutionMatrix<AminoAcidCompound>();
@@ -60,6 +60,14 @@ public class SmithWatermanTest {
         assertEquals(alig.getPair().toString(), String.format("ERNDKK%nER-DNK%n"));
     }
 
+    @Test
+    public void testLinearGapPenalty() {
+        SmithWaterman<ProteinSequence, AminoAcidCompound> linear = new SmithWaterman<ProteinSequence,
+                AminoAcidCompound>(query, target, new SimpleGapPenalty((short) 0, (short) 1), blosum62);
+        assertEquals(linear.getScore(), 20);
+        assertEquals(linear.getPair().toString(), String.format("ERNDKK%nER-DNK%n"));
+    }
+
     @Test
     public void testGetQuery() {
         assertEquals(alignment.getQuery(), query);
@@ -0,0 +1,100 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava3.alignment;
+
+import static org.biojava3.alignment.RandomResidues.*;
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.biojava3.alignment.template.GapPenalty;
+import org.biojava3.alignment.template.SubstitutionMatrix;
+import org.biojava3.core.sequence.ProteinSequence;
+import org.biojava3.core.sequence.compound.AminoAcidCompound;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StripedSmithWatermanTest {
+
+    private ProteinSequence query, target;
+    private GapPenalty gaps;
+    private SubstitutionMatrix<AminoAcidCompound> blosum62;
+    private StripedSmithWaterman<ProteinSequence, AminoAcidCompound> alignment, self;
+
+    @Before
+    public void setup() {
+        query = new ProteinSequence("AERNDKK");
+        target = new ProteinSequence("ERDNKGFPS");
+        gaps = new SimpleGapPenalty((short) 2, (short) 1);
+        blosum62 = SubstitutionMatrixHelper.getBlosum62();
+        alignment = new StripedSmithWaterman<ProteinSequence, AminoAcidCompound>(query, target, gaps, blosum62);
+        self = new StripedSmithWaterman<ProteinSequence, AminoAcidCompound>(query, query, gaps, blosum62);
+    }
+
+    @Test
+    public void testStripedSmithWaterman() {
+        StripedSmithWaterman<ProteinSequence, AminoAcidCompound> alig =
+                new StripedSmithWaterman<ProteinSequence, AminoAcidCompound>();
+        alig.setQuery(query);
+        alig.setTarget(target);
+        alig.setGapPenalty(gaps);
+        alig.setSubstitutionMatrix(blosum62);
+        assertEquals(alig.getScore(), 18);
+        assertEquals(alig.getPair().toString(), String.format("ERNDKK%nER-DNK%n"));
+    }
+
+    @Test
+    public void testGetScore() {
+        assertEquals(alignment.getScore(), 18);
+        assertEquals(self.getScore(), 36);
+    }
+
+    @Test
+    public void testGetPair() {
+        assertEquals(alignment.getPair().toString(), String.format("ERNDKK%nER-DNK%n"));
+        assertEquals(self.getPair().toString(), String.format("AERNDKK%nAERNDKK%n"));
+    }
+
+    @Test
+    public void testSetTarget() {
+        alignment.setTarget(query);
+        assertEquals(alignment.getScore(), 36);
+        alignment.setTarget(target);
+        assertEquals(alignment.getScore(), 18);
+    }
+
+    @Test
+    public void testMatchesSmithWaterman() {
+        Random random = new Random(1);
+        GapPenalty affine = new SimpleGapPenalty((short) 10, (short) 1);
+        for (int i = 0; i < 50; i++) {
+            // long enough for some scores to overflow 8 bit lanes
+            ProteinSequence q = new ProteinSequence(getRandomResidues(random, 20 + random.nextInt(300)));
+            ProteinSequence t = new ProteinSequence((i % 2 == 0) ? q.getSequenceAsString() + "W" :
+                    getRandomResidues(random, 20 + random.nextInt(300)));
+            assertEquals(new StripedSmithWaterman<ProteinSequence, AminoAcidCompound>(q, t, affine, blosum62)
+                    .getScore(), new SmithWaterman<ProteinSequence, AminoAcidCompound>(q, t, affine, blosum62)
+                    .getScore());
+        }
+    }
+
+}
@@ -0,0 +1,49 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava3.alignment;
+
+import static org.junit.Assert.*;
+
+import org.biojava3.core.sequence.ProteinSequence;
+import org.biojava3.core.sequence.compound.AminoAcidCompound;
+import org.junit.Test;
+
+/**
+ * Tests what WuManberScorer counts; the scoring common to KmerScorer is tested in {@link KmerScorerTest}.
+ */
+public class WuManberScorerTest {
+
+    @Test
+    public void testCountsApproximateMatches() {
+        ProteinSequence query = new ProteinSequence("ARNDCQEG"), target = new ProteinSequence("ARNDCWEH");
+        WuManberScorer<ProteinSequence, AminoAcidCompound> scorer =
+                new WuManberScorer<ProteinSequence, AminoAcidCompound>(query, target);
+        // 3 words of 6 in each sequence, 2 of each within one substitution of a word of the other
+        assertEquals(scorer.getMaxScore(), 6);
+        assertEquals(scorer.getScore(), 4);
+        WuManberScorer<ProteinSequence, AminoAcidCompound> self =
+                new WuManberScorer<ProteinSequence, AminoAcidCompound>(query, query);
+        assertEquals(self.getMaxScore(), 6);
+        assertEquals(self.getScore(), 6);
+    }
+
+}
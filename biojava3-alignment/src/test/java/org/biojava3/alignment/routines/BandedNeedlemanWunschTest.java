@@ -0,0 +1,132 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ */
+
+package org.biojava3.alignment.routines;
+
+import static org.biojava3.alignment.RandomResidues.*;
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.biojava3.alignment.NeedlemanWunsch;
+import org.biojava3.alignment.SimpleGapPenalty;
+import org.biojava3.alignment.SubstitutionMatrixHelper;
+import org.biojava3.alignment.template.GapPenalty;
+import org.biojava3.alignment.template.SubstitutionMatrix;
+import org.biojava3.core.sequence.ProteinSequence;
+import org.biojava3.core.sequence.compound.AminoAcidCompound;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BandedNeedlemanWunschTest {
+
+    private ProteinSequence query, target;
+    private GapPenalty gaps;
+    private SubstitutionMatrix<AminoAcidCompound> blosum62;
+    private BandedNeedlemanWunsch<ProteinSequence, AminoAcidCompound> alignment, self;
+
+    @Before
+    public void setup() {
+        query = new ProteinSequence("ARND");
+        target = new ProteinSequence("RDG");
+        gaps = new SimpleGapPenalty((short) 10, (short) 1);
+        blosum62 = SubstitutionMatrixHelper.getBlosum62();
+        alignment = new BandedNeedlemanWunsch<ProteinSequence, AminoAcidCompound>(query, target, gaps, blosum62);
+        self = new BandedNeedlemanWunsch<ProteinSequence, AminoAcidCompound>(query, query, gaps, blosum62);
+    }
+
+    @Test
+    public void testBandedNeedlemanWunsch() {
+        BandedNeedlemanWunsch<ProteinSequence, AminoAcidCompound> alig =
+                new BandedNeedlemanWunsch<ProteinSequence, AminoAcidCompound>();
+        alig.setQuery(query);
+        alig.setTarget(target);
+        alig.setGapPenalty(gaps);
+        alig.setSubstitutionMatrix(blosum62);
+        assertEquals(alig.getScore(), -6);
+        assertEquals(alig.getPair().toString(), String.format("ARND%n-RDG%n"));
+    }
+
+    @Test
+    public void testGetBandWidth() {
+        assertEquals(alignment.getBandWidth(), BandedNeedlemanWunsch.MIN_BAND_WIDTH);
+        alignment.setBandWidth(1);
+        assertEquals(alignment.getBandWidth(), 1);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testSetBandWidthNegative() {
+        alignment.setBandWidth(-1);
+    }
+
+    @Test
+    public void testGetScore() {
+        assertEquals(alignment.getScore(), -6);
+        assertEquals(self.getScore(), 21);
+    }
+
+    @Test
+    public void testGetPair() {
+        assertEquals(alignment.getPair().toString(), String.format("ARND%n-RDG%n"));
+        assertEquals(self.getPair().toString(), String.format("ARND%nARND%n"));
+    }
+
+    @Test
+    public void testNarrowBand() {
+        // band of the length difference only, so the single gap must stay at an end
+        alignment.setBandWidth(1);
+        assertEquals(alignment.getPair().toString(), String.format("ARND%n-RDG%n"));
+        self.setBandWidth(1);
+        assertEquals(self.getScore(), 21);
+    }
+
+    @Test
+    public void testMatchesNeedlemanWunsch() {
+        Random random = new Random(1);
+        GapPenalty[] penalties = { gaps, new SimpleGapPenalty((short) 0, (short) 2) };
+        for (int i = 0; i < 40; i++) {
+            ProteinSequence q = new ProteinSequence(getRandomResidues(random, 50 + random.nextInt(300)));
+            ProteinSequence t = new ProteinSequence(getMutatedResidues(random, q.getSequenceAsString()));
+            GapPenalty g = penalties[i % penalties.length];
+            NeedlemanWunsch<ProteinSequence, AminoAcidCompound> full =
+                    new NeedlemanWunsch<ProteinSequence, AminoAcidCompound>(q, t, g, blosum62);
+            BandedNeedlemanWunsch<ProteinSequence, AminoAcidCompound> banded =
+                    new BandedNeedlemanWunsch<ProteinSequence, AminoAcidCompound>(q, t, g, blosum62);
+            assertEquals(banded.getScore(), full.getScore());
+            assertEquals(banded.getPair().toString(), full.getPair().toString());
+        }
+    }
+
+    // about 95% identity with substitutions, deletions and insertions
+    static String getMutatedResidues(Random random, String residues) {
+        StringBuilder s = new StringBuilder();
+        for (char c : residues.toCharArray()) {
+            double x = random.nextDouble();
+            if (x >= 0.02) {
+                s.append((x < 0.04) ? RESIDUES.charAt(random.nextInt(RESIDUES.length())) : c);
+            }
+            if (x >= 0.04 && x < 0.06) {
+                s.append(RESIDUES.charAt(random.nextInt(RESIDUES.length())));
+            }
+        }
+        return s.toString();
+    }
+
+}
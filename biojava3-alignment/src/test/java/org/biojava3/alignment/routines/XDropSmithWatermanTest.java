@@ -0,0 +1,146 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ */
+
+package org.biojava3.alignment.routines;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.biojava3.alignment.RandomResidues;
+import org.biojava3.alignment.SimpleGapPenalty;
+import org.biojava3.alignment.SmithWaterman;
+import org.biojava3.alignment.SubstitutionMatrixHelper;
+import org.biojava3.alignment.template.GapPenalty;
+import org.biojava3.alignment.template.SubstitutionMatrix;
+import org.biojava3.core.sequence.ProteinSequence;
+import org.biojava3.core.sequence.compound.AminoAcidCompound;
+import org.junit.Before;
+import org.junit.Test;
+
+public class XDropSmithWatermanTest {
+
+    private ProteinSequence query, target;
+    private GapPenalty gaps;
+    private SubstitutionMatrix<AminoAcidCompound> blosum62;
+    private XDropSmithWaterman<ProteinSequence, AminoAcidCompound> alignment, self;
+
+    @Before
+    public void setup() {
+        query = new ProteinSequence("AERNDKK");
+        target = new ProteinSequence("ERDNKGFPS");
+        gaps = new SimpleGapPenalty((short) 2, (short) 1);
+        blosum62 = SubstitutionMatrixHelper.getBlosum62();
+        alignment = new XDropSmithWaterman<ProteinSequence, AminoAcidCompound>(query, target, gaps, blosum62);
+        self = new XDropSmithWaterman<ProteinSequence, AminoAcidCompound>(query, query, gaps, blosum62);
+    }
+
+    @Test
+    public void testXDropSmithWaterman() {
+        XDropSmithWaterman<ProteinSequence, AminoAcidCompound> alig =
+                new XDropSmithWaterman<ProteinSequence, AminoAcidCompound>();
+        alig.setQuery(query);
+        alig.setTarget(target);
+        alig.setGapPenalty(gaps);
+        alig.setSubstitutionMatrix(blosum62);
+        alig.setSeedLength(2);
+        assertEquals(alig.getScore(), 18);
+        assertEquals(alig.getPair().toString(), String.format("ERNDKK%nER-DNK%n"));
+    }
+
+    @Test
+    public void testGetSeedLength() {
+        assertEquals(alignment.getSeedLength(), 3);
+        alignment.setSeedLength(2);
+        assertEquals(alignment.getSeedLength(), 2);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testSetXDropNegative() {
+        alignment.setXDrop(-1);
+    }
+
+    @Test
+    public void testGetScore() {
+        // no shared word of 3, so the full matrix is used
+        assertEquals(alignment.getScore(), 18);
+        assertEquals(self.getScore(), 36);
+    }
+
+    @Test
+    public void testGetPair() {
+        assertEquals(alignment.getPair().toString(), String.format("ERNDKK%nER-DNK%n"));
+        assertEquals(self.getPair().toString(), String.format("AERNDKK%nAERNDKK%n"));
+    }
+
+    @Test
+    public void testSetXDrop() {
+        // opening the gap costs 3, so a smaller drop stops the extension before it
+        alignment.setSeedLength(2);
+        alignment.setXDrop(2);
+        assertEquals(alignment.getScore(), 17);
+        assertEquals(alignment.getPair().toString(), String.format("ERNDK%nERDNK%n"));
+        alignment.setXDrop(3);
+        assertEquals(alignment.getScore(), 18);
+        assertEquals(alignment.getPair().toString(), String.format("ERNDKK%nER-DNK%n"));
+    }
+
+    @Test
+    public void testMatchesSmithWaterman() {
+        Random random = new Random(1);
+        GapPenalty affine = new SimpleGapPenalty((short) 10, (short) 1);
+        for (int i = 0; i < 40; i++) {
+            String residues = RandomResidues.getRandomResidues(random, 50 + random.nextInt(300));
+            ProteinSequence q = new ProteinSequence(residues);
+            ProteinSequence t = new ProteinSequence(BandedNeedlemanWunschTest.getMutatedResidues(random, residues));
+            assertEquals(new XDropSmithWaterman<ProteinSequence, AminoAcidCompound>(q, t, affine, blosum62)
+                    .getScore(), new SmithWaterman<ProteinSequence, AminoAcidCompound>(q, t, affine, blosum62)
+                    .getScore());
+        }
+    }
+
+    @Test
+    public void testExtendsEverySeed() {
+        // the longest seed GGGGGG scores 36, the shorter seeds of the second region together score 82
+        ProteinSequence q = new ProteinSequence("GGGGGGPPWCWHMYWCWHMY"), t = new ProteinSequence("DDDWCWAMYWCWAMYPPGGGGGG");
+        XDropSmithWaterman<ProteinSequence, AminoAcidCompound> alig =
+                new XDropSmithWaterman<ProteinSequence, AminoAcidCompound>(q, t, gaps, blosum62);
+        assertEquals(alig.getScore(), 82);
+        assertEquals(alig.getScore(), new SmithWaterman<ProteinSequence, AminoAcidCompound>(q, t, gaps, blosum62)
+                .getScore());
+        assertEquals(alig.getPair().toString(), String.format("WCWHMYWCWHMY%nWCWAMYWCWAMY%n"));
+        alig.setGapTrigger(Integer.MAX_VALUE);
+        assertEquals(alig.getScore(), 36);
+    }
+
+    @Test
+    public void testGetScoreAboveShortRange() {
+        String residues = RandomResidues.getRandomResidues(new Random(2), 8000);
+        ProteinSequence q = new ProteinSequence(residues);
+        int expected = 0;
+        for (AminoAcidCompound c : q) {
+            expected += blosum62.getValue(c, c);
+        }
+        assertTrue(expected > Short.MAX_VALUE);
+        assertEquals(new XDropSmithWaterman<ProteinSequence, AminoAcidCompound>(q, q, gaps, blosum62).getScore(),
+                expected);
+    }
+
+}
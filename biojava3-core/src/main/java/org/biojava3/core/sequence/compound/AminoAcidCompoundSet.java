@@ -47,6 +47,7 @@ public class AminoAcidCompoundSet implements CompoundSet<AminoAcidCompound> {
     private final Map<String, AminoAcidCompound> aminoAcidCompoundCache = new HashMap<String, AminoAcidCompound>();
     private final Map<AminoAcidCompound, Set<AminoAcidCompound>> equivalentsCache =
             new HashMap<AminoAcidCompound, Set<AminoAcidCompound>>();
+    private final Map<String, Integer> ordinals = new HashMap<String, Integer>();
 
     public AminoAcidCompoundSet() {
         aminoAcidCompoundCache.put("A", new AminoAcidCompound(this, "A", "Ala", "Alanine", 71.0788f));
@@ -87,6 +88,11 @@ public class AminoAcidCompoundSet implements CompoundSet<AminoAcidCompound> {
         //this amino acid under the presence of pylT which creates an anti-codon CUA & pylS
         //which then does the actual conversion to Pyl.
         aminoAcidCompoundCache.put("O", new AminoAcidCompound(this, "O", "Pyl", "Pyrrolysine", 255.3172f));
+
+        // same order as the values of the cache in getAllCompounds()
+        for (String s : aminoAcidCompoundCache.keySet()) {
+            ordinals.put(s, ordinals.size());
+        }
     }
 
     public String getStringForCompound(AminoAcidCompound compound) {
@@ -189,4 +195,9 @@ public class AminoAcidCompoundSet implements CompoundSet<AminoAcidCompound> {
         return new ArrayList<AminoAcidCompound>(aminoAcidCompoundCache.values());
     }
 
+    public int getOrdinal(AminoAcidCompound compound) {
+        Integer ordinal = ordinals.get(compound.toString());
+        return (ordinal == null) ? -1 : ordinal;
+    }
+
 }
@@ -0,0 +1,392 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava3.core.sequence.io;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import org.biojava3.core.exceptions.ParserException;
+import org.biojava3.core.sequence.loader.SequenceFileProxyLoader;
+import org.biojava3.core.sequence.template.Compound;
+import org.biojava3.core.sequence.template.CompoundSet;
+
+/**
+ * Index of a fasta file which is compatible with the .fai files written by
+ * samtools faidx. For every record the name, length, offset of the first residue,
+ * number of residues per line and number of bytes per line are kept which is
+ * enough to compute the file offset of any position without reading the record.
+ *
+ * The index is built by scanning the fasta file and can be written next to it on
+ * request so later runs only have to read the small .fai file. All lines of a record except
+ * the last must have the same length.
+ */
+public class FastaIndex {
+
+    public static final String INDEX_EXTENSION = ".fai";
+
+    private final File fastaFile;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>();
+
+    /**
+     * A single record of the index
+     */
+    public static class Entry {
+
+        private final String name;
+        private final long length;
+        private final long offset;
+        private final int lineBases;
+        private final int lineWidth;
+
+        public Entry(String name, long length, long offset, int lineBases, int lineWidth) {
+            this.name = name;
+            this.length = length;
+            this.offset = offset;
+            this.lineBases = lineBases;
+            this.lineWidth = lineWidth;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return number of residues in the record
+         */
+        public long getLength() {
+            return length;
+        }
+
+        /**
+         * @return file offset of the first residue
+         */
+        public long getOffset() {
+            return offset;
+        }
+
+        /**
+         * @return number of residues on each line
+         */
+        public int getLineBases() {
+            return lineBases;
+        }
+
+        /**
+         * @return number of bytes on each line including the line terminator
+         */
+        public int getLineWidth() {
+            return lineWidth;
+        }
+
+        /**
+         * @param bioPosition 1 based position in the record
+         * @return file offset of the residue at bioPosition
+         */
+        public long getOffset(long bioPosition) {
+            long index = bioPosition - 1;
+            if (lineBases == 0) {
+                return offset;
+            }
+            return offset + (index / lineBases) * lineWidth + (index % lineBases);
+        }
+
+        @Override
+        public String toString() {
+            return name + "\t" + length + "\t" + offset + "\t" + lineBases + "\t" + lineWidth;
+        }
+    }
+
+    private FastaIndex(File fastaFile) {
+        this.fastaFile = fastaFile;
+    }
+
+    /**
+     * Return the index of a fasta file. If an up to date .fai file exists next to the
+     * fasta file it is read, otherwise the index is built in memory. Nothing is written.
+     * @param fastaFile
+     * @return
+     * @throws Exception
+     */
+    public static FastaIndex getIndex(File fastaFile) throws Exception {
+        return getIndex(fastaFile, false);
+    }
+
+    /**
+     * Return the index of a fasta file. If an up to date .fai file exists next to the
+     * fasta file it is read, otherwise the index is built and, if writeIndex is set, written
+     * next to the fasta file for later runs. When the file cannot be written, for example in
+     * a read only mirror, the index built in memory is returned.
+     * @param fastaFile
+     * @param writeIndex write a newly built index to the default location
+     * @return
+     * @throws Exception
+     */
+    public static FastaIndex getIndex(File fastaFile, boolean writeIndex) throws Exception {
+        File indexFile = getIndexFile(fastaFile);
+        if (indexFile.exists() && indexFile.lastModified() >= fastaFile.lastModified()) {
+            return read(fastaFile, indexFile);
+        }
+        FastaIndex fastaIndex = build(fastaFile);
+        if (writeIndex) {
+            try {
+                fastaIndex.write(indexFile);
+            } catch (IOException e) {
+                //keep the index in memory, a partial file would look up to date next time
+                indexFile.delete();
+            }
+        }
+        return fastaIndex;
+    }
+
+    /**
+     * @param fastaFile
+     * @return the default location of the index, the fasta file name with .fai appended
+     */
+    public static File getIndexFile(File fastaFile) {
+        return new File(fastaFile.getPath() + INDEX_EXTENSION);
+    }
+
+    /**
+     * Read a .fai index file
+     * @param fastaFile the indexed fasta file
+     * @param indexFile
+     * @return
+     * @throws Exception
+     */
+    public static FastaIndex read(File fastaFile, File indexFile) throws Exception {
+        FastaIndex fastaIndex = new FastaIndex(fastaFile);
+        BufferedReader br = new BufferedReader(new FileReader(indexFile));
+        try {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.length() == 0) {
+                    continue;
+                }
+                String[] values = line.split("\t");
+                if (values.length < 5) {
+                    throw new ParserException("Invalid fasta index line in " + indexFile + ": " + line);
+                }
+                fastaIndex.add(new Entry(values[0], Long.parseLong(values[1]), Long.parseLong(values[2]),
+                        Integer.parseInt(values[3]), Integer.parseInt(values[4])));
+            }
+        } finally {
+            br.close();
+        }
+        return fastaIndex;
+    }
+
+    /**
+     * Build the index by scanning the fasta file once
+     * @param fastaFile
+     * @return
+     * @throws Exception
+     */
+    public static FastaIndex build(File fastaFile) throws Exception {
+        FastaIndex fastaIndex = new FastaIndex(fastaFile);
+        InputStream is = new FileInputStream(fastaFile);
+        try {
+            new Builder(fastaIndex).scan(is);
+        } finally {
+            is.close();
+        }
+        return fastaIndex;
+    }
+
+    /**
+     * Write the index in .fai format
+     * @param indexFile
+     * @throws Exception
+     */
+    public void write(File indexFile) throws Exception {
+        OutputStream os = new FileOutputStream(indexFile);
+        try {
+            for (Entry entry : entries.values()) {
+                os.write(entry.toString().getBytes());
+                os.write('\n');
+            }
+        } finally {
+            os.close();
+        }
+    }
+
+    public File getFastaFile() {
+        return fastaFile;
+    }
+
+    /**
+     * @param name the record name, the fasta header up to the first white space
+     * @return the entry or null if the name is not in the index
+     */
+    public Entry getEntry(String name) {
+        return entries.get(name);
+    }
+
+    public List<String> getNames() {
+        return new ArrayList<String>(entries.keySet());
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Create a loader for a record which reads residues straight from the file offsets
+     * in the index so sub sequences and single positions do not require loading the
+     * whole record.
+     * @param name
+     * @param compoundSet
+     * @return
+     */
+    public <C extends Compound> SequenceFileProxyLoader<C> getSequenceProxyLoader(String name, CompoundSet<C> compoundSet) {
+        Entry entry = entries.get(name);
+        if (entry == null) {
+            throw new IllegalArgumentException(name + " is not in the index of " + fastaFile);
+        }
+        if (entry.getLength() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(name + " is too long for a sequence " + entry.getLength());
+        }
+        return new SequenceFileProxyLoader<C>(fastaFile, new FastaSequenceParser(), entry.getOffset(),
+                (int) entry.getLength(), entry.getLineBases(), entry.getLineWidth(), compoundSet);
+    }
+
+    private void add(Entry entry) {
+        if (entries.containsKey(entry.getName())) {
+            throw new ParserException("Duplicate sequence name " + entry.getName() + " in " + fastaFile);
+        }
+        entries.put(entry.getName(), entry);
+    }
+
+    /**
+     * Scans the raw bytes of a fasta file and collects the line layout of each record
+     */
+    private static class Builder {
+
+        private final FastaIndex fastaIndex;
+        private String name = null;
+        private long length = 0;
+        private long offset = 0;
+        private int lineBases = 0;
+        private int lineWidth = 0;
+        private boolean lastLine = false;
+
+        Builder(FastaIndex fastaIndex) {
+            this.fastaIndex = fastaIndex;
+        }
+
+        void scan(InputStream is) throws Exception {
+            byte[] buffer = new byte[64 * 1024];
+            StringBuilder header = null;
+            long position = 0;
+            long lineStart = 0;
+            int bases = 0;
+            boolean atLineStart = true;
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                for (int i = 0; i < read; i++, position++) {
+                    byte b = buffer[i];
+                    if (atLineStart) {
+                        atLineStart = false;
+                        lineStart = position;
+                        bases = 0;
+                        if (b == '>') {
+                            finishRecord();
+                            header = new StringBuilder();
+                            continue;
+                        }
+                    }
+                    if (b == '\n') {
+                        if (header != null) {
+                            startRecord(header.toString(), position + 1);
+                            header = null;
+                        } else {
+                            addLine(bases, (int) (position + 1 - lineStart));
+                        }
+                        atLineStart = true;
+                    } else if (header != null) {
+                        header.append((char) b);
+                    } else if (b != '\r') {
+                        bases++;
+                    }
+                }
+            }
+            if (header != null) {
+                startRecord(header.toString(), position);
+            } else if (!atLineStart) {
+                addLine(bases, (int) (position - lineStart));
+            }
+            finishRecord();
+        }
+
+        private void startRecord(String header, long offset) {
+            String trimmed = header.trim();
+            int end = 0;
+            while (end < trimmed.length() && !Character.isWhitespace(trimmed.charAt(end))) {
+                end++;
+            }
+            this.name = trimmed.substring(0, end);
+            this.offset = offset;
+            this.length = 0;
+            this.lineBases = 0;
+            this.lineWidth = 0;
+            this.lastLine = false;
+        }
+
+        private void addLine(int bases, int width) {
+            if (name == null) {
+                if (bases > 0) {
+                    throw new ParserException("Sequence data before the first header in " + fastaIndex.getFastaFile());
+                }
+                return;
+            }
+            if (bases == 0) {
+                //blank lines are only allowed at the end of a record
+                lastLine = true;
+                return;
+            }
+            if (lineBases == 0) {
+                lineBases = bases;
+                lineWidth = width;
+            } else if (lastLine || bases > lineBases) {
+                throw new ParserException("Different line length in sequence " + name + " of " + fastaIndex.getFastaFile());
+            }
+            if (bases < lineBases) {
+                lastLine = true;
+            }
+            length += bases;
+        }
+
+        private void finishRecord() {
+            if (name != null) {
+                fastaIndex.add(new Entry(name, length, offset, lineBases, lineWidth));
+                name = null;
+            }
+        }
+    }
+}
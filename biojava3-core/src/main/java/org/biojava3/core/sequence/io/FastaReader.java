@@ -29,6 +29,11 @@ public class FastaReader<S extends Sequence<?>, C extends Compound> {
     BufferedReaderBytesRead br;
     InputStreamReader isr;
     FileInputStream fi = null;
+    //state carried between calls to process(int)
+    private String header = null;
+    private long sequenceIndex = 0;
+    private int maxSequenceLength = -1;
+    private boolean endOfStream = false;
 
     /**
      * If you are going to use FileProxyProteinSequenceCreator then do not use this constructor because we need details about
@@ -62,37 +67,78 @@ public class FastaReader<S extends Sequence<?>, C extends Compound> {
     }
 
     /**
-     * The parsing is done in this method
+     * The parsing is done in this method. Reads every record in the stream and
+     * closes it when done.
      * @return
      * @throws Exception
      */
-    @SuppressWarnings("unchecked")
     public LinkedHashMap<String,S> process() throws Exception {
-        LinkedHashMap<String,S> sequences = new LinkedHashMap<String,S>();
+        LinkedHashMap<String,S> sequences = process(-1);
+        close();
+        if (sequences == null) {
+            sequences = new LinkedHashMap<String,S>();
+        }
+        return sequences;
+    }
 
+    /**
+     * Incremental version of {@link #process()}. Reads at most max records and
+     * returns them, keeping the position in the stream so the next call picks up
+     * with the following record. Only one batch is ever held in memory so large
+     * files can be worked through in a loop:
+     * <pre>
+     * LinkedHashMap&lt;String,DNASequence&gt; batch;
+     * while ((batch = fastaReader.process(1000)) != null) {
+     *     ...
+     * }
+     * fastaReader.close();
+     * </pre>
+     * The stream is not closed by this method, call {@link #close()} when done.
+     * @param max maximum number of records to return, a value &lt;= 0 reads all remaining records
+     * @return the next records or null if the end of the stream has been reached
+     * @throws Exception
+     */
+    @SuppressWarnings("unchecked")
+    public LinkedHashMap<String,S> process(int max) throws Exception {
+        if (endOfStream) {
+            return null;
+        }
+        LinkedHashMap<String,S> sequences = new LinkedHashMap<String,S>();
 
-        String line = "";
-        String header = "";
-        StringBuilder sb = new StringBuilder();
-        int maxSequenceLength = -1;
-        long fileIndex = 0;
-        long sequenceIndex = 0;
+        String line = null;
+        StringBuilder sb = new StringBuilder(Math.max(maxSequenceLength, 16));
         boolean keepGoing = true;
         do {
+            long fileIndex = br.getBytesRead();
+            line = br.readLine();
+            if (line == null) {
+                if (header != null || sb.length() > 0) {
+                    S sequence = (S)sequenceCreator.getSequence(sb.toString(), sequenceIndex);
+                    headerParser.parseHeader(header == null ? "" : header, sequence);
+                    sequences.put(sequence.getAccession().getID(),sequence);
+                }
+                header = null;
+                endOfStream = true;
+                keepGoing = false;
+                continue;
+            }
             line = line.trim(); // nice to have but probably not needed
             if (line.length() != 0) {
                 if (line.startsWith(">")) {
                     if (sb.length() > 0) {
-                    //    System.out.println("Sequence index=" + sequenceIndex);
                         S sequence = (S)sequenceCreator.getSequence(sb.toString(), sequenceIndex);
                         headerParser.parseHeader(header, sequence);
                         sequences.put(sequence.getAccession().getID(),sequence);
                         if (maxSequenceLength < sb.length()) {
                             maxSequenceLength = sb.length();
                         }
-                        sb = new StringBuilder(maxSequenceLength);
+                        sb.setLength(0);
                     }
                     header = line.substring(1);
+                    //the header of the next record is kept for the following call
+                    if (max > 0 && sequences.size() >= max) {
+                        keepGoing = false;
+                    }
                 } else if (line.startsWith(";")) {
                 } else {
                     //mark the start of the sequence with the fileIndex before the line was read
@@ -102,23 +148,26 @@ public class FastaReader<S extends Sequence<?>, C extends Compound> {
                     sb.append(line);
                 }
             }
-            fileIndex = br.getBytesRead();
-            line = br.readLine();
-            if (line == null) {
-            //    System.out.println("Sequence index=" + sequenceIndex + " " + fileIndex );
-                S sequence = (S)sequenceCreator.getSequence(sb.toString(), sequenceIndex);
-                headerParser.parseHeader(header, sequence);
-                sequences.put(sequence.getAccession().getID(),sequence);
-                keepGoing = false;
-            }
         } while (keepGoing);
+
+        if (sequences.isEmpty() && endOfStream) {
+            return null;
+        }
+        return sequences;
+    }
+
+    /**
+     * Closes the underlying stream. Only needed when reading with {@link #process(int)}
+     * as {@link #process()} closes the stream itself.
+     * @throws Exception
+     */
+    public void close() throws Exception {
         br.close();
         isr.close();
         //If stream was created from File object then we need to close it
         if (fi != null) {
             fi.close();
         }
-        return sequences;
     }
 
     public static void main(String[] args) {
@@ -52,21 +52,46 @@ public class FastaReaderHelper {
    */
   public static LinkedHashMap<String, ProteinSequence> readFastaProteinSequence(
       InputStream inStream) throws Exception {
-    FastaReader<ProteinSequence, AminoAcidCompound> fastaReader = new FastaReader<ProteinSequence, AminoAcidCompound>(
+    return getFastaProteinSequenceReader(inStream).process();
+  }
+
+  /**
+   * Create a reader for a fasta file containing amino acids with the same setup as
+   * {@link #readFastaProteinSequence(InputStream)}. Use {@link FastaReader#process(int)}
+   * to work through the records in batches instead of holding the whole file in memory
+   * and {@link FastaReader#close()} when done.
+   *
+   * @param inStream
+   * @return
+   */
+  public static FastaReader<ProteinSequence, AminoAcidCompound> getFastaProteinSequenceReader(
+      InputStream inStream) {
+    return new FastaReader<ProteinSequence, AminoAcidCompound>(
         inStream,
         new GenericFastaHeaderParser<ProteinSequence, AminoAcidCompound>(),
         new ProteinSequenceCreator(AminoAcidCompoundSet
             .getAminoAcidCompoundSet()));
-    return fastaReader.process();
   }
 
   public static LinkedHashMap<String, DNASequence> readFastaDNASequence(
       InputStream inStream) throws Exception {
-    FastaReader<DNASequence, NucleotideCompound> fastaReader = new FastaReader<DNASequence, NucleotideCompound>(
+    return getFastaDNASequenceReader(inStream).process();
+  }
+
+  /**
+   * Create a reader for a fasta file containing nucleotides with the same setup as
+   * {@link #readFastaDNASequence(InputStream)}. Use {@link FastaReader#process(int)}
+   * to work through the records in batches and {@link FastaReader#close()} when done.
+   *
+   * @param inStream
+   * @return
+   */
+  public static FastaReader<DNASequence, NucleotideCompound> getFastaDNASequenceReader(
+      InputStream inStream) {
+    return new FastaReader<DNASequence, NucleotideCompound>(
         inStream,
         new GenericFastaHeaderParser<DNASequence, NucleotideCompound>(),
         new DNASequenceCreator(DNACompoundSet.getDNACompoundSet()));
-    return fastaReader.process();
   }
 
   public static LinkedHashMap<String, DNASequence> readFastaDNASequence(
@@ -7,7 +7,6 @@ package org.biojava3.core.sequence.io;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.OutputStream;
-import java.util.Collection;
 import java.util.LinkedHashMap;
 
 import org.biojava3.core.sequence.ProteinSequence;
@@ -24,17 +23,17 @@ import org.biojava3.core.sequence.template.Sequence;
 public class FastaWriter<S extends Sequence<?>, C extends Compound> {
 
     OutputStream os;
-    Collection<S> sequences;
+    Iterable<S> sequences;
     FastaHeaderFormatInterface<S, C> headerFormat;
     private int lineLength = 60;
 
-    public FastaWriter(OutputStream os, Collection<S> sequences, FastaHeaderFormatInterface<S, C> headerFormat) {
+    public FastaWriter(OutputStream os, Iterable<S> sequences, FastaHeaderFormatInterface<S, C> headerFormat) {
         this.os = os;
         this.sequences = sequences;
         this.headerFormat = headerFormat;
     }
 
-    public FastaWriter(OutputStream os, Collection<S> sequences, FastaHeaderFormatInterface<S, C> headerFormat, int lineLength) {
+    public FastaWriter(OutputStream os, Iterable<S> sequences, FastaHeaderFormatInterface<S, C> headerFormat, int lineLength) {
         this.os = os;
         this.sequences = sequences;
         this.headerFormat = headerFormat;
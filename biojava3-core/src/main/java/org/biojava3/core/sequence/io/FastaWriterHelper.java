@@ -42,14 +42,16 @@ public class FastaWriterHelper {
     }
 
     /**
-     * Write collection of protein sequences to a stream
+     * Write protein sequences to a stream. The sequences are written one at a time as they
+     * are taken from the Iterable so batches from {@link FastaReader#process(int)} can be
+     * written to the same stream without holding the whole file in memory.
      * @param outputStream
      * @param proteinSequences
      * @throws Exception
      */
 
     public static void writeProteinSequence(OutputStream outputStream,
-            Collection<ProteinSequence> proteinSequences) throws Exception {
+            Iterable<ProteinSequence> proteinSequences) throws Exception {
         FastaWriter<ProteinSequence, AminoAcidCompound> fastaWriter = new FastaWriter<ProteinSequence, AminoAcidCompound>(
                 outputStream, proteinSequences,
                 new GenericFastaHeaderFormat<ProteinSequence, AminoAcidCompound>());
@@ -100,13 +102,14 @@ public class FastaWriterHelper {
     }
 
     /**
-     * Write a collection of NucleotideSequences to a file
+     * Write NucleotideSequences to a stream. The sequences are written one at a time as they
+     * are taken from the Iterable so the stream can be fed batch by batch.
      * @param outputStream
      * @param dnaSequences
      * @throws Exception
      */
 
-    public static void writeNucleotideSequence(OutputStream outputStream, Collection<DNASequence> dnaSequences) throws Exception {
+    public static void writeNucleotideSequence(OutputStream outputStream, Iterable<DNASequence> dnaSequences) throws Exception {
         FastaWriter<DNASequence, NucleotideCompound> fastaWriter = new FastaWriter<DNASequence, NucleotideCompound>(
                 outputStream, dnaSequences,
                 new GenericFastaHeaderFormat<DNASequence, NucleotideCompound>());
@@ -138,7 +141,7 @@ public class FastaWriterHelper {
      * @throws Exception Thrown normally thanks to IO problems
      */
     public static void writeSequences(OutputStream outputStream,
-            Collection<Sequence<?>> sequences) throws Exception {
+            Iterable<Sequence<?>> sequences) throws Exception {
 
         FastaHeaderFormatInterface<Sequence<?>, Compound> fhfi =
                 new FastaHeaderFormatInterface<Sequence<?>, Compound>() {
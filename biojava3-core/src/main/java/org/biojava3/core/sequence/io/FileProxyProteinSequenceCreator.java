@@ -7,6 +7,7 @@ package org.biojava3.core.sequence.io;
 import java.io.File;
 import java.util.List;
 
+import org.biojava3.core.sequence.AccessionID;
 import org.biojava3.core.sequence.ProteinSequence;
 import org.biojava3.core.sequence.compound.AminoAcidCompound;
 import org.biojava3.core.sequence.io.template.SequenceCreatorInterface;
@@ -39,6 +40,20 @@ public class FileProxyProteinSequenceCreator implements
         return new ProteinSequence(sequenceFileProxyLoader, compoundSet);
     }
 
+    /**
+     * Create a sequence for a record of an indexed fasta file. No scan of the file is needed
+     * and sub sequences are read straight from their file offsets.
+     * @param fastaIndex index of the fasta file this creator was set up with
+     * @param name
+     * @return
+     */
+    public ProteinSequence getSequence(FastaIndex fastaIndex, String name) {
+        SequenceFileProxyLoader<AminoAcidCompound> sequenceFileProxyLoader = fastaIndex.getSequenceProxyLoader(name, compoundSet);
+        ProteinSequence proteinSequence = new ProteinSequence(sequenceFileProxyLoader, compoundSet);
+        proteinSequence.setAccession(new AccessionID(name));
+        return proteinSequence;
+    }
+
     public AbstractSequence<AminoAcidCompound> getSequence(
             ProxySequenceReader<AminoAcidCompound> proxyLoader, long index) {
         throw new UnsupportedOperationException("Not supported yet.");
@@ -0,0 +1,256 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava3.core.sequence.io;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.LinkedHashMap;
+
+import org.biojava3.core.sequence.io.template.FastaHeaderParserInterface;
+import org.biojava3.core.sequence.io.template.SequenceCreatorInterface;
+import org.biojava3.core.sequence.template.Compound;
+import org.biojava3.core.sequence.template.Sequence;
+
+/**
+ * Fasta reader which scans a memory mapped file byte by byte instead of decoding
+ * every line through a Reader. Header and residue boundaries are found in the raw
+ * bytes and the residues of a record are collected into a single reusable buffer,
+ * so each sequence costs one String copy regardless of the number of lines.
+ *
+ * The index handed to the {@link SequenceCreatorInterface} is the exact byte offset
+ * of the first residue line of a record which makes this reader a drop in
+ * replacement for {@link FastaReader} when used with
+ * {@link FileProxyProteinSequenceCreator}.
+ *
+ * Files larger than 2GB are mapped in windows so there is no limit on file size.
+ */
+public class MappedFastaReader<S extends Sequence<?>, C extends Compound> {
+
+    private static final Charset ASCII = Charset.forName("US-ASCII");
+    private static final int DEFAULT_WINDOW_SIZE = 256 * 1024 * 1024;
+
+    private static final int LINE_START = 0;
+    private static final int HEADER = 1;
+    private static final int RESIDUES = 2;
+    private static final int COMMENT = 3;
+
+    SequenceCreatorInterface<C> sequenceCreator;
+    FastaHeaderParserInterface<S,C> headerParser;
+    FileInputStream fi;
+    FileChannel channel;
+    private final long fileSize;
+    private final int windowSize;
+    private MappedByteBuffer buffer = null;
+    private long bufferOffset = 0;
+    //state carried between calls to process(int)
+    private int state = LINE_START;
+    private long lineStart = 0;
+    private long sequenceIndex = 0;
+    private byte[] header = new byte[256];
+    private int headerLength = 0;
+    private boolean hasHeader = false;
+    private byte[] residues = new byte[4096];
+    private int residueLength = 0;
+    private boolean endOfFile = false;
+
+    /**
+     * @param file
+     * @param headerParser
+     * @param sequenceCreator
+     * @throws Exception
+     */
+    public MappedFastaReader(File file, FastaHeaderParserInterface<S,C> headerParser, SequenceCreatorInterface<C> sequenceCreator) throws Exception {
+        this(file, headerParser, sequenceCreator, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * @param file
+     * @param headerParser
+     * @param sequenceCreator
+     * @param windowSize number of bytes mapped at a time
+     * @throws Exception
+     */
+    public MappedFastaReader(File file, FastaHeaderParserInterface<S,C> headerParser, SequenceCreatorInterface<C> sequenceCreator, int windowSize) throws Exception {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("windowSize must be positive " + windowSize);
+        }
+        this.headerParser = headerParser;
+        this.sequenceCreator = sequenceCreator;
+        this.windowSize = windowSize;
+        fi = new FileInputStream(file);
+        channel = fi.getChannel();
+        fileSize = channel.size();
+    }
+
+    /**
+     * Reads every record in the file and closes it when done.
+     * @return
+     * @throws Exception
+     */
+    public LinkedHashMap<String,S> process() throws Exception {
+        LinkedHashMap<String,S> sequences = process(-1);
+        close();
+        if (sequences == null) {
+            sequences = new LinkedHashMap<String,S>();
+        }
+        return sequences;
+    }
+
+    /**
+     * Reads at most max records, see {@link FastaReader#process(int)}.
+     * @param max maximum number of records to return, a value &lt;= 0 reads all remaining records
+     * @return the next records or null if the end of the file has been reached
+     * @throws Exception
+     */
+    public LinkedHashMap<String,S> process(int max) throws Exception {
+        if (endOfFile) {
+            return null;
+        }
+        LinkedHashMap<String,S> sequences = new LinkedHashMap<String,S>();
+        while (true) {
+            if (buffer == null || !buffer.hasRemaining()) {
+                if (!nextWindow()) {
+                    if (hasHeader || residueLength > 0) {
+                        addSequence(sequences);
+                    }
+                    endOfFile = true;
+                    break;
+                }
+            }
+            long position = bufferOffset + buffer.position();
+            byte b = buffer.get();
+            switch (state) {
+                case LINE_START:
+                    if (b == '>') {
+                        if (residueLength > 0) {
+                            addSequence(sequences);
+                        }
+                        hasHeader = true;
+                        headerLength = 0;
+                        state = HEADER;
+                        //the header of the next record is kept for the following call
+                        if (max > 0 && sequences.size() >= max) {
+                            return sequences;
+                        }
+                    } else if (b == ';') {
+                        state = COMMENT;
+                    } else if (b == '\n') {
+                        lineStart = position + 1;
+                    } else if (b > ' ') {
+                        //mark the start of the sequence with the offset of the line
+                        if (residueLength == 0) {
+                            sequenceIndex = lineStart;
+                        }
+                        appendResidue(b);
+                        state = RESIDUES;
+                    }
+                    break;
+                case RESIDUES:
+                    if (b == '\n') {
+                        lineStart = position + 1;
+                        state = LINE_START;
+                    } else if (b > ' ') {
+                        appendResidue(b);
+                    }
+                    break;
+                case HEADER:
+                    if (b == '\n') {
+                        lineStart = position + 1;
+                        state = LINE_START;
+                    } else {
+                        appendHeader(b);
+                    }
+                    break;
+                case COMMENT:
+                    if (b == '\n') {
+                        lineStart = position + 1;
+                        state = LINE_START;
+                    }
+                    break;
+            }
+        }
+        if (sequences.isEmpty()) {
+            return null;
+        }
+        return sequences;
+    }
+
+    /**
+     * Releases the file channel
+     * @throws IOException
+     */
+    public void close() throws IOException {
+        buffer = null;
+        channel.close();
+        fi.close();
+    }
+
+    private boolean nextWindow() throws IOException {
+        long offset = buffer == null ? 0 : bufferOffset + buffer.limit();
+        if (offset >= fileSize) {
+            return false;
+        }
+        long size = Math.min(windowSize, fileSize - offset);
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+        bufferOffset = offset;
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void addSequence(LinkedHashMap<String,S> sequences) {
+        S sequence = (S)sequenceCreator.getSequence(new String(residues, 0, residueLength, ASCII), sequenceIndex);
+        headerParser.parseHeader(getHeader(), sequence);
+        sequences.put(sequence.getAccession().getID(), sequence);
+        residueLength = 0;
+        hasHeader = false;
+    }
+
+    private String getHeader() {
+        int end = headerLength;
+        while (end > 0 && header[end - 1] <= ' ') {
+            end--;
+        }
+        return new String(header, 0, end);
+    }
+
+    private void appendHeader(byte b) {
+        if (headerLength == header.length) {
+            byte[] grown = new byte[header.length * 2];
+            System.arraycopy(header, 0, grown, 0, headerLength);
+            header = grown;
+        }
+        header[headerLength++] = b;
+    }
+
+    private void appendResidue(byte b) {
+        if (residueLength == residues.length) {
+            //the buffer is kept between records so it settles at the longest sequence
+            byte[] grown = new byte[residues.length * 2];
+            System.arraycopy(residues, 0, grown, 0, residueLength);
+            residues = grown;
+        }
+        residues[residueLength++] = b;
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava3.core.sequence.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import org.biojava3.core.exceptions.ParserException;
+import org.biojava3.core.sequence.AccessionID;
+import org.biojava3.core.sequence.DNASequence;
+import org.biojava3.core.sequence.compound.DNACompoundSet;
+import org.biojava3.core.sequence.compound.NucleotideCompound;
+import org.biojava3.core.sequence.storage.TwoBitBufferSequenceReader;
+import org.biojava3.core.sequence.template.CompoundSet;
+
+/**
+ * Reads UCSC .2bit files. Only the header and the sequence index are read when
+ * the file is opened. Each sequence is backed by a
+ * {@link TwoBitBufferSequenceReader} over a memory mapped region of the file so
+ * bases are only paged in and decoded for the regions which are accessed.
+ *
+ * Both byte orders and the version 0 (32 bit offsets) and version 1 (64 bit
+ * offsets) layouts are supported.
+ */
+public class TwoBitFileReader {
+
+    public static final int SIGNATURE = 0x1A412743;
+
+    private final File file;
+    private final RandomAccessFile randomAccessFile;
+    private final FileChannel channel;
+    private final ByteOrder byteOrder;
+    private final int version;
+    private final LinkedHashMap<String, Long> sequenceOffsets = new LinkedHashMap<String, Long>();
+    private CompoundSet<NucleotideCompound> compoundSet = DNACompoundSet.getDNACompoundSet();
+
+    public TwoBitFileReader(File file) throws Exception {
+        this.file = file;
+        randomAccessFile = new RandomAccessFile(file, "r");
+        channel = randomAccessFile.getChannel();
+
+        ByteBuffer header = read(0, 16, ByteOrder.LITTLE_ENDIAN);
+        int signature = header.getInt();
+        if (signature == SIGNATURE) {
+            byteOrder = ByteOrder.LITTLE_ENDIAN;
+        } else if (Integer.reverseBytes(signature) == SIGNATURE) {
+            byteOrder = ByteOrder.BIG_ENDIAN;
+        } else {
+            close();
+            throw new ParserException(file + " is not a .2bit file");
+        }
+        header.order(byteOrder);
+        version = header.getInt();
+        if (version != 0 && version != 1) {
+            close();
+            throw new ParserException("Unsupported .2bit version " + version + " in " + file);
+        }
+        long sequenceCount = header.getInt() & 0xffffffffL;
+        readIndex(sequenceCount);
+    }
+
+    private void readIndex(long sequenceCount) throws IOException {
+        int offsetSize = (version == 0) ? 4 : 8;
+        long position = 16;
+        //names are at most 255 bytes so read the index in modest chunks
+        ByteBuffer buffer = null;
+        for (long i = 0; i < sequenceCount; i++) {
+            if (buffer == null || buffer.remaining() < 1 + 255 + offsetSize) {
+                long size = Math.min(64 * 1024, channel.size() - position);
+                buffer = read(position, (int) size, byteOrder);
+            }
+            int start = buffer.position();
+            int nameSize = buffer.get() & 0xff;
+            byte[] name = new byte[nameSize];
+            buffer.get(name);
+            long offset = (version == 0) ? (buffer.getInt() & 0xffffffffL) : buffer.getLong();
+            sequenceOffsets.put(new String(name, "US-ASCII"), offset);
+            position += buffer.position() - start;
+        }
+    }
+
+    private ByteBuffer read(long position, int size, ByteOrder order) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new ParserException("Unexpected end of file " + file + " at " + (position + buffer.position()));
+            }
+        }
+        buffer.flip();
+        buffer.order(order);
+        return buffer;
+    }
+
+    /**
+     * The compound set used for the created sequences; defaults to
+     * {@link DNACompoundSet}
+     */
+    public void setCompoundSet(CompoundSet<NucleotideCompound> compoundSet) {
+        this.compoundSet = compoundSet;
+    }
+
+    public List<String> getSequenceNames() {
+        return new ArrayList<String>(sequenceOffsets.keySet());
+    }
+
+    /**
+     * Returns the number of bases of a sequence by reading its record header
+     */
+    public long getSequenceLength(String name) throws IOException {
+        return read(getOffset(name), 4, byteOrder).getInt() & 0xffffffffL;
+    }
+
+    /**
+     * Returns a reader over the packed bases of a sequence. The N and mask
+     * blocks are read into memory; the bases themselves are memory mapped.
+     */
+    public TwoBitBufferSequenceReader<NucleotideCompound> getSequenceReader(String name) throws IOException {
+        long position = getOffset(name);
+        ByteBuffer counts = read(position, 8, byteOrder);
+        long length = counts.getInt() & 0xffffffffL;
+        int nBlockCount = counts.getInt();
+        position += 8;
+
+        long[][] nBlocks = readBlocks(position, nBlockCount);
+        position += 8L * nBlockCount;
+
+        int maskBlockCount = read(position, 4, byteOrder).getInt();
+        position += 4;
+        long[][] maskBlocks = readBlocks(position, maskBlockCount);
+        //skip the reserved field
+        position += 8L * maskBlockCount + 4;
+
+        ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, position, TwoBitBufferSequenceReader.packedSize(length));
+        return new TwoBitBufferSequenceReader<NucleotideCompound>(data, length, nBlocks[0], nBlocks[1],
+                maskBlocks[0], maskBlocks[1], compoundSet, new AccessionID(name));
+    }
+
+    private long[][] readBlocks(long position, int count) throws IOException {
+        long[][] blocks = new long[2][count];
+        if (count > 0) {
+            ByteBuffer buffer = read(position, 8 * count, byteOrder);
+            for (int i = 0; i < count; i++) {
+                blocks[0][i] = buffer.getInt() & 0xffffffffL;
+            }
+            for (int i = 0; i < count; i++) {
+                blocks[1][i] = buffer.getInt() & 0xffffffffL;
+            }
+        }
+        return blocks;
+    }
+
+    /**
+     * Returns a DNASequence backed by {@link #getSequenceReader(String)}
+     */
+    public DNASequence getDNASequence(String name) throws IOException {
+        DNASequence sequence = new DNASequence(getSequenceReader(name), compoundSet);
+        sequence.setAccession(new AccessionID(name));
+        return sequence;
+    }
+
+    /**
+     * Returns all sequences in file order; none of the bases are read
+     */
+    public LinkedHashMap<String, DNASequence> getDNASequences() throws IOException {
+        LinkedHashMap<String, DNASequence> sequences = new LinkedHashMap<String, DNASequence>();
+        for (String name : sequenceOffsets.keySet()) {
+            sequences.put(name, getDNASequence(name));
+        }
+        return sequences;
+    }
+
+    /**
+     * Closes the file; mapped sequences stay readable until they are
+     * garbage collected
+     */
+    public void close() throws IOException {
+        channel.close();
+        randomAccessFile.close();
+    }
+
+    private long getOffset(String name) {
+        Long offset = sequenceOffsets.get(name);
+        if (offset == null) {
+            throw new IllegalArgumentException(name + " is not in " + file);
+        }
+        return offset;
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+package org.biojava3.core.sequence.io;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.biojava3.core.sequence.storage.TwoBitBufferSequenceReader;
+import org.biojava3.core.sequence.template.Sequence;
+
+/**
+ * Writes nucleotide sequences as a UCSC .2bit file in little endian byte
+ * order. The accession id of each sequence is used as its name. Runs of
+ * anything other than A, C, G and T are written as N blocks and lower case
+ * runs as mask blocks.
+ *
+ * The index at the start of the file needs the size of every record so the
+ * sequences are visited twice; once to collect the N and mask blocks and once
+ * to write the packed bases. Only one sequence is held as a String at a time.
+ */
+public class TwoBitFileWriter<S extends Sequence<?>> {
+
+    private static final long MAX_VERSION_0_OFFSET = 0xffffffffL;
+
+    OutputStream os;
+    Collection<S> sequences;
+
+    public TwoBitFileWriter(OutputStream os, Collection<S> sequences) {
+        this.os = os;
+        this.sequences = sequences;
+    }
+
+    private static class Record {
+
+        String name;
+        long length;
+        TwoBitBufferSequenceReader.Blocks nBlocks = new TwoBitBufferSequenceReader.Blocks();
+        TwoBitBufferSequenceReader.Blocks maskBlocks = new TwoBitBufferSequenceReader.Blocks();
+
+        long size() {
+            return 16 + 8L * nBlocks.size() + 8L * maskBlocks.size() + TwoBitBufferSequenceReader.packedSize(length);
+        }
+    }
+
+    public void process() throws Exception {
+        List<Record> records = new ArrayList<Record>();
+        for (S sequence : sequences) {
+            records.add(createRecord(sequence));
+        }
+
+        int version = 0;
+        long[] offsets = getRecordOffsets(records, 4);
+        if (offsets[records.size()] > MAX_VERSION_0_OFFSET) {
+            version = 1;
+            offsets = getRecordOffsets(records, 8);
+        }
+
+        OutputStream out = new BufferedOutputStream(os);
+        writeInt(out, TwoBitFileReader.SIGNATURE);
+        writeInt(out, version);
+        writeInt(out, records.size());
+        writeInt(out, 0);
+        for (int i = 0; i < records.size(); i++) {
+            byte[] name = records.get(i).name.getBytes("US-ASCII");
+            out.write(name.length);
+            out.write(name);
+            if (version == 0) {
+                writeInt(out, (int) offsets[i]);
+            } else {
+                writeLong(out, offsets[i]);
+            }
+        }
+
+        int i = 0;
+        for (S sequence : sequences) {
+            Record record = records.get(i++);
+            writeInt(out, (int) record.length);
+            writeBlocks(out, record.nBlocks);
+            writeBlocks(out, record.maskBlocks);
+            writeInt(out, 0);
+            writePackedBases(out, sequence.getSequenceAsString());
+        }
+        out.flush();
+    }
+
+    private Record createRecord(S sequence) {
+        Record record = new Record();
+        if (sequence.getAccession() == null || sequence.getAccession().getID() == null) {
+            throw new IllegalArgumentException("Sequences need an accession to be written as .2bit");
+        }
+        record.name = sequence.getAccession().getID();
+        if (record.name.length() > 255) {
+            throw new IllegalArgumentException("Name " + record.name + " is longer than 255 chars");
+        }
+        String bases = sequence.getSequenceAsString();
+        record.length = bases.length();
+        for (int i = 0; i < bases.length(); i++) {
+            char base = bases.charAt(i);
+            if (encode(base) < 0) {
+                record.nBlocks.add(i);
+            }
+            if (Character.isLowerCase(base)) {
+                record.maskBlocks.add(i);
+            }
+        }
+        return record;
+    }
+
+    /**
+     * File offsets of the records; the extra last value is the size of the
+     * file
+     */
+    private long[] getRecordOffsets(List<Record> records, int offsetSize) {
+        long[] offsets = new long[records.size() + 1];
+        long offset = 16;
+        for (Record record : records) {
+            offset += 1 + record.name.length() + offsetSize;
+        }
+        for (int i = 0; i < records.size(); i++) {
+            offsets[i] = offset;
+            offset += records.get(i).size();
+        }
+        offsets[records.size()] = offset;
+        return offsets;
+    }
+
+    private static int encode(char base) {
+        switch (base) {
+            case 'T': case 't': return 0;
+            case 'C': case 'c': return 1;
+            case 'A': case 'a': return 2;
+            case 'G': case 'g': return 3;
+            default: return -1;
+        }
+    }
+
+    private static void writePackedBases(OutputStream out, String bases) throws IOException {
+        int packed = 0;
+        for (int i = 0; i < bases.length(); i++) {
+            int code = Math.max(encode(bases.charAt(i)), 0);
+            packed = (packed << 2) | code;
+            if ((i & 3) == 3) {
+                out.write(packed);
+                packed = 0;
+            }
+        }
+        int remainder = bases.length() & 3;
+        if (remainder != 0) {
+            out.write(packed << (2 * (4 - remainder)));
+        }
+    }
+
+    private static void writeBlocks(OutputStream out, TwoBitBufferSequenceReader.Blocks blocks) throws IOException {
+        writeInt(out, blocks.size());
+        for (long start : blocks.getStarts()) {
+            writeInt(out, (int) start);
+        }
+        for (long size : blocks.getSizes()) {
+            writeInt(out, (int) size);
+        }
+    }
+
+    private static void writeInt(OutputStream out, int value) throws IOException {
+        out.write(value);
+        out.write(value >>> 8);
+        out.write(value >>> 16);
+        out.write(value >>> 24);
+    }
+
+    private static void writeLong(OutputStream out, long value) throws IOException {
+        writeInt(out, (int) value);
+        writeInt(out, (int) (value >>> 32));
+    }
+}
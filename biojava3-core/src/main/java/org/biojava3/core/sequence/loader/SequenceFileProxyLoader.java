@@ -54,6 +54,12 @@ public class SequenceFileProxyLoader<C extends Compound> implements ProxySequenc
     long sequenceStartIndex = -1;
     int sequenceLength = -1;
     private boolean initialized = false;
+    //line layout of the record, when known positions can be read without loading the whole record
+    int lineBases = -1;
+    int lineWidth = -1;
+    private static final int BLOCK_SIZE = 4096;
+    //the last block read, replaced as a whole so concurrent readers never see a begin of one block with the compounds of another
+    private volatile Block<C> block = null;
 
     public SequenceFileProxyLoader(File file, SequenceParserInterface sequenceParser, long sequenceStartIndex, int sequenceLength, CompoundSet<C> compoundSet) {
         this.sequenceParser = sequenceParser;
@@ -63,6 +69,24 @@ public class SequenceFileProxyLoader<C extends Compound> implements ProxySequenc
         setCompoundSet(compoundSet);
     }
 
+    /**
+     * Use this constructor when the line layout of the record is known, for example from a
+     * {@link org.biojava3.core.sequence.io.FastaIndex}. Single positions and sub sequences are
+     * then read by seeking straight to their file offset instead of loading the whole record.
+     * @param file
+     * @param sequenceParser
+     * @param sequenceStartIndex file offset of the first residue
+     * @param sequenceLength
+     * @param lineBases number of residues on each line
+     * @param lineWidth number of bytes on each line including the line terminator
+     * @param compoundSet
+     */
+    public SequenceFileProxyLoader(File file, SequenceParserInterface sequenceParser, long sequenceStartIndex, int sequenceLength, int lineBases, int lineWidth, CompoundSet<C> compoundSet) {
+        this(file, sequenceParser, sequenceStartIndex, sequenceLength, compoundSet);
+        this.lineBases = lineBases;
+        this.lineWidth = lineWidth;
+    }
+
     public void setCompoundSet(CompoundSet<C> compoundSet) {
         this.compoundSet = compoundSet;
     }
@@ -80,9 +104,14 @@ public class SequenceFileProxyLoader<C extends Compound> implements ProxySequenc
     }
 
     public void setContents(String sequence) {
+        this.parsedCompounds.clear();
+        parseCompounds(sequence, this.parsedCompounds);
+        setInitialized(true);
+    }
+
+    private void parseCompounds(String sequence, List<C> compounds) {
         // Horrendously inefficient - pretty much the way the old BJ did things.
         // TODO Should be optimised.
-        this.parsedCompounds.clear();
         for (int i = 0; i < sequence.length();) {
             String compoundStr = null;
             C compound = null;
@@ -95,10 +124,46 @@ public class SequenceFileProxyLoader<C extends Compound> implements ProxySequenc
             } else {
                 i += compoundStr.length();
             }
-            this.parsedCompounds.add(compound);
+            compounds.add(compound);
         }
+    }
 
-        setInitialized(true);
+    /**
+     * Can positions be read straight from the file without loading the whole record
+     */
+    private boolean isIndexed() {
+        return lineBases > 0 && lineWidth >= lineBases && compoundSet.getMaxSingleCompoundStringLength() == 1;
+    }
+
+    /**
+     * Read the compounds from bioBegin to bioEnd by seeking to the file offset of bioBegin
+     */
+    private List<C> readRegion(int bioBegin, int bioEnd) {
+        long index = bioBegin - 1;
+        long start = sequenceStartIndex + (index / lineBases) * lineWidth + (index % lineBases);
+        index = bioEnd - 1;
+        long end = sequenceStartIndex + (index / lineBases) * lineWidth + (index % lineBases) + 1;
+        List<C> compounds = new ArrayList<C>(bioEnd - bioBegin + 1);
+        try {
+            RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+            try {
+                byte[] bytes = new byte[(int) (end - start)];
+                randomAccessFile.seek(start);
+                randomAccessFile.readFully(bytes);
+                StringBuilder sb = new StringBuilder(bytes.length);
+                for (byte b : bytes) {
+                    if (b > ' ') {
+                        sb.append((char) b);
+                    }
+                }
+                parseCompounds(sb.toString(), compounds);
+            } finally {
+                randomAccessFile.close();
+            }
+        } catch (Exception e) {
+            throw new FileAccessError("Error accessing " + file + " offset=" + start + " bioBegin=" + bioBegin + " bioEnd=" + bioEnd + " " + e.toString());
+        }
+        return compounds;
     }
 
     public int getLength() {
@@ -107,6 +172,16 @@ public class SequenceFileProxyLoader<C extends Compound> implements ProxySequenc
 
     public C getCompoundAt(int position) {
         if (this.isInitialized() == false) {
+            if (isIndexed()) {
+                //keep a block around the position so walking the sequence does not seek for every compound
+                Block<C> b = block;
+                if (b == null || position < b.begin || position >= b.begin + b.compounds.size()) {
+                    int blockBegin = ((position - 1) / BLOCK_SIZE) * BLOCK_SIZE + 1;
+                    b = new Block<C>(blockBegin, readRegion(blockBegin, Math.min(blockBegin + BLOCK_SIZE - 1, getLength())));
+                    block = b;
+                }
+                return b.compounds.get(position - b.begin);
+            }
             init();
         }
         return this.parsedCompounds.get(position - 1);
@@ -142,6 +217,11 @@ public class SequenceFileProxyLoader<C extends Compound> implements ProxySequenc
     public String getSequenceAsString(Integer bioBegin, Integer bioEnd,Strand strand) {
        
         if (this.isInitialized() == false) {
+            if (isIndexed() && bioBegin <= bioEnd) {
+                List<C> region = readRegion(bioBegin, bioEnd);
+                SequenceAsStringHelper<C> sequenceAsStringHelper = new SequenceAsStringHelper<C>();
+                return sequenceAsStringHelper.getSequenceAsString(region, compoundSet, 1, region.size(), strand);
+            }
             init();
         }
         SequenceAsStringHelper<C> sequenceAsStringHelper = new SequenceAsStringHelper<C>();
@@ -158,6 +238,10 @@ public class SequenceFileProxyLoader<C extends Compound> implements ProxySequenc
 
     public SequenceView<C> getSubSequence(final Integer bioBegin, final Integer bioEnd) {
         if (this.isInitialized() == false) {
+            if (isIndexed()) {
+                //compounds of the view are read on demand through getCompoundAt
+                return new SequenceProxyView<C>(SequenceFileProxyLoader.this,bioBegin, bioEnd);
+            }
             init();
         }
         return new SequenceProxyView<C>(SequenceFileProxyLoader.this,bioBegin, bioEnd);
@@ -196,4 +280,18 @@ public class SequenceFileProxyLoader<C extends Compound> implements ProxySequenc
     public int countCompounds(C... compounds) {
       return SequenceMixin.countCompounds(this, compounds);
     }
+
+    /**
+     * Compounds read from the file starting at position begin
+     */
+    private static class Block<C> {
+
+        final int begin;
+        final List<C> compounds;
+
+        Block(int begin, List<C> compounds) {
+            this.begin = begin;
+            this.compounds = compounds;
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package org.biojava3.core.sequence.storage;
 
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -7,11 +8,13 @@ import java.util.Map;
 import org.biojava3.core.sequence.AccessionID;
 import org.biojava3.core.sequence.Strand;
 import org.biojava3.core.sequence.compound.NucleotideCompound;
+import org.biojava3.core.sequence.template.ComplementCompound;
 import org.biojava3.core.sequence.template.Compound;
 import org.biojava3.core.sequence.template.CompoundSet;
 import org.biojava3.core.sequence.template.SequenceMixin;
 import org.biojava3.core.sequence.template.ProxySequenceReader;
 import org.biojava3.core.sequence.template.Sequence;
+import org.biojava3.core.sequence.template.SequenceProxyView;
 import org.biojava3.core.sequence.template.SequenceView;
 
 /**
@@ -67,7 +70,32 @@ public class BitSequenceReader<C extends Compound> implements ProxySequenceReade
      */
     
     public int countCompounds(C... compounds) {
-        return SequenceMixin.countCompounds(this, compounds);
+        return worker.countCompounds(compounds);
+    }
+
+    /**
+     * Counts every compound in this store from the bit value counts of the
+     * worker; gives the same result as
+     * {@link SequenceMixin#getComposition(Sequence)} without iterating
+     */
+    public Map<C, Integer> getComposition() {
+        int[] counts = worker.getIndexCounts();
+        List<C> lookup = worker.getIndexToCompoundsLookup();
+        Map<C, Integer> composition = new HashMap<C, Integer>();
+        for (int i = 0; i < counts.length && i < lookup.size(); i++) {
+            if (counts[i] > 0) {
+                composition.put(lookup.get(i), counts[i]);
+            }
+        }
+        return composition;
+    }
+
+    /**
+     * Decodes the bit values of the biological range start to end into
+     * target; see {@link BitArrayWorker#decode(int, int, byte[], int)}
+     */
+    public void decode(int start, int end, byte[] target, int targetOffset) {
+        worker.decode(start, end, target, targetOffset);
     }
 
     
@@ -130,14 +158,19 @@ public class BitSequenceReader<C extends Compound> implements ProxySequenceReade
      */
     
     public String getSequenceAsString() {
-        return SequenceMixin.toStringBuilder(this).toString();
+        if (getLength() == 0) {
+            return "";
+        }
+        return worker.getSequenceAsString(1, getLength());
     }
 
     /**
-     * Returns a sub sequence view
+     * Returns a sub sequence view. The String form of the view is decoded
+     * straight from the packed ints rather than compound by compound; see
+     * {@link SequenceMixin#toString(Sequence, int, int, boolean, boolean)}
      */
     public SequenceView<C> getSubSequence(final int start, final int end) {
-        return SequenceMixin.createSubSequence(this, start, end);
+        return new SequenceProxyView<C>(this, start, end);
     }
 
     /**
@@ -149,8 +182,46 @@ public class BitSequenceReader<C extends Compound> implements ProxySequenceReade
     }
 
     
+    /**
+     * Returns the region as a String following the same rules as
+     * {@link SequenceAsStringHelper}; the negative strand is the reversed
+     * region and a start greater than end wraps around the end of the sequence.
+     */
     public String getSequenceAsString(Integer start, Integer end, Strand strand) {
-        throw new UnsupportedOperationException("Not supported yet.");
+        if (getLength() == 0) {
+            return "";
+        }
+        String result;
+        if (strand.equals(Strand.NEGATIVE)) {
+            if (start <= end) {
+                result = reverse(worker.getSequenceAsString(start, end));
+            } else {
+                result = reverse(worker.getSequenceAsString(1, start)) + reverse(worker.getSequenceAsString(end, getLength()));
+            }
+        } else {
+            if (start <= end) {
+                result = worker.getSequenceAsString(start, end);
+            } else {
+                result = worker.getSequenceAsString(start, getLength()) + worker.getSequenceAsString(1, end);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the biological range start to end decoded straight from the
+     * packed ints, optionally reversed and/or complemented; used by the
+     * reversed and complement views to avoid going compound by compound
+     */
+    public String getSequenceAsString(int start, int end, boolean reverse, boolean complement) {
+        if (start > end) {
+            return "";
+        }
+        return worker.getSequenceAsString(start, end, reverse, complement);
+    }
+
+    private static String reverse(String string) {
+        return new StringBuilder(string).reverse().toString();
     }
 
     
@@ -177,7 +248,17 @@ public class BitSequenceReader<C extends Compound> implements ProxySequenceReade
         private final int[] sequence;
         private transient List<C> indexToCompoundsLookup = null;
         private transient Map<C, Integer> compoundsToIndexLookup = null;
+        private transient byte[] charToIndexLookup = null;
+        private transient char[] indexToCharLookup = null;
+        private transient boolean indexToCharLookupGenerated = false;
+        private transient char[] indexToComplementCharLookup = null;
+        private transient boolean indexToComplementCharLookupGenerated = false;
+        //encoding constants cached so the hot paths avoid the virtual calls
+        private final int compoundsPerInt;
+        private final int bitsPerCompound;
+        private final int mask;
         public static final int BYTES_PER_INT = 32;
+        private static final int ASCII_SIZE = 128;
 
         public BitArrayWorker(Sequence<C> sequence) {
             this(sequence.getCompoundSet(), sequence.getLength());
@@ -193,12 +274,18 @@ public class BitSequenceReader<C extends Compound> implements ProxySequenceReade
             this.compoundSet = compoundSet;
             this.length = length;
             this.sequence = new int[seqArraySize(length)];
+            this.compoundsPerInt = compoundsPerDatatype();
+            this.bitsPerCompound = bitsPerCompound();
+            this.mask = bitMask();
         }
 
         public BitArrayWorker(CompoundSet<C> compoundSet, int[] sequence) {
             this.compoundSet = compoundSet;
             this.sequence = sequence;
             this.length = sequence.length;
+            this.compoundsPerInt = compoundsPerDatatype();
+            this.bitsPerCompound = bitsPerCompound();
+            this.mask = bitMask();
         }
 
         /**
@@ -250,12 +337,26 @@ public class BitSequenceReader<C extends Compound> implements ProxySequenceReade
         }
 
         /**
-         * Loops through the chars in a String and passes them onto
+         * Encodes the chars in a String a whole int at a time using the
+         * char lookup table; chars not in the table are passed onto
          * {@link #setCompoundAt(char, int)}
          */
         public void populate(String sequence) {
-            for (int index = 0; index < getLength(); index++) {
-                setCompoundAt(sequence.charAt(index), index + 1);
+            byte[] lookup = getCharToIndexLookup();
+            int index = 0;
+            for (int arrayIndex = 0; index < getLength(); arrayIndex++) {
+                int word = 0;
+                int end = Math.min(index + compoundsPerInt, getLength());
+                for (int shift = 0; index < end; index++, shift += bitsPerCompound) {
+                    char base = sequence.charAt(index);
+                    byte value = (base < ASCII_SIZE) ? lookup[base] : -1;
+                    if (value < 0) {
+                        setCompoundAt(base, index + 1);
+                    } else {
+                        word |= value << shift;
+                    }
+                }
+                this.sequence[arrayIndex] |= word;
             }
         }
 
@@ -263,27 +364,32 @@ public class BitSequenceReader<C extends Compound> implements ProxySequenceReade
          * Converts from char to Compound and sets it at the given biological index
          */
         public void setCompoundAt(char base, int position) {
-            C compound = getCompoundSet().getCompoundForString(Character.toString(base));
-            setCompoundAt(compound, position);
+            byte value = (base < ASCII_SIZE) ? getCharToIndexLookup()[base] : -1;
+            if (value < 0) {
+                C compound = getCompoundSet().getCompoundForString(Character.toString(base));
+                setCompoundAt(compound, position);
+            } else {
+                setIndexAt(value, position);
+            }
         }
 
         /**
          * Sets the compound at the specified biological index
          */
         public void setCompoundAt(C compound, int position) {
-            int arrayIndex = biologicalIndexToArrayIndex(position);
-            int currentInt = sequence[arrayIndex];
-            int shiftBy = shiftBy(position);
             Integer integerValue = getCompoundsToIndexLookup().get(compound);
 
             //If we got nothing then throw an error as it's wrong
             if (integerValue == null) {
-                processUnknownCompound(compound, position);
+                setIndexAt(processUnknownCompound(compound, position), position);
+            } else {
+                setIndexAt(integerValue, position);
             }
+        }
 
-            int shiftedValue = integerValue << shiftBy;
-
-            sequence[arrayIndex] = currentInt | shiftedValue;
+        private void setIndexAt(int value, int position) {
+            int arrayIndex = biologicalIndexToArrayIndex(position);
+            sequence[arrayIndex] = sequence[arrayIndex] | (value << shiftBy(position));
         }
 
         /**
@@ -299,17 +405,168 @@ public class BitSequenceReader<C extends Compound> implements ProxySequenceReade
                 throw new IllegalArgumentException(position + " is less than 1; you must use biological indexing (indexing from 1)");
             }
 
-            int arrayIndex = biologicalIndexToArrayIndex(position);
-            int currentByte = sequence[arrayIndex];
-            int shiftBy = shiftBy(position);
-            int shifted = (int) (currentByte >>> shiftBy);
-            int masked = (int) (shifted & bitMask());
-
-            //If we could encode 4 compounds then our max masked value is 3
-            if (masked > (compoundsPerDatatype() - 1)) {
-                throw new IllegalStateException("Got a masked value of " + masked + "; do not understand values greater than " + (compoundsPerDatatype() - 1));
+            int masked = getIndexAt(position);
+
+            List<C> lookup = getIndexToCompoundsLookup();
+            if (masked >= lookup.size()) {
+                throw new IllegalStateException("Got a masked value of " + masked + "; do not understand values greater than " + (lookup.size() - 1));
+            }
+            return lookup.get(masked);
+        }
+
+        private int getIndexAt(int position) {
+            int index = position - 1;
+            return (sequence[index / compoundsPerInt] >>> ((index % compoundsPerInt) * bitsPerCompound)) & mask;
+        }
+
+        /**
+         * Decodes the bit values of the biological range start to end into
+         * target starting at targetOffset. Works through the backing ints
+         * one at a time so no Compound objects are involved.
+         */
+        public void decode(int start, int end, byte[] target, int targetOffset) {
+            checkRange(start, end);
+            int index = start - 1;
+            int t = targetOffset;
+            while (index < end) {
+                int slot = index % compoundsPerInt;
+                int slots = Math.min(compoundsPerInt - slot, end - index);
+                int word = sequence[index / compoundsPerInt] >>> (slot * bitsPerCompound);
+                for (int i = 0; i < slots; i++) {
+                    target[t++] = (byte) (word & mask);
+                    word >>>= bitsPerCompound;
+                }
+                index += slots;
+            }
+        }
+
+        /**
+         * Decodes the biological range start to end into a new byte array of
+         * bit values
+         */
+        public byte[] decode(int start, int end) {
+            byte[] target = new byte[end - start + 1];
+            decode(start, end, target, 0);
+            return target;
+        }
+
+        /**
+         * Returns the biological range start to end as a String decoded a
+         * whole int at a time through a bit value to char lookup
+         */
+        public String getSequenceAsString(int start, int end) {
+            return getSequenceAsString(start, end, false, false);
+        }
+
+        /**
+         * Returns the biological range start to end as a String optionally
+         * reversed and/or complemented. Both are done while decoding the
+         * packed ints through a bit value to (complement) char lookup so
+         * neither needs a second pass or any Compound objects.
+         */
+        public String getSequenceAsString(int start, int end, boolean reverse, boolean complement) {
+            char[] lookup = (complement) ? getIndexToComplementCharLookup() : getIndexToCharLookup();
+            if (lookup == null) {
+                return getSequenceAsStringFromCompounds(start, end, reverse, complement);
+            }
+            checkRange(start, end);
+            char[] chars = new char[end - start + 1];
+            int index = start - 1;
+            int t = (reverse) ? chars.length - 1 : 0;
+            int step = (reverse) ? -1 : 1;
+            while (index < end) {
+                int slot = index % compoundsPerInt;
+                int slots = Math.min(compoundsPerInt - slot, end - index);
+                int word = sequence[index / compoundsPerInt] >>> (slot * bitsPerCompound);
+                for (int i = 0; i < slots; i++, t += step) {
+                    chars[t] = lookup[word & mask];
+                    word >>>= bitsPerCompound;
+                }
+                index += slots;
+            }
+            return new String(chars);
+        }
+
+        private String getSequenceAsStringFromCompounds(int start, int end, boolean reverse, boolean complement) {
+            StringBuilder sb = new StringBuilder();
+            for (int i = start; i <= end; i++) {
+                C compound = getCompoundAt((reverse) ? end - (i - start) : i);
+                if (complement) {
+                    compound = complement(compound);
+                }
+                sb.append(getCompoundSet().getStringForCompound(compound));
+            }
+            return sb.toString();
+        }
+
+        @SuppressWarnings("unchecked")
+        private C complement(C compound) {
+            if (!(compound instanceof ComplementCompound)) {
+                throw new UnsupportedOperationException(compound + " does not have a complement");
+            }
+            return (C) ((ComplementCompound) compound).getComplement();
+        }
+
+        /**
+         * Returns how often each bit value occurs in the sequence indexed by
+         * the bit value
+         */
+        public int[] getIndexCounts() {
+            int[] counts = new int[mask + 1];
+            int index = 0;
+            int arrayIndex = 0;
+            if (bitsPerCompound == 2 && compoundsPerInt == 16) {
+                //count all 16 pairs of a full int at once by splitting the low
+                //and high bit of every pair into their own masks
+                int fullWords = getLength() / compoundsPerInt;
+                for (; arrayIndex < fullWords; arrayIndex++) {
+                    int word = sequence[arrayIndex];
+                    int low = word & 0x55555555;
+                    int high = (word >>> 1) & 0x55555555;
+                    counts[1] += Integer.bitCount(low & ~high);
+                    counts[2] += Integer.bitCount(high & ~low);
+                    counts[3] += Integer.bitCount(low & high);
+                }
+                counts[0] += fullWords * compoundsPerInt - counts[1] - counts[2] - counts[3];
+                index = fullWords * compoundsPerInt;
+            }
+            for (; index < getLength(); arrayIndex++) {
+                int slots = Math.min(compoundsPerInt, getLength() - index);
+                int word = sequence[arrayIndex];
+                for (int i = 0; i < slots; i++) {
+                    counts[word & mask]++;
+                    word >>>= bitsPerCompound;
+                }
+                index += slots;
+            }
+            return counts;
+        }
+
+        /**
+         * Counts the given compounds using {@link #getIndexCounts()}; compounds
+         * are matched against the compounds decoded from the bit values in the
+         * same way {@link SequenceMixin#countCompounds(Sequence, Compound[])}
+         * matches them against the iterated compounds
+         */
+        public int countCompounds(C... compounds) {
+            int[] counts = getIndexCounts();
+            List<C> lookup = getIndexToCompoundsLookup();
+            int count = 0;
+            for (C compound : compounds) {
+                for (int i = 0; i < lookup.size() && i < counts.length; i++) {
+                    if (lookup.get(i).equals(compound)) {
+                        count += counts[i];
+                        break;
+                    }
+                }
+            }
+            return count;
+        }
+
+        private void checkRange(int start, int end) {
+            if (start < 1 || end > getLength() || start > end + 1) {
+                throw new IllegalArgumentException("Range " + start + " to " + end + " is not in 1 to " + getLength());
             }
-            return getIndexToCompoundsLookup().get(masked);
         }
 
         /**
@@ -339,6 +596,81 @@ public class BitSequenceReader<C extends Compound> implements ProxySequenceReade
             return indexToCompoundsLookup;
         }
 
+        /**
+         * Returns a table which converts from an ASCII char to the bit value
+         * of its compound or -1 if the char has no encoding
+         */
+        protected byte[] getCharToIndexLookup() {
+            if (charToIndexLookup == null) {
+                byte[] lookup = new byte[ASCII_SIZE];
+                Map<C, Integer> compoundsToIndex = getCompoundsToIndexLookup();
+                for (char c = 0; c < ASCII_SIZE; c++) {
+                    lookup[c] = -1;
+                    C compound = null;
+                    if (c > ' ') {
+                        compound = getCompoundSet().getCompoundForString(Character.toString(c));
+                    }
+                    if (compound != null) {
+                        Integer value = compoundsToIndex.get(compound);
+                        if (value != null) {
+                            lookup[c] = value.byteValue();
+                        }
+                    }
+                }
+                charToIndexLookup = lookup;
+            }
+            return charToIndexLookup;
+        }
+
+        /**
+         * Returns a table which converts from a bit value to the char of its
+         * compound or null if a compound is not represented by a single char
+         */
+        protected char[] getIndexToCharLookup() {
+            if (!indexToCharLookupGenerated) {
+                List<C> compounds = getIndexToCompoundsLookup();
+                char[] lookup = new char[mask + 1];
+                for (int i = 0; i < compounds.size() && i < lookup.length; i++) {
+                    String string = getCompoundSet().getStringForCompound(compounds.get(i));
+                    if (string.length() != 1) {
+                        lookup = null;
+                        break;
+                    }
+                    lookup[i] = string.charAt(0);
+                }
+                indexToCharLookup = lookup;
+                indexToCharLookupGenerated = true;
+            }
+            return indexToCharLookup;
+        }
+
+        /**
+         * Returns a table which converts from a bit value to the char of the
+         * complement of its compound or null if there is a compound without
+         * a single char complement
+         */
+        protected char[] getIndexToComplementCharLookup() {
+            if (!indexToComplementCharLookupGenerated) {
+                List<C> compounds = getIndexToCompoundsLookup();
+                char[] lookup = new char[mask + 1];
+                for (int i = 0; i < compounds.size() && i < lookup.length; i++) {
+                    if (!(compounds.get(i) instanceof ComplementCompound)) {
+                        lookup = null;
+                        break;
+                    }
+                    String string = getCompoundSet().getStringForCompound(complement(compounds.get(i)));
+                    if (string.length() != 1) {
+                        lookup = null;
+                        break;
+                    }
+                    lookup[i] = string.charAt(0);
+                }
+                indexToComplementCharLookup = lookup;
+                indexToComplementCharLookupGenerated = true;
+            }
+            return indexToComplementCharLookup;
+        }
+
         /**
          * Returns a map which converts from compound to an integer representation
          */
@@ -369,7 +701,7 @@ public class BitSequenceReader<C extends Compound> implements ProxySequenceReade
          * </ul>
          */
         private int biologicalIndexToArrayIndex(int index) {
-            return ((index - 1) / compoundsPerDatatype());
+            return ((index - 1) / compoundsPerInt);
         }
 
         /**
@@ -385,7 +717,7 @@ public class BitSequenceReader<C extends Compound> implements ProxySequenceReade
          * </ul>
          */
         private byte shiftBy(int index) {
-            return (byte) (((index - 1) % compoundsPerDatatype()) * bitsPerCompound());
+            return (byte) (((index - 1) % compoundsPerInt) * bitsPerCompound);
         }
 
         /**
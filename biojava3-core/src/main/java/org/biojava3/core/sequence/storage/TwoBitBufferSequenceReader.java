@@ -0,0 +1,505 @@
+package org.biojava3.core.sequence.storage;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.biojava3.core.sequence.AccessionID;
+import org.biojava3.core.sequence.Strand;
+import org.biojava3.core.sequence.compound.NucleotideCompound;
+import org.biojava3.core.sequence.template.CompoundSet;
+import org.biojava3.core.sequence.template.ProxySequenceReader;
+import org.biojava3.core.sequence.template.SequenceMixin;
+import org.biojava3.core.sequence.template.SequenceProxyView;
+import org.biojava3.core.sequence.template.SequenceView;
+
+/**
+ * 2bit nucleotide storage kept in a {@link ByteBuffer} rather than an on-heap
+ * int array. The buffer can be direct or memory mapped so the sequence data
+ * lives outside of the Java heap and does not add to garbage collection
+ * work however large the sequence is.
+ *
+ * The packing follows the UCSC .2bit format; four bases per byte with the
+ * first base in the most significant bits and T, C, A, G encoded as 0 to 3.
+ * Anything which is not one of those bases is stored as a run of N and lower
+ * case (soft-masked) bases are stored as runs of masked positions. Both are
+ * kept as sorted lists of intervals so they cost nothing for the bulk of a
+ * genome.
+ *
+ * Positions are longs internally so a single reader can hold more than
+ * 2^31 bases. The {@link org.biojava3.core.sequence.template.Sequence}
+ * methods are int based and can only be used when the sequence fits into an
+ * int; use {@link #getLongLength()}, {@link #getCompoundAt(long)} and
+ * {@link #getSequenceAsString(long, long)} for anything longer.
+ *
+ *
+ * @param <C> Type of compound; must extend {@link NucleotideCompound}
+ */
+public class TwoBitBufferSequenceReader<C extends NucleotideCompound> implements ProxySequenceReader<C> {
+
+    private static final String BASES = "TCAG";
+    private static final long[] EMPTY = new long[0];
+    /**
+     * The four bases packed into every possible byte
+     */
+    private static final char[] BYTE_TO_BASES = new char[256 * 4];
+
+    static {
+        for (int b = 0; b < 256; b++) {
+            for (int i = 0; i < 4; i++) {
+                BYTE_TO_BASES[b * 4 + i] = BASES.charAt((b >>> (6 - (i * 2))) & 3);
+            }
+        }
+    }
+
+    private final ByteBuffer data;
+    private final long length;
+    private final long[] nBlockStarts;
+    private final long[] nBlockSizes;
+    private final long[] maskBlockStarts;
+    private final long[] maskBlockSizes;
+    private final CompoundSet<C> compoundSet;
+    private final AccessionID accession;
+    private transient Object[] charToCompound = null;
+
+    /**
+     * Creates a reader over already packed data; this is how data from a
+     * memory mapped .2bit file is used. Block starts are 0 based and both
+     * lists must be sorted by start.
+     *
+     * @param data Packed bases starting at index 0 of the buffer
+     * @param length Number of bases
+     * @param nBlockStarts Starts of the runs of N
+     * @param nBlockSizes Sizes of the runs of N
+     * @param maskBlockStarts Starts of the soft-masked runs
+     * @param maskBlockSizes Sizes of the soft-masked runs
+     */
+    public TwoBitBufferSequenceReader(ByteBuffer data, long length,
+            long[] nBlockStarts, long[] nBlockSizes,
+            long[] maskBlockStarts, long[] maskBlockSizes,
+            CompoundSet<C> compoundSet, AccessionID accession) {
+        if (data.capacity() < packedSize(length)) {
+            throw new IllegalArgumentException("Buffer of " + data.capacity() + " bytes cannot hold " + length + " bases");
+        }
+        this.data = data;
+        this.length = length;
+        this.nBlockStarts = nBlockStarts;
+        this.nBlockSizes = nBlockSizes;
+        this.maskBlockStarts = maskBlockStarts;
+        this.maskBlockSizes = maskBlockSizes;
+        this.compoundSet = compoundSet;
+        this.accession = accession;
+    }
+
+    /**
+     * Encodes the given sequence into a direct buffer
+     */
+    public TwoBitBufferSequenceReader(String sequence, CompoundSet<C> compoundSet) {
+        this(sequence, compoundSet, new AccessionID("Unknown"));
+    }
+
+    /**
+     * Encodes the given sequence into a direct buffer
+     */
+    public TwoBitBufferSequenceReader(String sequence, CompoundSet<C> compoundSet, AccessionID accession) {
+        this(new Builder(sequence.length(), true).append(sequence), compoundSet, accession);
+    }
+
+    private TwoBitBufferSequenceReader(Builder builder, CompoundSet<C> compoundSet, AccessionID accession) {
+        this(builder.getData(), builder.getLength(), builder.getNBlocks().getStarts(), builder.getNBlocks().getSizes(),
+                builder.getMaskBlocks().getStarts(), builder.getMaskBlocks().getSizes(), compoundSet, accession);
+    }
+
+    /**
+     * Number of bytes needed to pack the given number of bases
+     */
+    public static long packedSize(long length) {
+        return (length + 3) / 4;
+    }
+
+    /**
+     * Class is immutable & so this is unsupported
+     */
+    public void setCompoundSet(CompoundSet<C> compoundSet) {
+        throw new UnsupportedOperationException("Cannot reset the CompoundSet; object is immutable");
+    }
+
+    /**
+     * Class is immutable & so this is unsupported
+     */
+    public void setContents(String sequence) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " is an immutable data structure; cannot reset contents");
+    }
+
+    public AccessionID getAccession() {
+        return accession;
+    }
+
+    public CompoundSet<C> getCompoundSet() {
+        return compoundSet;
+    }
+
+    /**
+     * Returns the length of the sequence which can be larger than an int
+     */
+    public long getLongLength() {
+        return length;
+    }
+
+    /**
+     * Returns the length of the sequence
+     *
+     * @throws IllegalStateException If the sequence is too long for an int;
+     * use {@link #getLongLength()}
+     */
+    public int getLength() {
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Sequence of " + length + " bases is too long for int access; use getLongLength()");
+        }
+        return (int) length;
+    }
+
+    /**
+     * Returns the compound at the specified biological index
+     */
+    public C getCompoundAt(int position) {
+        return getCompoundAt((long) position);
+    }
+
+    /**
+     * Returns the compound at the specified biological index
+     */
+    @SuppressWarnings("unchecked")
+    public C getCompoundAt(long position) {
+        checkRange(position, position);
+        long index = position - 1;
+        int packed = data.get((int) (index >>> 2)) & 0xff;
+        char base = BYTE_TO_BASES[packed * 4 + (int) (index & 3)];
+        if (inBlock(nBlockStarts, nBlockSizes, index)) {
+            base = 'N';
+        }
+        if (inBlock(maskBlockStarts, maskBlockSizes, index)) {
+            base = Character.toLowerCase(base);
+        }
+        return (C) getCharToCompound()[base];
+    }
+
+    /**
+     * Returns the sequence as a String
+     */
+    public String getSequenceAsString() {
+        return getSequenceAsString(1, getLength());
+    }
+
+    /**
+     * Returns the biological range start to end as a String. The packed
+     * bytes are decoded through a byte to bases table and the N and mask
+     * runs are applied afterwards.
+     */
+    public String getSequenceAsString(long start, long end) {
+        if (start > end) {
+            return "";
+        }
+        checkRange(start, end);
+        if (end - start + 1 > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Range " + start + " to " + end + " is too long for a String");
+        }
+        char[] chars = new char[(int) (end - start + 1)];
+        long index = start - 1;
+        for (int i = 0; i < chars.length; i++, index++) {
+            chars[i] = BYTE_TO_BASES[(data.get((int) (index >>> 2)) & 0xff) * 4 + (int) (index & 3)];
+        }
+        applyBlocks(nBlockStarts, nBlockSizes, chars, start - 1, false);
+        applyBlocks(maskBlockStarts, maskBlockSizes, chars, start - 1, true);
+        return new String(chars);
+    }
+
+    /**
+     * Follows the same rules as {@link SequenceAsStringHelper}; the negative
+     * strand is the reversed region and a start greater than end wraps around
+     * the end of the sequence.
+     */
+    public String getSequenceAsString(Integer start, Integer end, Strand strand) {
+        if (strand.equals(Strand.NEGATIVE)) {
+            if (start <= end) {
+                return reverse(getSequenceAsString((long) start, (long) end));
+            }
+            return reverse(getSequenceAsString(1L, (long) start)) + reverse(getSequenceAsString((long) end, length));
+        }
+        if (start <= end) {
+            return getSequenceAsString((long) start, (long) end);
+        }
+        return getSequenceAsString((long) start, length) + getSequenceAsString(1L, (long) end);
+    }
+
+    private static String reverse(String string) {
+        return new StringBuilder(string).reverse().toString();
+    }
+
+    /**
+     * Returns a sub sequence view whose String form is decoded straight from
+     * the packed bytes
+     */
+    public SequenceView<C> getSubSequence(final Integer start, final Integer end) {
+        return new SequenceProxyView<C>(this, start, end) {
+
+            @Override
+            public String getSequenceAsString() {
+                return TwoBitBufferSequenceReader.this.getSequenceAsString((long) start, (long) end);
+            }
+        };
+    }
+
+    /**
+     * Counts the given compounds by decoding the sequence in chunks and
+     * counting chars rather than iterating compound by compound
+     */
+    public int countCompounds(C... compounds) {
+        int[] counts = getCharCounts();
+        int count = 0;
+        for (C compound : compounds) {
+            String string = compoundSet.getStringForCompound(compound);
+            if (string.length() == 1 && string.charAt(0) < counts.length) {
+                count += counts[string.charAt(0)];
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Counts every compound in this store; gives the same result as
+     * {@link SequenceMixin#getComposition(org.biojava3.core.sequence.template.Sequence)}
+     * without iterating compound by compound
+     */
+    @SuppressWarnings("unchecked")
+    public Map<C, Integer> getComposition() {
+        int[] counts = getCharCounts();
+        Object[] lookup = getCharToCompound();
+        Map<C, Integer> composition = new HashMap<C, Integer>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                composition.put((C) lookup[i], counts[i]);
+            }
+        }
+        return composition;
+    }
+
+    private int[] getCharCounts() {
+        int[] counts = new int[128];
+        int chunk = 64 * 1024;
+        for (long start = 1; start <= length; start += chunk) {
+            String region = getSequenceAsString(start, Math.min(start + chunk - 1, length));
+            for (int i = 0; i < region.length(); i++) {
+                counts[region.charAt(i)]++;
+            }
+        }
+        return counts;
+    }
+
+    public int getIndexOf(C compound) {
+        return SequenceMixin.indexOf(this, compound);
+    }
+
+    public int getLastIndexOf(C compound) {
+        return SequenceMixin.lastIndexOf(this, compound);
+    }
+
+    public List<C> getAsList() {
+        return SequenceMixin.toList(this);
+    }
+
+    public Iterator<C> iterator() {
+        return SequenceMixin.createIterator(this);
+    }
+
+    /**
+     * Returns the packed data
+     */
+    public ByteBuffer getData() {
+        return data.duplicate();
+    }
+
+    /**
+     * Returns the number of bases in runs of N
+     */
+    public long getNCount() {
+        long count = 0;
+        for (long size : nBlockSizes) {
+            count += size;
+        }
+        return count;
+    }
+
+    private void checkRange(long start, long end) {
+        if (start < 1 || end > length) {
+            throw new IllegalArgumentException("Range " + start + " to " + end + " is not in 1 to " + length);
+        }
+    }
+
+    /**
+     * Binary search for the block covering the 0 based index
+     */
+    private static boolean inBlock(long[] starts, long[] sizes, long index) {
+        int found = Arrays.binarySearch(starts, index);
+        if (found >= 0) {
+            return sizes[found] > 0;
+        }
+        int previous = -found - 2;
+        return previous >= 0 && index < starts[previous] + sizes[previous];
+    }
+
+    /**
+     * Overwrites the chars of a region starting at the 0 based offset with
+     * N or lower cases them for every block overlapping the region
+     */
+    private static void applyBlocks(long[] starts, long[] sizes, char[] chars, long offset, boolean mask) {
+        if (starts.length == 0) {
+            return;
+        }
+        long regionEnd = offset + chars.length;
+        int found = Arrays.binarySearch(starts, offset);
+        int block = (found >= 0) ? found : Math.max(-found - 2, 0);
+        for (; block < starts.length && starts[block] < regionEnd; block++) {
+            long from = Math.max(starts[block], offset);
+            long to = Math.min(starts[block] + sizes[block], regionEnd);
+            for (long i = from; i < to; i++) {
+                int charIndex = (int) (i - offset);
+                chars[charIndex] = mask ? Character.toLowerCase(chars[charIndex]) : 'N';
+            }
+        }
+    }
+
+    private Object[] getCharToCompound() {
+        if (charToCompound == null) {
+            Object[] lookup = new Object[128];
+            for (char c : (BASES + "N" + BASES.toLowerCase() + "n").toCharArray()) {
+                lookup[c] = compoundSet.getCompoundForString(Character.toString(c));
+            }
+            charToCompound = lookup;
+        }
+        return charToCompound;
+    }
+
+    /**
+     * Sorted list of intervals collected while encoding
+     */
+    public static class Blocks {
+
+        private long[] starts = new long[16];
+        private long[] sizes = new long[16];
+        private int count = 0;
+
+        /**
+         * Adds the 0 based position extending the last block if it is
+         * adjacent to it
+         */
+        public void add(long position) {
+            if (count > 0 && starts[count - 1] + sizes[count - 1] == position) {
+                sizes[count - 1]++;
+                return;
+            }
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
+                sizes = Arrays.copyOf(sizes, count * 2);
+            }
+            starts[count] = position;
+            sizes[count] = 1;
+            count++;
+        }
+
+        public long[] getStarts() {
+            return (count == 0) ? EMPTY : Arrays.copyOf(starts, count);
+        }
+
+        public long[] getSizes() {
+            return (count == 0) ? EMPTY : Arrays.copyOf(sizes, count);
+        }
+
+        public int size() {
+            return count;
+        }
+    }
+
+    /**
+     * Packs bases into a buffer as they are appended which allows sequences
+     * longer than a String to be encoded piece by piece, e.g. line by line
+     * from a fasta file.
+     */
+    public static class Builder {
+
+        private final ByteBuffer data;
+        private final long capacity;
+        private final Blocks nBlocks = new Blocks();
+        private final Blocks maskBlocks = new Blocks();
+        private long length = 0;
+
+        /**
+         * @param capacity Number of bases which will be appended
+         * @param direct Allocate the buffer outside of the heap
+         */
+        public Builder(long capacity, boolean direct) {
+            long size = packedSize(capacity);
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException(capacity + " bases is too many for a single buffer");
+            }
+            this.capacity = capacity;
+            this.data = direct ? ByteBuffer.allocateDirect((int) size) : ByteBuffer.allocate((int) size);
+        }
+
+        public Builder append(CharSequence sequence) {
+            if (length + sequence.length() > capacity) {
+                throw new IllegalStateException("Cannot append " + sequence.length() + " bases; only " + (capacity - length) + " left");
+            }
+            for (int i = 0; i < sequence.length(); i++) {
+                append(sequence.charAt(i));
+            }
+            return this;
+        }
+
+        private void append(char base) {
+            int code;
+            switch (Character.toUpperCase(base)) {
+                case 'T': code = 0; break;
+                case 'C': code = 1; break;
+                case 'A': code = 2; break;
+                case 'G': code = 3; break;
+                default:
+                    code = 0;
+                    nBlocks.add(length);
+            }
+            if (Character.isLowerCase(base)) {
+                maskBlocks.add(length);
+            }
+            int byteIndex = (int) (length >>> 2);
+            int shift = 6 - ((int) (length & 3) * 2);
+            data.put(byteIndex, (byte) (data.get(byteIndex) | (code << shift)));
+            length++;
+        }
+
+        public ByteBuffer getData() {
+            return data;
+        }
+
+        public long getLength() {
+            return length;
+        }
+
+        public Blocks getNBlocks() {
+            return nBlocks;
+        }
+
+        public Blocks getMaskBlocks() {
+            return maskBlocks;
+        }
+
+        public <C extends NucleotideCompound> TwoBitBufferSequenceReader<C> build(CompoundSet<C> compoundSet, AccessionID accession) {
+            if (length != capacity) {
+                throw new IllegalStateException("Expected " + capacity + " bases but only " + length + " were appended");
+            }
+            return new TwoBitBufferSequenceReader<C>(this, compoundSet, accession);
+        }
+    }
+}
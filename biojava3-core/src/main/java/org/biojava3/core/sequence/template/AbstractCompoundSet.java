@@ -22,6 +22,7 @@ public abstract class AbstractCompoundSet<C extends Compound> implements Compoun
   private Map<CharSequence, C> charSeqToCompound = new HashMap<CharSequence, C>();
   private int maxCompoundCharSequenceLength = -1;
   private Boolean compoundStringLengthEqual = null;
+  private volatile Map<String, Integer> ordinals = null;
   
   Map<C,Set<C>> equivalentsMap = new HashMap<C, Set<C>>();
 
@@ -60,6 +61,7 @@ public abstract class AbstractCompoundSet<C extends Compound> implements Compoun
     charSeqToCompound.put(compound.toString(), compound);
     maxCompoundCharSequenceLength = -1;
     compoundStringLengthEqual = null;
+    ordinals = null;
   }
 
   public String getStringForCompound(C compound) {
@@ -145,6 +147,20 @@ public abstract class AbstractCompoundSet<C extends Compound> implements Compoun
     return new ArrayList<C>(charSeqToCompound.values());
   }
 
+  public int getOrdinal(C compound) {
+    Map<String, Integer> o = ordinals;
+    if (o == null) {
+      // same order as the values of the map in getAllCompounds()
+      o = new HashMap<String, Integer>();
+      for (C c : charSeqToCompound.values()) {
+        o.put(getStringForCompound(c), o.size());
+      }
+      ordinals = o;
+    }
+    Integer ordinal = o.get(getStringForCompound(compound));
+    return (ordinal == null) ? -1 : ordinal;
+  }
+
   private void assertCompound(C compound) {
     boolean okay = hasCompound(compound);
     if(! okay) {
@@ -471,7 +471,7 @@ public abstract class AbstractSequence<C extends Compound> implements Sequence<C
         return getSequenceAsString();
     }
 
-    private SequenceReader<C> getSequenceStorage() {
+    SequenceReader<C> getSequenceStorage() {
         if (sequenceStorage != null) {
             return sequenceStorage;
         }
@@ -60,4 +60,11 @@ public interface CompoundSet<C extends Compound> {
 	public boolean hasCompound(C compound);
 
 	public List<C> getAllCompounds();
+
+	/**
+	 * Returns the index of the given compound in {@link #getAllCompounds()},
+	 * a small integer which stays the same as long as no compound is added to
+	 * this set. Returns -1 if the compound is not in this set.
+	 */
+	public int getOrdinal(C compound);
 }
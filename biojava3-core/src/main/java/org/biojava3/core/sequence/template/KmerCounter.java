@@ -0,0 +1,303 @@
+package org.biojava3.core.sequence.template;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.biojava3.core.sequence.storage.BitSequenceReader;
+import org.biojava3.core.sequence.storage.TwoBitSequenceReader;
+
+/**
+ * Counts the overlapping k-mers of nucleotide sequences without creating
+ * an object per window. Each k-mer is encoded as a long with 2 bits per
+ * base (A, C, G and T as 0 to 3) which is updated as a rolling value as the
+ * window moves one base along. Windows containing anything other than
+ * A, C, G or T (in either case) are skipped.
+ *
+ * For small k the counts are kept in a dense long array indexed by the
+ * encoded k-mer; for larger k an open addressing table is used which only
+ * grows with the number of distinct k-mers seen.
+ *
+ * In canonical mode a k-mer and its reverse complement are counted as one;
+ * the lexicographically smaller of the two is the key. This is what you
+ * want when the strand of the input (e.g. sequencing reads) is unknown.
+ *
+ * Sequences backed by a {@link TwoBitSequenceReader} are read straight
+ * from their packed ints. Instances are not thread safe.
+ */
+public class KmerCounter {
+
+    /**
+     * Largest k which fits into a long with 2 bits per base
+     */
+    public static final int MAX_K = 31;
+    /**
+     * Largest k for which the dense array is used; 4^10 longs is 8MB
+     */
+    public static final int MAX_DENSE_K = 10;
+
+    private static final String BASES = "ACGT";
+    private static final byte[] CHAR_TO_CODE = new byte[128];
+    /**
+     * Converts from the TCAG ordered values of the 2bit stores to ACGT
+     */
+    private static final byte[] TWO_BIT_TO_CODE = new byte[]{3, 1, 0, 2};
+    private static final long EMPTY = -1;
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    static {
+        for (int i = 0; i < CHAR_TO_CODE.length; i++) {
+            CHAR_TO_CODE[i] = -1;
+        }
+        for (byte i = 0; i < BASES.length(); i++) {
+            CHAR_TO_CODE[BASES.charAt(i)] = i;
+            CHAR_TO_CODE[Character.toLowerCase(BASES.charAt(i))] = i;
+        }
+    }
+
+    private final int k;
+    private final boolean canonical;
+    private final long mask;
+    private final int reverseShift;
+    //dense storage
+    private long[] denseCounts = null;
+    //open addressing storage
+    private long[] keys = null;
+    private long[] counts = null;
+    private int distinct = 0;
+    private long total = 0;
+    //rolling state of the current sequence
+    private long forward;
+    private long reverse;
+    private int valid;
+
+    public KmerCounter(int k) {
+        this(k, false);
+    }
+
+    public KmerCounter(int k, boolean canonical) {
+        if (k < 1 || k > MAX_K) {
+            throw new IllegalArgumentException("k must be between 1 and " + MAX_K + " but was " + k);
+        }
+        this.k = k;
+        this.canonical = canonical;
+        this.mask = (1L << (2 * k)) - 1;
+        this.reverseShift = 2 * (k - 1);
+        if (k <= MAX_DENSE_K) {
+            denseCounts = new long[1 << (2 * k)];
+        } else {
+            keys = new long[1024];
+            counts = new long[1024];
+            Arrays.fill(keys, EMPTY);
+        }
+    }
+
+    /**
+     * Adds the k-mers of a sequence. Packed 2bit stores are decoded in
+     * chunks of bit values; anything else is read as a String.
+     */
+    public void add(Sequence<?> sequence) {
+        Sequence<?> backing = SequenceMixin.getBackingSequence(sequence);
+        if (backing instanceof TwoBitSequenceReader) {
+            BitSequenceReader<?> reader = (BitSequenceReader<?>) backing;
+            reset();
+            byte[] values = new byte[CHUNK_SIZE];
+            int length = reader.getLength();
+            for (int start = 1; start <= length; start += CHUNK_SIZE) {
+                int end = Math.min(start + CHUNK_SIZE - 1, length);
+                reader.decode(start, end, values, 0);
+                for (int i = 0; i <= end - start; i++) {
+                    roll(TWO_BIT_TO_CODE[values[i]]);
+                }
+            }
+        } else {
+            add(sequence.getSequenceAsString());
+        }
+    }
+
+    /**
+     * Adds the k-mers of a String of bases
+     */
+    public void add(CharSequence sequence) {
+        reset();
+        for (int i = 0; i < sequence.length(); i++) {
+            char base = sequence.charAt(i);
+            byte code = (base < CHAR_TO_CODE.length) ? CHAR_TO_CODE[base] : -1;
+            if (code < 0) {
+                valid = 0;
+            } else {
+                roll(code);
+            }
+        }
+    }
+
+    private void reset() {
+        forward = 0;
+        reverse = 0;
+        valid = 0;
+    }
+
+    private void roll(int code) {
+        forward = ((forward << 2) | code) & mask;
+        reverse = (reverse >>> 2) | ((long) (3 - code) << reverseShift);
+        if (++valid >= k) {
+            increment((canonical && reverse < forward) ? reverse : forward);
+        }
+    }
+
+    private void increment(long key) {
+        total++;
+        if (denseCounts != null) {
+            if (denseCounts[(int) key]++ == 0) {
+                distinct++;
+            }
+            return;
+        }
+        int slot = slot(key);
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & (keys.length - 1);
+        }
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            distinct++;
+            if (distinct * 2 > keys.length) {
+                counts[slot]++;
+                grow();
+                return;
+            }
+        }
+        counts[slot]++;
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & (keys.length - 1);
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldCounts = counts;
+        keys = new long[oldKeys.length * 2];
+        counts = new long[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slot(oldKeys[i]);
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & (keys.length - 1);
+                }
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+
+    /**
+     * Returns the count of a k-mer; in canonical mode this includes the
+     * count of its reverse complement
+     */
+    public long getCount(CharSequence kmer) {
+        long key = encode(kmer);
+        if (key < 0) {
+            return 0;
+        }
+        if (canonical) {
+            key = Math.min(key, reverseComplement(key));
+        }
+        if (denseCounts != null) {
+            return denseCounts[(int) key];
+        }
+        int slot = slot(key);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return counts[slot];
+            }
+            slot = (slot + 1) & (keys.length - 1);
+        }
+        return 0;
+    }
+
+    /**
+     * Returns all k-mers which have been seen with their counts
+     */
+    public Map<String, Long> getCounts() {
+        Map<String, Long> result = new LinkedHashMap<String, Long>();
+        if (denseCounts != null) {
+            for (int key = 0; key < denseCounts.length; key++) {
+                if (denseCounts[key] > 0) {
+                    result.put(decode(key), denseCounts[key]);
+                }
+            }
+        } else {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != EMPTY) {
+                    result.put(decode(keys[i]), counts[i]);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Number of different k-mers seen
+     */
+    public int getDistinctCount() {
+        return distinct;
+    }
+
+    /**
+     * Number of k-mer windows counted
+     */
+    public long getTotalCount() {
+        return total;
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    public boolean isCanonical() {
+        return canonical;
+    }
+
+    /**
+     * Encodes a k-mer with 2 bits per base or returns -1 if it has the wrong
+     * length or contains anything other than A, C, G and T
+     */
+    public long encode(CharSequence kmer) {
+        if (kmer.length() != k) {
+            return -1;
+        }
+        long key = 0;
+        for (int i = 0; i < k; i++) {
+            char base = kmer.charAt(i);
+            byte code = (base < CHAR_TO_CODE.length) ? CHAR_TO_CODE[base] : -1;
+            if (code < 0) {
+                return -1;
+            }
+            key = (key << 2) | code;
+        }
+        return key;
+    }
+
+    /**
+     * Decodes an encoded k-mer back into upper case bases
+     */
+    public String decode(long key) {
+        char[] chars = new char[k];
+        for (int i = k - 1; i >= 0; i--) {
+            chars[i] = BASES.charAt((int) (key & 3));
+            key >>>= 2;
+        }
+        return new String(chars);
+    }
+
+    private long reverseComplement(long key) {
+        long result = 0;
+        for (int i = 0; i < k; i++) {
+            result = (result << 2) | (3 - (key & 3));
+            key >>>= 2;
+        }
+        return result;
+    }
+}
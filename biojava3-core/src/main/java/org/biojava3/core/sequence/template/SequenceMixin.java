@@ -8,8 +8,12 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
+import org.biojava3.core.exceptions.CompoundNotFoundError;
 import org.biojava3.core.sequence.compound.NucleotideCompound;
 import org.biojava3.core.sequence.storage.ArrayListSequenceReader;
+import org.biojava3.core.sequence.storage.BitSequenceReader;
+import org.biojava3.core.sequence.storage.TwoBitBufferSequenceReader;
+import org.biojava3.core.sequence.views.ComplementSequenceView;
 import org.biojava3.core.sequence.views.ReversedSequenceView;
 import org.biojava3.core.util.CRC64Checksum;
 
@@ -118,7 +122,17 @@ public class SequenceMixin {
      * @param sequence The type of sequence to look over
      * @return Counts for the instances of all compounds in the sequence
      */
+    @SuppressWarnings("unchecked")
     public static <C extends Compound> Map<C, Integer> getComposition(Sequence<C> sequence) {
+        //packed stores can count their compounds without iterating
+        Sequence<C> backing = getBackingSequence(sequence);
+        if (backing instanceof BitSequenceReader) {
+            return ((BitSequenceReader<C>) backing).getComposition();
+        }
+        if (backing instanceof TwoBitBufferSequenceReader) {
+            return ((TwoBitBufferSequenceReader) backing).getComposition();
+        }
+
         Map<C, Integer> results = new HashMap<C, Integer>();
 
         for (C currentCompound : sequence) {
@@ -131,6 +145,66 @@ public class SequenceMixin {
         return results;
     }
 
+    /**
+     * Returns the store holding the compounds of a sequence if the sequence
+     * delegates all its compounds to one, otherwise the sequence itself
+     */
+    public static <C extends Compound> Sequence<C> getBackingSequence(Sequence<C> sequence) {
+        if (sequence instanceof AbstractSequence) {
+            SequenceReader<C> storage = ((AbstractSequence<C>) sequence).getSequenceStorage();
+            if (storage != null) {
+                return storage;
+            }
+        }
+        return sequence;
+    }
+
+    /**
+     * Encodes the compounds of a sequence as their ordinals in the given
+     * {@link CompoundSet}, so that code such as alignment can index primitive
+     * arrays by compound rather than look compounds up in a collection. Read
+     * each ordinal back as {@code ordinals[i] & 0xff}.
+     *
+     * @param sequence Sequence to encode
+     * @param compoundSet Set giving the ordinal of each compound
+     * @return One ordinal per compound of the sequence
+     * @throws IllegalArgumentException if the set holds more than 256 compounds
+     * @throws CompoundNotFoundError if a compound is not in the set
+     */
+    public static <C extends Compound> byte[] toOrdinals(Sequence<C> sequence, CompoundSet<C> compoundSet) {
+        if (compoundSet.getAllCompounds().size() > 256) {
+            throw new IllegalArgumentException("Ordinals of more than 256 compounds do not fit in bytes");
+        }
+        byte[] ordinals = new byte[sequence.getLength()];
+        int i = 0;
+        for (C compound : sequence) {
+            int ordinal = compoundSet.getOrdinal(compound);
+            if (ordinal < 0) {
+                throw new CompoundNotFoundError("Compound (" + compound + ") not found in " +
+                    compoundSet.getClass().getSimpleName());
+            }
+            ordinals[i++] = (byte) ordinal;
+        }
+        return ordinals;
+    }
+
+    /**
+     * Counts the overlapping k-mers of a nucleotide sequence with a
+     * {@link KmerCounter}. Unlike {@link #overlappingKmers(Sequence, int)}
+     * no object is created per window; the counts are kept as primitive
+     * longs keyed by the 2 bit encoded k-mer.
+     *
+     * @param sequence Sequence to count
+     * @param kmer Kmer size; at most {@link KmerCounter#MAX_K}
+     * @param canonical Count a k-mer and its reverse complement together
+     * @return The counter holding the counts
+     */
+    public static KmerCounter countKmers(Sequence<NucleotideCompound> sequence, int kmer, boolean canonical) {
+        KmerCounter counter = new KmerCounter(kmer, canonical);
+        counter.add(sequence);
+        return counter;
+    }
+
     /**
      * Used as a way of sending a Sequence to a writer without the cost of
      * converting to a full length String and then writing the data out
@@ -168,6 +242,55 @@ public class SequenceMixin {
         return toStringBuilder(sequence).toString();
     }
 
+    /**
+     * Returns the region start to end of a sequence as a String, optionally
+     * reversed and/or complemented. Chains of {@link ReversedSequenceView},
+     * {@link ComplementSequenceView} and plain {@link SequenceProxyView}s are
+     * resolved to a region of the sequence they view. If that is backed by a
+     * {@link BitSequenceReader} the String is decoded straight from the
+     * packed ints, otherwise it is built from the compounds of the region.
+     */
+    @SuppressWarnings("unchecked")
+    public static <C extends Compound> String toString(Sequence<C> sequence, int start, int end,
+            boolean reverse, boolean complement) {
+        Sequence<C> current = sequence;
+        while (true) {
+            if (current instanceof ReversedSequenceView) {
+                SequenceProxyView<C> view = (SequenceProxyView<C>) current;
+                int length = view.getLength();
+                int reversedStart = length - end + 1;
+                end = length - start + 1;
+                start = reversedStart;
+                reverse = !reverse;
+                current = view.getViewedSequence();
+            } else if (current instanceof ComplementSequenceView) {
+                complement = !complement;
+                current = ((SequenceProxyView<C>) current).getViewedSequence();
+            } else if (current.getClass() == SequenceProxyView.class) {
+                SequenceProxyView<C> view = (SequenceProxyView<C>) current;
+                start += view.getBioStart() - 1;
+                end += view.getBioStart() - 1;
+                current = view.getViewedSequence();
+            } else {
+                break;
+            }
+        }
+
+        Sequence<C> backing = getBackingSequence(current);
+        if (backing instanceof BitSequenceReader) {
+            return ((BitSequenceReader<C>) backing).getSequenceAsString(start, end, reverse, complement);
+        }
+        StringBuilder sb = new StringBuilder(Math.max(0, end - start + 1));
+        for (int i = start; i <= end; i++) {
+            Compound compound = backing.getCompoundAt((reverse) ? end - (i - start) : i);
+            if (complement) {
+                compound = ((ComplementCompound) compound).getComplement();
+            }
+            sb.append(compound.toString());
+        }
+        return sb.toString();
+    }
+
     /**
      * For the given {@link Sequence} this will return a {@link List} filled with
      * the Compounds of that {@link Sequence}.
@@ -64,7 +64,7 @@ public class SequenceProxyView<C extends Compound> implements SequenceView<C> {
 
 
     public String getSequenceAsString() {
-        return SequenceMixin.toString(this);
+        return SequenceMixin.toString(this, 1, getLength(), false, false);
     }
 
     
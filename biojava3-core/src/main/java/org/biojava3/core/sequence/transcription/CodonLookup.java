@@ -0,0 +1,232 @@
+package org.biojava3.core.sequence.transcription;
+
+import java.util.List;
+
+import org.biojava3.core.exceptions.TranslationException;
+import org.biojava3.core.sequence.compound.AminoAcidCompound;
+import org.biojava3.core.sequence.compound.NucleotideCompound;
+import org.biojava3.core.sequence.storage.BitSequenceReader;
+import org.biojava3.core.sequence.storage.TwoBitSequenceReader;
+import org.biojava3.core.sequence.template.CompoundSet;
+import org.biojava3.core.sequence.template.Sequence;
+import org.biojava3.core.sequence.template.SequenceMixin;
+import org.biojava3.core.sequence.transcription.Table.Codon;
+
+/**
+ * Precomputed translation of a {@link Table} into a flat byte array. Every
+ * base (DNA or RNA, including the IUPAC ambiguity codes) is encoded as a 4
+ * bit value so a codon is a 12 bit index into a 4096 entry table holding the
+ * amino acid as a char. Ambiguous codons translate to the amino acid all of
+ * their possible codons agree on (e.g. GGN is G) and to X otherwise.
+ *
+ * Sequences are first encoded into a byte array of base codes which can then
+ * be translated in any {@link Frame} without creating a compound, codon or
+ * view object per position. Sequences backed by a
+ * {@link TwoBitSequenceReader} are encoded straight from their packed ints.
+ *
+ * Instances are immutable and can be shared between threads.
+ */
+public class CodonLookup {
+
+    /**
+     * Bases in the order of their codes; U is encoded as T. Anything not in
+     * here is given the code {@link #UNKNOWN}
+     */
+    private static final String BASES = "ACGTRYSWKMBDHVN";
+    /**
+     * Bit mask of the A, C, G and T bases each code can stand for
+     */
+    private static final int[] BASE_MASKS = new int[]{
+        1, 2, 4, 8, 1 | 4, 2 | 8, 2 | 4, 1 | 8, 4 | 8, 1 | 2, 2 | 4 | 8, 1 | 4 | 8, 1 | 2 | 8, 1 | 2 | 4, 15, 0};
+    /**
+     * Converts from the TCAG ordered values of the 2bit stores to base codes
+     */
+    private static final byte[] TWO_BIT_TO_CODE = new byte[]{3, 1, 0, 2};
+    private static final byte[] CHAR_TO_CODE = new byte[128];
+    private static final byte[] COMPLEMENT = new byte[16];
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    public static final byte UNKNOWN = 15;
+
+    static {
+        for (int i = 0; i < CHAR_TO_CODE.length; i++) {
+            CHAR_TO_CODE[i] = UNKNOWN;
+        }
+        for (byte i = 0; i < BASES.length(); i++) {
+            CHAR_TO_CODE[BASES.charAt(i)] = i;
+            CHAR_TO_CODE[Character.toLowerCase(BASES.charAt(i))] = i;
+        }
+        CHAR_TO_CODE['U'] = CHAR_TO_CODE['T'];
+        CHAR_TO_CODE['u'] = CHAR_TO_CODE['T'];
+
+        for (int code = 0; code < 16; code++) {
+            int mask = BASE_MASKS[code];
+            //swap A with T and C with G
+            int complement = ((mask & 1) << 3) | ((mask & 8) >> 3) | ((mask & 2) << 1) | ((mask & 4) >> 1);
+            for (int other = 0; other < 16; other++) {
+                if (BASE_MASKS[other] == complement) {
+                    COMPLEMENT[code] = (byte) other;
+                    break;
+                }
+            }
+        }
+    }
+
+    private final byte[] aminoAcids = new byte[4096];
+    private final AminoAcidCompound[] compounds = new AminoAcidCompound[128];
+
+    /**
+     * Builds the lookup for a table
+     *
+     * @param table The table to translate with
+     * @param nucleotides Compounds the codons of the table are built with
+     * @param aminoAcids Compounds the table translates to; must contain X
+     * @param translateNCodons If false codons whose amino acid is ambiguous
+     * cause a {@link TranslationException} instead of translating to X
+     */
+    public CodonLookup(Table table, CompoundSet<NucleotideCompound> nucleotides,
+            CompoundSet<AminoAcidCompound> aminoAcids, boolean translateNCodons) {
+
+        byte[] exact = new byte[64];
+        List<Codon> codons = table.getCodons(nucleotides, aminoAcids);
+        for (Codon codon : codons) {
+            int index = (encodeExact(codon.getOne()) << 4) | (encodeExact(codon.getTwo()) << 2) | encodeExact(codon.getThree());
+            char aminoAcid = codon.getAminoAcid().getShortName().charAt(0);
+            exact[index] = (byte) aminoAcid;
+            compounds[aminoAcid] = codon.getAminoAcid();
+        }
+
+        byte unknown = translateNCodons ? (byte) 'X' : 0;
+        compounds['X'] = aminoAcids.getCompoundForString("X");
+        for (int codon = 0; codon < this.aminoAcids.length; codon++) {
+            this.aminoAcids[codon] = resolve(exact,
+                    BASE_MASKS[codon >> 8], BASE_MASKS[(codon >> 4) & 15], BASE_MASKS[codon & 15], unknown);
+        }
+    }
+
+    private static int encodeExact(NucleotideCompound compound) {
+        int mask = BASE_MASKS[encode(compound.getUpperedBase().charAt(0))];
+        switch (mask) {
+            case 1: return 0;
+            case 2: return 1;
+            case 4: return 2;
+            case 8: return 3;
+            default: throw new TranslationException("Codon contains an ambiguous base " + compound);
+        }
+    }
+
+    /**
+     * Finds the amino acid all the exact codons allowed by the masks agree on
+     */
+    private static byte resolve(byte[] exact, int one, int two, int three, byte unknown) {
+        byte result = 0;
+        for (int i = 0; i < 4; i++) {
+            if ((one & (1 << i)) == 0) {
+                continue;
+            }
+            for (int j = 0; j < 4; j++) {
+                if ((two & (1 << j)) == 0) {
+                    continue;
+                }
+                for (int k = 0; k < 4; k++) {
+                    if ((three & (1 << k)) == 0) {
+                        continue;
+                    }
+                    byte aminoAcid = exact[(i << 4) | (j << 2) | k];
+                    if (result == 0) {
+                        result = aminoAcid;
+                    } else if (result != aminoAcid) {
+                        return unknown;
+                    }
+                }
+            }
+        }
+        return (result == 0) ? unknown : result;
+    }
+
+    /**
+     * Returns the code of a base; anything unknown gives {@link #UNKNOWN}
+     */
+    public static byte encode(char base) {
+        return (base < CHAR_TO_CODE.length) ? CHAR_TO_CODE[base] : UNKNOWN;
+    }
+
+    /**
+     * Encodes the bases of a sequence into codes. 2bit backed sequences are
+     * decoded from their packed form; anything else is read as a String.
+     */
+    public static byte[] encode(Sequence<NucleotideCompound> sequence) {
+        Sequence<NucleotideCompound> backing = SequenceMixin.getBackingSequence(sequence);
+        if (backing instanceof TwoBitSequenceReader) {
+            BitSequenceReader<NucleotideCompound> reader = (BitSequenceReader<NucleotideCompound>) backing;
+            byte[] codes = new byte[reader.getLength()];
+            for (int start = 1; start <= codes.length; start += CHUNK_SIZE) {
+                int end = Math.min(start + CHUNK_SIZE - 1, codes.length);
+                reader.decode(start, end, codes, start - 1);
+            }
+            for (int i = 0; i < codes.length; i++) {
+                codes[i] = TWO_BIT_TO_CODE[codes[i]];
+            }
+            return codes;
+        }
+        return encode(sequence.getSequenceAsString());
+    }
+
+    /**
+     * Encodes a String of bases into codes
+     */
+    public static byte[] encode(CharSequence sequence) {
+        byte[] codes = new byte[sequence.length()];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = encode(sequence.charAt(i));
+        }
+        return codes;
+    }
+
+    /**
+     * Returns the amino acid of a codon given as three base codes
+     */
+    public char translate(byte one, byte two, byte three) {
+        byte aminoAcid = aminoAcids[(one << 8) | (two << 4) | three];
+        if (aminoAcid == 0) {
+            throw new TranslationException("Cannot translate ambiguous codon "
+                    + BASES.charAt(one) + BASES.charAt(two) + BASES.charAt(three));
+        }
+        return (char) aminoAcid;
+    }
+
+    /**
+     * Translates encoded bases in the given frame. Reversed frames are read
+     * from the reverse complement of the bases, as {@link Frame#wrap} does,
+     * and trailing bases which do not make up a codon are ignored.
+     *
+     * @param codes Bases as returned by one of the encode methods
+     * @param frame The frame to translate
+     * @return One amino acid char per codon
+     */
+    public byte[] translate(byte[] codes, Frame frame) {
+        int offset = frame.getStart() - 1;
+        int length = Math.max(0, (codes.length - offset) / 3);
+        byte[] result = new byte[length];
+        if (frame.isReverse()) {
+            int position = codes.length - 1 - offset;
+            for (int i = 0; i < length; i++, position -= 3) {
+                result[i] = (byte) translate(COMPLEMENT[codes[position]], COMPLEMENT[codes[position - 1]],
+                        COMPLEMENT[codes[position - 2]]);
+            }
+        } else {
+            int position = offset;
+            for (int i = 0; i < length; i++, position += 3) {
+                result[i] = (byte) translate(codes[position], codes[position + 1], codes[position + 2]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the amino acid compound for a char returned by translate
+     */
+    public AminoAcidCompound getCompound(byte aminoAcid) {
+        return compounds[aminoAcid];
+    }
+}
@@ -26,6 +26,20 @@ public enum Frame {
     this.reverse = reverse;
   }
 
+  /**
+   * Returns the 1 based position the frame starts at on its strand
+   */
+  public int getStart() {
+    return start;
+  }
+
+  /**
+   * Returns true if the frame is read from the reverse complement
+   */
+  public boolean isReverse() {
+    return reverse;
+  }
+
   public static Frame getDefaultFrame() {
     return ONE;
   }
@@ -1,7 +1,6 @@
 package org.biojava3.core.sequence.transcription;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -13,7 +12,6 @@ import org.biojava3.core.sequence.io.template.SequenceCreatorInterface;
 import org.biojava3.core.sequence.template.AbstractCompoundTranslator;
 import org.biojava3.core.sequence.template.CompoundSet;
 import org.biojava3.core.sequence.template.Sequence;
-import org.biojava3.core.sequence.template.SequenceView;
 import org.biojava3.core.sequence.transcription.Table.Codon;
 import org.biojava3.core.sequence.views.WindowedSequence;
 
@@ -30,11 +28,8 @@ public class RNAToAminoAcidTranslator extends AbstractCompoundTranslator<Nucleot
 
     private final boolean trimStops;
     private final boolean initMetOnly;
-    private final Map<Table.CaseInsensitiveTriplet, Codon> quickLookup;
     private final Map<AminoAcidCompound, List<Codon>> aminoAcidToCodon;
-    //Cheeky lookup which uses a hashing value; key is to switch to using this all the time
-    private final Codon[] codonArray = new Codon[64000];
-    private final AminoAcidCompound unknownAminoAcidCompound;
+    private final CodonLookup codonLookup;
     private final boolean translateNCodons;
 
     public RNAToAminoAcidTranslator(
@@ -48,14 +43,10 @@ public class RNAToAminoAcidTranslator extends AbstractCompoundTranslator<Nucleot
         this.initMetOnly = initMetOnly;
         this.translateNCodons = translateNCodons;
 
-        quickLookup = new HashMap<Table.CaseInsensitiveTriplet, Codon>(codons.getAllCompounds().size());
         aminoAcidToCodon = new HashMap<AminoAcidCompound, List<Codon>>();
 
         List<Codon> codonList = table.getCodons(nucleotides, aminoAcids);
         for (Codon codon : codonList) {
-            quickLookup.put(codon.getTriplet(), codon);
-            codonArray[codon.getTriplet().intValue()] = codon;
-            
             List<Codon> codonL = aminoAcidToCodon.get(codon.getAminoAcid());
             if ( codonL == null){
             	codonL = new ArrayList<Codon>();
@@ -65,48 +56,36 @@ public class RNAToAminoAcidTranslator extends AbstractCompoundTranslator<Nucleot
             
         }
 
-        unknownAminoAcidCompound = aminoAcids.getCompoundForString("X");
+        codonLookup = new CodonLookup(table, nucleotides, aminoAcids, translateNCodons);
     }
 
     /**
-     * Performs the core conversion of RNA to Peptide. It does this by walking
-     * a windowed version of the given sequence. Any trailing DNA base pairs
-     * are ignored according to the specification of {@link WindowedSequence}.
+     * Performs the core conversion of RNA to Peptide. The bases are encoded
+     * and translated through the {@link CodonLookup} of the table. Any
+     * trailing base pairs are ignored as they would be by
+     * {@link WindowedSequence}.
      */
     @Override
     public List<Sequence<AminoAcidCompound>> createSequences(
             Sequence<NucleotideCompound> originalSequence) {
+        return createSequences(CodonLookup.encode(originalSequence), Frame.ONE);
+    }
+
+    /**
+     * Translates bases which have already been encoded with
+     * {@link CodonLookup#encode(Sequence)} in the given frame. This lets a
+     * sequence be encoded once and translated in several frames.
+     */
+    public List<Sequence<AminoAcidCompound>> createSequences(byte[] codes, Frame frame) {
+        byte[] aminoAcids = codonLookup.translate(codes, frame);
 
         List<List<AminoAcidCompound>> workingList = new ArrayList<List<AminoAcidCompound>>();
-        
-        Iterable<SequenceView<NucleotideCompound>> iter =
-            new WindowedSequence<NucleotideCompound>(originalSequence, 3);
-                
-        for (SequenceView<NucleotideCompound> element : iter) {
-            AminoAcidCompound aminoAcid;
-
-            int i =1;
-            Table.CaseInsensitiveTriplet triplet = new Table.CaseInsensitiveTriplet(
-              element.getCompoundAt(i++), element.getCompoundAt(i++), element.getCompoundAt(i++));
-
-            Codon target;
-
-            int arrayIndex = triplet.intValue();
-            //So long as we're within range then access
-            if(arrayIndex > -1 && arrayIndex < codonArray.length) {
-                target = codonArray[arrayIndex];
-                aminoAcid = target.getAminoAcid();
-            }
-            //Otherwise we have to use the Map
-            else {
-                target = quickLookup.get(triplet);
-                aminoAcid = target.getAminoAcid();
+        if (aminoAcids.length > 0) {
+            List<AminoAcidCompound> compounds = new ArrayList<AminoAcidCompound>(aminoAcids.length);
+            for (byte aminoAcid : aminoAcids) {
+                compounds.add(codonLookup.getCompound(aminoAcid));
             }
-            
-            if(aminoAcid == null && translateNCodons()) {
-                aminoAcid = unknownAminoAcidCompound;
-            }
-            addCompoundsToList(Arrays.asList(aminoAcid), workingList);
+            workingList.add(compounds);
         }
 
         postProcessCompoundLists(workingList);
@@ -135,6 +114,10 @@ public class RNAToAminoAcidTranslator extends AbstractCompoundTranslator<Nucleot
         AminoAcidCompound initMet = getToCompoundSet().getCompoundForString("M");
         AminoAcidCompound start = sequence.get(0);
         boolean isStart = false;
+        //X from ambiguous codons has no codons of its own
+        if (!aminoAcidToCodon.containsKey(start)) {
+            return;
+        }
         for (Codon c : aminoAcidToCodon.get(start)) {
             if (c.isStart()) {
                 isStart = true;
@@ -154,6 +137,9 @@ public class RNAToAminoAcidTranslator extends AbstractCompoundTranslator<Nucleot
     protected void trimStop(List<AminoAcidCompound> sequence) {
         AminoAcidCompound stop = sequence.get(sequence.size() - 1);
         boolean isStop = false;
+        if (!aminoAcidToCodon.containsKey(stop)) {
+            return;
+        }
         for (Codon c : aminoAcidToCodon.get(stop)) {
             if (c.isStop()) {
                 isStop = true;
@@ -166,6 +152,10 @@ public class RNAToAminoAcidTranslator extends AbstractCompoundTranslator<Nucleot
         }
     }
 
+    public CodonLookup getCodonLookup() {
+        return codonLookup;
+    }
+
     /**
      * Indicates if we want to force exact translation of compounds or not i.e.
      * those with internal N RNA bases. This will cause a translation to an
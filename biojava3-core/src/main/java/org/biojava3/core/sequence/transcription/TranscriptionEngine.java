@@ -1,7 +1,14 @@
 package org.biojava3.core.sequence.transcription;
 
 import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.biojava3.core.exceptions.TranslationException;
 
 import org.biojava3.core.sequence.compound.AminoAcidCompound;
 import org.biojava3.core.sequence.compound.AminoAcidCompoundSet;
@@ -16,6 +23,7 @@ import org.biojava3.core.sequence.io.template.SequenceCreatorInterface;
 import org.biojava3.core.sequence.template.CompoundSet;
 import org.biojava3.core.sequence.template.Sequence;
 import org.biojava3.core.sequence.transcription.Table.Codon;
+import org.biojava3.core.util.ConcurrencyTools;
 
 /**
  * Used as a way of encapsulating the data structures required to parse
@@ -61,6 +69,7 @@ public class TranscriptionEngine {
     private final CompoundSet<NucleotideCompound> dnaCompounds;
     private final CompoundSet<NucleotideCompound> rnaCompounds;
     private final CompoundSet<AminoAcidCompound> aminoAcidCompounds;
+    private final boolean directTranslation;
 
     private TranscriptionEngine(
             Table table,
@@ -70,7 +79,8 @@ public class TranscriptionEngine {
             SequenceCreatorInterface<NucleotideCompound> rnaSequenceCreator,
             CompoundSet<NucleotideCompound> dnaCompounds,
             CompoundSet<NucleotideCompound> rnaCompounds,
-            CompoundSet<AminoAcidCompound> aminoAcidCompounds) {
+            CompoundSet<AminoAcidCompound> aminoAcidCompounds,
+            boolean directTranslation) {
         this.table = table;
         this.rnaAminoAcidTranslator = rnaAminoAcidTranslator;
         this.dnaRnaTranslator = dnaRnaTranslator;
@@ -79,6 +89,7 @@ public class TranscriptionEngine {
         this.dnaCompounds = dnaCompounds;
         this.rnaCompounds = rnaCompounds;
         this.aminoAcidCompounds = aminoAcidCompounds;
+        this.directTranslation = directTranslation;
     }
 
     /**
@@ -104,18 +115,90 @@ public class TranscriptionEngine {
      */
     public Map<Frame, Sequence<AminoAcidCompound>> multipleFrameTranslation(
             Sequence<NucleotideCompound> dna, Frame... frames) {
+        return multipleFrameTranslation(dna, false, frames);
+    }
+
+    /**
+     * A way of translating DNA in a number of frames. Unless custom
+     * translators were given to the {@link Builder} the DNA is encoded once
+     * and every frame is translated from the encoded bases using the
+     * {@link CodonLookup} of the table without creating RNA sequences.
+     *
+     * @param dna The CDS to translate
+     * @param parallel Translate each frame as a separate task on the
+     * {@link ConcurrencyTools} thread pool
+     * @param frames The Frames to translate in
+     * @return All generated protein sequences in the given frames. Can have
+     * null entries
+     */
+    public Map<Frame, Sequence<AminoAcidCompound>> multipleFrameTranslation(
+            Sequence<NucleotideCompound> dna, boolean parallel, Frame... frames) {
+        return multipleFrameTranslation(dna,
+                (parallel) ? ConcurrencyTools.getThreadPool() : null, frames);
+    }
+
+    /**
+     * A way of translating DNA in a number of frames with each frame
+     * translated as a separate task in the given {@link ExecutorService}.
+     *
+     * @param dna The CDS to translate
+     * @param executor Runs the translation of each frame; if null all frames
+     * are translated by the calling thread
+     * @param frames The Frames to translate in
+     * @return All generated protein sequences in the given frames. Can have
+     * null entries
+     */
+    public Map<Frame, Sequence<AminoAcidCompound>> multipleFrameTranslation(
+            final Sequence<NucleotideCompound> dna, ExecutorService executor, Frame... frames) {
         Map<Frame, Sequence<AminoAcidCompound>> results =
                 new EnumMap<Frame, Sequence<AminoAcidCompound>>(Frame.class);
-        for (Frame frame : frames) {
-            Sequence<NucleotideCompound> rna =
-                    getDnaRnaTranslator().createSequence(dna, frame);
-            Sequence<AminoAcidCompound> peptide =
-                    getRnaAminoAcidTranslator().createSequence(rna);
-            results.put(frame, peptide);
+        final byte[] codes = (directTranslation) ? CodonLookup.encode(dna) : null;
+
+        if (executor == null || frames.length < 2) {
+            for (Frame frame : frames) {
+                results.put(frame, translate(dna, codes, frame));
+            }
+            return results;
+        }
+
+        Map<Frame, Future<Sequence<AminoAcidCompound>>> futures =
+                new EnumMap<Frame, Future<Sequence<AminoAcidCompound>>>(Frame.class);
+        for (final Frame frame : frames) {
+            futures.put(frame, executor.submit(new Callable<Sequence<AminoAcidCompound>>() {
+
+                public Sequence<AminoAcidCompound> call() {
+                    return translate(dna, codes, frame);
+                }
+            }));
+        }
+        for (Map.Entry<Frame, Future<Sequence<AminoAcidCompound>>> entry : futures.entrySet()) {
+            try {
+                results.put(entry.getKey(), entry.getValue().get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TranslationException("Interrupted while translating frame " + entry.getKey(), e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new TranslationException("Could not translate frame " + entry.getKey(), e);
+            }
         }
         return results;
     }
 
+    private Sequence<AminoAcidCompound> translate(Sequence<NucleotideCompound> dna,
+            byte[] codes, Frame frame) {
+        if (codes != null) {
+            List<Sequence<AminoAcidCompound>> peptides =
+                    getRnaAminoAcidTranslator().createSequences(codes, frame);
+            return (peptides.isEmpty()) ? null : peptides.get(0);
+        }
+        Sequence<NucleotideCompound> rna =
+                getDnaRnaTranslator().createSequence(dna, frame);
+        return getRnaAminoAcidTranslator().createSequence(rna);
+    }
+
     public Table getTable() {
         return table;
     }
@@ -181,7 +264,8 @@ public class TranscriptionEngine {
                     getRnaCreator(),
                     getDnaCompounds(),
                     getRnaCompounds(),
-                    getAminoAcidCompounds());
+                    getAminoAcidCompounds(),
+                    isDirectTranslation());
         }
 
         //---- START OF BUILDER METHODS
@@ -345,5 +429,13 @@ public class TranscriptionEngine {
         private boolean isDecorateRna() {
             return decorateRna;
         }
+
+        /**
+         * Frames can only be translated straight from the encoded DNA if
+         * neither translator has been replaced
+         */
+        private boolean isDirectTranslation() {
+            return dnaRnaTranslator == null && rnaAminoAcidTranslator == null;
+        }
     }
 }
@@ -1,6 +1,5 @@
 package org.biojava3.core.sequence.views;
 
-import org.biojava3.core.sequence.Strand;
 import org.biojava3.core.sequence.template.ComplementCompound;
 import org.biojava3.core.sequence.template.Sequence;
 import org.biojava3.core.sequence.template.SequenceMixin;
@@ -21,14 +20,13 @@ public class ComplementSequenceView<C extends ComplementCompound> extends Sequen
         super(sequence);
     }
 
+    /**
+     * Resolved with {@link SequenceMixin#toString(Sequence, int, int, boolean, boolean)}
+     * so packed sequences are reversed and complemented a whole int at a time
+     */
     @Override
     public String getSequenceAsString() {
-        return SequenceMixin.toString(this);
-    }
-
-    @Override
-    public String getSequenceAsString(Integer start, Integer end, Strand strand) {
-        throw new UnsupportedOperationException("Cannot do this");
+        return SequenceMixin.toString(this, 1, getLength(), false, false);
     }
 
     @SuppressWarnings("unchecked")
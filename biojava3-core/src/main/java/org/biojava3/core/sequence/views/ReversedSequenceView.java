@@ -1,6 +1,5 @@
 package org.biojava3.core.sequence.views;
 
-import org.biojava3.core.sequence.Strand;
 import org.biojava3.core.sequence.template.Compound;
 import org.biojava3.core.sequence.template.Sequence;
 import org.biojava3.core.sequence.template.SequenceMixin;
@@ -24,14 +23,13 @@ public class ReversedSequenceView<C extends Compound> extends SequenceProxyView<
         this.sequenceSize = sequence.getLength();
     }
 
+    /**
+     * Resolved with {@link SequenceMixin#toString(Sequence, int, int, boolean, boolean)}
+     * so packed sequences are reversed and complemented a whole int at a time
+     */
     @Override
     public String getSequenceAsString() {
-        return SequenceMixin.toString(this);
-    }
-
-    @Override
-    public String getSequenceAsString(Integer start, Integer end, Strand strand) {
-        throw new UnsupportedOperationException("Cannot do this");
+        return SequenceMixin.toString(this, 1, getLength(), false, false);
     }
 
     protected int toIndex(int index) {
@@ -84,7 +84,7 @@ public class WindowedSequence<C extends Compound> implements Iterable<SequenceVi
      */
     public SequenceView<C> get(int index) {
         int start = toStartIndex(index);
-        int end  = index + (getWindowSize() - 1);
+        int end  = start + (getWindowSize() - 1);
         return getBackingSequence().getSubSequence(start, end);
     }
 
@@ -0,0 +1,326 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava3.core.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A size bounded in memory cache with least recently used eviction. Unlike
+ * {@link SoftHashMap} entries are only dropped when the cache is over its
+ * limit, never because the garbage collector needs memory, so a full GC does
+ * not empty the cache.
+ *
+ * The size of an entry is given by a {@link Weigher}; by default every entry
+ * weighs 1 so the limit is a number of entries. Use {@link #BYTE_ARRAY_WEIGHER}
+ * to bound a cache of byte arrays by the number of bytes it holds.
+ *
+ * The keys are spread over a number of segments, each with its own lock and
+ * access ordered map, so threads working on different keys rarely wait for
+ * each other. When the cache is over its limit the least recently used
+ * entries of the segment which was written to are evicted first, then those
+ * of the following segments, so the eviction order is only approximately the
+ * global LRU order. An {@link EvictionListener} is told about every evicted
+ * entry e.g. to write it to disk.
+ */
+public class BoundedCache<K, V> {
+
+    /**
+     * Gives the size of a cache entry
+     */
+    public interface Weigher<K, V> {
+
+        long weigh(K key, V value);
+    }
+
+    /**
+     * Told about entries which are evicted to keep the cache within its
+     * limit; not called for entries which are removed or replaced
+     */
+    public interface EvictionListener<K, V> {
+
+        void evicted(K key, V value);
+    }
+
+    /**
+     * Weighs byte arrays by their length
+     */
+    public static final Weigher<Object, byte[]> BYTE_ARRAY_WEIGHER = new Weigher<Object, byte[]>() {
+
+        public long weigh(Object key, byte[] value) {
+            return value.length;
+        }
+    };
+
+    private static final int DEFAULT_SEGMENTS = 16;
+
+    private final Segment<K, V>[] segments;
+    private final long maxWeight;
+    private final Weigher<? super K, ? super V> weigher;
+    private volatile EvictionListener<K, V> evictionListener;
+
+    private final AtomicLong weight = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Cache of at most maxEntries entries
+     */
+    public BoundedCache(long maxEntries) {
+        this(maxEntries, null, DEFAULT_SEGMENTS);
+    }
+
+    /**
+     * Cache with a total weight of at most maxWeight as given by the weigher
+     */
+    public BoundedCache(long maxWeight, Weigher<? super K, ? super V> weigher) {
+        this(maxWeight, weigher, DEFAULT_SEGMENTS);
+    }
+
+    /**
+     * @param maxWeight Largest total weight of the entries
+     * @param weigher Gives the weight of an entry; null counts entries
+     * @param segmentCount Number of independently locked segments
+     */
+    public BoundedCache(long maxWeight, Weigher<? super K, ? super V> weigher, int segmentCount) {
+        if (maxWeight < 0) {
+            throw new IllegalArgumentException("Maximum weight cannot be negative " + maxWeight);
+        }
+        if (segmentCount < 1) {
+            throw new IllegalArgumentException("Need at least one segment " + segmentCount);
+        }
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Segment<K, V>[] s = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            s[i] = new Segment<K, V>();
+        }
+        this.segments = s;
+    }
+
+    public void setEvictionListener(EvictionListener<K, V> evictionListener) {
+        this.evictionListener = evictionListener;
+    }
+
+    public EvictionListener<K, V> getEvictionListener() {
+        return evictionListener;
+    }
+
+    /**
+     * Returns the value of a key and marks it as recently used or null if
+     * the key is not cached
+     */
+    public V get(K key) {
+        Segment<K, V> segment = segments[segmentIndex(key)];
+        V value;
+        synchronized (segment) {
+            value = segment.map.get(key);
+        }
+        if (value == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+        return value;
+    }
+
+    /**
+     * Caches a value evicting least recently used entries if the cache goes
+     * over its limit. Values heavier than the whole limit are not cached.
+     *
+     * @return true if the value was cached
+     */
+    public boolean put(K key, V value) {
+        if (key == null || value == null) {
+            throw new NullPointerException("Cannot cache null keys or values");
+        }
+        long valueWeight = weigh(key, value);
+        int index = segmentIndex(key);
+        Segment<K, V> segment = segments[index];
+        boolean cached = valueWeight <= maxWeight;
+        synchronized (segment) {
+            V previous = (cached) ? segment.map.put(key, value) : segment.map.remove(key);
+            if (previous != null) {
+                weight.addAndGet(-weigh(key, previous));
+            }
+            if (cached) {
+                weight.addAndGet(valueWeight);
+            }
+        }
+        if (weight.get() > maxWeight) {
+            evict(index, key);
+        }
+        return cached;
+    }
+
+    /**
+     * Evicts the least recently used entries starting with the given segment
+     * until the cache is within its limit; the key just written is kept
+     */
+    private void evict(int startIndex, K keep) {
+        Map<K, V> evicted = new LinkedHashMap<K, V>();
+        for (int i = 0; i < segments.length && weight.get() > maxWeight; i++) {
+            Segment<K, V> segment = segments[(startIndex + i) % segments.length];
+            synchronized (segment) {
+                Iterator<Map.Entry<K, V>> iterator = segment.map.entrySet().iterator();
+                while (weight.get() > maxWeight && iterator.hasNext()) {
+                    Map.Entry<K, V> eldest = iterator.next();
+                    if (eldest.getKey().equals(keep)) {
+                        continue;
+                    }
+                    evicted.put(eldest.getKey(), eldest.getValue());
+                    weight.addAndGet(-weigh(eldest.getKey(), eldest.getValue()));
+                    iterator.remove();
+                }
+            }
+        }
+        if (evicted.isEmpty()) {
+            return;
+        }
+        evictions.addAndGet(evicted.size());
+        //listeners may do IO so they are called outside of the locks
+        EvictionListener<K, V> listener = evictionListener;
+        if (listener != null) {
+            for (Map.Entry<K, V> entry : evicted.entrySet()) {
+                listener.evicted(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Removes a key returning its value or null if it was not cached
+     */
+    public V remove(K key) {
+        Segment<K, V> segment = segments[segmentIndex(key)];
+        synchronized (segment) {
+            V value = segment.map.remove(key);
+            if (value != null) {
+                weight.addAndGet(-weigh(key, value));
+            }
+            return value;
+        }
+    }
+
+    public boolean containsKey(K key) {
+        Segment<K, V> segment = segments[segmentIndex(key)];
+        synchronized (segment) {
+            return segment.map.containsKey(key);
+        }
+    }
+
+    /**
+     * Removes all entries; the counters are kept
+     */
+    public void clear() {
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                for (Map.Entry<K, V> entry : segment.map.entrySet()) {
+                    weight.addAndGet(-weigh(entry.getKey(), entry.getValue()));
+                }
+                segment.map.clear();
+            }
+        }
+    }
+
+    /**
+     * Number of cached entries
+     */
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.map.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Total weight of the cached entries
+     */
+    public long getWeight() {
+        return weight.get();
+    }
+
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    /**
+     * Fraction of lookups which found a value; 0 before the first lookup
+     */
+    public double getHitRate() {
+        long hitCount = getHitCount();
+        long total = hitCount + getMissCount();
+        return (total == 0) ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * Resets the hit, miss and eviction counters
+     */
+    public void resetStatistics() {
+        hits.set(0);
+        misses.set(0);
+        evictions.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return "BoundedCache [size=" + size() + ", weight=" + getWeight() + "/" + getMaxWeight()
+                + ", hits=" + getHitCount() + ", misses=" + getMissCount()
+                + ", evictions=" + getEvictionCount() + "]";
+    }
+
+    private long weigh(K key, V value) {
+        return (weigher == null) ? 1 : weigher.weigh(key, value);
+    }
+
+    private int segmentIndex(Object key) {
+        int hash = key.hashCode();
+        //spread the high bits so keys with similar hash codes are split up
+        hash ^= (hash >>> 20) ^ (hash >>> 12);
+        hash ^= (hash >>> 7) ^ (hash >>> 4);
+        return (hash & 0x7fffffff) % segments.length;
+    }
+
+    private static class Segment<K, V> {
+
+        //access ordered so iteration starts at the least recently used entry
+        final LinkedHashMap<K, V> map = new LinkedHashMap<K, V>(16, 0.75f, true);
+    }
+}
@@ -25,21 +25,39 @@
 package org.biojava3.core.util;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 
 /** Provides a cache for storing multiple small files in memory. Can be used to e.g cache gzip compressed PDB files for avoiding disk IO bottlenecks.
+ * 
+ * The cache is a {@link BoundedCache} limited by the number of bytes it holds (256MB unless the
+ * system property biojava.cache.files.maxsize gives a different number of bytes). Least recently used
+ * files are evicted first. Files which do not fit into the cache are not cached.
+ * 
+ * If a spill directory is set (or the system property biojava.cache.files.spill) evicted files are
+ * written there and read back from it on the next request instead of being dropped.
  * 
  * @author Andreas Prlic.
  *
  */
 public class FlatFileCache {
 
+	public static final String MAX_SIZE_PROPERTY = "biojava.cache.files.maxsize";
+	public static final String SPILL_PROPERTY = "biojava.cache.files.spill";
+	public static final long DEFAULT_MAX_SIZE = 256L * 1024 * 1024;
+	private static final int SEGMENTS = 4;
+
 	private static FlatFileCache me ;
 
-	private static SoftHashMap<String, byte[]> cache = new SoftHashMap<String, byte[]>(0);
+	private static volatile BoundedCache<String, byte[]> cache = createCache(getMaxSizeProperty());
+
+	private static volatile File spillDirectory = getSpillProperty();
 	
 	public static FlatFileCache getInstance() {
 
@@ -55,24 +73,92 @@ public class FlatFileCache {
 		
 	}
 
+	private static BoundedCache<String, byte[]> createCache(long maxSize) {
+		BoundedCache<String, byte[]> c = new BoundedCache<String, byte[]>(maxSize, BoundedCache.BYTE_ARRAY_WEIGHER, SEGMENTS);
+		c.setEvictionListener(new BoundedCache.EvictionListener<String, byte[]>() {
+			public void evicted(String key, byte[] value) {
+				spill(key, value);
+			}
+		});
+		return c;
+	}
+
+	private static long getMaxSizeProperty() {
+		String prop = System.getProperty(MAX_SIZE_PROPERTY);
+		if ( prop != null) {
+			try {
+				return Long.parseLong(prop.trim());
+			} catch (NumberFormatException e){
+				System.err.println("Ignoring invalid " + MAX_SIZE_PROPERTY + " " + prop);
+			}
+		}
+		return DEFAULT_MAX_SIZE;
+	}
+
+	private static File getSpillProperty() {
+		String prop = System.getProperty(SPILL_PROPERTY);
+		if ( prop == null)
+			return null;
+		return new File(prop);
+	}
+
+	/** Sets the maximum number of bytes held in memory. Replaces the current cache so all
+	 * cached files and counters are dropped.
+	 * 
+	 * @param maxSize
+	 */
+	public static void setMaxSize(long maxSize){
+		cache = createCache(maxSize);
+	}
+
+	public static long getMaxSize(){
+		return cache.getMaxWeight();
+	}
+
+	/** Sets a directory evicted files are written to; null (the default) drops them.
+	 * 
+	 * @param directory
+	 */
+	public static void setSpillDirectory(File directory){
+		spillDirectory = directory;
+	}
+
+	public static File getSpillDirectory(){
+		return spillDirectory;
+	}
 
 	public  static void addToCache(String key, File fileToCache){
 		//System.out.println("storing " + key + " on file cache (cache size: " + cache.size() + ")");
+		load(cache, key, fileToCache);
+	}
+
+	private static byte[] load(BoundedCache<String, byte[]> c, String key, File fileToCache){
 		try {
-			InputStream is = new FileInputStream(fileToCache);
 			// Get the size of the file
 			long length = fileToCache.length();
 
-			// You cannot create an array using a long type.
-			// It needs to be an int type.
-			// Before converting to an int type, check
-			// to ensure that file is not larger than Integer.MAX_VALUE.
-			if (length > Integer.MAX_VALUE) {
-				// File is too large
+			// Files which cannot be held in an array or do not fit into
+			// the cache are read from disk each time
+			if (length > Integer.MAX_VALUE || length > c.getMaxWeight()) {
+				return null;
 			}
 
+			byte[] bytes = readFully(fileToCache, (int) length);
+			c.put(key, bytes);
+			return bytes;
+			
+		} catch (Exception e){
+		   System.err.println("error adding to cache! " + e.getMessage());
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	private static byte[] readFully(File file, int length) throws IOException {
+		InputStream is = new FileInputStream(file);
+		try {
 			// Create the byte array to hold the data
-			byte[] bytes = new byte[(int)length];
+			byte[] bytes = new byte[length];
 
 			// Read in the bytes
 			int offset = 0;
@@ -84,28 +170,118 @@ public class FlatFileCache {
 
 			// Ensure all the bytes have been read in
 			if (offset < bytes.length) {
-				throw new IOException("Could not completely read file "+fileToCache.getName());
+				throw new IOException("Could not completely read file "+file.getName());
 			}
-
-			// Close the input stream and return bytes
+			return bytes;
+		} finally {
 			is.close();
-	
-			cache.put(key,bytes);
-			
-		} catch (Exception e){
-		   System.err.println("error adding to cache! " + e.getMessage());
-			e.printStackTrace();
 		}
 	}
 
 	public  static InputStream getInputStream(String key){
 		//System.out.println("returning " + key + " from file cache (cache size: " + cache.size() + ")");
-		byte[] bytes = cache.get(key);
+		BoundedCache<String, byte[]> c = cache;
+		byte[] bytes = c.get(key);
+		if ( bytes == null)
+			bytes = unspill(c, key);
+		if ( bytes == null)
+			return null;
+
+		return new ByteArrayInputStream(bytes);
+
+	}
+
+	/** Returns a stream of a file from the cache, reading the file into the cache first if it is
+	 * not there. Counts as a single hit or miss of the cache.
+	 * 
+	 * @param key
+	 * @param file
+	 * @return null if the file cannot be cached
+	 */
+	public static InputStream getInputStream(String key, File file){
+		BoundedCache<String, byte[]> c = cache;
+		byte[] bytes = c.get(key);
+		if ( bytes == null)
+			bytes = unspill(c, key);
+		if ( bytes == null)
+			bytes = load(c, key, file);
 		if ( bytes == null)
 			return null;
 
 		return new ByteArrayInputStream(bytes);
+	}
+
+	private static File getSpillFile(File directory, String key) {
+		// keys are usually paths so use a checksum as the file name
+		CRC64Checksum checksum = new CRC64Checksum();
+		checksum.update(key);
+		return new File(directory, Long.toHexString(checksum.getValue()) + ".cache");
+	}
+
+	private static void spill(String key, byte[] bytes) {
+		File directory = spillDirectory;
+		if ( directory == null)
+			return;
+		try {
+			if ( !directory.exists() && !directory.mkdirs())
+				throw new IOException("Could not create spill directory " + directory);
+			File file = getSpillFile(directory, key);
+			File tmp = new File(file.getPath() + ".tmp");
+			DataOutputStream os = new DataOutputStream(new FileOutputStream(tmp));
+			try {
+				// the key guards against two keys with the same checksum
+				os.writeUTF(key);
+				os.write(bytes);
+			} finally {
+				os.close();
+			}
+			if ( !tmp.renameTo(file)) {
+				tmp.delete();
+			}
+		} catch (IOException e){
+			System.err.println("error spilling " + key + " from cache! " + e.getMessage());
+		}
+	}
+
+	private static byte[] unspill(BoundedCache<String, byte[]> c, String key) {
+		File directory = spillDirectory;
+		if ( directory == null)
+			return null;
+		File file = getSpillFile(directory, key);
+		if ( !file.exists())
+			return null;
+		try {
+			DataInputStream is = new DataInputStream(new FileInputStream(file));
+			byte[] bytes;
+			try {
+				if ( !key.equals(is.readUTF()))
+					return null;
+				// the rest of the file is the cached data
+				ByteArrayOutputStream data = new ByteArrayOutputStream((int) file.length());
+				byte[] buffer = new byte[8192];
+				int numRead;
+				while ((numRead = is.read(buffer)) >= 0) {
+					data.write(buffer, 0, numRead);
+				}
+				bytes = data.toByteArray();
+			} finally {
+				is.close();
+			}
+			file.delete();
+			c.put(key, bytes);
+			return bytes;
+		} catch (IOException e){
+			System.err.println("error reading " + key + " back into cache! " + e.getMessage());
+			return null;
+		}
+	}
 
+	/** Returns the cache holding the files e.g. to look at its hit, miss and eviction counters.
+	 * 
+	 * @return
+	 */
+	public static BoundedCache<String, byte[]> getCache() {
+		return cache;
 	}
 
 	public int size() {
@@ -22,6 +22,7 @@
  */
 package org.biojava3.core.util;
 
+import java.io.BufferedInputStream;
 import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
@@ -160,14 +161,19 @@ public class InputStreamProvider {
 
       int magic = 0;
 
+      // the file is opened once (and so looked up once in the file cache);
+      // the magic number is read ahead and then pushed back
+      InputStream stream = getInputStreamFromFile(f);
+      if ( ! stream.markSupported())
+         stream = new BufferedInputStream(stream);
       try {
-         InputStream test = getInputStreamFromFile(f);
-         magic = getMagicNumber(test);
-         test.close();
+         stream.mark(2);
+         magic = getMagicNumber(stream);
       } catch (Exception e){
     	  System.err.println("Problem while loading: " + f);
          e.printStackTrace();
       };
+      stream.reset();
 
       InputStream inputStream = null;
 
@@ -175,18 +181,19 @@ public class InputStreamProvider {
 
       if (magic == UncompressInputStream.LZW_MAGIC ) {
          // a Z compressed file
-         return openCompressedFile(f);
+         return new UncompressInputStream(stream);
       }
 
       else if (magic == GZIP_MAGIC ) {
-         return openGZIPFile(f); 
+         return new GZIPInputStream(stream); 
       }
 
       else if ( fileName.endsWith(".gz")) {
-         return openGZIPFile(f);
+         return new GZIPInputStream(stream);
       } 
 
       else if ( fileName.endsWith(".zip")){
+         stream.close();
 
          ZipFile zipfile = new ZipFile(f);
 
@@ -203,6 +210,7 @@ public class InputStreamProvider {
       } 
 
       else if ( fileName.endsWith(".jar")) {
+         stream.close();
 
          JarFile jarFile = new JarFile(f);
 
@@ -219,14 +227,14 @@ public class InputStreamProvider {
 
       else if ( fileName.endsWith(".Z")) {
          // unix compressed 
-         return openCompressedFile(f);
+         return new UncompressInputStream(stream);
 
       }
 
       else {
 
          // no particular extension found, assume that it is an uncompressed file
-         inputStream = getInputStreamFromFile(f);
+         inputStream = stream;
       }
 
       return inputStream;
@@ -245,12 +253,7 @@ public class InputStreamProvider {
 
 
       if ( cacheRawFiles ){
-         stream = FlatFileCache.getInputStream(f.getAbsolutePath());
-
-         if ( stream == null){
-            FlatFileCache.addToCache(f.getAbsolutePath(),f);
-            stream = FlatFileCache.getInputStream(f.getAbsolutePath());
-         }
+         stream = FlatFileCache.getInputStream(f.getAbsolutePath(), f);
       }
 
       if ( stream == null)
@@ -260,14 +263,6 @@ public class InputStreamProvider {
    }
 
 
-   private InputStream openCompressedFile(File f)
-   throws IOException{
-
-      InputStream is           =  getInputStreamFromFile(f);
-      InputStream inputStream =  new UncompressInputStream(is);
-      return inputStream;
-   }
-
    private InputStream openCompressedURL(URL u)
    throws IOException{
 
@@ -277,14 +272,6 @@ public class InputStreamProvider {
    }
 
 
-   private InputStream openGZIPFile(File f) 
-   throws IOException{
-
-      InputStream is      = getInputStreamFromFile(f);
-      InputStream inputStream = new GZIPInputStream(is);
-      return inputStream;
-   }
-
    private InputStream openGZIPURL(URL u) 
    throws IOException{
 
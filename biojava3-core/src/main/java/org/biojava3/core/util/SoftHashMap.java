@@ -29,6 +29,9 @@ import java.util.Set;
 
 
 /** A in memory cache using soft references. (can be garbage collected)
+ * 
+ * Note that the garbage collector may clear all soft references at once, e.g. on a full GC, so the
+ * whole cache can be lost under memory pressure. {@link BoundedCache} is bounded by size instead.
  * 
  * This code is based on: http://java-interview-faqs.blogspot.com/2008/09/building-faster-and-efficient-cache.html 
  * */
@@ -18,6 +18,7 @@ import org.biojava3.core.sequence.storage.FourBitSequenceReader;
 import org.biojava3.core.sequence.storage.SingleCompoundSequenceReader;
 import org.biojava3.core.sequence.storage.TwoBitSequenceReader;
 import org.biojava3.core.sequence.template.CompoundSet;
+import org.biojava3.core.sequence.template.KmerCounter;
 import org.biojava3.core.sequence.template.ProxySequenceReader;
 import org.biojava3.core.sequence.template.SequenceMixin;
 import org.biojava3.core.sequence.template.SequenceView;
@@ -145,6 +146,21 @@ public class DNATests {
         assertThat("C distribution not as expected", distribution.get(set.getCompoundForString("C")), is(0.4));
     }
 
+    @Test
+    public void ordinals() {
+        DNASequence seq = getSeq("ATTGGGCCCC");
+        CompoundSet<NucleotideCompound> set = seq.getCompoundSet();
+        List<NucleotideCompound> all = set.getAllCompounds();
+        for (NucleotideCompound c : all) {
+            assertThat("Ordinal not the index of the compound", all.get(set.getOrdinal(c)), is(c));
+        }
+        byte[] ordinals = SequenceMixin.toOrdinals(seq, set);
+        assertThat("Ordinals not as long as the sequence", ordinals.length, is(seq.getLength()));
+        for (int i = 0; i < ordinals.length; i++) {
+            assertThat("Ordinal not that of the compound", all.get(ordinals[i] & 0xff), is(seq.getCompoundAt(i + 1)));
+        }
+    }
+
     @Test
     public void twoBit() {
         String expected = "ATGCAACTGA";
@@ -175,6 +191,43 @@ public class DNATests {
         assertThat("FourBit from String not as expected", bitFromString.getSequenceAsString(), is(expected));
     }
 
+    @Test
+    public void bitRegions() {
+        String expected = "ATGCAACTGAGGCTTACGATCGATCGTA";
+        DNASequence seq = getSeq(expected);
+        CompoundSet<NucleotideCompound> cs = seq.getCompoundSet();
+        NucleotideCompound g = cs.getCompoundForString("G");
+        NucleotideCompound c = cs.getCompoundForString("C");
+        TwoBitSequenceReader<NucleotideCompound> twoBit =
+                new TwoBitSequenceReader<NucleotideCompound>(expected, cs);
+        FourBitSequenceReader<NucleotideCompound> fourBit =
+                new FourBitSequenceReader<NucleotideCompound>(expected, cs);
+
+        assertThat("TwoBit sub sequence not as expected", twoBit.getSubSequence(5, 20).getSequenceAsString(), is(expected.substring(4, 20)));
+        assertThat("FourBit sub sequence not as expected", fourBit.getSubSequence(5, 20).getSequenceAsString(), is(expected.substring(4, 20)));
+        assertThat("TwoBit GC count not as expected", twoBit.countCompounds(g, c), is(SequenceMixin.countCompounds(seq, g, c)));
+        assertThat("FourBit GC count not as expected", fourBit.countCompounds(g, c), is(SequenceMixin.countCompounds(seq, g, c)));
+    }
+
+    @Test
+    public void bitViews() {
+        String expected = "ATGCAACTGAGGCTTACGATCGATCGTA";
+        DNASequence seq = getSeq(expected);
+        CompoundSet<NucleotideCompound> cs = seq.getCompoundSet();
+        DNASequence twoBit = new DNASequence(new TwoBitSequenceReader<NucleotideCompound>(expected, cs), cs);
+        DNASequence fourBit = new DNASequence(new FourBitSequenceReader<NucleotideCompound>(expected, cs), cs);
+
+        String reverseComplement = seq.getReverseComplement().getSequenceAsString();
+        assertThat("TwoBit reverse complement not as expected", twoBit.getReverseComplement().getSequenceAsString(), is(reverseComplement));
+        assertThat("FourBit reverse complement not as expected", fourBit.getReverseComplement().getSequenceAsString(), is(reverseComplement));
+        assertThat("TwoBit reverse not as expected", twoBit.getReverse().getSequenceAsString(), is(seq.getReverse().getSequenceAsString()));
+        assertThat("TwoBit reverse complement region not as expected",
+                twoBit.getReverseComplement().getSubSequence(3, 10).getSequenceAsString(), is(reverseComplement.substring(2, 10)));
+        assertThat("TwoBit negative strand not as expected",
+                twoBit.getSequenceAsString(5, 12, Strand.NEGATIVE),
+                is(seq.getSequenceAsString(5, 12, Strand.NEGATIVE)));
+    }
+
     @Test(expected = IllegalStateException.class)
     public void badTwoBit() {
         DNASequence seq = getSeq();
@@ -244,6 +297,28 @@ public class DNATests {
         assertThat("Asserting second k-mer", l.get(3).getSequenceAsString(), is("TT"));
     }
 
+    @Test
+    public void kmerCounts() {
+        DNASequence d = new DNASequence("ATGTTNATG");
+        KmerCounter counter = SequenceMixin.countKmers(d, 3, false);
+        assertThat("Windows with an N are skipped", counter.getTotalCount(), is(4L));
+        assertThat("Counting ATG", counter.getCount("ATG"), is(2L));
+        assertThat("Counting TGT", counter.getCount("TGT"), is(1L));
+        assertThat("Counting CAT", counter.getCount("CAT"), is(0L));
+
+        KmerCounter canonical = SequenceMixin.countKmers(d, 3, true);
+        assertThat("Canonical ATG includes CAT", canonical.getCount("CAT"), is(2L));
+
+        DNASequence packed = new DNASequence(new TwoBitSequenceReader<NucleotideCompound>(
+                "ATGTTATG", DNACompoundSet.getDNACompoundSet()), DNACompoundSet.getDNACompoundSet());
+        KmerCounter fromString = new KmerCounter(2);
+        fromString.add("ATGTTATG");
+        assertThat("Packed counts", SequenceMixin.countKmers(packed, 2, false).getCounts(),
+                is(fromString.getCounts()));
+        assertThat("Packed composition", SequenceMixin.getComposition(packed),
+                is(SequenceMixin.getComposition(new DNASequence("ATGTTATG"))));
+    }
+
 //  @Test
 //  public void randomTwoBit() throws Exception {
 //    int[] ar = new int[1000000];
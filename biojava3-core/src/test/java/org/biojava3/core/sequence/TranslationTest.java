@@ -8,7 +8,10 @@ import java.io.InputStream;
 import java.util.EnumMap;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import org.biojava3.core.sequence.compound.AmbiguityDNACompoundSet;
 import org.biojava3.core.sequence.compound.AminoAcidCompound;
 import org.biojava3.core.sequence.compound.AminoAcidCompoundSet;
 import org.biojava3.core.sequence.compound.DNACompoundSet;
@@ -152,6 +155,29 @@ public class TranslationTest {
         }
     }
 
+    @Test
+    public void parallelMultiFrameTranslation() {
+        TranscriptionEngine e = TranscriptionEngine.getDefault();
+        DNASequence dna = new DNASequence("ATGGCGTGAACCGGT");
+        Map<Frame, Sequence<AminoAcidCompound>> serial =
+                e.multipleFrameTranslation(dna, Frame.getAllFrames());
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Map<Frame, Sequence<AminoAcidCompound>> parallel =
+                    e.multipleFrameTranslation(dna, executor, Frame.getAllFrames());
+            assertThat("Parallel translation differs", parallel.toString(), is(serial.toString()));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void ambiguousCodons() {
+        TranscriptionEngine e = TranscriptionEngine.getDefault();
+        DNASequence dna = new DNASequence("ATGGGNTTRNNN", AmbiguityDNACompoundSet.getDNACompoundSet());
+        assertThat("Ambiguous codons resolve where possible", e.translate(dna).toString(), is("MGLX"));
+    }
+
     @Test
     public void translateInternalStops() {
         TranscriptionEngine e = TranscriptionEngine.getDefault();
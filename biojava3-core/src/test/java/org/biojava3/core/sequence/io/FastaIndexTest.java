@@ -0,0 +1,84 @@
+package org.biojava3.core.sequence.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+
+import org.biojava3.core.sequence.ProteinSequence;
+import org.biojava3.core.sequence.Strand;
+import org.biojava3.core.sequence.compound.AminoAcidCompound;
+import org.biojava3.core.sequence.compound.AminoAcidCompoundSet;
+import org.biojava3.core.sequence.loader.SequenceFileProxyLoader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FastaIndexTest {
+
+	private static final String FASTA =
+		">seq1 first sequence\n" +
+		"ACDEFGHIKL\n" +
+		"MNPQRSTVWY\n" +
+		"ACD\n" +
+		">seq2\r\n" +
+		"KKKKK\r\n" +
+		"LLLLL\r\n";
+
+	private File fastaFile;
+
+	@Before
+	public void setUp() throws Exception {
+		fastaFile = File.createTempFile("FastaIndexTest", ".fasta");
+		FileOutputStream os = new FileOutputStream(fastaFile);
+		os.write(FASTA.getBytes());
+		os.close();
+	}
+
+	@After
+	public void tearDown() {
+		FastaIndex.getIndexFile(fastaFile).delete();
+		fastaFile.delete();
+	}
+
+	@Test
+	public void testBuild() throws Exception {
+		FastaIndex fastaIndex = FastaIndex.build(fastaFile);
+		assertEquals(2, fastaIndex.size());
+		assertEquals("seq1\t23\t21\t10\t11", fastaIndex.getEntry("seq1").toString());
+		assertEquals("seq2\t10\t54\t5\t7", fastaIndex.getEntry("seq2").toString());
+		assertNull(fastaIndex.getEntry("seq3"));
+	}
+
+	@Test
+	public void testWriteAndRead() throws Exception {
+		File indexFile = FastaIndex.getIndexFile(fastaFile);
+		FastaIndex.getIndex(fastaFile);
+		assertFalse(indexFile.exists());
+		FastaIndex built = FastaIndex.getIndex(fastaFile, true);
+		assertTrue(indexFile.exists());
+		FastaIndex read = FastaIndex.read(fastaFile, indexFile);
+		assertEquals(built.getNames(), read.getNames());
+		for (String name : built.getNames()) {
+			assertEquals(built.getEntry(name).toString(), read.getEntry(name).toString());
+		}
+	}
+
+	@Test
+	public void testRandomAccess() throws Exception {
+		FastaIndex fastaIndex = FastaIndex.build(fastaFile);
+		SequenceFileProxyLoader<AminoAcidCompound> loader = fastaIndex.getSequenceProxyLoader("seq1", AminoAcidCompoundSet.getAminoAcidCompoundSet());
+		assertEquals("M", loader.getCompoundAt(11).getShortName());
+		assertEquals("KLMNP", loader.getSequenceAsString(9, 13, Strand.POSITIVE));
+		assertEquals("WYAC", loader.getSubSequence(19, 22).getSequenceAsString());
+		assertEquals("ACDEFGHIKLMNPQRSTVWYACD", loader.getSequenceAsString());
+
+		FileProxyProteinSequenceCreator creator = new FileProxyProteinSequenceCreator(fastaFile, AminoAcidCompoundSet.getAminoAcidCompoundSet());
+		ProteinSequence proteinSequence = creator.getSequence(fastaIndex, "seq2");
+		assertEquals("seq2", proteinSequence.getAccession().getID());
+		assertEquals("KKKKKLLLLL", proteinSequence.getSequenceAsString());
+	}
+}
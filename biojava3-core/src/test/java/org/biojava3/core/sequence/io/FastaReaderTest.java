@@ -6,6 +6,7 @@ package org.biojava3.core.sequence.io;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.InputStream;
 import java.util.LinkedHashMap;
@@ -86,4 +87,39 @@ public class FastaReaderTest {
 		assertEquals(seqNum,283);
 	}
 	
+	/**
+	 * Test of process method with a maximum number of records, of class FastaReader.
+	 */
+	@Test
+	public void testProcessIncremental() throws Exception {
+		System.out.println("process(int)");
+		InputStream inStream = this.getClass().getResourceAsStream("/PF00104_small.fasta");
+		assertNotNull(inStream);
+
+		FastaReader<ProteinSequence,AminoAcidCompound> fastaReader = new FastaReader<ProteinSequence,AminoAcidCompound>(inStream, new GenericFastaHeaderParser<ProteinSequence,AminoAcidCompound>(), new ProteinSequenceCreator(AminoAcidCompoundSet.getAminoAcidCompoundSet()));
+		int seqNum = 0;
+		int batches = 0;
+		LinkedHashMap<String,ProteinSequence> proteinSequences;
+		while ((proteinSequences = fastaReader.process(100)) != null) {
+			assertTrue(proteinSequences.size() <= 100);
+			for(String id:proteinSequences.keySet()) {
+				ProteinSequence proteinSequence = proteinSequences.get(id);
+				switch(seqNum) {
+				case 0:
+					assertEquals(proteinSequence.getAccession().getID(),"A2D504_ATEGE/1-46");
+					break;
+				case 282:
+					assertEquals(proteinSequence.getAccession().getID(),"Q98SJ1_CHICK/15-61");
+					assertEquals(proteinSequence.getSequenceAsString(),"---------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------Q-----------------NW------Q--------RFY-QLTKLLDS-MHDVV-----------------ENL-LSFC--FQTFLDKSM--SIEFPEML-------AEI---");
+					break;
+				}
+				seqNum++;
+			}
+			batches++;
+		}
+		fastaReader.close();
+		assertEquals(seqNum,283);
+		assertEquals(batches,3);
+	}
+
 }
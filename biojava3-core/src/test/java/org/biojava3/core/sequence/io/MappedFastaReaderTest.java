@@ -0,0 +1,63 @@
+package org.biojava3.core.sequence.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import org.biojava3.core.sequence.ProteinSequence;
+import org.biojava3.core.sequence.compound.AminoAcidCompound;
+import org.biojava3.core.sequence.compound.AminoAcidCompoundSet;
+import org.junit.Test;
+
+public class MappedFastaReaderTest {
+
+	private File getFastaFile() throws Exception {
+		return new File(this.getClass().getResource("/PF00104_small.fasta").toURI());
+	}
+
+	private LinkedHashMap<String,ProteinSequence> readWithFastaReader() throws Exception {
+		InputStream inStream = this.getClass().getResourceAsStream("/PF00104_small.fasta");
+		assertNotNull(inStream);
+		FastaReader<ProteinSequence,AminoAcidCompound> fastaReader = new FastaReader<ProteinSequence,AminoAcidCompound>(inStream, new GenericFastaHeaderParser<ProteinSequence,AminoAcidCompound>(), new ProteinSequenceCreator(AminoAcidCompoundSet.getAminoAcidCompoundSet()));
+		return fastaReader.process();
+	}
+
+	private void assertSameSequences(LinkedHashMap<String,ProteinSequence> expected, LinkedHashMap<String,ProteinSequence> actual) {
+		assertEquals(expected.size(), actual.size());
+		Iterator<String> actualKeys = actual.keySet().iterator();
+		for(String id : expected.keySet()) {
+			String actualId = actualKeys.next();
+			assertEquals(id, actualId);
+			assertEquals(expected.get(id).getSequenceAsString(), actual.get(actualId).getSequenceAsString());
+		}
+	}
+
+	@Test
+	public void testProcess() throws Exception {
+		MappedFastaReader<ProteinSequence,AminoAcidCompound> mappedReader = new MappedFastaReader<ProteinSequence,AminoAcidCompound>(getFastaFile(), new GenericFastaHeaderParser<ProteinSequence,AminoAcidCompound>(), new ProteinSequenceCreator(AminoAcidCompoundSet.getAminoAcidCompoundSet()));
+		assertSameSequences(readWithFastaReader(), mappedReader.process());
+	}
+
+	@Test
+	public void testSmallWindows() throws Exception {
+		MappedFastaReader<ProteinSequence,AminoAcidCompound> mappedReader = new MappedFastaReader<ProteinSequence,AminoAcidCompound>(getFastaFile(), new GenericFastaHeaderParser<ProteinSequence,AminoAcidCompound>(), new ProteinSequenceCreator(AminoAcidCompoundSet.getAminoAcidCompoundSet()), 1000);
+		LinkedHashMap<String,ProteinSequence> sequences = new LinkedHashMap<String,ProteinSequence>();
+		LinkedHashMap<String,ProteinSequence> batch;
+		while ((batch = mappedReader.process(50)) != null) {
+			sequences.putAll(batch);
+		}
+		mappedReader.close();
+		assertSameSequences(readWithFastaReader(), sequences);
+	}
+
+	@Test
+	public void testFileProxy() throws Exception {
+		File file = getFastaFile();
+		MappedFastaReader<ProteinSequence,AminoAcidCompound> mappedReader = new MappedFastaReader<ProteinSequence,AminoAcidCompound>(file, new GenericFastaHeaderParser<ProteinSequence,AminoAcidCompound>(), new FileProxyProteinSequenceCreator(file, AminoAcidCompoundSet.getAminoAcidCompoundSet()));
+		assertSameSequences(readWithFastaReader(), mappedReader.process());
+	}
+}
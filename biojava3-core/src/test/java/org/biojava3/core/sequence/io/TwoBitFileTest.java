@@ -0,0 +1,64 @@
+package org.biojava3.core.sequence.io;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import org.biojava3.core.sequence.AccessionID;
+import org.biojava3.core.sequence.DNASequence;
+import org.biojava3.core.sequence.Strand;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TwoBitFileTest {
+
+	private File file;
+
+	@Before
+	public void setUp() throws Exception {
+		file = File.createTempFile("TwoBitFileTest", ".2bit");
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	private DNASequence getSeq(String id, String bases) {
+		DNASequence sequence = new DNASequence(bases);
+		sequence.setAccession(new AccessionID(id));
+		return sequence;
+	}
+
+	@Test
+	public void writeAndRead() throws Exception {
+		List<DNASequence> sequences = new ArrayList<DNASequence>();
+		sequences.add(getSeq("chr1", "ACGTNNNNacgtACGTTTGCAnnA"));
+		sequences.add(getSeq("chr2", "GATTACA"));
+		sequences.add(getSeq("empty", ""));
+
+		FileOutputStream os = new FileOutputStream(file);
+		new TwoBitFileWriter<DNASequence>(os, sequences).process();
+		os.close();
+
+		TwoBitFileReader reader = new TwoBitFileReader(file);
+		assertEquals(3, reader.getSequenceNames().size());
+		assertEquals(24, reader.getSequenceLength("chr1"));
+		LinkedHashMap<String, DNASequence> read = reader.getDNASequences();
+		for (DNASequence expected : sequences) {
+			DNASequence actual = read.get(expected.getAccession().getID());
+			assertEquals(expected.getSequenceAsString(), actual.getSequenceAsString());
+		}
+		DNASequence chr1 = read.get("chr1");
+		assertEquals("NNNac", chr1.getSubSequence(6, 10).getSequenceAsString());
+		assertEquals("N", chr1.getCompoundAt(5).getShortName());
+		assertEquals("a", chr1.getCompoundAt(9).getShortName());
+		assertEquals("nnA", chr1.getSequenceAsString(22, 24, Strand.POSITIVE));
+		reader.close();
+	}
+}
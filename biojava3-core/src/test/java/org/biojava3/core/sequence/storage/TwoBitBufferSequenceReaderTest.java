@@ -0,0 +1,98 @@
+package org.biojava3.core.sequence.storage;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.biojava3.core.sequence.AccessionID;
+import org.biojava3.core.sequence.Strand;
+import org.biojava3.core.sequence.compound.DNACompoundSet;
+import org.biojava3.core.sequence.compound.NucleotideCompound;
+import org.junit.Test;
+
+public class TwoBitBufferSequenceReaderTest {
+
+	private final DNACompoundSet cs = DNACompoundSet.getDNACompoundSet();
+	private final Random random = new Random(42);
+
+	@Test
+	public void sameAsTwoBitSequenceReader() {
+		for (int length : new int[] { 1, 3, 15, 16, 17, 31, 33, 100, 1023 }) {
+			String expected = randomBases(length, false);
+			TwoBitBufferSequenceReader<NucleotideCompound> buffer = new TwoBitBufferSequenceReader<NucleotideCompound>(expected, cs);
+			TwoBitSequenceReader<NucleotideCompound> twoBit = new TwoBitSequenceReader<NucleotideCompound>(expected, cs);
+			assertEquals(twoBit.getSequenceAsString(), buffer.getSequenceAsString());
+			assertEquals(length, buffer.getLength());
+			for (int i = 1; i <= length; i++) {
+				assertEquals(twoBit.getCompoundAt(i), buffer.getCompoundAt(i));
+			}
+			assertEquals(twoBit.getComposition(), buffer.getComposition());
+		}
+	}
+
+	@Test
+	public void nRunsAndMasks() {
+		for (int length : new int[] { 1, 7, 17, 50, 101, 999 }) {
+			String expected = randomBases(length, true);
+			TwoBitBufferSequenceReader<NucleotideCompound> reader = new TwoBitBufferSequenceReader<NucleotideCompound>(expected, cs);
+			assertEquals(expected, reader.getSequenceAsString());
+			assertEquals(count(expected, 'N') + count(expected, 'n'), reader.getNCount());
+			for (int i = 1; i <= length; i++) {
+				assertEquals(expected.substring(i - 1, i), reader.getCompoundAt(i).getShortName());
+			}
+			for (int i = 0; i < 50; i++) {
+				int start = 1 + random.nextInt(length), end = start + random.nextInt(length - start + 1);
+				assertEquals(expected.substring(start - 1, end), reader.getSequenceAsString((long) start, (long) end));
+				assertEquals(expected.substring(start - 1, end), reader.getSubSequence(start, end).getSequenceAsString());
+				assertEquals(new StringBuilder(expected.substring(start - 1, end)).reverse().toString(),
+						reader.getSequenceAsString(start, end, Strand.NEGATIVE));
+			}
+			assertEquals(count(expected, 'a') + count(expected, 'A'),
+					reader.countCompounds(cs.getCompoundForString("a"), cs.getCompoundForString("A")));
+		}
+	}
+
+	@Test
+	public void builtPieceByPiece() {
+		String expected = randomBases(333, true);
+		TwoBitBufferSequenceReader.Builder builder = new TwoBitBufferSequenceReader.Builder(expected.length(), false);
+		for (int i = 0; i < expected.length(); i += 60) {
+			builder.append(expected.substring(i, Math.min(i + 60, expected.length())));
+		}
+		TwoBitBufferSequenceReader<NucleotideCompound> reader = builder.build(cs, new AccessionID("test"));
+		assertEquals(expected, reader.getSequenceAsString());
+		assertEquals(333L, reader.getLongLength());
+		assertEquals(expected.substring(100, 200), reader.getSequenceAsString(101L, 200L));
+	}
+
+	@Test
+	public void empty() {
+		TwoBitBufferSequenceReader<NucleotideCompound> reader = new TwoBitBufferSequenceReader<NucleotideCompound>("", cs);
+		assertEquals(0, reader.getLength());
+		assertEquals("", reader.getSequenceAsString());
+	}
+
+	// random bases with, if wanted, runs of N and runs of lower case
+	private String randomBases(int length, boolean runs) {
+		StringBuilder s = new StringBuilder(length);
+		while (s.length() < length) {
+			int run = 1 + random.nextInt(runs ? 12 : 1);
+			boolean n = runs && random.nextInt(4) == 0, lower = runs && random.nextInt(3) == 0;
+			for (int i = 0; i < run && s.length() < length; i++) {
+				char c = n ? 'N' : "ACGT".charAt(random.nextInt(4));
+				s.append(lower ? Character.toLowerCase(c) : c);
+			}
+		}
+		return s.toString();
+	}
+
+	private int count(String s, char c) {
+		int count = 0;
+		for (int i = 0; i < s.length(); i++) {
+			if (s.charAt(i) == c) {
+				count++;
+			}
+		}
+		return count;
+	}
+}
@@ -0,0 +1,193 @@
+package org.biojava3.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class BoundedCacheTest {
+
+	private File spillDirectory;
+	private List<File> files = new ArrayList<File>();
+
+	@After
+	public void tearDown() {
+		FlatFileCache.setMaxSize(FlatFileCache.DEFAULT_MAX_SIZE);
+		FlatFileCache.setSpillDirectory(null);
+		for (File file : files) {
+			file.delete();
+		}
+		if (spillDirectory != null) {
+			for (File file : spillDirectory.listFiles()) {
+				file.delete();
+			}
+			spillDirectory.delete();
+		}
+	}
+
+	@Test
+	public void evictsByWeight() {
+		BoundedCache<String, byte[]> cache = new BoundedCache<String, byte[]>(100, BoundedCache.BYTE_ARRAY_WEIGHER, 1);
+		assertTrue(cache.put("a", new byte[40]));
+		assertTrue(cache.put("b", new byte[40]));
+		assertEquals(80, cache.getWeight());
+		// a is now more recently used than b
+		assertNotNull(cache.get("a"));
+
+		assertTrue(cache.put("c", new byte[30]));
+		assertEquals(70, cache.getWeight());
+		assertNull(cache.get("b"));
+		assertNotNull(cache.get("a"));
+		assertNotNull(cache.get("c"));
+		assertEquals(1, cache.getEvictionCount());
+
+		// heavier than the whole cache so not cached, nothing evicted
+		assertFalse(cache.put("d", new byte[101]));
+		assertNull(cache.get("d"));
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.getEvictionCount());
+
+		// replacing a value only counts the new weight
+		cache.put("a", new byte[10]);
+		assertEquals(40, cache.getWeight());
+	}
+
+	@Test
+	public void countsEvictions() {
+		final List<String> evicted = new ArrayList<String>();
+		BoundedCache<String, String> cache = new BoundedCache<String, String>(3, null, 4);
+		cache.setEvictionListener(new BoundedCache.EvictionListener<String, String>() {
+			public void evicted(String key, String value) {
+				evicted.add(key);
+			}
+		});
+		for (int i = 0; i < 10; i++) {
+			cache.put("key" + i, "value" + i);
+		}
+		assertEquals(3, cache.size());
+		assertEquals(7, cache.getEvictionCount());
+		assertEquals(7, evicted.size());
+		assertTrue(cache.containsKey("key9"));
+
+		cache.remove("key9");
+		cache.clear();
+		assertEquals(0, cache.getWeight());
+		assertEquals(7, cache.getEvictionCount());
+
+		cache.get("key9");
+		cache.resetStatistics();
+		assertEquals(0, cache.getEvictionCount());
+		assertEquals(0, cache.getMissCount());
+	}
+
+	@Test
+	public void spillsAndReadsBack() throws Exception {
+		spillDirectory = File.createTempFile("spill", "");
+		spillDirectory.delete();
+		FlatFileCache.setMaxSize(1000);
+		FlatFileCache.setSpillDirectory(spillDirectory);
+
+		// modified UTF-8 writes NUL and supplementary characters with more bytes than UTF-8
+		String key = "/data/\u0000\u00e9\uD835\uDD04.pdb";
+		byte[] first = createFile(600, 1);
+		FlatFileCache.addToCache(key, files.get(0));
+		byte[] second = createFile(600, 2);
+		FlatFileCache.addToCache("second", files.get(1));
+
+		assertEquals(1, FlatFileCache.getCache().getEvictionCount());
+		assertFalse(FlatFileCache.getCache().containsKey(key));
+		assertEquals(1, spillDirectory.list().length);
+
+		assertBytes(first, readAll(FlatFileCache.getInputStream(key)));
+		assertTrue(FlatFileCache.getCache().containsKey(key));
+		assertBytes(second, readAll(FlatFileCache.getInputStream("second")));
+	}
+
+	@Test
+	public void countsOneLookupPerLoad() throws Exception {
+		byte[] data = createFile(10, 3);
+		BoundedCache<String, byte[]> cache = FlatFileCache.getCache();
+		cache.resetStatistics();
+		assertBytes(data, readAll(FlatFileCache.getInputStream("file", files.get(0))));
+		assertBytes(data, readAll(FlatFileCache.getInputStream("file", files.get(0))));
+		assertEquals(1, cache.getMissCount());
+		assertEquals(1, cache.getHitCount());
+	}
+
+	@Test
+	public void concurrentGetAndPut() throws Exception {
+		final BoundedCache<Integer, Integer> cache = new BoundedCache<Integer, Integer>(50, null, 4);
+		final AtomicInteger lookups = new AtomicInteger();
+		final AtomicInteger wrong = new AtomicInteger();
+		Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; t++) {
+			final Random random = new Random(t);
+			threads[t] = new Thread() {
+				public void run() {
+					for (int i = 0; i < 20000; i++) {
+						Integer key = random.nextInt(200);
+						if (random.nextBoolean()) {
+							cache.put(key, -key);
+						} else {
+							Integer value = cache.get(key);
+							lookups.incrementAndGet();
+							if (value != null && value.intValue() != -key.intValue()) {
+								wrong.incrementAndGet();
+							}
+						}
+					}
+				}
+			};
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(0, wrong.get());
+		assertEquals(lookups.get(), cache.getHitCount() + cache.getMissCount());
+		assertEquals(cache.size(), cache.getWeight());
+		assertTrue(cache.size() <= 50);
+	}
+
+	private byte[] createFile(int length, int seed) throws Exception {
+		byte[] data = new byte[length];
+		new Random(seed).nextBytes(data);
+		File file = File.createTempFile("cache", ".dat");
+		FileOutputStream os = new FileOutputStream(file);
+		os.write(data);
+		os.close();
+		files.add(file);
+		return data;
+	}
+
+	private void assertBytes(byte[] expected, byte[] actual) {
+		assertEquals(expected.length, actual.length);
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(expected[i], actual[i]);
+		}
+	}
+
+	private byte[] readAll(InputStream is) throws Exception {
+		ByteArrayOutputStream os = new ByteArrayOutputStream();
+		byte[] buffer = new byte[256];
+		int n;
+		while ((n = is.read(buffer)) >= 0) {
+			os.write(buffer, 0, n);
+		}
+		is.close();
+		return os.toByteArray();
+	}
+}
@@ -1,11 +1,15 @@
 package org.biojava.bio.structure.align.util;
 
+import java.io.File;
 import java.io.IOException;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.biojava.bio.structure.Atom;
 
@@ -15,25 +19,61 @@ import org.biojava.bio.structure.Structure;
 import org.biojava.bio.structure.StructureException;
 
 import org.biojava.bio.structure.StructureTools;
+import org.biojava.bio.structure.io.BinaryStructureReader;
+import org.biojava.bio.structure.io.BinaryStructureWriter;
 import org.biojava.bio.structure.io.FileParsingParameters;
 import org.biojava.bio.structure.io.PDBFileReader;
 import org.biojava.bio.structure.scop.ScopDomain;
 import org.biojava.bio.structure.scop.ScopInstallation;
+import org.biojava3.core.util.BoundedCache;
 import org.biojava3.core.util.InputStreamProvider;
 
 
 
-
+/** Provides Structures by name, see {@link #getStructure(String)}. Parsed PDB entries are kept in a
+ * {@link BoundedCache} of this AtomCache by their PDB ID, weighed by their number of atoms, and each request
+ * cuts the chains or ranges it names out of its own copy. Concurrent requests for an entry which is not
+ * cached share a single parse of the file.
+ * 
+ */
 public class AtomCache {
 
 	public static final String CHAIN_NR_SYMBOL = ":";
 	public static final String CHAIN_SPLIT_SYMBOL = ".";
 
+	// marks binary copies of PDB files parsed with chemical component definitions
+	private static final String CHEM_COMP_SUFFIX = "_cc";
+
+	/** The default limit of the number of atoms in the cached structures.
+	 */
+	public static final long DEFAULT_MAX_CACHED_ATOMS = 1000000;
+
+	/** Weighs a structure by its number of atoms.
+	 */
+	public static final BoundedCache.Weigher<Object, Structure> ATOM_WEIGHER =
+		new BoundedCache.Weigher<Object, Structure>() {
+
+		public long weigh(Object key, Structure value) {
+			return StructureTools.getNrAtoms(value);
+		}
+	};
+
 	String path;
 
+	// optional directory of binary copies of parsed PDB files
+	String binaryCachePath;
+
+	// first model of the parsed PDB entries by lower case PDB ID
+	private volatile BoundedCache<String, Structure> cache =
+		new BoundedCache<String, Structure>(DEFAULT_MAX_CACHED_ATOMS, ATOM_WEIGHER);
 
-	// make sure IDs are loaded uniquely
-	Collection<String> currentlyLoading = Collections.synchronizedCollection(new ArrayList<String>());
+	// make sure IDs are loaded uniquely: requests for an ID which is being loaded wait for the same task.
+	// Replaced by flushCache, so entries parsed before a flush are neither waited for nor cached after it
+	private volatile ConcurrentMap<String, FutureTask<Structure>> currentlyLoading =
+		new ConcurrentHashMap<String, FutureTask<Structure>>();
+
+	private final AtomicLong loadCount = new AtomicLong();
+	private final AtomicLong loadTime = new AtomicLong();
 
 	private static ScopInstallation scopInstallation ;
 	boolean autoFetch;
@@ -54,7 +94,6 @@ public class AtomCache {
 		this.isSplit = isSplit;
 
 		autoFetch = true;
-		currentlyLoading.clear();
 		params = new FileParsingParameters();
 
 		// we don't need this here
@@ -79,6 +118,7 @@ public class AtomCache {
 
 	public void setPath(String path) {
 		this.path = path;
+		flushCache();
 	}
 
 	public boolean isSplit() {
@@ -87,6 +127,28 @@ public class AtomCache {
 
 	public void setSplit(boolean isSplit) {
 		this.isSplit = isSplit;
+		flushCache();
+	}
+
+	/** Returns the directory in which binary copies of parsed PDB files are kept.
+	 * 
+	 * @return directory of binary structure files or null if not used
+	 */
+	public String getBinaryCachePath() {
+		return binaryCachePath;
+	}
+
+	/** Sets a directory in which to keep a binary copy of each parsed PDB file, written
+	 * by {@link BinaryStructureWriter}. Later requests for the same PDB code read the binary copy,
+	 * which is much faster than parsing the PDB file again. As the binary format has no SEQRES
+	 * records and no secondary structure, it is not used while the parsing parameters align SEQRES
+	 * to ATOM records or parse the secondary structure. Copies parsed with and without chemical
+	 * component definitions, which give different group types, are kept apart.
+	 * 
+	 * @param binaryCachePath directory of binary structure files or null to only read PDB files
+	 */
+	public void setBinaryCachePath(String binaryCachePath) {
+		this.binaryCachePath = binaryCachePath;
 	}
 
 	public boolean isAutoFetch() {
@@ -210,6 +272,9 @@ public class AtomCache {
 	 *	To specify a particular chain write as: 4hhb.A (chain IDs are case sensitive, PDB ids are not)
 	 * 	To specify that the 1st chain in a structure should be used write: 4hhb:0 .
 	 * 
+	 * The PDB entry is parsed only once as long as it stays in the cache, whichever chains or ranges
+	 * are requested; every call returns a copy which the caller may modify.
+	 * 
 	 * @param name
 	 * @return a Structure object
 	 * @throws IOException
@@ -221,10 +286,6 @@ public class AtomCache {
 		if ( name.length() < 4)
 			throw new IllegalArgumentException("Can't interpred IDs that are shorter than 4 residues!");
 
-
-		//loading.set(true);
-
-
 		Structure n = null;
 
 		boolean useChainNr = false;
@@ -281,47 +342,11 @@ public class AtomCache {
 				return null;
 			}
 
-			while ( checkLoading(pdbId) ){
-				// waiting for loading to be finished...
-				// sleep half a second...
-				//				try {
-				//					Thread.sleep(500);
-				//				} catch (InterruptedException e){
-				//					System.err.println(e.getMessage());
-				//				}
-
-			}
-
-
-			//long start  = System.currentTimeMillis();
-
-			Structure s;
-
-
-
-
-			flagLoading(pdbId);
-			try {
-				PDBFileReader reader = new PDBFileReader();
-				reader.setPath(path);
-				reader.setPdbDirectorySplit(isSplit);
-				reader.setAutoFetch(autoFetch);
-
-				reader.setFileParsingParameters(params);
-
-				s = reader.getStructureById(pdbId.toLowerCase());
-
-			} catch (Exception e){
-				flagLoadingFinished(pdbId);
-				throw new StructureException(e.getMessage() + " while parsing " + pdbId,e);
-			}
-			flagLoadingFinished(pdbId);
+			// the cached entry is shared, so the requested part is cut out of a copy
+			Structure s = getEntry(pdbId.toLowerCase()).clone();
 
-			//long end  = System.currentTimeMillis();
-			//System.out.println("time to load " + pdbId + " " + (end-start) + "\t  size :" + StructureTools.getNrAtoms(s) + "\t cached: " + cache.size());
 			if ( chainId == null && chainNr < 0 && range == null) {								
-				// we only want the 1st model in this case
-				return StructureTools.getReducedStructure(s,-1);
+				return s;
 
 			}
 
@@ -351,17 +376,153 @@ public class AtomCache {
 
 	}
 
-	private  boolean checkLoading(String name) {
-		return  currentlyLoading.contains(name);
+	/** Returns the cache of parsed PDB entries by lower case PDB ID, e.g. to read its hit and miss counts
+	 * or to set an eviction listener.
+	 * 
+	 * @return the structure cache of this AtomCache
+	 */
+	public BoundedCache<String, Structure> getStructureCache() {
+		return cache;
+	}
+
+	/** Replaces the structure cache by an empty one with the given limit, which keeps the eviction listener.
+	 * 
+	 * @param maxAtoms the largest number of atoms of all cached structures, 0 to not cache structures
+	 */
+	public synchronized void setMaxCachedAtoms(long maxAtoms) {
+		BoundedCache<String, Structure> c = new BoundedCache<String, Structure>(maxAtoms, ATOM_WEIGHER);
+		c.setEvictionListener(cache.getEvictionListener());
+		cache = c;
+	}
 
+	/** Removes all structures from the cache, e.g. after changing the file parsing parameters.
+	 * Entries still being parsed are not cached.
+	 */
+	public synchronized void flushCache() {
+		currentlyLoading = new ConcurrentHashMap<String, FutureTask<Structure>>();
+		cache.clear();
 	}
 
-	private  void flagLoading(String name){
-		currentlyLoading.add(name);
+	/** Returns the number of structures parsed by this AtomCache.
+	 * 
+	 * @return number of parsed structures
+	 */
+	public long getLoadCount() {
+		return loadCount.get();
 	}
 
-	private  void flagLoadingFinished(String name){
-		currentlyLoading.remove(name);   
+	/** Returns the total time spent parsing structures.
+	 * 
+	 * @return parse time in milliseconds
+	 */
+	public long getLoadTime() {
+		return loadTime.get() / 1000000;
+	}
+
+	/** Returns the cached first model of a PDB entry, which must not be modified. Only the first
+	 * request for an entry which is not cached parses it, concurrent requests wait for the same
+	 * result instead of spinning.
+	 */
+	private Structure getEntry(final String pdbId) throws IOException, StructureException{
+
+		Structure s = cache.get(pdbId);
+		if ( s != null)
+			return s;
+
+		ConcurrentMap<String, FutureTask<Structure>> loadingNow = currentlyLoading;
+		FutureTask<Structure> task = new FutureTask<Structure>(new Callable<Structure>() {
+			public Structure call() throws Exception {
+				Structure s;
+				try {
+					s = readStructure(pdbId);
+				} catch (Exception e){
+					throw new StructureException(e.getMessage() + " while parsing " + pdbId,e);
+				}
+				// we only want the 1st model, whichever part of it is requested
+				return StructureTools.getReducedStructure(s,-1);
+			}
+		});
+		FutureTask<Structure> loading = loadingNow.putIfAbsent(pdbId, task);
+		if ( loading == null) {
+			loading = task;
+			long start = System.nanoTime();
+			try {
+				task.run();
+				store(pdbId, task.get(), loadingNow);
+			} catch (Exception e){
+				// rethrown below to this and every waiting request
+			} finally {
+				loadCount.incrementAndGet();
+				loadTime.addAndGet(System.nanoTime() - start);
+				// cached before it is no longer loading, so later requests find it
+				loadingNow.remove(pdbId, task);
+			}
+		}
+
+		try {
+			return loading.get();
+		} catch (InterruptedException e){
+			Thread.currentThread().interrupt();
+			throw new StructureException("Interrupted while waiting for " + pdbId, e);
+		} catch (ExecutionException e){
+			Throwable t = e.getCause();
+			if ( t instanceof StructureException)
+				throw (StructureException) t;
+			if ( t instanceof IOException)
+				throw (IOException) t;
+			if ( t instanceof RuntimeException)
+				throw (RuntimeException) t;
+			throw new StructureException(t.getMessage() + " while parsing " + pdbId, t);
+		}
+	}
+
+	/** Caches a parsed entry in the current cache, unless the cache was flushed while it was parsed.
+	 */
+	private synchronized void store(String pdbId, Structure s, ConcurrentMap<String, FutureTask<Structure>> loadingNow) {
+		if ( loadingNow == currentlyLoading)
+			cache.put(pdbId, s);
+	}
+
+	/** Reads the binary copy of a PDB file if there is one, otherwise parses the PDB file
+	 * and writes the binary copy.
+	 */
+	private Structure readStructure(String pdbId) throws IOException {
+
+		File binary = null;
+		if ( binaryCachePath != null && ! params.isAlignSeqRes() && ! params.isHeaderOnly()
+				&& ! params.isParseSecStruc()) {
+			String suffix = params.isLoadChemCompInfo() ? CHEM_COMP_SUFFIX : "";
+			binary = new File(binaryCachePath, pdbId + suffix + BinaryStructureWriter.EXTENSION);
+			if ( binary.exists()) {
+				BinaryStructureReader reader = new BinaryStructureReader();
+				reader.setFileParsingParameters(params);
+				try {
+					return reader.getStructure(binary);
+				} catch (IOException e){
+					System.err.println("could not read " + binary + ", parsing " + pdbId + " again: " + e.getMessage());
+				}
+			}
+		}
+
+		PDBFileReader reader = new PDBFileReader();
+		reader.setPath(path);
+		reader.setPdbDirectorySplit(isSplit);
+		reader.setAutoFetch(autoFetch);
+
+		reader.setFileParsingParameters(params);
+
+		Structure s = reader.getStructureById(pdbId);
+
+		// a CA only structure is incomplete, later requests for all atoms would miss the others
+		if ( binary != null && ! params.isParseCAOnly()) {
+			try {
+				new File(binaryCachePath).mkdirs();
+				new BinaryStructureWriter().write(s, binary);
+			} catch (IOException e){
+				System.err.println("could not write " + binary + ": " + e.getMessage());
+			}
+		}
+		return s;
 	}
 
 	private ScopDomain getScopDomain(String scopId)
@@ -382,6 +543,7 @@ public class AtomCache {
 	public void setFileParsingParams(FileParsingParameters params)
 	{
 		this.params = params;
+		flushCache();
 	}
 
 
@@ -3,6 +3,11 @@ package org.biojava.bio.structure.align.util;
 import org.biojava3.core.util.SoftHashMap;
 
 
+/** A static cache shared by all users.
+ * 
+ * @deprecated each {@link AtomCache} keeps its own bounded structure cache, see {@link AtomCache#getStructureCache()}
+ */
+@Deprecated
 public class CacheFactory  {
 
 	private static SoftHashMap  cache  = new SoftHashMap ();
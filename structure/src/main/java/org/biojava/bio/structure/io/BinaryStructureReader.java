@@ -0,0 +1,356 @@
+/*
+ *                  BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava.bio.structure.io;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.biojava.bio.structure.AminoAcidImpl;
+import org.biojava.bio.structure.Atom;
+import org.biojava.bio.structure.AtomImpl;
+import org.biojava.bio.structure.Chain;
+import org.biojava.bio.structure.ChainImpl;
+import org.biojava.bio.structure.Element;
+import org.biojava.bio.structure.Group;
+import org.biojava.bio.structure.HetatomImpl;
+import org.biojava.bio.structure.NucleotideImpl;
+import org.biojava.bio.structure.PDBHeader;
+import org.biojava.bio.structure.ResidueNumber;
+import org.biojava.bio.structure.Structure;
+import org.biojava.bio.structure.StructureImpl;
+
+/** Reads structures written by {@link BinaryStructureWriter}. 
+ * <p>
+ * The {@link FileParsingParameters} are applied like those of a {@link PDBFileReader}:
+ * if only CA atoms are requested, the other atoms are skipped without being decoded,
+ * if only the header is requested, no atoms are read at all.
+ * 
+ * <pre>
+ * BinaryStructureReader reader = new BinaryStructureReader();
+ * reader.setPath("/path/to/binary/files/");
+ * Structure s = reader.getStructureById("4hhb");
+ * </pre>
+ */
+public class BinaryStructureReader implements StructureIO {
+
+	String path;
+	FileParsingParameters params;
+
+	public BinaryStructureReader() {
+		params = new FileParsingParameters();
+	}
+
+	/** Set the directory which contains the files named by PDB code and {@link BinaryStructureWriter#EXTENSION}.
+	 * 
+	 * @param path directory of binary structure files
+	 */
+	public void setPath(String path) {
+		this.path = path;
+	}
+
+	public String getPath() {
+		return path;
+	}
+
+	public void setFileParsingParameters(FileParsingParameters params) {
+		this.params = params;
+	}
+
+	public FileParsingParameters getFileParsingParameters() {
+		return params;
+	}
+
+	/** Reads the file of the given PDB code from the directory of this reader.
+	 * 
+	 * @param pdbId a PDB code
+	 * @return a Structure object
+	 * @throws IOException if there is no such file or it can not be read
+	 */
+	public Structure getStructureById(String pdbId) throws IOException {
+		return getStructure(new File(path, pdbId.toLowerCase() + BinaryStructureWriter.EXTENSION));
+	}
+
+	/** Reads a structure from a file.
+	 * 
+	 * @param file a binary structure file
+	 * @return a Structure object
+	 * @throws IOException
+	 */
+	public Structure getStructure(File file) throws IOException {
+		InputStream in = new BufferedInputStream(new FileInputStream(file));
+		try {
+			return getStructure(in);
+		} finally {
+			in.close();
+		}
+	}
+
+	/** Reads a structure from a stream. Reading stops after the last section needed
+	 * by the file parsing parameters, the stream is not closed.
+	 * 
+	 * @param in a stream positioned at the start of a binary structure
+	 * @return a Structure object
+	 * @throws IOException
+	 */
+	public Structure getStructure(InputStream in) throws IOException {
+		DataInputStream data = new DataInputStream(in);
+		if ( data.readInt() != BinaryStructureWriter.MAGIC)
+			throw new IOException("not a binary structure file");
+		int version = data.readInt();
+		if ( version != BinaryStructureWriter.VERSION)
+			throw new IOException("unsupported binary structure file version " + version);
+
+		Structure s = new StructureImpl();
+		List<Group> groups = new ArrayList<Group>();
+		List<Integer> atomCounts = new ArrayList<Integer>();
+		String[] words = readHeader(readSection(data), s, groups, atomCounts);
+
+		if ( params.isHeaderOnly())
+			return s;
+
+		if ( params.isParseCAOnly()) {
+			readCAAtoms(readSection(data), groups);
+		} else {
+			skipSection(data);
+			readAtoms(readSection(data), words, groups, atomCounts);
+		}
+		return s;
+	}
+
+	// helper methods
+
+	// reads the structure and its groups without atoms, returns the dictionary
+	private String[] readHeader(ByteBuffer in, Structure s, List<Group> groups, List<Integer> atomCounts)
+	throws IOException {
+		s.setPDBCode(readString(in));
+		s.setName(readString(in));
+		s.setNmr(in.get() != 0);
+
+		if ( in.get() != 0) {
+			PDBHeader h = new PDBHeader();
+			h.setIdCode(readString(in));
+			h.setTitle(readString(in));
+			h.setDescription(readString(in));
+			h.setClassification(readString(in));
+			h.setTechnique(readString(in));
+			h.setMethod(readString(in));
+			h.setAuthors(readString(in));
+			h.setResolution(in.getFloat());
+			h.setDepDate(readDate(in));
+			h.setModDate(readDate(in));
+			s.setPDBHeader(h);
+		}
+
+		String[] words = new String[in.getInt()];
+		for (int i = 0; i < words.length; i++) {
+			words[i] = readString(in);
+		}
+
+		// the groups of each chain are read after all chains
+		int models = in.getInt();
+		List<List<Chain>> chains = new ArrayList<List<Chain>>(models);
+		List<Integer> groupCounts = new ArrayList<Integer>();
+		for (int m = 0; m < models; m++) {
+			int size = in.getInt();
+			List<Chain> model = new ArrayList<Chain>(size);
+			for (int c = 0; c < size; c++) {
+				Chain chain = new ChainImpl();
+				chain.setChainID(lookup(words, in.getInt()));
+				model.add(chain);
+				groupCounts.add(in.getInt());
+			}
+			chains.add(model);
+		}
+
+		int chainIndex = 0;
+		for (List<Chain> model : chains) {
+			for (Chain chain : model) {
+				for (int g = groupCounts.get(chainIndex++); g > 0; g--) {
+					Group group = readGroup(in, words);
+					groups.add(group);
+					atomCounts.add(in.getInt());
+					for (int a = in.getShort(); a > 0; a--) {
+						Group altLoc = readGroup(in, words);
+						atomCounts.add(in.getInt());
+						in.getShort();
+						group.addAltLoc(altLoc);
+						groups.add(altLoc);
+					}
+					chain.addGroup(group);
+				}
+			}
+			s.addModel(model);
+		}
+		return words;
+	}
+
+	private Group readGroup(ByteBuffer in, String[] words) throws IOException {
+		byte type = in.get();
+		String name = lookup(words, in.getInt());
+		boolean hasResidueNumber = in.get() != 0;
+		String chainId = lookup(words, in.getInt());
+		int seqNum = in.getInt();
+		char insCode = in.getChar();
+
+		Group group;
+		if ( type == BinaryStructureWriter.AMINO) {
+			AminoAcidImpl aa = new AminoAcidImpl();
+			char aminoType = in.getChar();
+			aa.setAminoType((aminoType == 0) ? null : aminoType);
+			aa.setRecordType(lookup(words, in.getInt()));
+			group = aa;
+		} else if ( type == BinaryStructureWriter.NUCLEOTIDE) {
+			group = new NucleotideImpl();
+		} else {
+			group = new HetatomImpl();
+		}
+		try {
+			group.setPDBName(name);
+		} catch (PDBParseException e) {
+			throw new IOException(e.getMessage());
+		}
+		if ( hasResidueNumber) {
+			group.setResidueNumber(new ResidueNumber(chainId,
+					(seqNum == Integer.MIN_VALUE) ? null : seqNum, (insCode == 0) ? null : insCode));
+		}
+		return group;
+	}
+
+	private void readCAAtoms(ByteBuffer in, List<Group> groups) {
+		Element[] elements = Element.values();
+		double coordScale = BinaryStructureWriter.COORD_SCALE, valueScale = BinaryStructureWriter.VALUE_SCALE;
+		for (int i = in.getInt(); i > 0; i--) {
+			Group g = groups.get(in.getInt());
+			Atom a = new AtomImpl();
+			a.setPDBserial(in.getInt());
+			a.setAltLoc(readAltLoc(in.getChar()));
+			a.setElement(lookup(elements, in.get()));
+			a.setFullName(BinaryStructureWriter.CA_NAME);
+			a.setName(BinaryStructureWriter.CA_NAME.trim());
+			a.setCoords(new double[] { in.getInt() / coordScale, in.getInt() / coordScale,
+					in.getInt() / coordScale });
+			a.setOccupancy(in.getInt() / valueScale);
+			a.setTempFactor(in.getInt() / valueScale);
+			g.addAtom(a);
+		}
+	}
+
+	private void readAtoms(ByteBuffer in, String[] words, List<Group> groups, List<Integer> atomCounts) {
+		// the columns are decoded into arrays first, then the atoms built one after the other
+		int n = in.getInt();
+		int[] fullNames = readShorts(in, n, false), names = readShorts(in, n, false);
+		byte[] elementCodes = new byte[n];
+		in.get(elementCodes);
+		char[] altLocs = new char[n];
+		in.asCharBuffer().get(altLocs);
+		in.position(in.position() + 2 * n);
+		int[] serials = readShorts(in, n, true);
+		int[] x = readShorts(in, n, true), y = readShorts(in, n, true), z = readShorts(in, n, true);
+		int[] occupancies = readShorts(in, n, false), tempFactors = readShorts(in, n, false);
+
+		Element[] elements = Element.values();
+		double coordScale = BinaryStructureWriter.COORD_SCALE, valueScale = BinaryStructureWriter.VALUE_SCALE;
+		Character[] altLocCache = new Character[128];
+
+		int i = 0;
+		for (int k = 0; k < groups.size(); k++) {
+			Group g = groups.get(k);
+			for (int a = atomCounts.get(k); a > 0; a--, i++) {
+				Atom atom = new AtomImpl();
+				atom.setPDBserial(serials[i]);
+				char altLoc = altLocs[i];
+				if ( altLoc < altLocCache.length) {
+					if ( altLocCache[altLoc] == null)
+						altLocCache[altLoc] = readAltLoc(altLoc);
+					atom.setAltLoc(altLocCache[altLoc]);
+				} else {
+					atom.setAltLoc(altLoc);
+				}
+				atom.setFullName(lookup(words, fullNames[i]));
+				atom.setName(lookup(words, names[i]));
+				atom.setElement(lookup(elements, elementCodes[i]));
+				atom.setCoords(new double[] { x[i] / coordScale, y[i] / coordScale, z[i] / coordScale });
+				atom.setOccupancy(occupancies[i] / valueScale);
+				atom.setTempFactor(tempFactors[i] / valueScale);
+				g.addAtom(atom);
+			}
+		}
+	}
+
+	// reads n values written in 16 bits or escaped, optionally as running sums of deltas
+	private static int[] readShorts(ByteBuffer in, int n, boolean deltas) {
+		int[] values = new int[n];
+		int last = 0;
+		for (int i = 0; i < n; i++) {
+			int value = in.getShort();
+			if ( value == BinaryStructureWriter.ESCAPE)
+				value = in.getInt();
+			last = deltas ? last + value : value;
+			values[i] = last;
+		}
+		return values;
+	}
+
+	private static ByteBuffer readSection(DataInputStream in) throws IOException {
+		byte[] b = new byte[in.readInt()];
+		in.readFully(b);
+		return ByteBuffer.wrap(b);
+	}
+
+	private static void skipSection(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if ( in.skipBytes(length) != length)
+			throw new EOFException("truncated binary structure file");
+	}
+
+	private static String readString(ByteBuffer in) throws IOException {
+		int length = in.getInt();
+		if ( length < 0)
+			return null;
+		String s = new String(in.array(), in.position(), length, "UTF-8");
+		in.position(in.position() + length);
+		return s;
+	}
+
+	private static Date readDate(ByteBuffer in) {
+		long time = in.getLong();
+		return (time == Long.MIN_VALUE) ? null : new Date(time);
+	}
+
+	private static Character readAltLoc(char altLoc) {
+		return (altLoc == 0) ? null : Character.valueOf(altLoc);
+	}
+
+	private static <T> T lookup(T[] values, int index) {
+		return (index < 0) ? null : values[index];
+	}
+
+}
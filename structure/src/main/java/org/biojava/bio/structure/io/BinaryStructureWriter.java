@@ -0,0 +1,352 @@
+/*
+ *                  BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava.bio.structure.io;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.biojava.bio.structure.AminoAcid;
+import org.biojava.bio.structure.Atom;
+import org.biojava.bio.structure.Chain;
+import org.biojava.bio.structure.Group;
+import org.biojava.bio.structure.GroupType;
+import org.biojava.bio.structure.PDBHeader;
+import org.biojava.bio.structure.ResidueNumber;
+import org.biojava.bio.structure.Structure;
+
+/** Writes a Structure in a compact binary format which {@link BinaryStructureReader} loads
+ * much faster than a PDB file can be parsed.
+ * <p>
+ * The file starts with a header section holding the PDB header, a dictionary of all group, chain
+ * and atom names and a table of the models, chains and groups. It is followed by a section with
+ * only the C-alpha atoms, so a CA-only structure is read without touching any other atom, and a
+ * section with the columns of all atoms. Coordinates are stored as fixed-point deltas between
+ * consecutive atoms in 1/1000 Angstrom, occupancies and temperature factors in 1/100, mostly
+ * fitting into 16 bits. This is the precision of a PDB file, so a structure read from a PDB file
+ * is written without loss.
+ * <p>
+ * Only the atoms, groups, chains and models and the {@link PDBHeader} are written. SEQRES records,
+ * compounds, connections, SSBONDs, sites, chemical component definitions and the deprecated header
+ * map of {@link Structure#getHeader()} are not.
+ * 
+ * @see BinaryStructureReader
+ */
+public class BinaryStructureWriter {
+
+	/** The file extension of binary structure files.
+	 */
+	public static final String EXTENSION = ".bsf";
+
+	static final int MAGIC = 0x42535446; // "BSTF"
+	static final int VERSION = 2;
+
+	static final byte AMINO = 0;
+	static final byte NUCLEOTIDE = 1;
+	static final byte HETATM = 2;
+
+	static final String CA_NAME = " CA ";
+	static final double COORD_SCALE = 1000.0;
+	static final double VALUE_SCALE = 100.0;
+
+	// marks a value which does not fit into a short, the int follows
+	static final short ESCAPE = Short.MIN_VALUE;
+
+	/** Writes a structure to a file. The file is written under a temporary name first and
+	 * renamed when complete, so concurrent readers never see a partial file.
+	 * 
+	 * @param s the structure to write
+	 * @param file the file to write
+	 * @throws IOException
+	 */
+	public void write(Structure s, File file) throws IOException {
+		File dir = file.getAbsoluteFile().getParentFile();
+		File tmp = File.createTempFile(file.getName(), ".tmp", dir);
+		try {
+			OutputStream out = new BufferedOutputStream(new FileOutputStream(tmp));
+			try {
+				write(s, out);
+			} finally {
+				out.close();
+			}
+			if ( ! tmp.renameTo(file)) {
+				// some platforms do not replace an existing file
+				file.delete();
+				if ( ! tmp.renameTo(file))
+					throw new IOException("could not rename " + tmp + " to " + file);
+			}
+		} finally {
+			tmp.delete();
+		}
+	}
+
+	/** Writes a structure to a stream. The stream is flushed but not closed.
+	 * 
+	 * @param s the structure to write
+	 * @param out the stream to write to
+	 * @throws IOException
+	 */
+	public void write(Structure s, OutputStream out) throws IOException {
+
+		// the groups and their atoms in the order of the file, alternate locations after their group
+		List<Group> groups = new ArrayList<Group>();
+		for (int m = 0; m < s.nrModels(); m++) {
+			for (Chain c : s.getModel(m)) {
+				for (Group g : c.getAtomGroups()) {
+					groups.add(g);
+					if ( g.hasAltLoc())
+						groups.addAll(g.getAltLocs());
+				}
+			}
+		}
+
+		Map<String, Integer> dictionary = new HashMap<String, Integer>();
+		List<String> words = new ArrayList<String>();
+		for (int m = 0; m < s.nrModels(); m++) {
+			for (Chain c : s.getModel(m)) {
+				index(c.getChainID(), dictionary, words);
+			}
+		}
+		int atomCount = 0, caCount = 0;
+		for (Group g : groups) {
+			index(g.getPDBName(), dictionary, words);
+			if ( g.getResidueNumber() != null)
+				index(g.getResidueNumber().getChainId(), dictionary, words);
+			if ( g instanceof AminoAcid)
+				index(((AminoAcid) g).getRecordType(), dictionary, words);
+			for (Atom a : g.getAtoms()) {
+				index(a.getFullName(), dictionary, words);
+				index(a.getName(), dictionary, words);
+				atomCount++;
+				if ( CA_NAME.equals(a.getFullName()))
+					caCount++;
+			}
+		}
+
+		DataOutputStream data = new DataOutputStream(out);
+		data.writeInt(MAGIC);
+		data.writeInt(VERSION);
+		writeSection(data, writeHeader(s, dictionary, words, groups));
+		writeSection(data, writeCAAtoms(groups, caCount));
+		writeSection(data, writeAtoms(groups, atomCount, dictionary));
+		data.flush();
+	}
+
+	// helper methods
+
+	private ByteArrayOutputStream writeHeader(Structure s, Map<String, Integer> dictionary, List<String> words,
+			List<Group> groups) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+
+		writeString(out, s.getPDBCode());
+		writeString(out, s.getName());
+		out.writeBoolean(s.isNmr());
+
+		PDBHeader h = s.getPDBHeader();
+		out.writeBoolean(h != null);
+		if ( h != null) {
+			writeString(out, h.getIdCode());
+			writeString(out, h.getTitle());
+			writeString(out, h.getDescription());
+			writeString(out, h.getClassification());
+			writeString(out, h.getTechnique());
+			writeString(out, h.getMethod());
+			writeString(out, h.getAuthors());
+			out.writeFloat(h.getResolution());
+			writeDate(out, h.getDepDate());
+			writeDate(out, h.getModDate());
+		}
+
+		out.writeInt(words.size());
+		for (String word : words) {
+			writeString(out, word);
+		}
+
+		// models, chains and the number of groups of each chain
+		out.writeInt(s.nrModels());
+		for (int m = 0; m < s.nrModels(); m++) {
+			List<Chain> model = s.getModel(m);
+			out.writeInt(model.size());
+			for (Chain c : model) {
+				out.writeInt(indexOf(c.getChainID(), dictionary));
+				out.writeInt(c.getAtomGroups().size());
+			}
+		}
+
+		// group table, each group followed by its alternate locations
+		for (Group g : groups) {
+			String type = g.getType();
+			byte code = GroupType.AMINOACID.equals(type) ? AMINO :
+				GroupType.NUCLEOTIDE.equals(type) ? NUCLEOTIDE : HETATM;
+			out.writeByte(code);
+			out.writeInt(indexOf(g.getPDBName(), dictionary));
+			ResidueNumber r = g.getResidueNumber();
+			Integer seqNum = (r == null) ? null : r.getSeqNum();
+			Character insCode = (r == null) ? null : r.getInsCode();
+			out.writeBoolean(r != null);
+			out.writeInt((r == null) ? -1 : indexOf(r.getChainId(), dictionary));
+			out.writeInt((seqNum == null) ? Integer.MIN_VALUE : seqNum);
+			out.writeChar((insCode == null) ? 0 : insCode);
+			if ( code == AMINO) {
+				AminoAcid aa = (AminoAcid) g;
+				out.writeChar((aa.getAminoType() == null) ? 0 : aa.getAminoType());
+				out.writeInt(indexOf(aa.getRecordType(), dictionary));
+			}
+			out.writeInt(g.size());
+			out.writeShort(g.hasAltLoc() ? g.getAltLocs().size() : 0);
+		}
+
+		out.flush();
+		return bytes;
+	}
+
+	private ByteArrayOutputStream writeCAAtoms(List<Group> groups, int caCount) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(caCount * 28 + 4);
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(caCount);
+		for (int i = 0; i < groups.size(); i++) {
+			for (Atom a : groups.get(i).getAtoms()) {
+				if ( CA_NAME.equals(a.getFullName())) {
+					out.writeInt(i);
+					out.writeInt(a.getPDBserial());
+					out.writeChar(getAltLoc(a));
+					out.writeByte(getElement(a));
+					out.writeInt(fixed(a.getX(), COORD_SCALE));
+					out.writeInt(fixed(a.getY(), COORD_SCALE));
+					out.writeInt(fixed(a.getZ(), COORD_SCALE));
+					out.writeInt(fixed(a.getOccupancy(), VALUE_SCALE));
+					out.writeInt(fixed(a.getTempFactor(), VALUE_SCALE));
+				}
+			}
+		}
+		out.flush();
+		return bytes;
+	}
+
+	private ByteArrayOutputStream writeAtoms(List<Group> groups, int atomCount, Map<String, Integer> dictionary)
+	throws IOException {
+		List<Atom> atoms = new ArrayList<Atom>(atomCount);
+		for (Group g : groups) {
+			atoms.addAll(g.getAtoms());
+		}
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(atomCount * 20 + 4);
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(atomCount);
+		for (Atom a : atoms) {
+			writeShort(out, indexOf(a.getFullName(), dictionary));
+		}
+		for (Atom a : atoms) {
+			writeShort(out, indexOf(a.getName(), dictionary));
+		}
+		for (Atom a : atoms) {
+			out.writeByte(getElement(a));
+		}
+		for (Atom a : atoms) {
+			out.writeChar(getAltLoc(a));
+		}
+		int last = 0;
+		for (Atom a : atoms) {
+			writeShort(out, a.getPDBserial() - last);
+			last = a.getPDBserial();
+		}
+		for (int d = 0; d < 3; d++) {
+			last = 0;
+			for (Atom a : atoms) {
+				int value = fixed(a.getCoords()[d], COORD_SCALE);
+				writeShort(out, value - last);
+				last = value;
+			}
+		}
+		for (Atom a : atoms) {
+			writeShort(out, fixed(a.getOccupancy(), VALUE_SCALE));
+		}
+		for (Atom a : atoms) {
+			writeShort(out, fixed(a.getTempFactor(), VALUE_SCALE));
+		}
+		out.flush();
+		return bytes;
+	}
+
+	private static void writeSection(DataOutputStream out, ByteArrayOutputStream section) throws IOException {
+		out.writeInt(section.size());
+		section.writeTo(out);
+	}
+
+	private static void index(String word, Map<String, Integer> dictionary, List<String> words) {
+		if ( word != null && ! dictionary.containsKey(word)) {
+			dictionary.put(word, words.size());
+			words.add(word);
+		}
+	}
+
+	private static int indexOf(String word, Map<String, Integer> dictionary) {
+		return (word == null) ? -1 : dictionary.get(word);
+	}
+
+	private static int fixed(double value, double scale) {
+		return (int) Math.round(value * scale);
+	}
+
+	private static char getAltLoc(Atom a) {
+		return (a.getAltLoc() == null) ? 0 : a.getAltLoc();
+	}
+
+	private static byte getElement(Atom a) {
+		return (byte) ((a.getElement() == null) ? -1 : a.getElement().ordinal());
+	}
+
+	// writes most values in 16 bits, others escaped and in 48 bits
+	private static void writeShort(DataOutputStream out, int value) throws IOException {
+		if ( value > Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+			out.writeShort(value);
+		} else {
+			out.writeShort(ESCAPE);
+			out.writeInt(value);
+		}
+	}
+
+	private static void writeDate(DataOutputStream out, Date date) throws IOException {
+		out.writeLong((date == null) ? Long.MIN_VALUE : date.getTime());
+	}
+
+	private static void writeString(DataOutputStream out, String s) throws IOException {
+		if ( s == null) {
+			out.writeInt(-1);
+		} else {
+			byte[] b = s.getBytes("UTF-8");
+			out.writeInt(b.length);
+			out.write(b);
+		}
+	}
+
+}
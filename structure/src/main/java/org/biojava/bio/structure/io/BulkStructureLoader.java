@@ -0,0 +1,339 @@
+/*
+ *                  BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava.bio.structure.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.biojava.bio.structure.Structure;
+import org.biojava3.core.util.InputStreamProvider;
+
+/** Loads many structures from a local PDB installation in parallel. 
+ * <p>
+ * Reader threads find, read and uncompress the files, parser threads parse them and pass each
+ * structure to a {@link StructureHandler}. The readers stay at most a few files ahead of the parsers
+ * and the parsers wait for the handler, so only a bounded number of files are held in memory at any
+ * time, however many are loaded. Each parser thread keeps its own {@link PDBFileParser}, so the
+ * threads share no state and parsing scales with the number of cores.
+ * 
+ * <pre>
+ * BulkStructureLoader loader = new BulkStructureLoader("/path/to/PDB/directory/");
+ * loader.setPdbDirectorySplit(true);
+ * loader.load(loader.getPdbIds(), new BulkStructureLoader.StructureHandler() {
+ *    public void structureLoaded(String pdbId, Structure s) {
+ *       System.out.println(pdbId + " " + StructureTools.getNrAtoms(s));
+ *    }
+ *    public void loadFailed(String pdbId, Exception e) {
+ *       System.err.println("could not load " + pdbId + ": " + e.getMessage());
+ *    }
+ * });
+ * </pre>
+ */
+public class BulkStructureLoader {
+
+	/** Receives the structures of a {@link BulkStructureLoader}. The methods are called
+	 * by the parser threads, so they are called concurrently and in no particular order.
+	 */
+	public interface StructureHandler {
+
+		/** called for each structure which was parsed
+		 * 
+		 * @param pdbId the PDB code of the structure
+		 * @param s the structure
+		 */
+		public void structureLoaded(String pdbId, Structure s);
+
+		/** called for each structure which could not be found, read or parsed
+		 * 
+		 * @param pdbId the PDB code of the structure
+		 * @param e the reason
+		 */
+		public void loadFailed(String pdbId, Exception e);
+	}
+
+	// a read file, or its error
+	private static class Entry {
+		final String pdbId;
+		final byte[] data;
+		final Exception error;
+
+		Entry(String pdbId, byte[] data, Exception error) {
+			this.pdbId = pdbId;
+			this.data = data;
+			this.error = error;
+		}
+	}
+
+	// tells a parser thread that all files have been read
+	private static final Entry END = new Entry(null, null, null);
+
+	PDBFileReader reader;
+
+	int parserThreads;
+	int readerThreads;
+	int queueSize;
+
+	/** Prepares to load structures from a local PDB installation, by default with a parser thread
+	 * for each processor and a reader thread for every four of them.
+	 * 
+	 * @param path the directory of the PDB files
+	 */
+	public BulkStructureLoader(String path) {
+		reader = new PDBFileReader();
+		reader.setPath(path);
+		setParserThreads(Runtime.getRuntime().availableProcessors());
+	}
+
+	public String getPath() {
+		return reader.getPath();
+	}
+
+	/** Flag that defines if the PDB directory is containing all PDB files or is split into sub dirs (like the FTP site).
+	 *  
+	 * @return boolean. default is false (all files in one directory)
+	 */
+	public boolean isPdbDirectorySplit() {
+		return reader.isPdbDirectorySplit();
+	}
+
+	/** Flag that defines if the PDB directory is containing all PDB files or is split into sub dirs (like the FTP site).
+	 *  
+	 * @param pdbDirectorySplit boolean. If set to false all files are in one directory.
+	 */
+	public void setPdbDirectorySplit(boolean pdbDirectorySplit) {
+		reader.setPdbDirectorySplit(pdbDirectorySplit);
+	}
+
+	public FileParsingParameters getFileParsingParameters() {
+		return reader.getFileParsingParameters();
+	}
+
+	public void setFileParsingParameters(FileParsingParameters params) {
+		reader.setFileParsingParameters(params);
+	}
+
+	public int getParserThreads() {
+		return parserThreads;
+	}
+
+	/** Sets the number of threads which parse files, and also sets a reader thread for every four of
+	 * them and room for two read files per parser thread.
+	 * 
+	 * @param parserThreads number of parser threads
+	 */
+	public void setParserThreads(int parserThreads) {
+		if ( parserThreads < 1)
+			throw new IllegalArgumentException("at least one parser thread is needed: " + parserThreads);
+		this.parserThreads = parserThreads;
+		readerThreads = Math.max(1, parserThreads / 4);
+		queueSize = 2 * parserThreads;
+	}
+
+	public int getReaderThreads() {
+		return readerThreads;
+	}
+
+	/** Sets the number of threads which find, read and uncompress files.
+	 * 
+	 * @param readerThreads number of reader threads
+	 */
+	public void setReaderThreads(int readerThreads) {
+		if ( readerThreads < 1)
+			throw new IllegalArgumentException("at least one reader thread is needed: " + readerThreads);
+		this.readerThreads = readerThreads;
+	}
+
+	public int getQueueSize() {
+		return queueSize;
+	}
+
+	/** Sets the number of files which may have been read but not yet parsed. 
+	 * When it is reached, the readers wait for the parsers.
+	 * 
+	 * @param queueSize number of files waiting to be parsed
+	 */
+	public void setQueueSize(int queueSize) {
+		if ( queueSize < 1)
+			throw new IllegalArgumentException("the queue must hold at least one file: " + queueSize);
+		this.queueSize = queueSize;
+	}
+
+	/** Returns the PDB codes of all files in the directory, in the flat or split layout.
+	 * 
+	 * @return sorted PDB codes, in lower case
+	 */
+	public List<String> getPdbIds() {
+		// a code may have files with several names
+		Set<String> pdbIds = new TreeSet<String>();
+		File dir = new File(getPath());
+		if ( isPdbDirectorySplit()) {
+			File[] middles = dir.listFiles();
+			if ( middles != null) {
+				for (File middle : middles) {
+					if ( middle.isDirectory() && middle.getName().length() == 2)
+						addPdbIds(middle, pdbIds);
+				}
+			}
+		} else {
+			addPdbIds(dir, pdbIds);
+		}
+		return new ArrayList<String>(pdbIds);
+	}
+
+	/** Loads the structures of the given PDB codes and waits until all are passed to the handler.
+	 * 
+	 * @param pdbIds the PDB codes to load
+	 * @param handler receives each structure or the reason why it could not be loaded
+	 * @throws InterruptedException if interrupted while waiting, the loading is then cancelled
+	 */
+	public void load(final List<String> pdbIds, final StructureHandler handler) throws InterruptedException {
+
+		final BlockingQueue<Entry> queue = new ArrayBlockingQueue<Entry>(queueSize);
+		final AtomicInteger next = new AtomicInteger();
+		final AtomicInteger readersLeft = new AtomicInteger(readerThreads);
+
+		ExecutorService executor = Executors.newFixedThreadPool(readerThreads + parserThreads);
+		CompletionService<Void> tasks = new ExecutorCompletionService<Void>(executor);
+		try {
+			for (int i = 0; i < readerThreads; i++) {
+				tasks.submit(new Callable<Void>() {
+					public Void call() throws InterruptedException {
+						for (int n = next.getAndIncrement(); n < pdbIds.size(); n = next.getAndIncrement()) {
+							queue.put(read(pdbIds.get(n)));
+						}
+						// the last reader tells each parser to stop
+						if ( readersLeft.decrementAndGet() == 0) {
+							for (int p = 0; p < parserThreads; p++) {
+								queue.put(END);
+							}
+						}
+						return null;
+					}
+				});
+			}
+			for (int i = 0; i < parserThreads; i++) {
+				tasks.submit(new Callable<Void>() {
+					public Void call() throws InterruptedException {
+						PDBFileParser parser = new PDBFileParser();
+						parser.setFileParsingParameters(getFileParsingParameters());
+						for (Entry e = queue.take(); e != END; e = queue.take()) {
+							parse(parser, e, handler);
+						}
+						return null;
+					}
+				});
+			}
+
+			// a failed task, such as a handler throwing an exception, stops all others
+			for (int i = 0; i < readerThreads + parserThreads; i++) {
+				try {
+					tasks.take().get();
+				} catch (ExecutionException e){
+					Throwable t = e.getCause();
+					if ( t instanceof RuntimeException)
+						throw (RuntimeException) t;
+					if ( t instanceof Error)
+						throw (Error) t;
+					throw new RuntimeException(t);
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	// helper methods
+
+	private Entry read(String pdbId) {
+		try {
+			File f = (pdbId.length() < 4) ? null : reader.getLocalFile(pdbId.toLowerCase());
+			if ( f == null)
+				throw new IOException("no structure with PDB code " + pdbId + " found!");
+
+			InputStream in = new InputStreamProvider().getInputStream(f);
+			try {
+				ByteArrayOutputStream out = new ByteArrayOutputStream((int) Math.min(f.length(), 1 << 24));
+				byte[] buffer = new byte[65536];
+				for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+					out.write(buffer, 0, n);
+				}
+				return new Entry(pdbId, out.toByteArray(), null);
+			} finally {
+				in.close();
+			}
+		} catch (Exception e){
+			return new Entry(pdbId, null, e);
+		}
+	}
+
+	private void parse(PDBFileParser parser, Entry e, StructureHandler handler) {
+		Structure s = null;
+		Exception error = e.error;
+		if ( error == null) {
+			try {
+				s = parser.parsePDBFile(new ByteArrayInputStream(e.data));
+			} catch (Exception ex){
+				error = ex;
+			}
+		}
+		if ( error == null)
+			handler.structureLoaded(e.pdbId, s);
+		else
+			handler.loadFailed(e.pdbId, error);
+	}
+
+	private void addPdbIds(File dir, Set<String> pdbIds) {
+		File[] files = dir.listFiles();
+		if ( files == null)
+			return;
+		for (File f : files) {
+			String name = f.getName().toLowerCase();
+			for (String ex : reader.extensions) {
+				if ( name.endsWith(ex.toLowerCase())) {
+					name = name.substring(0, name.length() - ex.length());
+					if ( name.startsWith("pdb"))
+						name = name.substring(3);
+					if ( name.length() == 4 && f.isFile())
+						pdbIds.add(name);
+					break;
+				}
+			}
+		}
+	}
+
+}
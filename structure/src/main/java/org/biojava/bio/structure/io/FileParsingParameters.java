@@ -75,6 +75,11 @@ public class FileParsingParameters implements Serializable
     */
    boolean headerOnly;
 
+   /** Flag to keep the text of each ATOM and HETATM record in its Atom.
+    * 
+    */
+   boolean storeAtomLines;
+
 
    public FileParsingParameters(){
       setDefault();
@@ -91,6 +96,7 @@ public class FileParsingParameters implements Serializable
       // don't download ChemComp dictionary by default.
       loadChemCompInfo = false;
       headerOnly = false;
+      storeAtomLines = false;
 
    }
 
@@ -138,6 +144,23 @@ public class FileParsingParameters implements Serializable
       this.headerOnly = headerOnly;
    }
 
+   /** the flag if the text of each ATOM and HETATM record is kept, see {@link org.biojava.bio.structure.Atom#getPDBline()}.
+    * default is false, as the lines take more memory than the parsed atoms.
+    *
+    * @return the flag
+    */
+   public boolean isStoreAtomLines() {
+      return storeAtomLines;
+   }
+
+   /** the flag if the text of each ATOM and HETATM record is kept, see {@link org.biojava.bio.structure.Atom#getPDBline()}.
+    *
+    * @param storeAtomLines boolean flag to keep the lines of the atom records
+    */
+   public void setStoreAtomLines(boolean storeAtomLines) {
+      this.storeAtomLines = storeAtomLines;
+   }
+
    /** the flag if only the C-alpha atoms of the structure should be parsed.
     *
     * @return the flag
@@ -247,11 +247,41 @@ public class PDBFileParser  {
 
 	private boolean atomOverflow;
 
+	// one letter codes by group name
+	private Map<String,Character> aminoCodes = new HashMap<String,Character>();
+
+	// atom names by the packed characters of the name columns
+	private static final int ATOM_NAME_BITS = 10;
+	private int[] atomNameKeys = new int[1 << ATOM_NAME_BITS];
+	private String[][] atomNames = new String[1 << ATOM_NAME_BITS][];
+
+	// elements by the packed characters of the element columns
+	private static final Element[] ELEMENTS = new Element[1 << 14];
+
+	private static final double[] POWERS_OF_TEN = new double[16];
 
 	static {
 
 		NEWLINE = System.getProperty("line.separator");
 
+		// the element of each pair of ASCII characters in the element columns, as
+		// Element.valueOfIgnoreCase would find it after trimming them, or R if none
+		Map<String,Element> symbols = new HashMap<String,Element>();
+		for (Element e : Element.values()) {
+			if ( ! symbols.containsKey(e.toString().toUpperCase(java.util.Locale.ENGLISH)))
+				symbols.put(e.toString().toUpperCase(java.util.Locale.ENGLISH), e);
+		}
+		for (char c1 = 0; c1 < 128; c1++) {
+			for (char c2 = 0; c2 < 128; c2++) {
+				Element e = symbols.get(new String(new char[] { c1, c2 }).trim().toUpperCase(java.util.Locale.ENGLISH));
+				ELEMENTS[(c1 << 7) | c2] = (e == null) ? Element.R : e;
+			}
+		}
+
+		POWERS_OF_TEN[0] = 1;
+		for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+			POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+		}
 	}
 
 	FileParsingParameters params;
@@ -1485,9 +1515,17 @@ COLUMNS   DATA TYPE         FIELD          DEFINITION
 		// build up chains first.
 		// headerOnly just goes down to chain resolution.
 
+		// the fields are read column by column from the line, strings are only created
+		// for a new chain, group or atom name
+
 		boolean startOfNewChain = false;
 
-		String chain_id      = line.substring(21,22);
+		String chain_id;
+		if ( current_chain != null && current_chain.getChainID().length() == 1 &&
+				line.regionMatches(21, current_chain.getChainID(), 0, 1))
+			chain_id = current_chain.getChainID();
+		else
+			chain_id = line.substring(21,22);
 
 		if (current_chain == null) {
 			current_chain = new ChainImpl();
@@ -1534,17 +1572,12 @@ COLUMNS   DATA TYPE         FIELD          DEFINITION
 		} 
 
 		// process group data:
-		// join residue numbers and insertion codes together
-		String recordName     = line.substring (0, 6).trim ();
-		//String pdbCode = line.substring(22,27).trim();
-		String groupCode3     = line.substring(17,20);
-		// pdbCode is the old way of doing things...it's a concatenation
-		//of resNum and iCode which are now defined explicitly
-		String resNum  = line.substring(22,26).trim();
-		Character iCode = line.substring(26,27).charAt(0);
-		if ( iCode == ' ')
-			iCode = null;
-		ResidueNumber residueNumber = new ResidueNumber(chain_id, Integer.valueOf(resNum), iCode);
+		// residue numbers and insertion codes are compared to the current group
+		// and only turned into a ResidueNumber for a new group
+		String recordName = line.startsWith("HETATM") ? "HETATM" : "ATOM";
+		int resNum = parseInt(line, 22, 26);
+		char iCodeChar = line.charAt(26);
+		Character iCode = (iCodeChar == ' ') ? null : Character.valueOf(iCodeChar);
 
 		//recordName      groupCode3
 		//|                |    resNum
@@ -1552,57 +1585,26 @@ COLUMNS   DATA TYPE         FIELD          DEFINITION
 		//|     |          | |  |   ||
 		//ATOM      1  N   ASP A  15     110.964  24.941  59.191  1.00 83.44           N
 
-		Character aminoCode1 = null;
-
-		if ( recordName.equals("ATOM") ){
-			aminoCode1 = StructureTools.get1LetterCode(groupCode3);
-		} else {
-			// HETATOM RECORDS are treated slightly differently
-			// some modified amino acids that we want to treat as amino acids
-			// can be found as HETATOM records
-			aminoCode1 = StructureTools.get1LetterCode(groupCode3);
-			if ( aminoCode1 != null)
-				if ( aminoCode1.equals(StructureTools.UNKNOWN_GROUP_LABEL))
-					aminoCode1 = null;
-		}
-
-		if (current_group == null) {
+		if (current_group == null || startOfNewChain) {
 
-			current_group = getNewGroup(recordName,aminoCode1,groupCode3);
-			//               current_group.setPDBCode(pdbCode);
-			current_group.setPDBName(groupCode3);
-			current_group.setResidueNumber(residueNumber);
+			current_group = getNewGroup(line, recordName, chain_id, resNum, iCode);
 			//                        System.out.println("Made new group: " + groupCode3 + " " + resNum + " " + iCode);
 
 		}
 
 
-		if ( startOfNewChain) {
-			//System.out.println("end of chain: "+current_chain.getName()+" >"+chain_id+"<");
-
-			current_group = getNewGroup(recordName,aminoCode1,groupCode3);
-			//current_group.setPDBCode(pdbCode);
-			current_group.setPDBName(groupCode3);
-			current_group.setResidueNumber(residueNumber);
-			//                        System.out.println("Made new start of chain group:  " + groupCode3 + " " + resNum + " " + iCode);
-		}
-
-
-		Character altLoc   = new Character(line.substring (16, 17).charAt(0));
+		Character altLoc   = Character.valueOf(line.charAt(16));
 		Group altGroup = null;
 
 		//System.out.println(current_group + " " + residueNumber);
 
 		// check if residue number is the same ...
 		// insertion code is part of residue number
-		if ( ! residueNumber.equals(current_group.getResidueNumber())) {
+		if ( ! isResidueNumber(current_group.getResidueNumber(), chain_id, resNum, iCode)) {
 
 			current_chain.addGroup(current_group);
 
-			current_group = getNewGroup(recordName,aminoCode1,groupCode3);
-			//current_group.setPDBCode(pdbCode);
-			current_group.setPDBName(groupCode3);
-			current_group.setResidueNumber(residueNumber);
+			current_group = getNewGroup(line, recordName, chain_id, resNum, iCode);
 			//                        System.out.println("Made new group:  " + groupCode3 + " " + resNum + " " + iCode);
 
 		} else {
@@ -1610,7 +1612,8 @@ COLUMNS   DATA TYPE         FIELD          DEFINITION
 
 			// test altLoc
 			if ( ! altLoc.equals(' ')) {												
-				altGroup = getCorrectAltLocGroup( altLoc,recordName,aminoCode1,groupCode3);
+				String groupCode3 = line.substring(17,20);
+				altGroup = getCorrectAltLocGroup( altLoc,recordName,getAminoCode1(recordName, groupCode3),groupCode3);
 				//System.out.println("found altLoc! " + current_group + " " + altGroup);
 			}
 		}
@@ -1651,13 +1654,11 @@ COLUMNS   DATA TYPE         FIELD          DEFINITION
 		//ATOM    112  CA  ASP   112      37.613  26.621  33.571     0     0
 
 
-		String fullname = line.substring (12, 16);
-
 		// check for CA only if requested
 		if ( params.isParseCAOnly()){
 			// yes , user wants to get CA only
 			// only parse CA atoms...
-			if (! fullname.equals(" CA ")){
+			if (! line.regionMatches(12, " CA ", 0, 4)){
 				//System.out.println("ignoring " + line);
 				atomCount--;
 				return;
@@ -1665,42 +1666,40 @@ COLUMNS   DATA TYPE         FIELD          DEFINITION
 		}
 		// create new atom
 
-		int pdbnumber = Integer.parseInt (line.substring (6, 11).trim ());
+		int pdbnumber = parseInt(line, 6, 11);
 		AtomImpl atom = new AtomImpl() ;
 		atom.setPDBserial(pdbnumber) ;
 
 		atom.setAltLoc(altLoc);
-		atom.setFullName(fullname) ;
-		atom.setName(fullname.trim());
-
-		double x = Double.parseDouble (line.substring (30, 38).trim());
-		double y = Double.parseDouble (line.substring (38, 46).trim());
-		double z = Double.parseDouble (line.substring (46, 54).trim());
+		String[] names = getAtomNames(line);
+		atom.setFullName(names[0]) ;
+		atom.setName(names[1]);
 
-		double[] coords = new double[3];
-		coords[0] = x ;
-		coords[1] = y ;
-		coords[2] = z ;
-		atom.setCoords(coords);
+		// the atom comes with an array for its coordinates
+		atom.setX(parseDecimal(line, 30, 38));
+		atom.setY(parseDecimal(line, 38, 46));
+		atom.setZ(parseDecimal(line, 46, 54));
 
 		double occu  = 1.0;
 		if ( line.length() > 59 ) {
 			try {
 				// occu and tempf are sometimes not used :-/
-				occu = Double.parseDouble (line.substring (54, 60).trim());
+				occu = parseDecimal(line, 54, 60);
 			}  catch (NumberFormatException e){}
 		}
 
 		double tempf = 0.0;
 		if ( line.length() > 65) {
 			try {
-				tempf = Double.parseDouble (line.substring (60, 66).trim());
+				tempf = parseDecimal(line, 60, 66);
 			}  catch (NumberFormatException e){}
 		}
 
 		atom.setOccupancy(  occu  );
 		atom.setTempFactor( tempf );
 
+		if ( params.isStoreAtomLines())
+			atom.setPDBline(line);
 
 
 
@@ -1710,11 +1709,17 @@ COLUMNS   DATA TYPE         FIELD          DEFINITION
 		Element element = Element.R;
 		if ( line.length() > 77 ) {
 			// parse element from element field
-			try {
-				element = Element.valueOfIgnoreCase(line.substring (76, 78).trim());
-			}  catch (IllegalArgumentException e){}
+			element = getElement(line.charAt(76), line.charAt(77));
+			if ( element == null) {
+				// not in the table of ASCII characters
+				element = Element.R;
+				try {
+					element = Element.valueOfIgnoreCase(line.substring (76, 78).trim());
+				}  catch (IllegalArgumentException e){}
+			}
 		} else {
 			// parse the name from the atom name
+			String fullname = names[0];
 			String elementSymbol = null;
 			// for atom names with 4 characters, the element is
 			// at the first position, example HG23 in Valine
@@ -1745,6 +1750,141 @@ COLUMNS   DATA TYPE         FIELD          DEFINITION
 		//System.out.println(current_group);
 	}
 
+	/** initiate the group of a new residue from the columns of an ATOM or HETATM record */
+	private Group getNewGroup(String line, String recordName, String chainId, int resNum, Character iCode)
+	throws PDBParseException {
+		String groupCode3 = line.substring(17,20);
+		Group group = getNewGroup(recordName, getAminoCode1(recordName, groupCode3), groupCode3);
+		group.setPDBName(groupCode3);
+		group.setResidueNumber(new ResidueNumber(chainId, resNum, iCode));
+		return group;
+	}
+
+	/** the one letter code of a group, looked up once for each group name and record type */
+	private Character getAminoCode1(String recordName, String groupCode3) {
+		Character aminoCode1;
+		if ( aminoCodes.containsKey(groupCode3)) {
+			aminoCode1 = aminoCodes.get(groupCode3);
+		} else {
+			aminoCode1 = StructureTools.get1LetterCode(groupCode3);
+			aminoCodes.put(groupCode3, aminoCode1);
+		}
+
+		// HETATOM RECORDS are treated slightly differently
+		// some modified amino acids that we want to treat as amino acids
+		// can be found as HETATOM records
+		if ( ! recordName.equals("ATOM") && aminoCode1 != null &&
+				aminoCode1.equals(StructureTools.UNKNOWN_GROUP_LABEL))
+			aminoCode1 = null;
+		return aminoCode1;
+	}
+
+	/** same as residueNumber.equals(new ResidueNumber(chainId, resNum, iCode)) */
+	private static boolean isResidueNumber(ResidueNumber residueNumber, String chainId, int resNum, Character iCode) {
+		if ( residueNumber == null || residueNumber.getSeqNum() == null ||
+				residueNumber.getSeqNum().intValue() != resNum)
+			return false;
+		if ( (iCode == null) ? residueNumber.getInsCode() != null : ! iCode.equals(residueNumber.getInsCode()))
+			return false;
+		return (chainId == null) ? residueNumber.getChainId() == null : chainId.equals(residueNumber.getChainId());
+	}
+
+	/** the full and the trimmed atom name of an atom record. The names are kept by the four
+	 * characters of the name columns, so all atoms of the same name share the strings.
+	 */
+	private String[] getAtomNames(String line) {
+		int key = 0;
+		for (int i = 12; i < 16; i++) {
+			char c = line.charAt(i);
+			if ( c > 0xff)
+				return newAtomNames(line);
+			key = (key << 8) | c;
+		}
+		int mask = atomNameKeys.length - 1;
+		for (int slot = (key * 0x9E3779B9) >>> (32 - ATOM_NAME_BITS), probes = 0; probes < atomNameKeys.length;
+				slot = (slot + 1) & mask, probes++) {
+			if ( atomNameKeys[slot] == key && atomNames[slot] != null)
+				return atomNames[slot];
+			if ( atomNames[slot] == null) {
+				atomNameKeys[slot] = key;
+				atomNames[slot] = newAtomNames(line);
+				return atomNames[slot];
+			}
+		}
+		// all slots used
+		return newAtomNames(line);
+	}
+
+	private static String[] newAtomNames(String line) {
+		String fullname = line.substring (12, 16);
+		return new String[] { fullname, fullname.trim() };
+	}
+
+	/** the element of the two element columns, null if they are not ASCII characters */
+	private static Element getElement(char c1, char c2) {
+		return (c1 < 128 && c2 < 128) ? ELEMENTS[(c1 << 7) | c2] : null;
+	}
+
+	/** parses the integer in the given columns, like Integer.parseInt(line.substring(start, end).trim()) */
+	private static int parseInt(String line, int start, int end) {
+		while ( start < end && line.charAt(start) <= ' ')
+			start++;
+		while ( end > start && line.charAt(end - 1) <= ' ')
+			end--;
+		int i = start;
+		boolean negative = false;
+		if ( i < end && line.charAt(i) == '-') {
+			negative = true;
+			i++;
+		}
+		int value = 0, digits = 0;
+		for (; i < end; i++, digits++) {
+			char c = line.charAt(i);
+			if ( c < '0' || c > '9')
+				break;
+			value = value * 10 + (c - '0');
+		}
+		if ( i < end || digits == 0 || digits > 9)
+			return Integer.parseInt(line.substring(start, end));
+		return negative ? -value : value;
+	}
+
+	/** parses the decimal number in the given columns, like Double.parseDouble(line.substring(start, end).trim()).
+	 * A fixed-point number with up to 15 digits is exactly the ratio of two doubles, so the quotient is
+	 * the same double, any other number is left to Double.parseDouble.
+	 */
+	private static double parseDecimal(String line, int start, int end) {
+		while ( start < end && line.charAt(start) <= ' ')
+			start++;
+		while ( end > start && line.charAt(end - 1) <= ' ')
+			end--;
+		int i = start;
+		boolean negative = false;
+		if ( i < end && line.charAt(i) == '-') {
+			negative = true;
+			i++;
+		}
+		long mantissa = 0;
+		int digits = 0, fraction = -1;
+		for (; i < end; i++) {
+			char c = line.charAt(i);
+			if ( c >= '0' && c <= '9') {
+				mantissa = mantissa * 10 + (c - '0');
+				digits++;
+				if ( fraction >= 0)
+					fraction++;
+			} else if ( c == '.' && fraction < 0) {
+				fraction = 0;
+			} else {
+				break;
+			}
+		}
+		if ( i < end || digits == 0 || digits > 15)
+			return Double.parseDouble(line.substring(start, end));
+		double value = (fraction > 0) ? mantissa / POWERS_OF_TEN[fraction] : mantissa;
+		return negative ? -value : value;
+	}
+
 
 	private Group getCorrectAltLocGroup( Character altLoc,
 			String recordName, Character aminoCode1, String groupCode3) {
@@ -2367,7 +2507,13 @@ COLUMNS   DATA TYPE         FIELD          DEFINITION
 				}
 
 				try {
-					recordName = line.substring (0, 6).trim ();
+					// coordinate records make up most of a file, they are recognized without a new string
+					if ( line.startsWith("ATOM  "))
+						recordName = "ATOM";
+					else if ( line.startsWith("HETATM"))
+						recordName = "HETATM";
+					else
+						recordName = line.substring (0, 6).trim ();
 
 				} catch (StringIndexOutOfBoundsException e){
 
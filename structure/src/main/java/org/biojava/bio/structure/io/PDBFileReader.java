@@ -318,11 +318,27 @@ public class PDBFileReader implements StructureIOFile {
 		if ( pdbId.length() < 4)
 			throw new IOException("the provided ID does not look like a PDB ID : " + pdbId);
 
-	
-		InputStream inputStream =null;
+		File f = getLocalFile(pdbId);
+
+		if ( f == null ) {
+			if ( autoFetch)
+				return downloadAndGetInputStream(pdbId);
+
+			String message = "no structure with PDB code " + pdbId + " found!" ;
+			throw new IOException (message);
+		}
+
+		InputStreamProvider isp = new InputStreamProvider();
+
+		return isp.getInputStream(f);
+	}
 
-		String pdbFile = null ;
-		File f = null ;
+	/** find the file of a PDB code in the local file system, by the rules of {@link #getInputStream(String)}
+	 * 
+	 * @param pdbId a PDB code
+	 * @return the file or null if there is none
+	 */
+	File getLocalFile(String pdbId) {
 
 		// this are the possible PDB file names...
 		String fpath ;
@@ -346,32 +362,16 @@ public class PDBFileReader implements StructureIOFile {
 			for (int i=0 ; i<extensions.size();i++){
 				String ex = (String)extensions.get(i) ;
 				//System.out.println("PDBFileReader testing: "+testpath+ex);
-				f = new File(testpath+ex) ;
+				File f = new File(testpath+ex) ;
 
 				if ( f.exists()) {
 					//System.out.println("found!");
-					pdbFile = testpath+ex ;
-
-					InputStreamProvider isp = new InputStreamProvider();
-					
-					inputStream = isp.getInputStream(pdbFile);
-					
-					break;
+					return f;
 				}
-
-				if ( pdbFile != null) break;
 			}
 		}
 
-		if ( pdbFile == null ) {
-			if ( autoFetch)
-				return downloadAndGetInputStream(pdbId);
-
-			String message = "no structure with PDB code " + pdbId + " found!" ;
-			throw new IOException (message);
-		}
-
-		return inputStream ;
+		return null;
 	}
 
 
@@ -0,0 +1,39 @@
+/*
+ *                  BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava.bio.structure.io.mmcif;
+
+/** An optional interface for a {@link MMcifConsumer} that only uses some of the data of a mmCif file.
+ * A {@link SimpleMMcifParser} reads a column only if one of its consumers uses it, and skips the
+ * rows of categories no consumer uses without building strings or objects for them.
+ * Consumers that do not implement this interface receive all data, as before.
+ */
+public interface MMcifColumnFilter {
+
+	/** Tells the parser if the consumer uses a column of a category.
+	 *
+	 * @param category the category, including the leading underscore, e.g. <code>_atom_site</code>
+	 * @param column the column of the category, e.g. <code>Cartn_x</code>
+	 * @return true if the values of the column should be passed to this consumer
+	 */
+	public boolean isColumnUsed(String category, String column);
+
+}
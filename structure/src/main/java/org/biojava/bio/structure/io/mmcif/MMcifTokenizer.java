@@ -0,0 +1,373 @@
+/*
+ *                  BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ */
+
+package org.biojava.bio.structure.io.mmcif;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/** Splits a mmCif file into its tokens while reading it.
+ * <p>
+ * The characters are read in blocks into a buffer, and each call of {@link #next()} only finds the
+ * bounds of the next token in it. A token becomes a String only when {@link #getString()} is called,
+ * so a reader can skip whole categories and columns without allocating anything for them.
+ * {@link #getDouble()} and {@link #getInt()} parse a number without creating a String, but
+ * {@link SimpleMMcifParser} still hands the values it keeps to its consumers as Strings.
+ *
+ * <pre>
+ * MMcifTokenizer tokenizer = new MMcifTokenizer(new BufferedReader(new FileReader(file)));
+ * for (Token t = tokenizer.next(); t != Token.END; t = tokenizer.next()) {
+ *    if (t == Token.TAG)
+ *       System.out.println(tokenizer.getString());
+ * }
+ * </pre>
+ */
+public class MMcifTokenizer {
+
+	/** The kinds of tokens in a mmCif file.
+	 */
+	public enum Token {
+		/** the start of a data block, e.g. <code>data_1XYZ</code> */
+		DATA,
+		/** the start of a loop, <code>loop_</code> */
+		LOOP,
+		/** a data name, e.g. <code>_atom_site.Cartn_x</code> */
+		TAG,
+		/** a value, quoted or not, or the content of a text field between lines starting with a semicolon */
+		VALUE,
+		/** the end of the input */
+		END
+	}
+
+	private static final double[] POWERS_OF_TEN = new double[23];
+	static {
+		POWERS_OF_TEN[0] = 1;
+		for (int i = 1; i < POWERS_OF_TEN.length; i++)
+			POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+	}
+
+	// short values such as residue names and chain ids repeat on every row, so the strings are shared
+	private static final int STRING_CACHE_BITS = 10;
+	private static final int STRING_CACHE_LENGTH = 8;
+
+	private final Reader reader;
+	private char[] buffer = new char[1 << 16];
+	private int pos, limit;
+	private boolean lineStart = true;
+
+	private Token token;
+	private int start, end;
+	private boolean quoted, textField;
+
+	private final long[] cacheKeys = new long[1 << STRING_CACHE_BITS];
+	private final String[] cacheValues = new String[1 << STRING_CACHE_BITS];
+
+	/** Creates a tokenizer that reads the given input, which is not closed at its end.
+	 *
+	 * @param reader the mmCif file
+	 */
+	public MMcifTokenizer(Reader reader) {
+		this.reader = reader;
+	}
+
+	/** Moves to the next token, skipping white space and comments.
+	 *
+	 * @return the kind of the new current token, {@link Token#END} at the end of the input
+	 * @throws IOException
+	 */
+	public Token next() throws IOException {
+		while (true) {
+			if ( pos == limit) {
+				start = pos;
+				if (! fill()) {
+					start = end = pos;
+					quoted = textField = false;
+					return token = Token.END;
+				}
+			}
+			char c = buffer[pos];
+			if ( c == '\n' || c == '\r') {
+				pos++;
+				lineStart = true;
+			} else if ( c == ' ' || c == '\t') {
+				pos++;
+				lineStart = false;
+			} else if ( c == '#') {
+				skipComment();
+			} else {
+				break;
+			}
+		}
+
+		char c = buffer[pos];
+		quoted = textField = false;
+		if ( c == ';' && lineStart) {
+			readTextField();
+			token = Token.VALUE;
+		} else if ( c == '\'' || c == '"') {
+			readQuoted(c);
+			token = Token.VALUE;
+		} else {
+			readWord();
+			if ( c == '_')
+				token = Token.TAG;
+			else if ( end - start == 5 && startsWith("loop_"))
+				token = Token.LOOP;
+			else if ( end - start > 5 && startsWith("data_"))
+				token = Token.DATA;
+			else
+				token = Token.VALUE;
+		}
+		lineStart = false;
+		return token;
+	}
+
+	/** Returns the kind of the current token.
+	 *
+	 * @return the token found by the last call of {@link #next()}, null before the first call
+	 */
+	public Token getToken() {
+		return token;
+	}
+
+	/** Returns the current token as a String. Quotes around a value are removed and the line breaks
+	 * of a text field are dropped.
+	 *
+	 * @return the text of the current token
+	 */
+	public String getString() {
+		int length = end - start;
+		if ( textField) {
+			StringBuilder s = new StringBuilder(length);
+			for (int i = start; i < end; i++) {
+				char c = buffer[i];
+				if ( c != '\n' && c != '\r')
+					s.append(c);
+			}
+			return s.toString();
+		}
+		if ( length > STRING_CACHE_LENGTH)
+			return new String(buffer, start, length);
+
+		long key = 0;
+		for (int i = start; i < end; i++) {
+			char c = buffer[i];
+			if ( c == 0 || c > 127)
+				return new String(buffer, start, length);
+			key = (key << 7) | c;
+		}
+		int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> (64 - STRING_CACHE_BITS));
+		String s = cacheValues[slot];
+		if ( s == null || cacheKeys[slot] != key) {
+			s = new String(buffer, start, length);
+			cacheKeys[slot] = key;
+			cacheValues[slot] = s;
+		}
+		return s;
+	}
+
+	/** Tells if the current value is one of the unquoted place holders <code>?</code> (unknown) or
+	 * <code>.</code> (not applicable).
+	 *
+	 * @return true if the current token is a place holder
+	 */
+	public boolean isUnknown() {
+		return end - start == 1 && ! quoted && ! textField && (buffer[start] == '?' || buffer[start] == '.');
+	}
+
+	/** Parses the current token as a decimal number, ignoring a standard uncertainty in brackets,
+	 * as in <code>1.234(5)</code>.
+	 *
+	 * @return the number
+	 * @throws NumberFormatException if the token is not a number
+	 */
+	public double getDouble() {
+		int i = start;
+		boolean negative = false;
+		if ( i < end && (buffer[i] == '-' || buffer[i] == '+')) {
+			negative = buffer[i] == '-';
+			i++;
+		}
+		long mantissa = 0;
+		int digits = 0, decimals = -1;
+		for (; i < end; i++) {
+			char c = buffer[i];
+			if ( c >= '0' && c <= '9') {
+				mantissa = mantissa * 10 + (c - '0');
+				digits++;
+				if ( decimals >= 0)
+					decimals++;
+			} else if ( c == '.' && decimals < 0) {
+				decimals = 0;
+			} else if ( c == '(' && isUncertainty(i)) {
+				break;
+			} else {
+				return parseDouble();
+			}
+		}
+		// exact as long as the digits fit into the mantissa of a double
+		if ( digits == 0 || digits > 15 || decimals >= POWERS_OF_TEN.length)
+			return parseDouble();
+		double value = (decimals > 0) ? mantissa / POWERS_OF_TEN[decimals] : mantissa;
+		return negative ? -value : value;
+	}
+
+	/** Parses the current token as an integer, ignoring a standard uncertainty in brackets.
+	 *
+	 * @return the number
+	 * @throws NumberFormatException if the token is not an integer
+	 */
+	public int getInt() {
+		int i = start;
+		boolean negative = false;
+		if ( i < end && (buffer[i] == '-' || buffer[i] == '+')) {
+			negative = buffer[i] == '-';
+			i++;
+		}
+		int value = 0, digits = 0;
+		for (; i < end; i++) {
+			char c = buffer[i];
+			if ( c >= '0' && c <= '9') {
+				value = value * 10 + (c - '0');
+				digits++;
+			} else if ( c == '(' && isUncertainty(i)) {
+				break;
+			} else {
+				return Integer.parseInt(getString());
+			}
+		}
+		if ( digits == 0 || digits > 9)
+			return Integer.parseInt(getString());
+		return negative ? -value : value;
+	}
+
+	// helper methods
+
+	// reads more input behind the current token, moving the token to the start of the buffer or
+	// growing the buffer if the token fills it; returns false at the end of the input
+	private boolean fill() throws IOException {
+		if ( start > 0) {
+			System.arraycopy(buffer, start, buffer, 0, limit - start);
+			pos -= start;
+			limit -= start;
+			start = 0;
+		} else if ( limit == buffer.length) {
+			buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+		}
+		int n = reader.read(buffer, limit, buffer.length - limit);
+		if ( n <= 0)
+			return false;
+		limit += n;
+		return true;
+	}
+
+	private void skipComment() throws IOException {
+		start = pos;
+		while (pos < limit || fill()) {
+			char c = buffer[pos];
+			if ( c == '\n' || c == '\r')
+				return;
+			pos++;
+			start = pos;
+		}
+	}
+
+	// an unquoted value ends at the next white space
+	private void readWord() throws IOException {
+		start = pos;
+		while (pos < limit || fill()) {
+			char c = buffer[pos];
+			if ( c == ' ' || c == '\t' || c == '\n' || c == '\r')
+				break;
+			pos++;
+		}
+		end = pos;
+	}
+
+	// a quoted value ends at the next quote followed by white space, or at the end of the line
+	private void readQuoted(char quote) throws IOException {
+		quoted = true;
+		pos++;
+		start = pos;
+		while (pos < limit || fill()) {
+			char c = buffer[pos];
+			if ( c == '\n' || c == '\r')
+				break;
+			if ( c == quote) {
+				if ( pos + 1 == limit)
+					fill();
+				if ( pos + 1 == limit || isWhitespace(buffer[pos + 1])) {
+					end = pos;
+					pos++;
+					return;
+				}
+			}
+			pos++;
+		}
+		end = pos;
+	}
+
+	// a text field ends at the next line that starts with a semicolon
+	private void readTextField() throws IOException {
+		textField = true;
+		pos++;
+		start = pos;
+		while (pos < limit || fill()) {
+			char c = buffer[pos];
+			if ( c == ';' && pos > start && (buffer[pos - 1] == '\n' || buffer[pos - 1] == '\r')) {
+				end = pos;
+				pos++;
+				return;
+			}
+			pos++;
+		}
+		end = pos;
+	}
+
+	// reserved words are case insensitive
+	private boolean startsWith(String prefix) {
+		for (int i = 0; i < prefix.length(); i++) {
+			if ( Character.toLowerCase(buffer[start + i]) != prefix.charAt(i))
+				return false;
+		}
+		return true;
+	}
+
+	private boolean isUncertainty(int i) {
+		if ( buffer[end - 1] != ')' || i + 2 >= end)
+			return false;
+		for (int j = i + 1; j < end - 1; j++) {
+			if ( buffer[j] < '0' || buffer[j] > '9')
+				return false;
+		}
+		return true;
+	}
+
+	private double parseDouble() {
+		return Double.parseDouble(getString());
+	}
+
+	private static boolean isWhitespace(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+	}
+
+}
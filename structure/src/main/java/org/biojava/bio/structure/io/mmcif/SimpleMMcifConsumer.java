@@ -24,8 +24,10 @@ package org.biojava.bio.structure.io.mmcif;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -75,7 +77,7 @@ import org.biojava.bio.structure.io.mmcif.model.StructRefSeq;
  *  @since 1.7
  */
 
-public class SimpleMMcifConsumer implements MMcifConsumer {
+public class SimpleMMcifConsumer implements MMcifConsumer, MMcifColumnFilter {
 
    boolean DEBUG = false;
 
@@ -102,6 +104,18 @@ public class SimpleMMcifConsumer implements MMcifConsumer {
 
    public static Logger logger =  Logger.getLogger("org.biojava.bio.structure");
 
+   // the categories handled here, all other data is skipped by the parser
+   private static final Set<String> CATEGORIES = new HashSet<String>(Arrays.asList(
+         "_entity", "_struct", "_atom_site", "_database_PDB_rev", "_database_PDB_remark", "_exptl",
+         "_struct_ref", "_struct_ref_seq", "_entity_poly_seq", "_struct_asym", "_pdbx_poly_seq_scheme",
+         "_pdbx_nonpoly_scheme", "_struct_keywords", "_refine", "_audit_author"));
+
+   // the only columns read by newAtomSite
+   private static final Set<String> ATOM_SITE_COLUMNS = new HashSet<String>(Arrays.asList(
+         "group_PDB", "id", "label_atom_id", "label_alt_id", "label_comp_id", "label_asym_id",
+         "label_seq_id", "auth_seq_id", "pdbx_PDB_ins_code", "pdbx_PDB_model_num",
+         "Cartn_x", "Cartn_y", "Cartn_z", "occupancy", "B_iso_or_equiv"));
+
    public  SimpleMMcifConsumer(){
       params = new FileParsingParameters();
       documentStart();
@@ -1195,6 +1209,17 @@ public class SimpleMMcifConsumer implements MMcifConsumer {
       }
    }
 
+   /** Skips the categories and _atom_site columns this class does not read. Subclasses receive
+    * everything, as they may handle more data, unless they override this method.
+    */
+   public boolean isColumnUsed(String category, String column) {
+      if ( DEBUG || getClass() != SimpleMMcifConsumer.class)
+         return true;
+      if ( category.equals("_atom_site"))
+         return ATOM_SITE_COLUMNS.contains(column);
+      return CATEGORIES.contains(category);
+   }
+
    public FileParsingParameters getFileParsingParameters()
    {
       return params;
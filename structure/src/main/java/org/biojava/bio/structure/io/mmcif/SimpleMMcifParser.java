@@ -28,12 +28,15 @@ import java.io.InputStreamReader;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Logger;
 
 import org.biojava.bio.structure.Structure;
 import org.biojava.bio.structure.io.MMCIFFileReader;
 import org.biojava.bio.structure.io.StructureIOFile;
+import org.biojava.bio.structure.io.mmcif.MMcifTokenizer.Token;
 import org.biojava.bio.structure.io.mmcif.model.AtomSite;
 import org.biojava.bio.structure.io.mmcif.model.AuditAuthor;
 import org.biojava.bio.structure.io.mmcif.model.ChemComp;
@@ -71,6 +74,10 @@ import org.biojava.bio.structure.io.mmcif.model.StructRefSeq;
 			e.printStackTrace();
 		}
  * </pre>
+ * The file is split into tokens by a {@link MMcifTokenizer} while it is read. Columns that no consumer
+ * uses, as told by consumers implementing {@link MMcifColumnFilter}, are skipped without building
+ * strings or objects for them.
+ * <p>
  * For more documentation see <a href="http://biojava.org/wiki/BioJava:CookBook#Protein_Structure">http://biojava.org/wiki/BioJava:CookBook#Protein_Structure</a>.
  */
 public class SimpleMMcifParser implements MMcifParser {
@@ -82,8 +89,27 @@ public class SimpleMMcifParser implements MMcifParser {
 	public static final String FIELD_LINE = "_";
 	public static final String STRING_LIMIT = ";";
 
-	private static final char s1 = '\'';
-	private static final char s2 = '\"';
+	// the model class of each category with its own event in MMcifConsumer
+	private static final Map<String, Class<?>> BEAN_CLASSES = new HashMap<String, Class<?>>();
+	static {
+		BEAN_CLASSES.put("_entity", Entity.class);
+		BEAN_CLASSES.put("_struct", Struct.class);
+		BEAN_CLASSES.put("_atom_site", AtomSite.class);
+		BEAN_CLASSES.put("_database_PDB_rev", DatabasePDBrev.class);
+		BEAN_CLASSES.put("_database_PDB_remark", DatabasePDBremark.class);
+		BEAN_CLASSES.put("_exptl", Exptl.class);
+		BEAN_CLASSES.put("_struct_ref", StructRef.class);
+		BEAN_CLASSES.put("_struct_ref_seq", StructRefSeq.class);
+		BEAN_CLASSES.put("_entity_poly_seq", EntityPolySeq.class);
+		BEAN_CLASSES.put("_struct_asym", StructAsym.class);
+		BEAN_CLASSES.put("_pdbx_poly_seq_scheme", PdbxPolySeqScheme.class);
+		BEAN_CLASSES.put("_pdbx_nonpoly_scheme", PdbxNonPolyScheme.class);
+		BEAN_CLASSES.put("_pdbx_entity_nonpoly", PdbxEntityNonPoly.class);
+		BEAN_CLASSES.put("_struct_keywords", StructKeywords.class);
+		BEAN_CLASSES.put("_refine", Refine.class);
+		BEAN_CLASSES.put("_chem_comp", ChemComp.class);
+		BEAN_CLASSES.put("_audit_author", AuditAuthor.class);
+	}
 
 	Struct struct ;
 
@@ -140,124 +166,27 @@ public class SimpleMMcifParser implements MMcifParser {
 
 		// init container objects...
 		struct = new Struct();
-		String line = null;
-
-		boolean inLoop = false;
-
-		List<String> loopFields = new ArrayList<String>();
-		List<String> lineData   = new ArrayList<String>();
-
-		String category = null;
 
+		MMcifTokenizer tokenizer = new MMcifTokenizer(buf);
 
-		// the first line is a data_PDBCODE line, test if this looks like a mmcif file
-		line = buf.readLine();
-		if (!line.startsWith("data_")){
-			System.err.println("this does not look like a valid MMcif file! The first line should be data_1XYZ, but is " + line);
+		// the first token is a data_PDBCODE line, test if this looks like a mmcif file
+		Token token = tokenizer.next();
+		if ( token != Token.DATA){
+			String first = (token == Token.END) ? "empty" : tokenizer.getString();
+			System.err.println("this does not look like a valid MMcif file! The first line should be data_1XYZ, but is " + first);
 			triggerDocumentEnd();
 			return;
 		}
 
-		while ( (line = buf.readLine ()) != null ){
-			//System.out.println(inLoop + " " + line);
-
-
-			if ( inLoop){
-
-				if (line.startsWith(LOOP_END)){
-					// reset all data
-					inLoop = false;
-					lineData.clear();
-					category=null;
-					loopFields.clear();
-					continue;
-
-
-				}
-
-				if ( line.startsWith(FIELD_LINE)){
-					// found another field.
-					String txt = line.trim();
-					//System.out.println("line: " + txt);
-					if ( txt.indexOf('.') > -1){
-
-						String[] spl = txt.split("\\.");
-						//System.out.println(spl.length);
-						category = spl[0];
-						String attribute = spl[1];
-						loopFields.add(attribute);
-						if ( spl.length > 2){
-							System.err.println("found nested attribute, not supported, yet!");
-						}
-					} else {
-						category = txt;
-					}
-
-
-				} else {
-
-					// in loop and we found a data line
-					lineData = processLine(line, buf, loopFields.size());
-					if ( lineData.size() != loopFields.size()){
-						System.err.println("did not find enough data fields...");
-
-					}
-
-					endLineChecks(category, loopFields,lineData);
-
-					lineData.clear();
-
-				}
-
-			} else {
-				// not in loop
-
-				if ( line.startsWith(LOOP_START)){
-					loopFields.clear();
-					inLoop = true;
-					category=null;
-					lineData.clear();
-					continue;
-				} else if (line.startsWith(LOOP_END)){
-					inLoop = false;
-					if ( category != null)
-						endLineChecks(category, loopFields, lineData);
-					category = null;
-					loopFields.clear();
-					lineData.clear();
-				} else {
-					// a boring normal line
-					//System.out.println("boring data line: " + line + " " + inLoop + " " );
-					List<String> data = processLine(line, buf, 2);
-					//System.out.println("got a single line " + data);
-					if ( data.size() < 1){
-						// this can happen if empty lines at end of file
-						lineData.clear();
-						continue;
-					}
-					String key = data.get(0);
-					int pos = key.indexOf(".");
-					if ( pos < 0 ) {
-						// looks like a chem_comp file
-						// line should start with data, otherwise something is wrong!
-						if (! line.startsWith("data_")){
-							System.err.println("this does not look like a valid MMcif file! The first line should be data_1XYZ, but is " + line);
-							triggerDocumentEnd();
-							return;
-						}
-						// ignore the first line...
-						category=null;
-						lineData.clear();
-						continue;
-					}
-					category = key.substring(0,pos);
-					String value = data.get(1);
-					loopFields.add(key.substring(pos+1,key.length()));
-					lineData.add(value);
-
-
-				}
-			}
+		token = tokenizer.next();
+		while ( token != Token.END){
+			if ( token == Token.LOOP)
+				token = parseLoop(tokenizer);
+			else if ( token == Token.TAG)
+				token = parseItems(tokenizer);
+			else
+				// further data blocks, as in a chem_comp file, and stray values are ignored
+				token = tokenizer.next();
 		}
 
 		if (struct != null){
@@ -268,410 +197,184 @@ public class SimpleMMcifParser implements MMcifParser {
 
 	}
 
-	private List<String> processSingleLine(String line){
-		//System.out.println("SS processSingleLine " + line);
-		List<String> data = new ArrayList<String>();
-
-		if ( line.trim().length() == 1){
-			if ( line.startsWith(STRING_LIMIT))
-				return data;
-		}
-		boolean inString = false;
-		boolean inS1     = false;
-		boolean inS2     = false;
-		String word 	 = "";
-
-		//System.out.println(line);
-		for (int i=0; i< line.length(); i++ ){
-			//System.out.println(word);
-			Character c = line.charAt(i);
-
-			Character nextC = null;
-			if (i < line.length() - 1)
-				nextC = line.charAt(i+1);
-			if  (c == ' ') {
-
-				if ( ! inString){
-					if ( ! word.equals(""))
-						data.add(word);
-					word = "";
-				} else {
-					// we are in a string, add the space
-					word += c;
-				}
-
-			} else if (c == s1 )  {
-
-				if ( inString){
-
-					boolean wordEnd = false;
-					if (! inS2) {
-						if (nextC != null){
-							//System.out.println("nextC: >"+nextC+"<");
-							if ( Character.isWhitespace(nextC)){
-								i++;
-								wordEnd = true;
-							}
-						}
-					}
-
-
-					if ( wordEnd ) {
-
-						// at end of string
-						if ( ! word.equals(""))
-							data.add(word);
-						word     = "";
-						inString = false;
-						inS1     = false;
-					} else {
-						word += c;
-					}
-
-				} else {
-					// the beginning of a new string
-					inString = true;
-					inS1     = true;
-				}
-			} else if ( c == s2 ){
-				if ( inString){
-
-					boolean wordEnd = false;
-					if (! inS1) {
-						if (nextC != null){
-							//System.out.println("nextC: >"+nextC+"<");
-							if ( Character.isWhitespace(nextC)){
-								i++;
-								wordEnd = true;
-							}
-						}
-					}
-
-					if ( wordEnd ) {
-
-						// at end of string
-						if ( ! word.equals(""))
-							data.add(word);
-						word     = "";
-						inString = false;
-						inS2     = false;
-					} else {
-						word += c;
-					}
-				} else {
-					// the beginning of a new string
-					inString = true;
-					inS2     = true;
-				}
-			} else {
-				word += c;
-			}
-
-		}
-		if ( ! word.trim().equals(""))
-			data.add(word);
-
-		return data;
-
-	}
-
-	/** get the content of a cif entry
+	/** Reads the fields of a loop and then its rows, one object per row.
 	 *
-	 * @param line
-	 * @param buf
-	 * @return
+	 * @return the first token after the loop
 	 */
-	private List<String> processLine(String line,
-			BufferedReader buf,
-			int fieldLength)
-			throws IOException{
+	private Token parseLoop(MMcifTokenizer tokenizer) throws IOException {
 
-		//System.out.println("XX processLine " + fieldLength + " " + line);
-		// go through the line and process each character
-		List<String> lineData = new ArrayList<String>();
-
-		boolean inString = false;
-
-		String bigWord = null;
-
-		while ( true ){
-
-			if ( line.startsWith(STRING_LIMIT)){
-				if (! inString){
-
-					inString = true;
-					if ( line.length() > 1)
-						bigWord = line.substring(1);
-					else
-						bigWord = "";
-
-
-				} else {
-					// the end of a word
-					lineData.add(bigWord);
-					bigWord = null;
-					inString = false;
+		String category = null;
+		List<String> loopFields = new ArrayList<String>();
 
-				}
+		Token token = tokenizer.next();
+		while ( token == Token.TAG){
+			String tag = tokenizer.getString();
+			int pos = tag.indexOf('.');
+			if ( pos > -1){
+				category = tag.substring(0, pos);
+				loopFields.add(tag.substring(pos + 1));
 			} else {
-				if ( inString )
-					//TODO: make bigWord a stringbuffer...
-					bigWord += (line);
-				else {
-
-					List<String> dat = processSingleLine(line);
-
-					for (String d : dat){
-						lineData.add(d);
-					}
-				}
+				category = tag;
 			}
+			token = tokenizer.next();
+		}
 
-			//System.out.println("in process line : " + lineData.size() + " " + fieldLength);
+		CategoryColumns columns = null;
+		if ( category != null && loopFields.size() > 0)
+			columns = new CategoryColumns(category, loopFields);
 
-			if ( lineData.size() > fieldLength){
+		if ( columns == null || ! columns.isUsed()){
+			// nobody is interested, skip all rows
+			while ( token == Token.VALUE)
+				token = tokenizer.next();
+			return token;
+		}
 
-				System.err.println("wrong data length ("+lineData.size()+
-						") should be ("+fieldLength+") at line " + line + " got lineData: " + lineData);
-				return lineData;
+		String[] lineData = new String[loopFields.size()];
+		int field = 0;
+		while ( token == Token.VALUE){
+			if ( columns.read[field])
+				lineData[field] = tokenizer.getString();
+			field++;
+			if ( field == lineData.length){
+				columns.trigger(lineData);
+				field = 0;
 			}
-
-			if ( lineData.size() == fieldLength)
-				return lineData;
-
-
-			line = buf.readLine();
-			if ( line == null)
-				break;
+			token = tokenizer.next();
 		}
-		return lineData;
-
-	}
-
 
-	private void endLineChecks(String category,List<String> loopFields, List<String> lineData ) throws IOException{
-
-
-		/*System.out.println("parsed the following data: " +category + " fields: "+
-				loopFields + " DATA: " +
-				lineData);
-		if (category.equals("_struct")){
-			System.exit(0);
-		}*/
-		if ( loopFields.size() != lineData.size()){
+		if ( field != 0){
 			System.err.println("looks like we got a problem with nested string quote characters:");
-			throw new IOException("data length ("+ lineData.size() +
+			throw new IOException("data length ("+ field +
 					") != fields length ("+loopFields.size()+
 					") category: " +category + " fields: "+
-					loopFields + " DATA: " +
-					lineData );
+					loopFields );
 		}
+		return token;
+	}
 
-		if ( category.equals("_entity")){
-
-			Entity e =  (Entity) buildObject(
-					"org.biojava.bio.structure.io.mmcif.model.Entity",
-					loopFields,lineData);
-			triggerNewEntity(e);
-
-		} else if ( category.equals("_struct")){
-
-			struct =  (Struct) buildObject(
-					"org.biojava.bio.structure.io.mmcif.model.Struct",
-					loopFields, lineData);
-
-		} else if ( category.equals("_atom_site")){
-
-			AtomSite a = (AtomSite) buildObject(
-					"org.biojava.bio.structure.io.mmcif.model.AtomSite",
-					loopFields, lineData);
-			triggerNewAtomSite(a);
-
-		} else if ( category.equals("_database_PDB_rev")){
-			DatabasePDBrev dbrev = (DatabasePDBrev) buildObject(
-					"org.biojava.bio.structure.io.mmcif.model.DatabasePDBrev",
-					loopFields, lineData);
-
-			triggerNewDatabasePDBrev(dbrev);
-
-		} else if (  category.equals("_database_PDB_remark")){
-			DatabasePDBremark remark = (DatabasePDBremark) buildObject(
-					"org.biojava.bio.structure.io.mmcif.model.DatabasePDBremark",
-					loopFields, lineData);
-
-			triggerNewDatabasePDBremark(remark);
-
-		} else if ( category.equals("_exptl")){
-			Exptl exptl  = (Exptl) buildObject(
-					"org.biojava.bio.structure.io.mmcif.model.Exptl",
-					loopFields,lineData);
-
-			triggerExptl(exptl);
-
-		} else if ( category.equals("_struct_ref")){
-			StructRef sref  = (StructRef) buildObject(
-					"org.biojava.bio.structure.io.mmcif.model.StructRef",
-					loopFields,lineData);
-
-			triggerNewStrucRef(sref);
-
-		} else if ( category.equals("_struct_ref_seq")){
-			StructRefSeq sref  = (StructRefSeq) buildObject(
-					"org.biojava.bio.structure.io.mmcif.model.StructRefSeq",
-					loopFields,lineData);
-
-			triggerNewStrucRefSeq(sref);
-		} else if ( category.equals("_entity_poly_seq")){
-			EntityPolySeq exptl  = (EntityPolySeq) buildObject(
-					"org.biojava.bio.structure.io.mmcif.model.EntityPolySeq",
-					loopFields,lineData);
-
-			triggerNewEntityPolySeq(exptl);
-
-		} else if ( category.equals("_struct_asym")){
-			StructAsym sasym  = (StructAsym) buildObject(
-					"org.biojava.bio.structure.io.mmcif.model.StructAsym",
-					loopFields,lineData);
-
-			triggerNewStructAsym(sasym);
+	/** Reads the fields of a category that are given as pairs of name and value outside of a loop.
+	 *
+	 * @return the first token after the category
+	 */
+	private Token parseItems(MMcifTokenizer tokenizer) throws IOException {
 
-		} else if ( category.equals("_pdbx_poly_seq_scheme")){
-			PdbxPolySeqScheme ppss  = (PdbxPolySeqScheme) buildObject(
-					"org.biojava.bio.structure.io.mmcif.model.PdbxPolySeqScheme",
-					loopFields,lineData);
+		String category = null;
+		List<String> loopFields = new ArrayList<String>();
+		List<String> lineData   = new ArrayList<String>();
 
-			triggerNewPdbxPolySeqScheme(ppss);
+		Token token = tokenizer.getToken();
+		while ( token == Token.TAG){
+			String tag = tokenizer.getString();
+			int pos = tag.indexOf('.');
+			String tagCategory = (pos > -1) ? tag.substring(0, pos) : tag;
+			if ( category != null && ! category.equals(tagCategory))
+				break;
+			category = tagCategory;
 
-		} else if ( category.equals("_pdbx_nonpoly_scheme")){
-			PdbxNonPolyScheme ppss  = (PdbxNonPolyScheme) buildObject(
-					"org.biojava.bio.structure.io.mmcif.model.PdbxNonPolyScheme",
-					loopFields,lineData);
+			token = tokenizer.next();
+			if ( token != Token.VALUE){
+				System.err.println("did not find a value for " + tag);
+				continue;
+			}
+			if ( pos > -1){
+				String field = tag.substring(pos + 1);
+				if ( isColumnUsed(category, field)){
+					loopFields.add(field);
+					lineData.add(tokenizer.getString());
+				}
+			}
+			token = tokenizer.next();
+		}
 
-			triggerNewPdbxNonPolyScheme(ppss);
+		if ( loopFields.size() > 0){
+			CategoryColumns columns = new CategoryColumns(category, loopFields);
+			columns.trigger(lineData.toArray(new String[lineData.size()]));
+		}
+		return token;
+	}
 
-		} else if ( category.equals("_pdbx_entity_nonpoly")){
-			PdbxEntityNonPoly pen = (PdbxEntityNonPoly) buildObject(
-					"org.biojava.bio.structure.io.mmcif.model.PdbxEntityNonPoly",
-					loopFields,lineData
-			);
-			triggerNewPdbxEntityNonPoly(pen);
-		} else if ( category.equals("_struct_keywords")){
-			StructKeywords kw = (StructKeywords)buildObject(
-					"org.biojava.bio.structure.io.mmcif.model.StructKeywords",
-					loopFields,lineData
-			);
-			triggerNewStructKeywords(kw);
-		} else if (category.equals("_refine")){
-			Refine r = (Refine)buildObject(
-					"org.biojava.bio.structure.io.mmcif.model.Refine",
-					loopFields,lineData
-			);
-			triggerNewRefine(r);
-		} else if (category.equals("_chem_comp")){
-			ChemComp c = (ChemComp)buildObject(
-					"org.biojava.bio.structure.io.mmcif.model.ChemComp",
-					loopFields, lineData
-					);
-			triggerNewChemComp(c);
-		} else if (category.equals("_audit_author")) {
-		   AuditAuthor aa = (AuditAuthor)buildObject(
-		         "org.biojava.bio.structure.io.mmcif.model.AuditAuthor",
-		         loopFields, lineData);
-		      triggerNewAuditAuthor(aa);
-		} else {
+	private boolean isColumnUsed(String category, String field){
+		for (MMcifConsumer c : consumers){
+			if ( ! (c instanceof MMcifColumnFilter) || ((MMcifColumnFilter) c).isColumnUsed(category, field))
+				return true;
+		}
+		return false;
+	}
 
-			// trigger a generic bean that can deal with all missing data types...
-			triggerGeneric(category,loopFields,lineData);
-		}
-
-
-	}
-
-	private void setPair(Object o, List<String> lineData){
-		Class c = o.getClass();
-
-		if (lineData.size() == 2){
-			String key = lineData.get(0);
-			String val = lineData.get(1);
-
-			int dotPos = key.indexOf('.');
-
-			if ( dotPos > -1){
-				key = key.substring(dotPos+1,key.length());
-			}
+	/** The fields of a category that are read and, for categories with their own model class,
+	 * the setter of each field, looked up once for all rows.
+	 */
+	private class CategoryColumns {
+
+		private final String category;
+		private final List<String> fields;
+		private final Class<?> beanClass;
+		private final Method[] setters;
+		private final boolean[] read;
+
+		CategoryColumns(String category, List<String> loopFields){
+			this.category = category;
+			beanClass = BEAN_CLASSES.get(category);
+			setters = new Method[loopFields.size()];
+			read = new boolean[loopFields.size()];
+			fields = new ArrayList<String>();
+
+			int pos = -1;
+			for (String key : loopFields){
+				pos++;
+				if ( ! isColumnUsed(category, key))
+					continue;
 
-			String u = key.substring(0,1).toUpperCase();
-			try {
-				Method m = c.getMethod("set" + u + key.substring(1,key.length()) , String.class);
-				m.invoke(o,val);
-			}
-			catch (InvocationTargetException iex){
-				iex.printStackTrace();
-			}
-			catch (IllegalAccessException aex){
-				aex.printStackTrace();
-			}
-			catch( NoSuchMethodException nex){
-				if ( val.equals("?") || val.equals(".")) {
-					logger.info("trying to set field >" + key + "< in >"+ c.getName() + "<, but not found. Since value is >"+val+"<  most probably just ignore this.");
+				if ( beanClass == null){
+					fields.add(key);
+					read[pos] = true;
+				} else if ( key.indexOf('[') > -1){
+					// TODO: setting of arrays not implemented yet!
 				} else {
-					logger.warning("trying to set field >" + key + "< in >"+ c.getName() + "<, but not found! (value:" + val + ")");
+					String u = key.substring(0,1).toUpperCase();
+					try {
+						setters[pos] = beanClass.getMethod("set" + u + key.substring(1,key.length()) , String.class);
+						read[pos] = true;
+					} catch ( NoSuchMethodException nex){
+						System.err.println("Trying to set field " + key + " in "+ beanClass.getName() +", but not found!");
+					}
 				}
 			}
-		} else {
-			System.err.println("trying to set key/value pair on object " +o.getClass().getName() + " but did not find in " + lineData);
 		}
-	}
-
-	private void setArray(Class c, Object o, String key, String val){
 
-
-		// TODO: not implemented yet!
-			//logger.info("Setting of array not implemented at the present for " + key + " " + val);
-		/*
-		int pos = key.indexOf("[");
-		String varName = key.substring(0,pos);
-		String u = varName.substring(0,1).toUpperCase();
-		try {
-			Method m = c.getMethod("set" + u + varName.substring(1,varName.length()) , String.class);
-			m.invoke(o,val);
-		} catch (Exception e){
-			e.printStackTrace();
+		boolean isUsed(){
+			for (boolean r : read){
+				if ( r)
+					return true;
+			}
+			return false;
 		}
-		 */
 
+		void trigger(String[] lineData){
+			if ( beanClass == null){
+				// trigger a generic bean that can deal with all missing data types...
+				List<String> data = new ArrayList<String>(fields.size());
+				for (int i = 0; i < read.length; i++){
+					if ( read[i])
+						data.add(lineData[i]);
+				}
+				triggerGeneric(category, fields, data);
+			} else {
+				Object o = buildObject(beanClass, setters, lineData);
+				if ( o != null)
+					triggerObject(o);
+			}
+		}
 	}
 
-	private Object buildObject(String className, List<String> loopFields, List<String> lineData) {
+	private Object buildObject(Class<?> c, Method[] setters, String[] lineData) {
 		Object o = null;
 		try {
-			// build up the Entity object from the line data...
-			Class c = Class.forName(className);
-
 			o = c.newInstance();
-
-
-			int pos = -1 ;
-			for (String key: loopFields){
-				pos++;
-
-				String val = lineData.get(pos);
-				//System.out.println(key + " " + val);
-				String u = key.substring(0,1).toUpperCase();
-
-				try {
-					Method m = c.getMethod("set" + u + key.substring(1,key.length()) , String.class);
-					m.invoke(o,val);
-				}
-				catch( NoSuchMethodException nex){
-
-					if (key.indexOf("[") > -1) {
-						setArray(c,o,key,val);
-
-					} else {
-						System.err.println("Trying to set field " + key + " in "+ c.getName() +", but not found! (value:" + val + ")");
-					}
-				}
+			for (int i = 0; i < setters.length; i++){
+				if ( setters[i] != null)
+					setters[i].invoke(o, lineData[i]);
 			}
 		} catch (InstantiationException eix){
 			eix.printStackTrace();
@@ -679,12 +382,50 @@ public class SimpleMMcifParser implements MMcifParser {
 			etx.printStackTrace();
 		} catch (IllegalAccessException eax){
 			eax.printStackTrace();
-		} catch (ClassNotFoundException ex){
-			ex.printStackTrace();
 		}
 		return o;
 	}
 
+	private void triggerObject(Object o){
+
+		if ( o instanceof AtomSite){
+			triggerNewAtomSite((AtomSite) o);
+		} else if ( o instanceof Struct){
+			struct = (Struct) o;
+		} else if ( o instanceof Entity){
+			triggerNewEntity((Entity) o);
+		} else if ( o instanceof DatabasePDBrev){
+			triggerNewDatabasePDBrev((DatabasePDBrev) o);
+		} else if ( o instanceof DatabasePDBremark){
+			triggerNewDatabasePDBremark((DatabasePDBremark) o);
+		} else if ( o instanceof Exptl){
+			triggerExptl((Exptl) o);
+		} else if ( o instanceof StructRef){
+			triggerNewStrucRef((StructRef) o);
+		} else if ( o instanceof StructRefSeq){
+			triggerNewStrucRefSeq((StructRefSeq) o);
+		} else if ( o instanceof EntityPolySeq){
+			triggerNewEntityPolySeq((EntityPolySeq) o);
+		} else if ( o instanceof StructAsym){
+			triggerNewStructAsym((StructAsym) o);
+		} else if ( o instanceof PdbxPolySeqScheme){
+			triggerNewPdbxPolySeqScheme((PdbxPolySeqScheme) o);
+		} else if ( o instanceof PdbxNonPolyScheme){
+			triggerNewPdbxNonPolyScheme((PdbxNonPolyScheme) o);
+		} else if ( o instanceof PdbxEntityNonPoly){
+			triggerNewPdbxEntityNonPoly((PdbxEntityNonPoly) o);
+		} else if ( o instanceof StructKeywords){
+			triggerNewStructKeywords((StructKeywords) o);
+		} else if ( o instanceof Refine){
+			triggerNewRefine((Refine) o);
+		} else if ( o instanceof ChemComp){
+			triggerNewChemComp((ChemComp) o);
+		} else if ( o instanceof AuditAuthor){
+			triggerNewAuditAuthor((AuditAuthor) o);
+		}
+	}
+
+
 	public void triggerGeneric(String category, List<String> loopFields, List<String> lineData){
 		for(MMcifConsumer c : consumers){
 			c.newGenericData(category,loopFields, lineData);
@@ -0,0 +1,184 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ * created at Oct 18, 2010
+ */
+package org.biojava.bio.structure;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.biojava.bio.structure.io.mmcif.MMcifTokenizer;
+import org.biojava.bio.structure.io.mmcif.MMcifTokenizer.Token;
+import org.biojava.bio.structure.io.mmcif.SimpleMMcifConsumer;
+import org.biojava.bio.structure.io.mmcif.SimpleMMcifParser;
+import org.biojava.bio.structure.io.mmcif.model.AtomSite;
+import org.biojava.bio.structure.io.mmcif.model.Entity;
+
+public class MMcifTokenizerTest extends TestCase {
+
+	private static final String CIF =
+		"data_1XYZ\n" +
+		"# a comment\n" +
+		"_struct.entry_id   1XYZ \n" +
+		"_struct.title      \"A 'quoted' title with O5' inside\"\n" +
+		"_struct.pdbx_descriptor \n" +
+		";first line\n" +
+		"second line\n" +
+		";\n" +
+		"loop_\n" +
+		"_atom_site.id\n" +
+		"_atom_site.Cartn_x\n" +
+		"_atom_site.occupancy\n" +
+		"1 -12.345 ? \n" +
+		"2 0.5(3) \".\" #\n" +
+		"LOOP_ data_X\n";
+
+	public void testTokens() throws IOException {
+		assertEquals(getTokens(new StringReader(CIF)), getTokens(new OneCharReader(CIF)));
+
+		List<String> tokens = getTokens(new StringReader(CIF));
+		assertEquals("DATA data_1XYZ", tokens.get(0));
+		assertEquals("TAG _struct.entry_id", tokens.get(1));
+		assertEquals("VALUE 1XYZ", tokens.get(2));
+		assertEquals("VALUE A 'quoted' title with O5' inside", tokens.get(4));
+		assertEquals("VALUE first linesecond line", tokens.get(6));
+		assertEquals("LOOP loop_", tokens.get(7));
+		assertEquals("VALUE -12.345", tokens.get(12));
+		assertEquals("VALUE .", tokens.get(16));
+		assertEquals("LOOP LOOP_", tokens.get(17));
+		assertEquals("DATA data_X", tokens.get(18));
+		assertEquals(19, tokens.size());
+	}
+
+	public void testNumbers() throws IOException {
+		MMcifTokenizer tokenizer = new MMcifTokenizer(new StringReader("-12.345 0.5(3) 1.5e2 -0.000 42 -7(1) ? '?' ."));
+		tokenizer.next();
+		assertEquals(-12.345, tokenizer.getDouble());
+		tokenizer.next();
+		assertEquals(0.5, tokenizer.getDouble());
+		tokenizer.next();
+		assertEquals(150.0, tokenizer.getDouble());
+		tokenizer.next();
+		assertEquals(Double.parseDouble("-0.000"), tokenizer.getDouble());
+		tokenizer.next();
+		assertEquals(42, tokenizer.getInt());
+		assertEquals(42.0, tokenizer.getDouble());
+		tokenizer.next();
+		assertEquals(-7, tokenizer.getInt());
+		tokenizer.next();
+		assertTrue(tokenizer.isUnknown());
+		try {
+			tokenizer.getDouble();
+			fail("? is not a number");
+		} catch (NumberFormatException e) {
+			// expected
+		}
+		tokenizer.next();
+		assertFalse(tokenizer.isUnknown());
+		tokenizer.next();
+		assertTrue(tokenizer.isUnknown());
+		assertEquals(Token.END, tokenizer.next());
+	}
+
+	public void testLongTextField() throws IOException {
+		StringBuilder text = new StringBuilder();
+		while (text.length() < 200000)
+			text.append("some text ");
+		MMcifTokenizer tokenizer = new MMcifTokenizer(new StringReader("_a.b\n;" + text + "\n;\n_a.c 1\n"));
+		assertEquals(Token.TAG, tokenizer.next());
+		assertEquals(Token.VALUE, tokenizer.next());
+		assertEquals(text.toString(), tokenizer.getString());
+		assertEquals(Token.TAG, tokenizer.next());
+		assertEquals("_a.c", tokenizer.getString());
+	}
+
+	public void testColumnFilter() throws IOException {
+		InputStream inStream = this.getClass().getResourceAsStream("/5pti.cif");
+		assertNotNull(inStream);
+
+		final List<AtomSite> atoms = new ArrayList<AtomSite>();
+		final List<Entity> entities = new ArrayList<Entity>();
+		SimpleMMcifConsumer consumer = new SimpleMMcifConsumer() {
+			public boolean isColumnUsed(String category, String column) {
+				return category.equals("_atom_site") && (column.equals("Cartn_x") || column.equals("label_atom_id"));
+			}
+			public void newAtomSite(AtomSite atom) {
+				atoms.add(atom);
+			}
+			public void newEntity(Entity entity) {
+				entities.add(entity);
+			}
+		};
+		SimpleMMcifParser parser = new SimpleMMcifParser();
+		parser.addMMcifConsumer(consumer);
+		parser.parse(inStream);
+
+		assertEquals(0, entities.size());
+		assertTrue(atoms.size() > 400);
+		AtomSite first = atoms.get(0);
+		assertEquals("N", first.getLabel_atom_id());
+		assertNotNull(first.getCartn_x());
+		assertNull(first.getCartn_y());
+		assertNull(first.getLabel_comp_id());
+	}
+
+	public void testSubclassReceivesAllColumns() throws IOException {
+		InputStream inStream = this.getClass().getResourceAsStream("/5pti.cif");
+		assertNotNull(inStream);
+
+		final List<String> categories = new ArrayList<String>();
+		SimpleMMcifConsumer consumer = new SimpleMMcifConsumer() {
+			public void newGenericData(String category, List<String> loopFields, List<String> lineData) {
+				categories.add(category);
+			}
+		};
+		SimpleMMcifParser parser = new SimpleMMcifParser();
+		parser.addMMcifConsumer(consumer);
+		parser.parse(inStream);
+
+		// a category the base class does not read still reaches the subclass
+		assertTrue(categories.contains("_citation"));
+	}
+
+	private List<String> getTokens(Reader reader) throws IOException {
+		List<String> tokens = new ArrayList<String>();
+		MMcifTokenizer tokenizer = new MMcifTokenizer(reader);
+		for (Token t = tokenizer.next(); t != Token.END; t = tokenizer.next())
+			tokens.add(t + " " + tokenizer.getString());
+		return tokens;
+	}
+
+	// hands out one character at a time, so every token crosses the end of the buffer
+	private static class OneCharReader extends StringReader {
+		OneCharReader(String s) {
+			super(s);
+		}
+		public int read(char[] cbuf, int off, int len) throws IOException {
+			return super.read(cbuf, off, Math.min(len, 1));
+		}
+	}
+
+}
@@ -29,6 +29,7 @@ import java.io.InputStream;
 import java.io.StringReader;
 import java.util.Map;
 
+import org.biojava.bio.structure.io.FileParsingParameters;
 import org.biojava.bio.structure.io.PDBFileParser;
 
 import junit.framework.TestCase;
@@ -127,6 +128,52 @@ public class PDBFileParserTest extends TestCase {
 
 	}
 
+	public void testAtomColumns() throws Exception {
+
+		// columns of an old file without elements, a negative zero, a four letter name, an insertion code
+		// and a calcium which is no CA
+		String t =
+			"ATOM      1  N   TYR     1       1.030  14.870   9.561  0.00  9.47      1TAP 138"+newline+
+			"ATOM      2 HG23 VAL A  -1A     -0.000 -14.122 130.560  1.00123.48           H  "+newline+
+			"ATOM      3 HG23 VAL A  -1A     -1.5    -1e1     12        1.0"+newline+
+			"HETATM    4 CA    CA A 501       5.845 -14.122  30.560  0.88 23.48          CA  "+newline;
+		FileParsingParameters params = new FileParsingParameters();
+		params.setStoreAtomLines(true);
+		parser.setFileParsingParameters(params);
+		Structure s = parser.parsePDBFile(new BufferedReader(new StringReader(t)));
+
+		Atom n = s.getChain(0).getAtomGroup(0).getAtom(0);
+		// the element columns of the old file hold a sequence number
+		assertEquals(Element.R, n.getElement());
+		assertEquals(9.561, n.getZ());
+		assertEquals(0.0, n.getOccupancy());
+
+		Group val = s.getChainByPDB("A").getAtomGroup(0);
+		assertEquals(new ResidueNumber("A", -1, 'A'), val.getResidueNumber());
+		Atom h1 = val.getAtom(0), h2 = val.getAtom(1);
+		assertEquals(Double.valueOf(-0.0), Double.valueOf(h1.getX()));
+		assertEquals(130.56, h1.getZ());
+		assertEquals(123.48, h1.getTempFactor());
+		assertEquals(Element.H, h1.getElement());
+		assertEquals("HG23", h1.getName());
+		assertSame(h1.getName(), h2.getName());
+		assertEquals(-1.5, h2.getX());
+		assertEquals(-10.0, h2.getY());
+		assertEquals(12.0, h2.getZ());
+		assertEquals(1.0, h2.getOccupancy());
+		assertEquals(0.0, h2.getTempFactor());
+		assertTrue(h2.getPDBline().startsWith("ATOM      3"));
+
+		Atom ca = s.getChainByPDB("A").getAtomGroup(1).getAtom(0);
+		assertEquals(Element.Ca, ca.getElement());
+		assertEquals("CA  ", ca.getFullName());
+
+		params.setStoreAtomLines(false);
+		params.setParseCAOnly(true);
+		s = parser.parsePDBFile(new BufferedReader(new StringReader(t)));
+		assertEquals(0, StructureTools.getNrAtoms(s));
+	}
+
 	public void testPDBHeader(){
 
 		String t =
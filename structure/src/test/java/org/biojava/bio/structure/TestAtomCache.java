@@ -24,7 +24,21 @@
 
 package org.biojava.bio.structure;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import org.biojava.bio.structure.align.util.AtomCache;
+import org.biojava.bio.structure.io.BinaryStructureWriter;
+import org.biojava.bio.structure.io.FileParsingParameters;
+import org.biojava3.core.util.BoundedCache;
 
 import junit.framework.TestCase;
 
@@ -87,4 +101,130 @@ public class TestAtomCache extends TestCase
       }
 
    }
+
+   public void testConcurrentLoading() throws Exception {
+
+      // a local copy of 1a4w, so no file is fetched
+      File dir = createTempDir();
+      File file = copy1a4w(dir);
+
+      final AtomCache cache = new AtomCache(dir.getPath(), false);
+      cache.setAutoFetch(false);
+      FileParsingParameters params = new FileParsingParameters();
+      params.setLoadChemCompInfo(false);
+      cache.setFileParsingParams(params);
+
+      ExecutorService executor = Executors.newFixedThreadPool(4);
+      List<Future<Structure>> futures = new ArrayList<Future<Structure>>();
+      for (int i = 0; i < 8; i++) {
+         futures.add(executor.submit(new Callable<Structure>() {
+            public Structure call() throws Exception {
+               return cache.getStructure("1a4w");
+            }
+         }));
+      }
+      List<Structure> structures = new ArrayList<Structure>();
+      for (Future<Structure> f : futures) {
+         structures.add(f.get());
+      }
+      executor.shutdown();
+
+      // parsed once, each request gets its own copy
+      assertEquals(cache.getLoadCount(), 1);
+      assertEquals(cache.getStructureCache().getHitCount() + cache.getStructureCache().getMissCount(), 8);
+      assertNotSame(structures.get(0), structures.get(1));
+      assertEquals(StructureTools.getNrAtoms(structures.get(0)), StructureTools.getNrAtoms(structures.get(7)));
+      assertEquals(cache.getStructureCache().getWeight(),
+            StructureTools.getNrAtoms(cache.getStructureCache().get("1a4w")));
+
+      // other names of the same entry are cut out of the cached entry, which is left whole
+      assertEquals(cache.getStructure("1a4w.H").getChains().size(), 1);
+      assertEquals(cache.getStructure("1a4w:0").getChains().size(), 1);
+      assertEquals(cache.getLoadCount(), 1);
+      assertEquals(cache.getStructure("1a4w").getChains().size(), structures.get(0).getChains().size());
+
+      // the eviction listener is kept when the cache is replaced
+      BoundedCache.EvictionListener<String, Structure> listener = new BoundedCache.EvictionListener<String, Structure>() {
+         public void evicted(String key, Structure value) {
+         }
+      };
+      cache.getStructureCache().setEvictionListener(listener);
+      cache.setMaxCachedAtoms(1);
+      assertSame(cache.getStructureCache().getEvictionListener(), listener);
+
+      // without room in the cache every request parses the file
+      cache.setMaxCachedAtoms(0);
+      cache.getStructure("1a4w");
+      cache.getStructure("1a4w");
+      assertEquals(cache.getLoadCount(), 3);
+      assertEquals(cache.getStructureCache().size(), 0);
+
+      // after a flush the entry is parsed again
+      cache.setMaxCachedAtoms(AtomCache.DEFAULT_MAX_CACHED_ATOMS);
+      cache.getStructure("1a4w");
+      cache.flushCache();
+      assertEquals(cache.getStructureCache().size(), 0);
+      cache.getStructure("1a4w.L");
+      assertEquals(cache.getLoadCount(), 5);
+
+      file.delete();
+      dir.delete();
+   }
+
+   public void testBinaryCache() throws Exception {
+
+      File dir = createTempDir();
+      File file = copy1a4w(dir);
+      File binaryDir = createTempDir();
+
+      AtomCache cache = new AtomCache(dir.getPath(), false);
+      cache.setAutoFetch(false);
+      cache.setBinaryCachePath(binaryDir.getPath());
+      FileParsingParameters params = new FileParsingParameters();
+      params.setLoadChemCompInfo(false);
+      cache.setFileParsingParams(params);
+
+      Structure s = cache.getStructure("1a4w");
+      File binary = new File(binaryDir, "1a4w" + BinaryStructureWriter.EXTENSION);
+      assertTrue(binary.exists());
+
+      // read back from the binary copy alone
+      file.delete();
+      cache.flushCache();
+      assertEquals(StructureTools.getNrAtoms(cache.getStructure("1a4w")), StructureTools.getNrAtoms(s));
+
+      // the binary copy has no secondary structure, so it is neither read nor written
+      binary.delete();
+      file = copy1a4w(dir);
+      params = new FileParsingParameters();
+      params.setLoadChemCompInfo(false);
+      params.setParseSecStruc(true);
+      cache.setFileParsingParams(params);
+      cache.getStructure("1a4w");
+      assertEquals(binaryDir.list().length, 0);
+
+      file.delete();
+      dir.delete();
+      binaryDir.delete();
+   }
+
+   private static File createTempDir() throws Exception {
+      File dir = File.createTempFile("atomcache", "");
+      dir.delete();
+      dir.mkdir();
+      return dir;
+   }
+
+   private File copy1a4w(File dir) throws Exception {
+      File file = new File(dir, "1a4w.pdb");
+      InputStream in = this.getClass().getResourceAsStream("/1a4w.pdb");
+      OutputStream out = new FileOutputStream(file);
+      byte[] buffer = new byte[8192];
+      for (int n = in.read(buffer); n > 0; n = in.read(buffer)) {
+         out.write(buffer, 0, n);
+      }
+      in.close();
+      out.close();
+      return file;
+   }
 }
@@ -0,0 +1,204 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ * Created on Oct 18, 2010
+ *
+ */
+
+package org.biojava.bio.structure;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.biojava.bio.structure.align.util.AtomCache;
+import org.biojava.bio.structure.io.BinaryStructureReader;
+import org.biojava.bio.structure.io.BinaryStructureWriter;
+import org.biojava.bio.structure.io.FileParsingParameters;
+import org.biojava.bio.structure.io.PDBFileParser;
+
+public class TestBinaryStructure extends TestCase {
+
+	public void testRoundTrip() throws Exception {
+		// alternate locations, NMR models and nucleotides
+		for (String name : new String[] { "3dl7_v32", "2kc9", "104D_v30", "1a4w" }) {
+			Structure s = parse(name);
+			Structure b = read(write(s), new FileParsingParameters());
+
+			assertEquals(s.getPDBCode(), b.getPDBCode());
+			assertEquals(s.isNmr(), b.isNmr());
+			assertEquals(s.getPDBHeader().getTitle(), b.getPDBHeader().getTitle());
+			assertEquals(s.getPDBHeader().getResolution(), b.getPDBHeader().getResolution());
+			assertEquals(s.getPDBHeader().getDepDate(), b.getPDBHeader().getDepDate());
+			assertEquals(s.getPDBHeader().getIdCode(), b.getPDBHeader().getIdCode());
+			assertEquals(s.getPDBHeader().getTechnique(), b.getPDBHeader().getTechnique());
+			assertEquals(s.nrModels(), b.nrModels());
+			for (int m = 0; m < s.nrModels(); m++) {
+				List<Chain> expected = s.getModel(m), actual = b.getModel(m);
+				assertEquals(expected.size(), actual.size());
+				for (int c = 0; c < expected.size(); c++) {
+					assertEquals(expected.get(c).getChainID(), actual.get(c).getChainID());
+					assertEquals(expected.get(c).getAtomSequence(), actual.get(c).getAtomSequence());
+					assertGroups(expected.get(c).getAtomGroups(), actual.get(c).getAtomGroups());
+				}
+			}
+		}
+	}
+
+	public void testCAOnly() throws Exception {
+		Structure s = parse("3dl7_v32");
+		FileParsingParameters params = new FileParsingParameters();
+		params.setParseCAOnly(true);
+		Structure b = read(write(s), params);
+
+		Atom[] expected = StructureTools.getAtomCAArray(s), actual = StructureTools.getAtomCAArray(b);
+		assertEquals(expected.length, actual.length);
+		for (int i = 0; i < expected.length; i++) {
+			assertAtom(expected[i], actual[i]);
+			assertEquals(expected[i].getGroup().getResidueNumber(), actual[i].getGroup().getResidueNumber());
+		}
+		for (Chain c : b.getChains()) {
+			for (Group g : c.getAtomGroups()) {
+				for (Atom a : g.getAtoms()) {
+					assertEquals(" CA ", a.getFullName());
+				}
+			}
+		}
+	}
+
+	public void testHeaderOnly() throws Exception {
+		Structure s = parse("1a4w");
+		FileParsingParameters params = new FileParsingParameters();
+		params.setHeaderOnly(true);
+		Structure b = read(write(s), params);
+
+		assertEquals(s.getChains().size(), b.getChains().size());
+		assertEquals(0, StructureTools.getNrAtoms(b));
+	}
+
+	public void testNullAtomName() throws Exception {
+		Structure s = parse("1a4w");
+		Atom atom = s.getChain(0).getAtomGroups().get(0).getAtoms().get(0);
+		atom.setFullName(null);
+		atom.setName(null);
+		Structure b = read(write(s), new FileParsingParameters());
+
+		Atom actual = b.getChain(0).getAtomGroups().get(0).getAtoms().get(0);
+		assertNull(actual.getFullName());
+		assertNull(actual.getName());
+	}
+
+	public void testTruncated() throws Exception {
+		byte[] b = write(parse("1a4w"));
+		// cut the file inside the section of C-alpha atoms, which is skipped when reading all atoms
+		int headerLength = ByteBuffer.wrap(b).getInt(8);
+		try {
+			read(Arrays.copyOf(b, 16 + headerLength + 1), new FileParsingParameters());
+			fail("truncated file was read");
+		} catch (IOException e) {
+			// expected
+		}
+	}
+
+	public void testAtomCache() throws Exception {
+		File dir = File.createTempFile("binarycache", "");
+		dir.delete();
+		dir.mkdir();
+		File pdb = new File(dir, "1a4w.pdb");
+		File binary = new File(dir, "1a4w" + BinaryStructureWriter.EXTENSION);
+
+		new BinaryStructureWriter().write(parse("1a4w"), pdb);
+		// the binary copy is read instead of the pdb file, which is not valid
+		assertTrue(pdb.renameTo(binary));
+		pdb.createNewFile();
+
+		AtomCache cache = new AtomCache(dir.getPath(), false);
+		cache.setAutoFetch(false);
+		cache.setBinaryCachePath(dir.getPath());
+		assertEquals(StructureTools.getNrAtoms(parse("1a4w")), StructureTools.getNrAtoms(cache.getStructure("1a4w")));
+
+		pdb.delete();
+		binary.delete();
+		dir.delete();
+	}
+
+	// helper methods
+
+	private Structure parse(String name) throws Exception {
+		InputStream in = this.getClass().getResourceAsStream("/" + name + ".pdb");
+		assertNotNull(in);
+		PDBFileParser parser = new PDBFileParser();
+		FileParsingParameters params = new FileParsingParameters();
+		params.setAlignSeqRes(false);
+		parser.setFileParsingParameters(params);
+		return parser.parsePDBFile(in);
+	}
+
+	private byte[] write(Structure s) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new BinaryStructureWriter().write(s, out);
+		return out.toByteArray();
+	}
+
+	private Structure read(byte[] b, FileParsingParameters params) throws Exception {
+		BinaryStructureReader reader = new BinaryStructureReader();
+		reader.setFileParsingParameters(params);
+		return reader.getStructure(new ByteArrayInputStream(b));
+	}
+
+	private void assertGroups(List<Group> expected, List<Group> actual) {
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			Group e = expected.get(i), a = actual.get(i);
+			assertEquals(e.getClass(), a.getClass());
+			assertEquals(e.getPDBName(), a.getPDBName());
+			assertEquals(e.getResidueNumber(), a.getResidueNumber());
+			assertEquals(e.getResidueNumber().getInsCode(), a.getResidueNumber().getInsCode());
+			assertEquals(e.size(), a.size());
+			for (int j = 0; j < e.size(); j++) {
+				assertAtom(e.getAtoms().get(j), a.getAtoms().get(j));
+			}
+			assertEquals(e.hasAltLoc(), a.hasAltLoc());
+			if ( e.hasAltLoc())
+				assertGroups(e.getAltLocs(), a.getAltLocs());
+		}
+	}
+
+	// coordinates are exact, except for the sign of zero
+	private void assertAtom(Atom expected, Atom actual) {
+		assertEquals(expected.getFullName(), actual.getFullName());
+		assertEquals(expected.getName(), actual.getName());
+		assertEquals(expected.getPDBserial(), actual.getPDBserial());
+		assertEquals(expected.getAltLoc(), actual.getAltLoc());
+		assertEquals(expected.getElement(), actual.getElement());
+		assertEquals(expected.getX(), actual.getX(), 0.0);
+		assertEquals(expected.getY(), actual.getY(), 0.0);
+		assertEquals(expected.getZ(), actual.getZ(), 0.0);
+		assertEquals(expected.getOccupancy(), actual.getOccupancy(), 0.0);
+		assertEquals(expected.getTempFactor(), actual.getTempFactor(), 0.0);
+	}
+
+}
@@ -0,0 +1,137 @@
+/*
+ *                    BioJava development code
+ *
+ * This code may be freely distributed and modified under the
+ * terms of the GNU Lesser General Public Licence.  This should
+ * be distributed with the code.  If you do not have a copy,
+ * see:
+ *
+ *      http://www.gnu.org/copyleft/lesser.html
+ *
+ * Copyright for this code is held jointly by the individual
+ * authors.  These should be listed in @author doc comments.
+ *
+ * For more information on the BioJava project and its aims,
+ * or to join the biojava-l mailing list, visit the home page
+ * at:
+ *
+ *      http://www.biojava.org/
+ *
+ * Created on Oct 18, 2010
+ *
+ */
+
+package org.biojava.bio.structure;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
+
+import junit.framework.TestCase;
+
+import org.biojava.bio.structure.io.BulkStructureLoader;
+import org.biojava.bio.structure.io.PDBFileParser;
+
+public class TestBulkStructureLoader extends TestCase {
+
+	private static final String[] PDB_IDS = { "1a4w", "1j59", "2gox", "3cdl", "5pti" };
+
+	public void testFlatDirectory() throws Exception {
+		File dir = createDirectory(false);
+		try {
+			BulkStructureLoader loader = new BulkStructureLoader(dir.getPath());
+			assertEquals(Arrays.asList(PDB_IDS), loader.getPdbIds());
+			assertLoaded(loader, 3);
+		} finally {
+			delete(dir);
+		}
+	}
+
+	public void testSplitDirectory() throws Exception {
+		File dir = createDirectory(true);
+		try {
+			BulkStructureLoader loader = new BulkStructureLoader(dir.getPath());
+			loader.setPdbDirectorySplit(true);
+			assertEquals(Arrays.asList(PDB_IDS), loader.getPdbIds());
+			assertLoaded(loader, 1);
+		} finally {
+			delete(dir);
+		}
+	}
+
+	// helper methods
+
+	// loads each file and a missing one, with only a little room in the queue
+	private void assertLoaded(BulkStructureLoader loader, int threads) throws Exception {
+		loader.setParserThreads(threads);
+		loader.setReaderThreads(2);
+		loader.setQueueSize(1);
+
+		final Map<String, Integer> atoms = new ConcurrentHashMap<String, Integer>();
+		final Map<String, Exception> errors = new ConcurrentHashMap<String, Exception>();
+		List<String> pdbIds = loader.getPdbIds();
+		pdbIds.add(2, "9xyz");
+		loader.load(pdbIds, new BulkStructureLoader.StructureHandler() {
+			public void structureLoaded(String pdbId, Structure s) {
+				atoms.put(pdbId, StructureTools.getNrAtoms(s));
+			}
+			public void loadFailed(String pdbId, Exception e) {
+				errors.put(pdbId, e);
+			}
+		});
+
+		assertEquals(PDB_IDS.length, atoms.size());
+		for (String pdbId : PDB_IDS) {
+			PDBFileParser parser = new PDBFileParser();
+			Structure s = parser.parsePDBFile(this.getClass().getResourceAsStream("/" + pdbId + ".pdb"));
+			assertEquals(Integer.valueOf(StructureTools.getNrAtoms(s)), atoms.get(pdbId));
+		}
+		assertEquals(1, errors.size());
+		assertTrue(errors.containsKey("9xyz"));
+	}
+
+	// copies the test files in the flat layout or gzipped in the split layout
+	private File createDirectory(boolean split) throws Exception {
+		File dir = File.createTempFile("bulkloader", "");
+		dir.delete();
+		dir.mkdir();
+		for (String pdbId : PDB_IDS) {
+			File file;
+			if ( split) {
+				File middle = new File(dir, pdbId.substring(1, 3));
+				middle.mkdir();
+				file = new File(middle, "pdb" + pdbId + ".ent.gz");
+			} else {
+				file = new File(dir, pdbId + ".pdb");
+			}
+			InputStream in = this.getClass().getResourceAsStream("/" + pdbId + ".pdb");
+			OutputStream out = new FileOutputStream(file);
+			if ( split)
+				out = new GZIPOutputStream(out);
+			byte[] buffer = new byte[8192];
+			for (int n = in.read(buffer); n > 0; n = in.read(buffer)) {
+				out.write(buffer, 0, n);
+			}
+			in.close();
+			out.close();
+		}
+		return dir;
+	}
+
+	private void delete(File f) {
+		File[] files = f.listFiles();
+		if ( files != null) {
+			for (File c : files) {
+				delete(c);
+			}
+		}
+		f.delete();
+	}
+
+}